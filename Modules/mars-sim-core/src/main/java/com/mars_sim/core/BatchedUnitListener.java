@@ -0,0 +1,26 @@
+/*
+ * Mars Simulation Project
+ * BatchedUnitListener.java
+ * @date 2024-07-01
+ * @author Barry Evans
+ */
+package com.mars_sim.core;
+
+/**
+ * A UnitListener that only displays the state of a Unit, e.g. a table in the UI.
+ * While the {@link UnitEventDispatcher} is running its events are merged and delivered
+ * in batches on the dispatcher thread instead of by the simulation thread firing them.
+ * Listeners that the simulation depends on must not implement this.
+ */
+public interface BatchedUnitListener extends UnitListener {
+
+	/**
+	 * Gets the most events this listener takes from one batch. Any more are held
+	 * and delivered with the next batch.
+	 *
+	 * @return Unlimited by default
+	 */
+	public default int getMaxEventsPerBatch() {
+		return Integer.MAX_VALUE;
+	}
+}
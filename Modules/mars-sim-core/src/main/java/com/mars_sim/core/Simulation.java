@@ -8,12 +8,16 @@ package com.mars_sim.core;
 
 import java.io.File;
 import java.io.FileInputStream;
-import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.InvalidObjectException;
 import java.io.ObjectInputStream;
 import java.io.ObjectOutputStream;
 import java.io.ObjectStreamException;
 import java.io.Serializable;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
 import java.nio.file.FileSystem;
 import java.nio.file.FileSystems;
 import java.nio.file.Files;
@@ -23,11 +27,16 @@ import java.text.DateFormat;
 import java.util.Arrays;
 import java.util.Date;
 import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import java.util.zip.GZIPInputStream;
-import java.util.zip.GZIPOutputStream;
+
+import org.apache.commons.io.FileUtils;
 
 import com.mars_sim.core.air.AirComposition;
 import com.mars_sim.core.authority.AuthorityFactory;
@@ -54,6 +63,14 @@ import com.mars_sim.core.moon.LunarWorld;
 import com.mars_sim.core.moon.Moon;
 import com.mars_sim.core.person.PersonConfig;
 import com.mars_sim.core.person.PhysicalCondition;
+import com.mars_sim.core.persist.JournalOutputStream;
+import com.mars_sim.core.persist.SaveCodec;
+import com.mars_sim.core.persist.SectionOutputStream;
+import com.mars_sim.core.persist.SnapshotCapture;
+import com.mars_sim.core.persist.SnapshotFormat;
+import com.mars_sim.core.persist.SnapshotInputStream;
+import com.mars_sim.core.persist.SnapshotJournal;
+import com.mars_sim.core.persist.SnapshotSection;
 import com.mars_sim.core.person.ai.Mind;
 import com.mars_sim.core.person.ai.job.util.Job;
 import com.mars_sim.core.person.ai.mission.AbstractMission;
@@ -87,6 +104,7 @@ import com.mars_sim.core.time.MasterClock;
 import com.mars_sim.core.time.SystemDateTime;
 import com.mars_sim.core.tool.CheckSerializedSize;
 import com.mars_sim.tools.Msg;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 
 /**
  * The Simulation class is the primary singleton class in the MSP simulation.
@@ -139,6 +157,10 @@ public class Simulation implements ClockListener, Serializable {
 
 	/** Default save filename. */
 	public static final  String SAVE_FILE = Msg.getString("Simulation.saveFile"); //$NON-NLS-1$
+	/** Directory of the autosave journal. */
+	public static final String JOURNAL_DIR = "journal";
+	/** Number of objects written in a saved simulation. */
+	private static final int NUM_SECTIONS = 14;
 	/** Default save filename extension. */
 	public static final String SAVE_FILE_EXTENSION = Msg.getString("Simulation.saveFile.extension"); //$NON-NLS-1$
 
@@ -150,7 +172,7 @@ public class Simulation implements ClockListener, Serializable {
 	/** Flag to keep track of whether the initial state of simulation has been initialized. */
 	private transient boolean doneInitializing = false;
 
-	private transient boolean justSaved = true;
+	private transient volatile boolean justSaved = true;
 
 	private transient boolean clockOnPause = false;
 
@@ -192,6 +214,18 @@ public class Simulation implements ClockListener, Serializable {
 	/** The SimulationConfig instance. */
 	private transient SimulationConfig simulationConfig;
 
+	/** The compression used when saving. */
+	private transient SaveCodec saveCodec = SaveCodec.FAST;
+	/** Are autosaves written in the background ? */
+	private transient boolean backgroundAutosave = true;
+	/** The background save being written. */
+	private transient volatile Future<?> backgroundSave;
+	private transient ExecutorService saveExecutor;
+	/** Raw size of the last save; zero until one is written. */
+	private transient long lastRawSaveSize = 0;
+	/** Are autosaves written as deltas to a journal ? */
+	private transient boolean journalAutosave = false;
+
 	private transient SaveType savePending = null;
 	private transient File savePendingFile = null;
 	private transient SimulationListener saveCallback = null;
@@ -761,33 +795,45 @@ public class Simulation implements ClockListener, Serializable {
      */
     private void deserialize(File file) throws IOException, ClassNotFoundException {
 
-		FileInputStream in = null;
+		InputStream in = null;
 	    ObjectInputStream ois = null;
 
+		long startTime = System.currentTimeMillis();
+		resetPeakHeap();
 		try {
-			in = new FileInputStream(file);
-
 			// Stream the file directly into the Object stream to reduce memory
-			ois = new ObjectInputStream(new GZIPInputStream(in));
-
-			// Load remaining serialized objects
-			lastSaveTimeStamp = (Date) ois.readObject();
-			malfunctionFactory = (MalfunctionFactory) ois.readObject();
-			lunarWorld = (LunarWorld) ois.readObject();
-			lunarColonyManager = (LunarColonyManager) ois.readObject();
-			orbitInfo = (OrbitInfo) ois.readObject();
-			weather = (Weather) ois.readObject();
-			surfaceFeatures = (SurfaceFeatures) ois.readObject();
-			missionManager = (MissionManager) ois.readObject();
-			medicalManager = (MedicalManager) ois.readObject();
-			scientificStudyManager = (ScientificStudyManager) ois.readObject();
-			eventManager = (HistoricalEventManager) ois.readObject();
-			transportManager = (TransportManager) ois.readObject();
-			unitManager = (UnitManager) ois.readObject();
-			masterClock = (MasterClock) ois.readObject();
+			if (SnapshotJournal.isJournal(file)) {
+				// Replay the latest save of the journal
+				SnapshotJournal journal = new SnapshotJournal(file, SnapshotJournal.DEFAULT_MAX_DELTAS);
+				in = journal.openLatest();
+				logSections(journal.getLatestSections());
+			}
+			else if (SnapshotFormat.isSnapshot(file)) {
+				in = SnapshotFormat.openSnapshot(file);
+			}
+			else {
+				// Legacy saved sims are a single GZIP stream
+				in = new GZIPInputStream(new FileInputStream(file));
+			}
+			ois = new ObjectInputStream(in);
+
+			// Load remaining serialized objects; older saves use a different order
+			for (int i = 0; i < NUM_SECTIONS; i++) {
+				readSection(ois.readObject());
+			}
 			
 			UnitSet.reinit(unitManager);
 
+			logger.config("           Load time : " + (System.currentTimeMillis() - startTime) + " ms, peak heap "
+							+ formatSize(getPeakHeap()));
+			if (in instanceof SnapshotInputStream sis) {
+				// Drain the end of the stream to pick up the section table
+				while (sis.read() >= 0) {
+					// Skip any padding
+				}
+				logSections(sis.getSections());
+			}
+
 		} catch (ClassNotFoundException e) {
 			logger.log(Level.SEVERE, "Can't find class when loading " + file + " : " + e.getMessage());
 
@@ -812,15 +858,82 @@ public class Simulation implements ClockListener, Serializable {
 		}
     }
 
+	/**
+	 * Assigns an object read from a saved simulation to the matching member.
+	 * 
+	 * @param o Object read
+	 * @throws InvalidObjectException If the object is not one of the sections
+	 */
+	private void readSection(Object o) throws InvalidObjectException {
+		if (o instanceof Date d) {
+			lastSaveTimeStamp = d;
+		}
+		else if (o instanceof MalfunctionFactory mf) {
+			malfunctionFactory = mf;
+		}
+		else if (o instanceof LunarWorld lw) {
+			lunarWorld = lw;
+		}
+		else if (o instanceof LunarColonyManager lcm) {
+			lunarColonyManager = lcm;
+		}
+		else if (o instanceof OrbitInfo oi) {
+			orbitInfo = oi;
+		}
+		else if (o instanceof Weather w) {
+			weather = w;
+		}
+		else if (o instanceof SurfaceFeatures sf) {
+			surfaceFeatures = sf;
+		}
+		else if (o instanceof MissionManager mm) {
+			missionManager = mm;
+		}
+		else if (o instanceof MedicalManager mm) {
+			medicalManager = mm;
+		}
+		else if (o instanceof ScientificStudyManager ssm) {
+			scientificStudyManager = ssm;
+		}
+		else if (o instanceof HistoricalEventManager hem) {
+			eventManager = hem;
+		}
+		else if (o instanceof TransportManager tm) {
+			transportManager = tm;
+		}
+		else if (o instanceof UnitManager um) {
+			unitManager = um;
+		}
+		else if (o instanceof MasterClock mc) {
+			masterClock = mc;
+		}
+		else {
+			throw new InvalidObjectException("Unexpected section " + o);
+		}
+	}
+
     /**
      * Computes the size of the file.
      *
      * @param file
      * @return the file size with unit in a string
      */
-    private String computeFileSize(File file) {
+    private static String computeFileSize(File file) {
+		if (file.isDirectory()) {
+			return computeFileSize(FileUtils.sizeOfDirectory(file));
+		}
+		return computeFileSize(file.length());
+    }
+
+    /**
+     * Computes the size of a number of bytes.
+     *
+     * @param bytes
+     * @return the size with unit in a string
+     */
+    private static String computeFileSize(long bytes) {
 		// Convert from Bytes to KB
-		double fileSize = file.length() / 1000D;
+		double fileSize = bytes / 1000D;
 		String s = "";
 
 		if (fileSize > 1000D) {
@@ -903,14 +1016,27 @@ public class Simulation implements ClockListener, Serializable {
 	 */
 	synchronized void saveSimulation(SaveType type, File file, SimulationListener callback) {
 
+		long stallStart = System.currentTimeMillis();
+
+		// Only one save file may be written at a time; a background save may still
+		// be rotating or restoring the default save
+		waitForBackgroundSave();
+
+		// Autosaves are captured at this pulse boundary and written in the background
+		boolean background = backgroundAutosave
+					&& (type == SaveType.AUTOSAVE || type == SaveType.AUTOSAVE_AS_DEFAULT)
+					&& hasHeapForCapture();
+
 		// Checks to see if the simulation is on pause
 		boolean isAlreadyPaused = masterClock.isPaused();
 
-		// Stops the master clock and removes the Simulation clock listener
-		masterClock.stop();
-		
-		if (!isAlreadyPaused) 
-			masterClock.setPaused(true, false);
+		if (!background) {
+			// Stops the master clock and removes the Simulation clock listener
+			masterClock.stop();
+			
+			if (!isAlreadyPaused) 
+				masterClock.setPaused(true, false);
+		}
 
 		// Call up garbage collector System.gc(). But it's still up to the gc what it will do.
 
@@ -960,6 +1086,11 @@ public class Simulation implements ClockListener, Serializable {
 				String saveTime = new SystemDateTime().getDateTimeStr();
 				String autosaveFilename = saveTime + "_sol" + missionSol + "_r" + SimulationRuntime.VERSION.getShortVersion()
 						+ SAVE_FILE_EXTENSION;
+				if (journalAutosave) {
+					file = new File(SimulationRuntime.getAutoSaveDir(), JOURNAL_DIR);
+					logger.config("Autosaving the simulation to the journal in " + file + ".");
+					break;
+				}
 				file = new File(SimulationRuntime.getAutoSaveDir(), autosaveFilename);
 				logger.config("Autosaving the simulation as " + autosaveFilename + ".");
 				
@@ -975,6 +1106,13 @@ public class Simulation implements ClockListener, Serializable {
 			file.getParentFile().mkdirs();
 		}
 
+		if (background) {
+			saveInBackground(type, file, srcPath, destPath, callback);
+			logger.config("The pulse was stalled for " + (System.currentTimeMillis() - stallStart)
+							+ " ms to capture the autosave.");
+			return;
+		}
+
 		boolean success = checkHeapSizeSerialize(type, file, srcPath, destPath);
 			
 		if (callback != null) {
@@ -986,6 +1124,154 @@ public class Simulation implements ClockListener, Serializable {
 			masterClock.setPaused(false, false);
 		
 		masterClock.start();
+
+		logger.config("The pulse was stalled for " + (System.currentTimeMillis() - stallStart)
+						+ " ms to save.");
+	}
+
+	/**
+	 * Captures the simulation in memory and hands it to a background thread to be
+	 * compressed and written. This is called at a pulse boundary so the capture is
+	 * consistent and the clock does not have to be stopped.
+	 *
+	 * @param type
+	 * @param file
+	 * @param srcPath Original default save that was backed up
+	 * @param destPath Backup of the default save
+	 * @param callback
+	 */
+	private void saveInBackground(SaveType type, File file, Path srcPath, Path destPath,
+								  SimulationListener callback) {
+		SnapshotCapture capture = new SnapshotCapture();
+		try (ObjectOutputStream oos = new ObjectOutputStream(capture)) {
+			resetPeakHeap();
+			lastSaveTimeStamp = new Date();
+			writeSimulation(oos, capture);
+		}
+		catch (IOException ioe) {
+			logger.log(Level.SEVERE, "Problem capturing the simulation", ioe);
+			restoreBackup(type, file, srcPath, destPath);
+			if (callback != null) {
+				callback.eventPerformed(SimulationListener.SAVE_FAILED);
+			}
+			return;
+		}
+		lastRawSaveSize = capture.getRawSize();
+		logger.config("Captured " + formatSize(capture.getRawSize()) + " for a background save, peak heap "
+						+ formatSize(getPeakHeap()));
+
+		final SaveCodec codec = saveCodec;
+		backgroundSave = getSaveExecutor().submit(() -> {
+			long startTime = System.currentTimeMillis();
+			boolean success = false;
+			try (SectionOutputStream sos = createOutput(type, file, codec)) {
+				capture.writeTo(sos);
+				sos.close();
+				logSaved(sos, codec);
+				logger.config("   Background write : " + (System.currentTimeMillis() - startTime) + " ms");
+				logSections(sos.getSections());
+				success = true;
+			}
+			catch (IOException ioe) {
+				logger.log(Level.SEVERE, "Problem writing the simulation in the background", ioe);
+				restoreBackup(type, file, srcPath, destPath);
+			}
+
+			if (success && (type == SaveType.AUTOSAVE) && !journalAutosave) {
+				// Purge old auto backups
+				SimulationRuntime.purgeOldFiles(SimulationRuntime.getAutoSaveDir(),
+											   simulationConfig.getNumberAutoSaves(), SAVE_FILE_EXTENSION);
+			}
+			justSaved = true;
+			if (callback != null) {
+				callback.eventPerformed(success ? SimulationListener.SAVE_COMPLETED : SimulationListener.SAVE_FAILED);
+			}
+		});
+	}
+
+	/**
+	 * Puts back the previous default save if a new one could not be written.
+	 */
+	private static void restoreBackup(SaveType type, File file, Path srcPath, Path destPath) {
+		if ((type == SaveType.AUTOSAVE_AS_DEFAULT || type == SaveType.SAVE_DEFAULT) 
+				&& (destPath != null) && file.exists() && !file.isDirectory()) {
+			try {
+				Files.move(destPath, srcPath, StandardCopyOption.REPLACE_EXISTING);
+			}
+			catch (IOException ioe) {
+				logger.severe("Problem restoring the previous save " + ioe.getMessage());
+			}
+		}
+	}
+
+	/**
+	 * Checks there is enough free heap to hold a capture of the simulation. The size of
+	 * the previous save is used as the estimate, so the first save of a session is never
+	 * captured.
+	 * 
+	 * @return
+	 */
+	private boolean hasHeapForCapture() {
+		if (lastRawSaveSize == 0) {
+			logger.config("No earlier save to size the capture; saving in the foreground.");
+			return false;
+		}
+		Runtime rt = Runtime.getRuntime();
+		long available = rt.maxMemory() - (rt.totalMemory() - rt.freeMemory());
+		if (available < (2 * lastRawSaveSize)) {
+			logger.warning("Not enough heap for a background autosave; saving in the foreground.");
+			return false;
+		}
+		return true;
+	}
+
+	/**
+	 * Waits for any background save that is still being written.
+	 */
+	private void waitForBackgroundSave() {
+		Future<?> save = backgroundSave;
+		if ((save != null) && !save.isDone()) {
+			logger.config("Waiting for the previous background save to complete.");
+			try {
+				save.get();
+			}
+			catch (ExecutionException ee) {
+				logger.log(Level.SEVERE, "Problem with the previous background save", ee);
+			}
+			catch (InterruptedException ie) {
+				Thread.currentThread().interrupt();
+			}
+		}
+		backgroundSave = null;
+	}
+
+	/**
+	 * Gets the executor that writes the background saves.
+	 */
+	private synchronized ExecutorService getSaveExecutor() {
+		if (saveExecutor == null) {
+			saveExecutor = Executors.newSingleThreadExecutor(
+					new ThreadFactoryBuilder().setNameFormat("background-save-%d").build());
+		}
+		return saveExecutor;
+	}
+
+	/**
+	 * Enables or disables autosaves being written in the background.
+	 * 
+	 * @param background
+	 */
+	public void setBackgroundAutosave(boolean background) {
+		this.backgroundAutosave = background;
+	}
+
+	/**
+	 * Enables or disables autosaves being written as deltas to a journal.
+	 * 
+	 * @param journal
+	 */
+	public void setJournalAutosave(boolean journal) {
+		this.journalAutosave = journal;
 	}
 
 	private boolean checkHeapSizeSerialize(SaveType type, File file, Path  srcPath, Path destPath) {
@@ -1004,7 +1290,7 @@ public class Simulation implements ClockListener, Serializable {
 			lastSaveTimeStamp = new Date();
 			sucessful = serialize(type, file, srcPath, destPath);
 
-			if (sucessful && (type == SaveType.AUTOSAVE)) {
+			if (sucessful && (type == SaveType.AUTOSAVE) && !journalAutosave) {
 				// Purge old auto backups
 				SimulationRuntime.purgeOldFiles( SimulationRuntime.getAutoSaveDir(),
 											   simulationConfig.getNumberAutoSaves(), SAVE_FILE_EXTENSION);
@@ -1045,62 +1331,178 @@ public class Simulation implements ClockListener, Serializable {
     }
 
     /**
-     * Serializes the given object and save it to a given file.
+     * Serializes the given object and save it to a given file. Each subsystem
+     * is written as a named section of the snapshot.
      * 
      * @return 
      */
     private boolean serialize(SaveType type, File file, Path srcPath, Path destPath)
             throws IOException {
 		boolean success = false;
-	    ObjectOutputStream oos = new ObjectOutputStream(
-	    			new GZIPOutputStream(new FileOutputStream(file)));
+		long startTime = System.currentTimeMillis();
+		resetPeakHeap();
+		SectionOutputStream sos = createOutput(type, file, saveCodec);
+	    ObjectOutputStream oos = new ObjectOutputStream(sos);
 		try {
 
 			// Set a delay for 500 millis to avoid java.util.ConcurrentModificationException
 			delay(500L);
 
 			// Store the in-transient objects.
-			oos.writeObject(lastSaveTimeStamp);
-			oos.writeObject(malfunctionFactory);
-			oos.writeObject(lunarWorld);
-			oos.writeObject(lunarColonyManager);
-			oos.writeObject(orbitInfo);
-			oos.writeObject(weather);
-			oos.writeObject(surfaceFeatures);		
-			oos.writeObject(missionManager);
-			oos.writeObject(medicalManager);
-			oos.writeObject(scientificStudyManager);
-			oos.writeObject(eventManager);
-			oos.writeObject(transportManager);
-			oos.writeObject(unitManager);
-			oos.writeObject(masterClock);
-
-			oos.flush();
+			writeSimulation(oos, sos);
 			oos.close();
 
 			// Print the size of the saved sim
-			logger.config("           File size: " + computeFileSize(file));
+			lastRawSaveSize = sos.getRawSize();
+			logSaved(sos, saveCodec);
+			logger.config("           Save time: " + (System.currentTimeMillis() - startTime) + " ms, peak heap "
+							+ formatSize(getPeakHeap()));
+			logSections(sos.getSections());
 			logger.config("Done saving. The simulation resumes.");
 			success = true;
 
 		} catch (IOException e0) {
 			logger.log(Level.SEVERE, "Problem saving simulation", e0); 
 
-			if ((type == SaveType.AUTOSAVE_AS_DEFAULT || type == SaveType.SAVE_DEFAULT) 
-				&& file.exists() && !file.isDirectory()) {
-				// Backup the existing default.sim
-				Files.move(destPath, srcPath, StandardCopyOption.REPLACE_EXISTING);
-			}
+			// Put back the existing default.sim
+			restoreBackup(type, file, srcPath, destPath);
 		}
 		finally {
-			if (oos != null)
-				oos.close();
+			oos.close();
 			justSaved = true;
 		}
 
 		return success;
     }
 
+	/**
+	 * Creates the output for a save. An autosave goes to the journal if enabled,
+	 * otherwise to a snapshot file.
+	 * 
+	 * @param type
+	 * @param file Destination file or journal directory
+	 * @param codec
+	 * @return
+	 * @throws IOException
+	 */
+	private SectionOutputStream createOutput(SaveType type, File file, SaveCodec codec) throws IOException {
+		if (journalAutosave && (type == SaveType.AUTOSAVE)) {
+			return new SnapshotJournal(file, SnapshotJournal.DEFAULT_MAX_DELTAS).startSave(codec);
+		}
+		return SnapshotFormat.createSnapshot(file, codec);
+	}
+
+	/**
+	 * Logs the size of a completed save.
+	 * 
+	 * @param sos
+	 * @param codec
+	 */
+	private static void logSaved(SectionOutputStream sos, SaveCodec codec) {
+		String written = computeFileSize(sos.getFileSize());
+		if (sos instanceof JournalOutputStream jos) {
+			written += " delta with " + jos.getNewChunks() + " new and "
+						+ jos.getReusedChunks() + " reused chunks";
+		}
+		logger.config("           File size: " + written
+						+ " (" + codec.name().toLowerCase() + " codec, raw " + formatSize(sos.getRawSize()) + ")");
+	}
+
+	/**
+	 * Writes the in-transient objects of the simulation, each as a section.
+	 * A new object renumbers the back references of everything written after it,
+	 * so the managers that grow by appending every pulse are written last. This keeps
+	 * the earlier bytes, and so the journal chunks, the same between autosaves.
+	 * 
+	 * @param oos Object stream layered on the snapshot
+	 * @param sos Snapshot stream
+	 * @throws IOException
+	 */
+	private void writeSimulation(ObjectOutputStream oos, SectionOutputStream sos) throws IOException {
+		writeSection(oos, sos, "Timestamp", lastSaveTimeStamp);
+		writeSection(oos, sos, "MalfunctionFactory", malfunctionFactory);
+		writeSection(oos, sos, "LunarWorld", lunarWorld);
+		writeSection(oos, sos, "LunarColonyManager", lunarColonyManager);
+		writeSection(oos, sos, "OrbitInfo", orbitInfo);
+		writeSection(oos, sos, "Weather", weather);
+		writeSection(oos, sos, "SurfaceFeatures", surfaceFeatures);		
+		writeSection(oos, sos, "MedicalManager", medicalManager);
+		writeSection(oos, sos, "ScientificStudyManager", scientificStudyManager);
+		writeSection(oos, sos, "TransportManager", transportManager);
+		writeSection(oos, sos, "UnitManager", unitManager);
+		writeSection(oos, sos, "MasterClock", masterClock);
+		writeSection(oos, sos, "MissionManager", missionManager);
+		writeSection(oos, sos, "HistoricalEventManager", eventManager);
+		oos.flush();
+		sos.endSection();
+	}
+
+	/**
+	 * Writes an object as a new section of the snapshot.
+	 * 
+	 * @param oos Object stream layered on the snapshot
+	 * @param sos Snapshot stream
+	 * @param name Name of the section
+	 * @param o Object to write
+	 * @throws IOException
+	 */
+	private static void writeSection(ObjectOutputStream oos, SectionOutputStream sos, String name, Object o)
+			throws IOException {
+		// Push any buffered bytes down so the section starts at the correct offset
+		oos.flush();
+		sos.startSection(name);
+		oos.writeObject(o);
+	}
+
+	/**
+	 * Logs the raw size of each section of a snapshot.
+	 * 
+	 * @param sections
+	 */
+	private static void logSections(List<SnapshotSection> sections) {
+		if (sections == null) {
+			return;
+		}
+		for (SnapshotSection s : sections) {
+			logger.fine("   Section " + s.name() + " : " + formatSize(s.rawLength()));
+		}
+	}
+
+	/**
+	 * Resets the peak usage of the heap memory pools.
+	 */
+	private static void resetPeakHeap() {
+		for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+			if (pool.getType() == MemoryType.HEAP) {
+				pool.resetPeakUsage();
+			}
+		}
+	}
+
+	/**
+	 * Gets the peak heap usage since the last reset.
+	 * 
+	 * @return bytes used
+	 */
+	private static long getPeakHeap() {
+		long peak = 0;
+		for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+			if (pool.getType() == MemoryType.HEAP) {
+				peak += pool.getPeakUsage().getUsed();
+			}
+		}
+		return peak;
+	}
+
+	/**
+	 * Sets the compression used when saving the simulation.
+	 * 
+	 * @param codec
+	 */
+	public void setSaveCodec(SaveCodec codec) {
+		this.saveCodec = codec;
+	}
+
 	/**
 	 * Prints the object and its size.
 	 * 
@@ -1240,6 +1642,13 @@ public class Simulation implements ClockListener, Serializable {
 		if (unitManager != null) {
 			unitManager.endSimulation();
 		}
+
+		// Let any background save finish so the file is complete
+		waitForBackgroundSave();
+		if (saveExecutor != null) {
+			saveExecutor.shutdown();
+			saveExecutor = null;
+		}
 	}
 
 	/**
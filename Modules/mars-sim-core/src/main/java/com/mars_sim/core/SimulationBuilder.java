@@ -24,6 +24,7 @@ import com.mars_sim.core.configuration.Scenario;
 import com.mars_sim.core.configuration.ScenarioConfig;
 import com.mars_sim.core.configuration.UserConfigurableConfig;
 import com.mars_sim.core.logging.DiagnosticsManager;
+import com.mars_sim.core.persist.SaveCodec;
 import com.mars_sim.core.person.Crew;
 import com.mars_sim.core.person.CrewConfig;
 import com.mars_sim.core.structure.InitialSettlement;
@@ -50,6 +51,9 @@ public class SimulationBuilder {
 	private static final String CREW_ARG = "crew";
 	private static final String DIAGNOSTICS_ARG = "diags";
 	private static final String SCENARIO_ARG = "scenario";
+	private static final String SAVECODEC_ARG = "savecodec";
+	private static final String JOURNAL_ARG = "journal";
+	private static final String FOREGROUNDSAVE_ARG = "foregroundsave";
 	private static final String WHITESPACES = "---------------------------------------------------";
 	
 	private static final Logger logger = Logger.getLogger(SimulationBuilder.class.getName());
@@ -196,6 +200,12 @@ public class SimulationBuilder {
 				.desc("Enable or disable use of the crews").build());	
 		options.add(Option.builder(DIAGNOSTICS_ARG).argName("<module>,<module>.....").hasArg()
 				.desc("Enable diagnositics modules").build());	
+		options.add(Option.builder(SAVECODEC_ARG).argName("none|fast|xz").hasArg()
+				.desc("Set the compression used for saved simulations (defaults to fast)").build());	
+		options.add(Option.builder(JOURNAL_ARG)
+				.desc("Write autosaves as deltas to a journal").build());	
+		options.add(Option.builder(FOREGROUNDSAVE_ARG)
+				.desc("Pause the simulation while autosaving").build());	
 		return options;
 	}
 
@@ -239,6 +249,15 @@ public class SimulationBuilder {
 		if (line.hasOption(DIAGNOSTICS_ARG)) {
 			setDiagnostics(line.getOptionValue(DIAGNOSTICS_ARG));
 		}		
+		if (line.hasOption(SAVECODEC_ARG)) {
+			Simulation.instance().setSaveCodec(SaveCodec.fromName(line.getOptionValue(SAVECODEC_ARG)));
+		}
+		if (line.hasOption(JOURNAL_ARG)) {
+			Simulation.instance().setJournalAutosave(true);
+		}
+		if (line.hasOption(FOREGROUNDSAVE_ARG)) {
+			Simulation.instance().setBackgroundAutosave(false);
+		}
 	}
 
 	/**
@@ -8,6 +8,15 @@ package com.mars_sim.core;
 
 import java.io.File;
 import java.io.IOException;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 
@@ -43,6 +52,7 @@ import com.mars_sim.core.structure.building.function.cooking.MealConfig;
 import com.mars_sim.core.structure.building.function.farming.CropConfig;
 import com.mars_sim.core.structure.construction.ConstructionConfig;
 import com.mars_sim.core.time.MasterClock;
+import com.mars_sim.core.tool.DocumentCache;
 import com.mars_sim.core.tool.ResourceCache;
 import com.mars_sim.core.vehicle.VehicleConfig;
 import com.mars_sim.mapdata.common.FileLocator;
@@ -83,6 +93,17 @@ public class SimulationConfig {
 	private static final String QUOTATION_FILE = "quotations";
 	private static final String VALUE = "value";
 
+	/** Binary copy of the parsed documents kept in the XML folder. */
+	private static final String DOCUMENT_CACHE = "documents.cache";
+
+	/** The files that are loaded; they are all parsed at the same time. */
+	private static final List<String> CONFIG_FILES = List.of(SIMULATION_FILE, GOVERNANCE_FILE,
+						RESOURCE_FILE, PART_FILE, PART_PACKAGE_FILE, BUILDING_PACKAGE_FILE, PEOPLE_FILE,
+						MEDICAL_FILE, LANDMARK_FILE, MINERAL_MAP_FILE, MANUFACTURE_FILE, MALFUNCTION_FILE,
+						CROP_FILE, VEHICLE_FILE, RESPROCESS_FILE, BUILDING_FILE, RESUPPLY_FILE,
+						SETTLEMENT_FILE, CONSTRUCTION_FILE, FOODPRODUCTION_FILE, MEAL_FILE, ROBOT_FILE,
+						QUOTATION_FILE);
+
 	// Simulation element names.
 	private static final String TIME_CONFIGURATION = "time-configuration";
 
@@ -157,6 +178,12 @@ public class SimulationConfig {
 
 	private ResourceCache cachedResources;
 
+	// Documents being parsed; only set while loading
+	private Map<String, Future<Document>> documents;
+
+	// Cache to save the parsed documents into; null if they came from the cache
+	private DocumentCache documentCache;
+
 	/*
 	 * -----------------------------------------------------------------------------
 	 * Constructors
@@ -207,8 +234,11 @@ public class SimulationConfig {
 				FileUtils.deleteDirectory(backupDir); 
 			}
 
+			// Start parsing every document
+			documents = startParsing();
+
 			// Load simulation document
-			Document simulationDoc = parseXMLFileAsJDOMDocument(SIMULATION_FILE, true);
+			Document simulationDoc = getDocument(SIMULATION_FILE);
 
 			// Load key attributes
 			Element root = simulationDoc.getRootElement();
@@ -244,6 +274,10 @@ public class SimulationConfig {
           	logger.severe("Cannot load default config : " + rte.getMessage(), rte);
 			throw new IllegalStateException("Cannot load the configurations", rte);
 		}
+		finally {
+			documents = null;
+			documentCache = null;
+		}
 	}
 
 	/**
@@ -671,17 +705,107 @@ public class SimulationConfig {
 	 */
 	public Document parseXMLFileAsJDOMDocument(String filename, boolean useDTD)
 			throws JDOMException, IOException {
+		return parseXMLFile(getRequiredXML(filename));
+	}
+
+	private static Document parseXMLFile(File f) throws JDOMException, IOException {
+		SAXBuilder builder = new SAXBuilder();
+		builder.setProperty(XMLConstants.ACCESS_EXTERNAL_DTD, "");
+		builder.setProperty(XMLConstants.ACCESS_EXTERNAL_SCHEMA, "");
+		return builder.build(f);
+	}
+
+	private File getRequiredXML(String filename) {
 		File f = getBundledXML(filename);
-		if (f != null) {
-			SAXBuilder builder = new SAXBuilder();
-			builder.setProperty(XMLConstants.ACCESS_EXTERNAL_DTD, "");
-			builder.setProperty(XMLConstants.ACCESS_EXTERNAL_SCHEMA, "");
-			return builder.build(f);
-		}
-		else {
+		if (f == null) {
 			logger.warning("Can not find default XML " + filename);
 			throw new IllegalStateException("Can not find default XML " + filename);
 		}
+		return f;
+	}
+
+	/**
+	 * Starts parsing all the config files. The documents come from the document cache if
+	 * no file has changed since it was saved; otherwise each file is parsed on its own
+	 * thread so the configs can be built while the later files are still being parsed.
+	 * 
+	 * @return Documents being parsed keyed by file name
+	 * @throws IOException
+	 */
+	private Map<String, Future<Document>> startParsing() throws IOException {
+		// Extract the files up front as the ResourceCache is not thread safe
+		Map<String, File> files = new LinkedHashMap<>();
+		for (String name : CONFIG_FILES) {
+			files.put(name, getRequiredXML(name));
+		}
+
+		Map<String, Future<Document>> result = new HashMap<>();
+		DocumentCache cache = new DocumentCache(new File(cachedResources.getLocation(), DOCUMENT_CACHE), files);
+		Map<String, Document> cached = cache.load();
+		if (cached != null) {
+			logger.config("Loaded the config documents from " + DOCUMENT_CACHE + ".");
+			cached.forEach((name, doc) -> result.put(name, CompletableFuture.completedFuture(doc)));
+			documentCache = null;
+		}
+		else {
+			int threads = Math.min(files.size(), Runtime.getRuntime().availableProcessors());
+			ExecutorService pool = Executors.newFixedThreadPool(Math.max(1, threads));
+			for (Map.Entry<String, File> e : files.entrySet()) {
+				File f = e.getValue();
+				result.put(e.getKey(), pool.submit(() -> parseXMLFile(f)));
+			}
+			// Threads end once the queued files are parsed
+			pool.shutdown();
+			documentCache = cache;
+		}
+		return result;
+	}
+
+	/**
+	 * Waits for a config file to be parsed.
+	 * 
+	 * @param filename
+	 * @return
+	 * @throws JDOMException
+	 * @throws IOException
+	 */
+	private Document getDocument(String filename) throws JDOMException, IOException {
+		try {
+			return documents.get(filename).get();
+		}
+		catch (InterruptedException ie) {
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException("Interrupted loading " + filename, ie);
+		}
+		catch (ExecutionException ee) {
+			Throwable cause = ee.getCause();
+			if (cause instanceof JDOMException je) {
+				throw je;
+			}
+			if (cause instanceof IOException ioe) {
+				throw ioe;
+			}
+			if (cause instanceof RuntimeException re) {
+				throw re;
+			}
+			throw new IllegalStateException("Problem loading " + filename, cause);
+		}
+	}
+
+	/**
+	 * Saves the parsed documents to the document cache if they were not loaded from it.
+	 * 
+	 * @throws JDOMException
+	 * @throws IOException
+	 */
+	private void saveDocuments() throws JDOMException, IOException {
+		if (documentCache != null) {
+			Map<String, Document> parsed = new HashMap<>();
+			for (String name : CONFIG_FILES) {
+				parsed.put(name, getDocument(name));
+			}
+			documentCache.save(parsed);
+		}
 	}
 
 
@@ -694,33 +818,34 @@ public class SimulationConfig {
   BuildingPackageConfig buildingPackageConfig;
 
 		// Load subset configuration classes.
-		raFactory = new AuthorityFactory(parseXMLFileAsJDOMDocument(GOVERNANCE_FILE, true));
-		resourceConfig = new AmountResourceConfig(parseXMLFileAsJDOMDocument(RESOURCE_FILE, true));
-		partConfig = new PartConfig(parseXMLFileAsJDOMDocument(PART_FILE, true));
-		partPackageConfig = new PartPackageConfig(parseXMLFileAsJDOMDocument(PART_PACKAGE_FILE, true));
-		buildingPackageConfig = new BuildingPackageConfig(parseXMLFileAsJDOMDocument(BUILDING_PACKAGE_FILE, true));
-		personConfig = new PersonConfig(parseXMLFileAsJDOMDocument(PEOPLE_FILE, true));
-		medicalConfig = new MedicalConfig(parseXMLFileAsJDOMDocument(MEDICAL_FILE, true));
-		landmarkConfig = new LandmarkConfig(parseXMLFileAsJDOMDocument(LANDMARK_FILE, true));
-		mineralMapConfig = new MineralMapConfig(parseXMLFileAsJDOMDocument(MINERAL_MAP_FILE, true));
-		manufactureConfig = new ManufactureConfig(parseXMLFileAsJDOMDocument(MANUFACTURE_FILE, true));
-		malfunctionConfig = new MalfunctionConfig(parseXMLFileAsJDOMDocument(MALFUNCTION_FILE, true));
-		cropConfig = new CropConfig(parseXMLFileAsJDOMDocument(CROP_FILE, true), personConfig);
-		vehicleConfig = new VehicleConfig(parseXMLFileAsJDOMDocument(VEHICLE_FILE, true), manufactureConfig);
-		ResourceProcessConfig resourceProcessConfig = new ResourceProcessConfig(parseXMLFileAsJDOMDocument(RESPROCESS_FILE, true));
-		buildingConfig = new BuildingConfig(parseXMLFileAsJDOMDocument(BUILDING_FILE, true), resourceProcessConfig);
-		resupplyConfig = new ResupplyConfig(parseXMLFileAsJDOMDocument(RESUPPLY_FILE, true), partPackageConfig);
-		settlementConfig = new SettlementConfig(parseXMLFileAsJDOMDocument(
-									SETTLEMENT_FILE, true),
+		raFactory = new AuthorityFactory(getDocument(GOVERNANCE_FILE));
+		resourceConfig = new AmountResourceConfig(getDocument(RESOURCE_FILE));
+		partConfig = new PartConfig(getDocument(PART_FILE));
+		partPackageConfig = new PartPackageConfig(getDocument(PART_PACKAGE_FILE));
+		buildingPackageConfig = new BuildingPackageConfig(getDocument(BUILDING_PACKAGE_FILE));
+		personConfig = new PersonConfig(getDocument(PEOPLE_FILE));
+		medicalConfig = new MedicalConfig(getDocument(MEDICAL_FILE));
+		landmarkConfig = new LandmarkConfig(getDocument(LANDMARK_FILE));
+		mineralMapConfig = new MineralMapConfig(getDocument(MINERAL_MAP_FILE));
+		manufactureConfig = new ManufactureConfig(getDocument(MANUFACTURE_FILE));
+		malfunctionConfig = new MalfunctionConfig(getDocument(MALFUNCTION_FILE));
+		cropConfig = new CropConfig(getDocument(CROP_FILE), personConfig);
+		vehicleConfig = new VehicleConfig(getDocument(VEHICLE_FILE), manufactureConfig);
+		ResourceProcessConfig resourceProcessConfig = new ResourceProcessConfig(getDocument(RESPROCESS_FILE));
+		buildingConfig = new BuildingConfig(getDocument(BUILDING_FILE), resourceProcessConfig);
+		resupplyConfig = new ResupplyConfig(getDocument(RESUPPLY_FILE), partPackageConfig);
+		settlementConfig = new SettlementConfig(getDocument(
+									SETTLEMENT_FILE),
 									partPackageConfig, buildingPackageConfig, resupplyConfig);
 
-		constructionConfig = new ConstructionConfig(parseXMLFileAsJDOMDocument(CONSTRUCTION_FILE, true));
-		foodProductionConfig = new FoodProductionConfig(parseXMLFileAsJDOMDocument(FOODPRODUCTION_FILE, true));
-		mealConfig = new MealConfig(parseXMLFileAsJDOMDocument(MEAL_FILE, true));
-		robotConfig = new RobotConfig(parseXMLFileAsJDOMDocument(ROBOT_FILE, true));
-		quotationConfig = new QuotationConfig(parseXMLFileAsJDOMDocument(QUOTATION_FILE, true));
+		constructionConfig = new ConstructionConfig(getDocument(CONSTRUCTION_FILE));
+		foodProductionConfig = new FoodProductionConfig(getDocument(FOODPRODUCTION_FILE));
+		mealConfig = new MealConfig(getDocument(MEAL_FILE));
+		robotConfig = new RobotConfig(getDocument(ROBOT_FILE));
+		quotationConfig = new QuotationConfig(getDocument(QUOTATION_FILE));
 		scienceConfig = new ScienceConfig();
 
+		saveDocuments();
 		logger.config("Done loading all xml config files.");
 	}
 }
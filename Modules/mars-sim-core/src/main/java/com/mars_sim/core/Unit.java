@@ -8,7 +8,10 @@ package com.mars_sim.core;
 
 import java.io.FileNotFoundException;
 import java.io.PrintWriter;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Set;
 
 import com.mars_sim.core.environment.Weather;
@@ -535,6 +538,21 @@ public abstract class Unit implements UnitIdentifer, Comparable<Unit> {
 		}
 	}
 
+	/**
+	 * Gets a copy of the unit listeners.
+	 *
+	 * @return
+	 */
+	List<UnitListener> getUnitListeners() {
+		Set<UnitListener> current = listeners;
+		if (current == null) {
+			return Collections.emptyList();
+		}
+		synchronized (current) {
+			return new ArrayList<>(current);
+		}
+	}
+
 	/**
 	 * Fires a unit update event.
 	 *
@@ -555,18 +573,44 @@ public abstract class Unit implements UnitIdentifer, Comparable<Unit> {
 			return;
 		}
 		final UnitEvent ue = new UnitEvent(this, updateType, target);
+		boolean batched = false;
 		synchronized (listeners) {
 			for(UnitListener i : listeners) {
-				try {
-					// Stop listeners breaking the update thread
-					i.unitUpdate(ue);
+				if ((i instanceof BatchedUnitListener) && UnitEventDispatcher.isRunning()) {
+					// Delivered later by the dispatcher
+					batched = true;
 				}
-				catch(RuntimeException rte) {
-					logger.warning(this, "Problem executing listener " + i + " for event " + ue
-									+ " due to " + rte.getMessage());
+				else {
+					notifyListener(i, ue);
 				}
 			}
 		}
+
+		// The dispatcher may have stopped in the meantime
+		if (batched && !UnitEventDispatcher.post(this, updateType, target)) {
+			for(UnitListener i : getUnitListeners()) {
+				if (i instanceof BatchedUnitListener) {
+					notifyListener(i, ue);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Passes an event to a listener.
+	 *
+	 * @param l
+	 * @param ue
+	 */
+	private void notifyListener(UnitListener l, UnitEvent ue) {
+		try {
+			// Stop listeners breaking the update thread
+			l.unitUpdate(ue);
+		}
+		catch(RuntimeException rte) {
+			logger.warning(this, "Problem executing listener " + l + " for event " + ue
+							+ " due to " + rte.getMessage());
+		}
 	}
 
 	public LocationStateType getLocationStateType() {
@@ -0,0 +1,279 @@
+/*
+ * Mars Simulation Project
+ * UnitEventDispatcher.java
+ * @date 2024-07-01
+ * @author Barry Evans
+ */
+package com.mars_sim.core;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.mars_sim.core.logging.SimLogger;
+
+/**
+ * Delivers UnitEvents to the {@link BatchedUnitListener}s away from the simulation threads.
+ * Other listeners are still called by the thread firing the event.
+ * Events fired during a pulse are queued and an event repeated for the same Unit, type
+ * and target is only kept once. At the end of the pulse the queue is handed to a
+ * dedicated dispatcher thread as one batch. The queue is also flushed every
+ * {@link #FLUSH_PERIOD} ms so events fired while the clock is paused are delivered.
+ * If the previous batch is still being delivered the events stay queued and merge
+ * with the next pulse, so a slow listener cannot back up the simulation. A listener
+ * can also limit how many events it takes from a batch; see
+ * {@link BatchedUnitListener#getMaxEventsPerBatch()}.
+ * When the dispatcher is not running events are delivered immediately by the firing thread.
+ */
+public final class UnitEventDispatcher {
+
+	/**
+	 * Identifies duplicate events.
+	 */
+	private static record Key(Unit source, UnitEventType type, Object target) {}
+
+	private static final SimLogger logger = SimLogger.getLogger(UnitEventDispatcher.class.getName());
+
+	/** Interval in ms at which queued events are delivered without waiting for a pulse. */
+	static final long FLUSH_PERIOD = 250;
+
+	/** Guards pending, deferred, generation and the counters. */
+	private static final Object lock = new Object();
+	private static Map<Key, UnitEvent> pending = new LinkedHashMap<>();
+	/** Events held back by listeners that have reached their limit. */
+	private static Map<BatchedUnitListener, Map<Key, UnitEvent>> deferred = new HashMap<>();
+	/** Changes on every stop so a batch still being delivered does not restore its held events. */
+	private static int generation = 0;
+
+	private static volatile ScheduledExecutorService dispatcher;
+	private static AtomicBoolean flushQueued = new AtomicBoolean(false);
+
+	private static int posted = 0;
+	private static int merged = 0;
+	private static volatile int lastPosted = 0;
+	private static volatile int lastMerged = 0;
+	private static LongAdder delivered = new LongAdder();
+
+	/**
+	 * Private constructor for utility class.
+	 */
+	private UnitEventDispatcher() {
+	}
+
+	/**
+	 * Starts the dispatcher thread; events for batched listeners are queued from now on.
+	 */
+	public static synchronized void start() {
+		if (dispatcher == null) {
+			ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor(
+					new ThreadFactoryBuilder().setNameFormat("unit-event-dispatcher").setDaemon(true).build());
+			executor.scheduleWithFixedDelay(UnitEventDispatcher::flush, FLUSH_PERIOD, FLUSH_PERIOD,
+											TimeUnit.MILLISECONDS);
+			dispatcher = executor;
+		}
+	}
+
+	/**
+	 * Stops the dispatcher thread and discards any queued events.
+	 */
+	public static synchronized void stop() {
+		if (dispatcher != null) {
+			dispatcher.shutdownNow();
+			dispatcher = null;
+		}
+		synchronized (lock) {
+			pending = new LinkedHashMap<>();
+			deferred = new HashMap<>();
+			generation++;
+			posted = 0;
+			merged = 0;
+		}
+		flushQueued.set(false);
+	}
+
+	/**
+	 * Is the dispatcher running ?
+	 *
+	 * @return
+	 */
+	public static boolean isRunning() {
+		return dispatcher != null;
+	}
+
+	/**
+	 * Queues an event for delivery to the batched listeners of the source.
+	 *
+	 * @param source
+	 * @param type
+	 * @param target
+	 * @return Has it been queued ? False if the dispatcher is not running
+	 */
+	static boolean post(Unit source, UnitEventType type, Object target) {
+		if (dispatcher == null) {
+			return false;
+		}
+
+		Key key = new Key(source, type, target);
+		synchronized (lock) {
+			posted++;
+			if (pending.containsKey(key)) {
+				merged++;
+			}
+			else {
+				pending.put(key, new UnitEvent(source, type, target));
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Ends the pulse. The queued events are passed to the dispatcher thread unless
+	 * it has not yet started on the previous batch.
+	 */
+	public static void endPulse() {
+		synchronized (lock) {
+			lastPosted = posted;
+			lastMerged = merged;
+			posted = 0;
+			merged = 0;
+		}
+
+		ScheduledExecutorService executor = dispatcher;
+		if ((executor == null) || !flushQueued.compareAndSet(false, true)) {
+			return;
+		}
+
+		try {
+			executor.execute(UnitEventDispatcher::flush);
+		}
+		catch (RejectedExecutionException ree) {
+			// Shutting down
+			flushQueued.set(false);
+		}
+	}
+
+	/**
+	 * Delivers the queued events and any held back. Only runs on the dispatcher thread.
+	 */
+	private static void flush() {
+		flushQueued.set(false);
+
+		Map<Key, UnitEvent> batch;
+		Map<BatchedUnitListener, Map<Key, UnitEvent>> carried;
+		int current;
+		synchronized (lock) {
+			if (pending.isEmpty() && deferred.isEmpty()) {
+				return;
+			}
+			batch = pending;
+			pending = new LinkedHashMap<>();
+			carried = deferred;
+			deferred = new HashMap<>();
+			current = generation;
+		}
+
+		Map<BatchedUnitListener, Map<Key, UnitEvent>> held = new HashMap<>();
+		try {
+			deliver(batch, carried, held);
+		}
+		catch (RuntimeException rte) {
+			logger.severe("Problem delivering unit events", rte);
+		}
+
+		synchronized (lock) {
+			if (current == generation) {
+				deferred = held;
+			}
+		}
+	}
+
+	/**
+	 * Delivers a batch of events. Events previously held back are delivered first.
+	 *
+	 * @param batch Events in the order they were first fired
+	 * @param carried Events held back from the previous batch
+	 * @param held Receives the events held back from this batch
+	 */
+	private static void deliver(Map<Key, UnitEvent> batch, Map<BatchedUnitListener, Map<Key, UnitEvent>> carried,
+								Map<BatchedUnitListener, Map<Key, UnitEvent>> held) {
+		Map<BatchedUnitListener, Integer> counts = new HashMap<>();
+
+		for (var waiting : carried.entrySet()) {
+			BatchedUnitListener l = waiting.getKey();
+			for (var e : waiting.getValue().entrySet()) {
+				Unit source = e.getKey().source();
+				if (source.hasUnitListener(l)) {
+					offer(l, e.getKey(), e.getValue(), counts, held);
+				}
+			}
+		}
+
+		for (var e : batch.entrySet()) {
+			Key key = e.getKey();
+			for (UnitListener ul : key.source().getUnitListeners()) {
+				if (ul instanceof BatchedUnitListener l) {
+					Map<Key, UnitEvent> waiting = held.get(l);
+					if ((waiting == null) || !waiting.containsKey(key)) {
+						offer(l, key, e.getValue(), counts, held);
+					}
+				}
+			}
+		}
+	}
+
+	/**
+	 * Delivers an event to a listener or holds it back if the listener has had its share.
+	 */
+	private static void offer(BatchedUnitListener l, Key key, UnitEvent event,
+							  Map<BatchedUnitListener, Integer> counts,
+							  Map<BatchedUnitListener, Map<Key, UnitEvent>> held) {
+		int count = counts.merge(l, 1, Integer::sum);
+		if (count > l.getMaxEventsPerBatch()) {
+			held.computeIfAbsent(l, k -> new LinkedHashMap<>()).put(key, event);
+			return;
+		}
+
+		try {
+			l.unitUpdate(event);
+			delivered.increment();
+		}
+		catch (RuntimeException rte) {
+			logger.warning(key.source(), "Problem executing listener " + l + " for event " + event
+							+ " due to " + rte.getMessage());
+		}
+	}
+
+	/**
+	 * Gets the number of events queued during the last completed pulse, including duplicates.
+	 *
+	 * @return
+	 */
+	public static int getEventsLastPulse() {
+		return lastPosted;
+	}
+
+	/**
+	 * Gets the number of duplicate events merged during the last completed pulse.
+	 *
+	 * @return
+	 */
+	public static int getMergedLastPulse() {
+		return lastMerged;
+	}
+
+	/**
+	 * Gets the total number of events delivered to listeners.
+	 *
+	 * @return
+	 */
+	public static long getDelivered() {
+		return delivered.sum();
+	}
+}
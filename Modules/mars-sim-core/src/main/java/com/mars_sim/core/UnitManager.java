@@ -42,6 +42,7 @@ import com.mars_sim.core.time.ClockPulse;
 import com.mars_sim.core.time.Temporal;
 import com.mars_sim.core.vehicle.Vehicle;
 import com.mars_sim.mapdata.location.Coordinates;
+import com.mars_sim.mapdata.location.CoordinatesGrid;
 import com.google.common.util.concurrent.ThreadFactoryBuilder;
 
 /**
@@ -103,6 +104,8 @@ public class UnitManager implements Serializable, Temporal {
 	private Map<Integer, Building> lookupBuilding;
 	/** A map of settlements with its coordinates. */
 	private Map<Coordinates, Integer> settlementCoordinateMap;
+	/** Spatial index of the settlements; rebuilt when a settlement is added or removed. */
+	private transient volatile CoordinatesGrid<Settlement> settlementGrid;
 	
 	private static SimulationConfig simulationConfig = SimulationConfig.instance();
 	private static Simulation sim = Simulation.instance();
@@ -342,6 +345,7 @@ public class UnitManager implements Serializable, Temporal {
 			case SETTLEMENT:
 				lookupSettlement.put(unit.getIdentifier(),
 			   			(Settlement) unit);
+				settlementGrid = null;
 				addDisplayUnit(unit);
 				break;
 			case PERSON:
@@ -403,6 +407,9 @@ public class UnitManager implements Serializable, Temporal {
 		Map<Integer,? extends Unit> map = getUnitMap(type);
 
 		map.remove(unit.getIdentifier());
+		if (type == UnitType.SETTLEMENT) {
+			settlementGrid = null;
+		}
 
 		// Fire unit manager event.
 		fireUnitManagerUpdate(UnitManagerEventType.REMOVE_UNIT, unit);
@@ -598,6 +605,52 @@ public class UnitManager implements Serializable, Temporal {
 		return Collections.unmodifiableCollection(lookupSettlement.values());
 	}
 
+	/**
+	 * Gets the settlements within a surface distance of a location.
+	 *
+	 * @param location
+	 * @param range Distance in km
+	 * @return Settlements no further than range away
+	 */
+	public List<Settlement> getSettlementsWithin(Coordinates location, double range) {
+		return getSettlementGrid().findWithin(location, range);
+	}
+
+	/**
+	 * Gets the settlements nearest to a location.
+	 *
+	 * @param location
+	 * @param count Maximum number of settlements
+	 * @return Settlements closest first
+	 */
+	public List<Settlement> getNearestSettlements(Coordinates location, int count) {
+		return getSettlementGrid().findNearest(location, count);
+	}
+
+	/**
+	 * Gets the spatial index of the settlements. The grid is never changed once built
+	 * so it can be searched by many threads.
+	 *
+	 * @return
+	 */
+	private CoordinatesGrid<Settlement> getSettlementGrid() {
+		CoordinatesGrid<Settlement> grid = settlementGrid;
+		if (grid == null) {
+			// Same lock as adding or removing a Settlement
+			synchronized (this) {
+				grid = settlementGrid;
+				if (grid == null) {
+					grid = new CoordinatesGrid<>();
+					for (Settlement s : lookupSettlement.values()) {
+						grid.add(s.getCoordinates(), s);
+					}
+					settlementGrid = grid;
+				}
+			}
+		}
+		return grid;
+	}
+
 	/**
 	 * Gets a collection of vehicles.
 	 *
@@ -0,0 +1,175 @@
+/*
+ * Mars Simulation Project
+ * ComputingSchedule.java
+ * @date 2024-07-04
+ * @author Barry Evans
+ */
+package com.mars_sim.core.computing;
+
+import java.io.Serializable;
+
+/**
+ * The computing units (CUs) reserved on a computing node for each millisol of the sol.
+ * The reservations are held in a segment tree so reserving a window and finding the
+ * highest or total reservation over a window are O(log n) whatever the window length.
+ * A window may wrap past the end of the sol into the start.
+ */
+public class ComputingSchedule implements Serializable {
+
+	private static final long serialVersionUID = 1L;
+
+	/** Millisols in a sol; the slots of the schedule. */
+	public static final int MSOLS = 1000;
+
+	/** Leaves of the tree; the power of 2 above MSOLS. */
+	private static final int LEAVES = 1024;
+
+	/** Highest reservation under each tree node. */
+	private double[] max = new double[2 * LEAVES];
+	/** Total reservation under each tree node. */
+	private double[] sum = new double[2 * LEAVES];
+	/** Reservation added to every msol under a tree node but not yet pushed to its children. */
+	private double[] pending = new double[2 * LEAVES];
+
+	/**
+	 * Reserves CUs for every msol in a window.
+	 *
+	 * @param cu CUs per msol
+	 * @param start First msol
+	 * @param duration Number of msols
+	 */
+	public void reserve(double cu, int start, int duration) {
+		forWindow(start, duration, (l, r) -> {
+			add(1, 0, LEAVES - 1, l, r, cu);
+			return 0D;
+		});
+	}
+
+	/**
+	 * Clears the reservation of a single msol, e.g. once it has passed.
+	 *
+	 * @param msol
+	 */
+	public void release(int msol) {
+		double current = getDemand(msol);
+		if (current != 0D) {
+			int m = Math.floorMod(msol, MSOLS);
+			add(1, 0, LEAVES - 1, m, m, -current);
+		}
+	}
+
+	/**
+	 * Gets the CUs reserved for a single msol.
+	 *
+	 * @param msol
+	 * @return
+	 */
+	public double getDemand(int msol) {
+		int m = Math.floorMod(msol, MSOLS);
+		return queryMax(1, 0, LEAVES - 1, m, m);
+	}
+
+	/**
+	 * Gets the highest CUs reserved for any msol in a window.
+	 *
+	 * @param start First msol
+	 * @param duration Number of msols
+	 * @return
+	 */
+	public double getMaxDemand(int start, int duration) {
+		return forWindow(start, duration, (l, r) -> queryMax(1, 0, LEAVES - 1, l, r));
+	}
+
+	/**
+	 * Gets the total CUs reserved over a window.
+	 *
+	 * @param start First msol
+	 * @param duration Number of msols
+	 * @return
+	 */
+	public double getTotalDemand(int start, int duration) {
+		double[] total = {0D};
+		forWindow(start, duration, (l, r) -> {
+			total[0] += querySum(1, 0, LEAVES - 1, l, r);
+			return 0D;
+		});
+		return total[0];
+	}
+
+	/**
+	 * Operation on a range of msols.
+	 */
+	@FunctionalInterface
+	private interface RangeOp {
+		double apply(int l, int r);
+	}
+
+	/**
+	 * Splits a window that wraps past the end of the sol into two ranges.
+	 *
+	 * @return The highest result of the ranges; zero for an empty window
+	 */
+	private static double forWindow(int start, int duration, RangeOp op) {
+		int len = Math.min(duration, MSOLS);
+		if (len <= 0) {
+			return 0D;
+		}
+		int l = Math.floorMod(start, MSOLS);
+		int r = l + len - 1;
+		if (r < MSOLS) {
+			return op.apply(l, r);
+		}
+		return Math.max(op.apply(l, MSOLS - 1), op.apply(0, r - MSOLS));
+	}
+
+	private void add(int node, int lo, int hi, int l, int r, double value) {
+		if ((r < lo) || (hi < l)) {
+			return;
+		}
+		if ((l <= lo) && (hi <= r)) {
+			pending[node] += value;
+			max[node] += value;
+			sum[node] += value * (hi - lo + 1);
+			return;
+		}
+
+		int mid = (lo + hi) / 2;
+		add(2 * node, lo, mid, l, r, value);
+		add(2 * node + 1, mid + 1, hi, l, r, value);
+		max[node] = Math.max(max[2 * node], max[2 * node + 1]) + pending[node];
+		sum[node] = sum[2 * node] + sum[2 * node + 1] + pending[node] * (hi - lo + 1);
+	}
+
+	private double queryMax(int node, int lo, int hi, int l, int r) {
+		if ((l <= lo) && (hi <= r)) {
+			return max[node];
+		}
+
+		int mid = (lo + hi) / 2;
+		double result = Double.NEGATIVE_INFINITY;
+		if (l <= mid) {
+			result = queryMax(2 * node, lo, mid, l, r);
+		}
+		if (r > mid) {
+			result = Math.max(result, queryMax(2 * node + 1, mid + 1, hi, l, r));
+		}
+		return result + pending[node];
+	}
+
+	private double querySum(int node, int lo, int hi, int l, int r) {
+		if ((l <= lo) && (hi <= r)) {
+			return sum[node];
+		}
+
+		int mid = (lo + hi) / 2;
+		double result = 0D;
+		if (l <= mid) {
+			result = querySum(2 * node, lo, mid, l, r);
+		}
+		if (r > mid) {
+			result += querySum(2 * node + 1, mid + 1, hi, l, r);
+		}
+		int overlap = Math.min(r, hi) - Math.max(l, lo) + 1;
+		return result + pending[node] * overlap;
+	}
+}
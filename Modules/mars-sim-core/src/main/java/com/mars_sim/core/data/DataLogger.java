@@ -8,9 +8,8 @@
 package com.mars_sim.core.data;
 
 import java.io.Serializable;
+import java.util.Arrays;
 import java.util.HashMap;
-import java.util.LinkedList;
-import java.util.List;
 import java.util.Map;
 
 import com.mars_sim.core.time.MarsTime;
@@ -19,6 +18,8 @@ import com.mars_sim.core.time.MarsTime;
 /**
  * Logs data items according to the current Sol. Each sol is a single data item.
  * Only a maximum number of sols is retained.
+ * The items are held in a circular buffer indexed by the sol so looking up a sol
+ * does not depend on how many are retained.
  * The timestamp of the logger is shifted automatically via the Simulation.
  * 
  * @param <T> Data item being recorded
@@ -34,11 +35,12 @@ public abstract class DataLogger<T> implements Serializable {
 	private int maxSols = 7;
 	private int latestSol = 0;
 	protected T currentData = null;
-	protected List<T> dailyData = new LinkedList<T>();
+	private Object[] dailyData;
 	
 	public DataLogger(int maxSols) {
 		super();
 		this.maxSols = maxSols;
+		this.dailyData = new Object[maxSols];
 	}
 	
 	/**
@@ -57,12 +59,57 @@ public abstract class DataLogger<T> implements Serializable {
 	 * @param newSol
 	 */
 	private void newSol(int newSol) {
+		if (newSol < latestSol) {
+			// Time has gone backwards so the history is meaningless
+			Arrays.fill(dailyData, null);
+		}
+		else {
+			// Clear out any sols skipped as nothing was logged
+			int skipped = Math.min(newSol - latestSol - 1, maxSols);
+			for (int s = newSol - skipped; s < newSol; s++) {
+				dailyData[getSlot(s)] = null;
+			}
+		}
+
 		latestSol = newSol;
-		currentData = getNewDataItem(); 
-		dailyData.add(0, currentData);
-		if (dailyData.size() > maxSols) {
-			dailyData.remove(maxSols-1);
+		currentData = getNewDataItem();
+		int slot = getSlot(newSol);
+		dailyData[slot] = currentData;
+		startSlot(slot);
+	}
+
+	/**
+	 * Gets the position of a sol in the buffer.
+	 * 
+	 * @param sol
+	 * @return
+	 */
+	protected int getSlot(int sol) {
+		return sol % maxSols;
+	}
+
+	/**
+	 * Gets the position in the buffer of a retained sol.
+	 * 
+	 * @param sol
+	 * @return Slot or -1 if the sol is not held
+	 */
+	protected int getHeldSlot(int sol) {
+		if ((sol < 1) || (sol > latestSol) || (sol <= latestSol - maxSols)) {
+			return -1;
 		}
+		int slot = getSlot(sol);
+		return (dailyData[slot] != null ? slot : -1);
+	}
+
+	/**
+	 * A buffer slot has been reused for a new sol. Subclasses holding their own
+	 * per sol values must reset them.
+	 * 
+	 * @param slot
+	 */
+	protected void startSlot(int slot) {
+		// Nothing to do by default
 	}
 	
 	/**
@@ -80,6 +127,33 @@ public abstract class DataLogger<T> implements Serializable {
 			newSol(currentSol);
 		}
 	}
+
+	/**
+	 * Gets the most recent sol that has been logged.
+	 * 
+	 * @return
+	 */
+	protected int getLatestSol() {
+		return latestSol;
+	}
+
+	/**
+	 * Gets the maximum number of sols retained.
+	 * 
+	 * @return
+	 */
+	protected int getMaxSols() {
+		return maxSols;
+	}
+
+	/**
+	 * Gets the oldest sol that could still be held.
+	 * 
+	 * @return
+	 */
+	protected int getOldestSol() {
+		return Math.max(1, latestSol - maxSols + 1);
+	}
 	
 	/**
 	 * Returns a Map if data entries per missionSol. Map is keyed on sol.
@@ -88,9 +162,11 @@ public abstract class DataLogger<T> implements Serializable {
 	 */
 	public Map<Integer, T> getHistory() {
 		Map<Integer, T> results = new HashMap<>();
-		int sol = latestSol;
-		for (T t : dailyData) {
-			results.put(sol--, t);
+		for (int sol = latestSol; sol >= getOldestSol(); sol--) {
+			T t = getSolData(sol);
+			if (t != null) {
+				results.put(sol, t);
+			}
 		}
 		return results;
 	}
@@ -101,11 +177,10 @@ public abstract class DataLogger<T> implements Serializable {
 	 * @return
 	 */
 	public double getTodayDataValue() {
-		double value = 0;
-		if (getHistory().containsKey(currentSol)
-				&& getHistory().get(currentSol) instanceof Double)
-			value = (double)getHistory().get(currentSol);
-		return value;
+		if (getSolData(currentSol) instanceof Double d) {
+			return d;
+		}
+		return 0;
 	}
 	
 	/**
@@ -123,17 +198,13 @@ public abstract class DataLogger<T> implements Serializable {
 	 * @param sol Sol
 	 * @return List of data items
 	 */
+	@SuppressWarnings("unchecked")
 	public T getSolData(int sol) {
 		if (sol < 1) {
 			throw new IllegalArgumentException("Mission Sol cannot be less than 1");
 		}
-		int idx = latestSol - sol;
-		if ((idx < 0) || (idx >= dailyData.size())) {
-			return null;
-		}
-		else {
-			return dailyData.get(idx);
-		}
+		int slot = getHeldSlot(sol);
+		return (slot < 0 ? null : (T) dailyData[slot]);
 	}
 	
 	/**
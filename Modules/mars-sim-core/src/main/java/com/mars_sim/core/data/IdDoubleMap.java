@@ -0,0 +1,220 @@
+/*
+ * Mars Simulation Project
+ * IdDoubleMap.java
+ * @date 2024-06-30
+ * @author Barry Evans
+ */
+package com.mars_sim.core.data;
+
+import java.io.Serializable;
+import java.util.Arrays;
+
+/**
+ * A map from a small non-negative id, e.g. a resource or good id, to a double value.
+ * The values are held in an array covering the range from the lowest to the highest id
+ * present, so there is no boxing or hashing on a lookup and a holder of a few close ids
+ * only pays for those. The arrays grow by at least half again so filling a map is linear.
+ * Updates are not thread safe; the owner must make them from one thread at a time.
+ * A thread only reading, e.g. a UI table, does not fail while the map grows as the arrays
+ * are replaced together, but it may see a value that is being changed.
+ */
+public class IdDoubleMap implements Serializable {
+
+	private static final long serialVersionUID = 1L;
+
+	/**
+	 * The arrays of values; replaced as one when the range of ids grows.
+	 *
+	 * @param first The id held at index 0 of the arrays
+	 * @param values
+	 * @param present
+	 */
+	private record Slots(int first, double[] values, boolean[] present) implements Serializable {}
+
+	private volatile Slots slots;
+	private int size = 0;
+
+	public IdDoubleMap() {
+		this(0);
+	}
+
+	/**
+	 * Creates a map with room for ids up to a size.
+	 *
+	 * @param capacity Expected highest id + 1
+	 */
+	public IdDoubleMap(int capacity) {
+		slots = new Slots(0, new double[capacity], new boolean[capacity]);
+	}
+
+	/**
+	 * Gets the array index of an id.
+	 *
+	 * @param s Arrays in use
+	 * @param id
+	 * @return The index or -1 if outside the arrays
+	 */
+	private static int indexOf(Slots s, int id) {
+		int i = id - s.first();
+		return ((i >= 0) && (i < s.values().length) ? i : -1);
+	}
+
+	/**
+	 * Is the id present ?
+	 *
+	 * @param id
+	 * @return
+	 */
+	public boolean containsKey(int id) {
+		Slots s = slots;
+		int i = indexOf(s, id);
+		return (i >= 0) && s.present()[i];
+	}
+
+	/**
+	 * Gets the value of an id.
+	 *
+	 * @param id
+	 * @return The value or zero if not present
+	 */
+	public double get(int id) {
+		Slots s = slots;
+		int i = indexOf(s, id);
+		return (i >= 0 ? s.values()[i] : 0D);
+	}
+
+	/**
+	 * Gets the value of an id.
+	 *
+	 * @param id
+	 * @param missing Value if not present
+	 * @return
+	 */
+	public double getOrDefault(int id, double missing) {
+		Slots s = slots;
+		int i = indexOf(s, id);
+		return ((i >= 0) && s.present()[i] ? s.values()[i] : missing);
+	}
+
+	/**
+	 * Sets the value of an id.
+	 *
+	 * @param id
+	 * @param value
+	 */
+	public void put(int id, double value) {
+		Slots s = slots;
+		int i = indexOf(s, id);
+		if (i < 0) {
+			s = extendTo(s, id);
+			i = id - s.first();
+		}
+		s.values()[i] = value;
+		if (!s.present()[i]) {
+			s.present()[i] = true;
+			size++;
+		}
+	}
+
+	/**
+	 * Extends the arrays to hold an id. They grow by at least half their length
+	 * towards the id, but never below id 0.
+	 *
+	 * @param s Arrays in use
+	 * @param id
+	 * @return The new arrays
+	 */
+	private Slots extendTo(Slots s, int id) {
+		int length = s.values().length;
+		int extra = Math.max(1, length >> 1);
+		Slots result;
+		if (size == 0) {
+			// Nothing to keep so start again from this id
+			result = new Slots(id, new double[1], new boolean[1]);
+		}
+		else if (id < s.first()) {
+			int newFirst = Math.max(0, Math.min(id, s.first() - extra));
+			int shift = s.first() - newFirst;
+			double[] newValues = new double[length + shift];
+			boolean[] newPresent = new boolean[length + shift];
+			System.arraycopy(s.values(), 0, newValues, shift, length);
+			System.arraycopy(s.present(), 0, newPresent, shift, length);
+			result = new Slots(newFirst, newValues, newPresent);
+		}
+		else {
+			int newLength = Math.max(id - s.first() + 1, length + extra);
+			result = new Slots(s.first(), Arrays.copyOf(s.values(), newLength),
+							   Arrays.copyOf(s.present(), newLength));
+		}
+		slots = result;
+		return result;
+	}
+
+	/**
+	 * Removes an id.
+	 *
+	 * @param id
+	 * @return Was it present ?
+	 */
+	public boolean remove(int id) {
+		Slots s = slots;
+		int i = indexOf(s, id);
+		if ((i >= 0) && s.present()[i]) {
+			s.present()[i] = false;
+			s.values()[i] = 0D;
+			size--;
+			return true;
+		}
+		return false;
+	}
+
+	/**
+	 * Gets the first id present at or after an id, in the style of BitSet.nextSetBit.
+	 *
+	 * @param from
+	 * @return The id or -1 if there are no more
+	 */
+	public int nextId(int from) {
+		Slots s = slots;
+		boolean[] present = s.present();
+		for (int i = Math.max(0, from - s.first()); i < present.length; i++) {
+			if (present[i]) {
+				return s.first() + i;
+			}
+		}
+		return -1;
+	}
+
+	/**
+	 * Gets the sum of all the values.
+	 *
+	 * @return
+	 */
+	public double sum() {
+		// Absent ids hold zero
+		double result = 0D;
+		for (double v : slots.values()) {
+			result += v;
+		}
+		return result;
+	}
+
+	/**
+	 * How many ids are present ?
+	 *
+	 * @return
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * Removes all ids.
+	 */
+	public void clear() {
+		Slots s = slots;
+		Arrays.fill(s.values(), 0D);
+		Arrays.fill(s.present(), false);
+		size = 0;
+	}
+}
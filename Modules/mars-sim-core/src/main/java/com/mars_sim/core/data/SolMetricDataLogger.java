@@ -7,12 +7,16 @@
 
 package com.mars_sim.core.data;
 
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
 
 /**
  * This class logs a number increasing metrics as Doubles for each day. The metrics are keyed on a 
  * particular value.
+ * Each metric has a column of primitive values, one per retained sol, so adding to a metric
+ * does not create any objects once the metric is known. A metric not logged on a sol holds NaN.
  */
 public class SolMetricDataLogger<K> extends DataLogger<Map<K,Double>> {
 
@@ -25,9 +29,21 @@ public class SolMetricDataLogger<K> extends DataLogger<Map<K,Double>> {
 	 */
 	private static final long serialVersionUID = 1L;
 
+	private Map<K, double[]> columns = new HashMap<>();
+
+	/**
+	 * The generated item is only a marker; the values are in the metric columns.
+	 */
 	@Override
 	protected Map<K,Double> getNewDataItem() {
-		return new HashMap<>();
+		return Collections.emptyMap();
+	}
+
+	@Override
+	protected void startSlot(int slot) {
+		for (double[] column : columns.values()) {
+			column[slot] = Double.NaN;
+		}
 	}
 
 	/**
@@ -36,14 +52,19 @@ public class SolMetricDataLogger<K> extends DataLogger<Map<K,Double>> {
 	 * 
 	 * @param increment Value to add to the existing metric.
 	 */
-	public void increaseDataPoint(K metric, Double increment) {
+	public void increaseDataPoint(K metric, double increment) {
 		updating();
-		
-		Double stored = currentData.get(metric);
-		
-		double current = (stored == null ? 0 : stored);
-		current += increment;
-		currentData.put(metric, current);
+
+		double[] column = columns.get(metric);
+		if (column == null) {
+			column = new double[getMaxSols()];
+			Arrays.fill(column, Double.NaN);
+			columns.put(metric, column);
+		}
+
+		int slot = getSlot(getLatestSol());
+		double current = column[slot];
+		column[slot] = (Double.isNaN(current) ? increment : current + increment);
 	}
 
 	/**
@@ -53,7 +74,49 @@ public class SolMetricDataLogger<K> extends DataLogger<Map<K,Double>> {
 	 * @return
 	 */
 	public Double getDataPoint(K type) {
-		return currentData.get(type);
+		double[] column = columns.get(type);
+		int slot = getHeldSlot(getLatestSol());
+		if ((column == null) || (slot < 0) || Double.isNaN(column[slot])) {
+			return null;
+		}
+		return column[slot];
+	}
+
+	/**
+	 * Gets the metrics logged on a sol. This creates a new Map.
+	 * 
+	 * @param sol Sol
+	 * @return Metrics or null if the sol is not held
+	 */
+	@Override
+	public Map<K, Double> getSolData(int sol) {
+		if (sol < 1) {
+			throw new IllegalArgumentException("Mission Sol cannot be less than 1");
+		}
+		int slot = getHeldSlot(sol);
+		if (slot < 0) {
+			return null;
+		}
+
+		Map<K, Double> results = new HashMap<>();
+		for (var e : columns.entrySet()) {
+			double value = e.getValue()[slot];
+			if (!Double.isNaN(value)) {
+				results.put(e.getKey(), value);
+			}
+		}
+		return results;
+	}
+
+	/**
+	 * Gets the metrics of the latest sol. This creates a new Map.
+	 * 
+	 * @return
+	 */
+	@Override
+	public Map<K, Double> getTodayData() {
+		int sol = getLatestSol();
+		return (sol < 1 ? null : getSolData(sol));
 	}
 	
 	/**
@@ -64,14 +127,20 @@ public class SolMetricDataLogger<K> extends DataLogger<Map<K,Double>> {
 	 * @return Daily average
 	 */
 	public double getDailyAverage(K metric) {
+		double[] column = columns.get(metric);
 		double sum = 0;
 		int numSols = 0;
 
-		for (Map<K, Double> oneDay : dailyData) {
+		for (int sol = getLatestSol(); sol >= getOldestSol(); sol--) {
+			int slot = getHeldSlot(sol);
+			if (slot < 0) {
+				continue;
+			}
+
 			// Get metric for the day; there may not be any
 			double dailyTotal = 0;
-			if (oneDay.containsKey(metric)) {
-				dailyTotal = oneDay.get(metric);
+			if ((column != null) && !Double.isNaN(column[slot])) {
+				dailyTotal = column[slot];
 			}
 
 			// First entry is always today
@@ -8,40 +8,79 @@
 package com.mars_sim.core.data;
 
 /**
- * This class records a single value per sol.
+ * This class records a single value per sol. The values are held as primitives
+ * so adding to the metric does not create any objects.
  */
 public class SolSingleMetricDataLogger extends DataLogger<Double> {
 
 	private static final long serialVersionUID = 1L;
 	
+	private double[] totals;
+
 	public SolSingleMetricDataLogger(int maxSols) {
 		super(maxSols);
+		totals = new double[maxSols];
 	}
 	
 	/**
-	 * The generated item is null to start with.
+	 * The generated item is only a marker; the values are in the totals.
 	 */
 	@Override
 	protected Double getNewDataItem() {
 		return 0D;
 	}
 
+	@Override
+	protected void startSlot(int slot) {
+		totals[slot] = 0D;
+	}
+
 	/**
 	 * Increases the metric on one of the data points. It adds the increment to any existing value.
 	 * If no value for this metric is present; it created one.
 	 * 
 	 * @param increment Value to add to the existing metric.
 	 */
-	public void increaseDataPoint(Double increment) {
+	public void increaseDataPoint(double increment) {
 		updating();
-		
-		double current = (currentData == null ? 0 : currentData);
-		current += increment;
-		currentData = current;
-		
-		// For a single dataitem the item needs to be refreshed
-		// because current data is not by reference
-		dailyData.set(0, currentData);
+		totals[getSlot(getLatestSol())] += increment;
+	}
+
+	/**
+	 * Gets the total for a single sol.
+	 * 
+	 * @param sol Sol
+	 * @return Total or null if the sol is not held
+	 */
+	@Override
+	public Double getSolData(int sol) {
+		if (sol < 1) {
+			throw new IllegalArgumentException("Mission Sol cannot be less than 1");
+		}
+		int slot = getHeldSlot(sol);
+		return (slot < 0 ? null : totals[slot]);
+	}
+
+	/**
+	 * Gets the total of the latest sol.
+	 * 
+	 * @return
+	 */
+	@Override
+	public Double getTodayData() {
+		int sol = getLatestSol();
+		return (sol < 1 ? null : getSolData(sol));
+	}
+
+	/**
+	 * Gets the total for a single sol.
+	 * 
+	 * @param sol
+	 * @return Total or zero if the sol is not held
+	 */
+	public double getSolValue(int sol) {
+		int slot = getHeldSlot(sol);
+		return (slot < 0 ? 0D : totals[slot]);
 	}
 	
 	/**
@@ -51,26 +90,7 @@ public class SolSingleMetricDataLogger extends DataLogger<Double> {
 	 * @return Daily average
 	 */
 	public double getDailyAverage() {
-		double sum = 0;
-		int numSols = 0;
-
-		for (Double dailyTotal : dailyData) {
-	
-			// First entry is always today
-			if (numSols == 0) {
-				sum += ((dailyTotal/currentMsol) * 1_000D);
-			}
-			else {
-				sum += dailyTotal;
-			}
-			numSols++;
-		}
-	
-		if (numSols == 0) {
-			// No data points
-			return 0;
-		}
-		return sum / numSols;
+		return getTotCumulativeDailyAverage()[1];
 	}
 	
 	/**
@@ -82,7 +102,12 @@ public class SolSingleMetricDataLogger extends DataLogger<Double> {
 		double sum = 0;
 		int numSols = 0;
 
-		for (Double dailyTotal : dailyData) {
+		for (int sol = getLatestSol(); sol >= getOldestSol(); sol--) {
+			int slot = getHeldSlot(sol);
+			if (slot < 0) {
+				continue;
+			}
+			double dailyTotal = totals[slot];
 	
 			// First entry is always today
 			if (numSols == 0) {
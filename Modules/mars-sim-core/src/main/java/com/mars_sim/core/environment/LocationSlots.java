@@ -0,0 +1,235 @@
+/*
+ * Mars Simulation Project
+ * LocationSlots.java
+ * @date 2024-07-03
+ * @author Barry Evans
+ */
+package com.mars_sim.core.environment;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import com.mars_sim.mapdata.location.Coordinates;
+
+/**
+ * Gives each location a dense slot number so values per location can be held in arrays,
+ * one {@link Column} per value.
+ * Locations added via {@link #addLocation(Coordinates)} keep their slot. Any other location
+ * is given a slot when first used and loses it once a whole sol passes without it being used.
+ * Reading a value does not lock; a slot is only ever written with its own location's values.
+ */
+class LocationSlots {
+
+	/** Epoch of a column entry that has never been set. */
+	static final int NO_EPOCH = Integer.MIN_VALUE;
+
+	private static final int INITIAL_SLOTS = 32;
+
+	/**
+	 * A double value per slot stamped with the epoch it was calculated in.
+	 * Values are written without locking so a reader may briefly see the value of the
+	 * previous epoch; that is acceptable for a cache.
+	 */
+	static final class Column {
+
+		private record Data(double[] values, int[] epochs) {}
+
+		private volatile Data data;
+
+		private Column(int capacity) {
+			data = newData(capacity);
+		}
+
+		private static Data newData(int capacity) {
+			int[] epochs = new int[capacity];
+			Arrays.fill(epochs, NO_EPOCH);
+			return new Data(new double[capacity], epochs);
+		}
+
+		/**
+		 * Has the slot got a value ?
+		 */
+		boolean has(int slot) {
+			Data d = data;
+			return (slot < d.epochs.length) && (d.epochs[slot] != NO_EPOCH);
+		}
+
+		/**
+		 * Was the slot's value calculated in an epoch ?
+		 */
+		boolean isCurrent(int slot, int epoch) {
+			Data d = data;
+			return (slot < d.epochs.length) && (d.epochs[slot] == epoch);
+		}
+
+		/**
+		 * Gets the value of a slot; zero if never set.
+		 */
+		double get(int slot) {
+			Data d = data;
+			return (slot < d.values.length ? d.values[slot] : 0D);
+		}
+
+		/**
+		 * Sets the value of a slot in an epoch.
+		 */
+		void set(int slot, double value, int epoch) {
+			Data d = data;
+			if (slot >= d.values.length) {
+				d = grow(slot);
+			}
+			d.values[slot] = value;
+			d.epochs[slot] = epoch;
+		}
+
+		private synchronized Data grow(int slot) {
+			Data d = data;
+			if (slot >= d.values.length) {
+				Data bigger = newData(Math.max(slot + 1, d.values.length * 2));
+				System.arraycopy(d.values, 0, bigger.values, 0, d.values.length);
+				System.arraycopy(d.epochs, 0, bigger.epochs, 0, d.epochs.length);
+				data = bigger;
+				d = bigger;
+			}
+			return d;
+		}
+
+		/**
+		 * Clears a slot so a location given it next starts from zero.
+		 */
+		private void clear(int slot) {
+			Data d = data;
+			if (slot < d.epochs.length) {
+				d.epochs[slot] = NO_EPOCH;
+				d.values[slot] = 0D;
+			}
+		}
+
+		private void clearAll() {
+			Data d = data;
+			Arrays.fill(d.epochs, NO_EPOCH);
+			Arrays.fill(d.values, 0D);
+		}
+	}
+
+	private Map<Coordinates, Integer> index = new ConcurrentHashMap<>();
+	private List<Coordinates> locations = new ArrayList<>();
+	private List<Boolean> fixed = new ArrayList<>();
+	private List<Column> columns = new ArrayList<>();
+	/** Slots released last sol; they are reused from the next sol so late writers cannot clash. */
+	private Deque<Integer> retiring = new ArrayDeque<>();
+	private Deque<Integer> free = new ArrayDeque<>();
+
+	/** The sol each slot was last used; only for the slots not fixed. */
+	private Column lastUsed = new Column(INITIAL_SLOTS);
+	private volatile int currentSol = 0;
+
+	/**
+	 * Creates a new value column.
+	 *
+	 * @return
+	 */
+	synchronized Column newColumn() {
+		Column c = new Column(Math.max(INITIAL_SLOTS, locations.size()));
+		columns.add(c);
+		return c;
+	}
+
+	/**
+	 * Adds a location that keeps its slot.
+	 *
+	 * @param location
+	 * @return The slot
+	 */
+	synchronized int addLocation(Coordinates location) {
+		int slot = getSlot(location);
+		fixed.set(slot, Boolean.TRUE);
+		return slot;
+	}
+
+	/**
+	 * Gets the slot of a location, giving it one if needed.
+	 *
+	 * @param location
+	 * @return
+	 */
+	int getSlot(Coordinates location) {
+		Integer slot = index.get(location);
+		if (slot == null) {
+			slot = allocate(location);
+		}
+		if (!lastUsed.isCurrent(slot, currentSol)) {
+			lastUsed.set(slot, 0D, currentSol);
+		}
+		return slot;
+	}
+
+	private synchronized int allocate(Coordinates location) {
+		Integer slot = index.get(location);
+		if (slot != null) {
+			return slot;
+		}
+
+		if (free.isEmpty()) {
+			slot = locations.size();
+			locations.add(location);
+			fixed.add(Boolean.FALSE);
+		}
+		else {
+			slot = free.pop();
+			locations.set(slot, location);
+			fixed.set(slot, Boolean.FALSE);
+		}
+		index.put(location, slot);
+		return slot;
+	}
+
+	/**
+	 * A new sol has started. Releases the slots of locations not used during the previous sol.
+	 * This must not overlap with the simulation threads using the slots.
+	 *
+	 * @param sol
+	 */
+	synchronized void startSol(int sol) {
+		free.addAll(retiring);
+		retiring.clear();
+
+		int previous = currentSol;
+		for (int slot = 0; slot < locations.size(); slot++) {
+			Coordinates c = locations.get(slot);
+			if ((c != null) && !fixed.get(slot) && !lastUsed.isCurrent(slot, previous)) {
+				index.remove(c);
+				locations.set(slot, null);
+				lastUsed.clear(slot);
+				for (Column col : columns) {
+					col.clear(slot);
+				}
+				retiring.push(slot);
+			}
+		}
+		currentSol = sol;
+	}
+
+	/**
+	 * Clears the values of every column; the slots are kept.
+	 */
+	synchronized void clearValues() {
+		for (Column col : columns) {
+			col.clearAll();
+		}
+	}
+
+	/**
+	 * How many locations have a slot ?
+	 *
+	 * @return
+	 */
+	int size() {
+		return index.size();
+	}
+}
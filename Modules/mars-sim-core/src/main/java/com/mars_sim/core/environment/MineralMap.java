@@ -45,6 +45,17 @@ public interface MineralMap extends Serializable {
 	 */
 	public Map<String, Double> getSomeMineralConcentrations(Set<String> mineralsDisplaySet, Coordinates location, double mag);
 
+	/**
+	 * Gets the concentration grid of a mineral for a map magnification. It gives the
+	 * same values as {@link #getSomeMineralConcentrations(Set, Coordinates, double)}
+	 * sampled at the grid cells.
+	 * 
+	 * @param mineralType the mineral type
+	 * @param mag		  the map magnification
+	 * @return
+	 */
+	public MineralRaster getMineralRaster(String mineralType, double mag);
+
 	/**
 	 * Creates mineral concentrations at a given location.
 	 * 
@@ -0,0 +1,208 @@
+/*
+ * Mars Simulation Project
+ * MineralRaster.java
+ * @date 2024-07-08
+ * @author Barry Evans
+ */
+package com.mars_sim.core.environment;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import com.mars_sim.mapdata.location.Coordinates;
+
+/**
+ * The concentration of one mineral over the surface at one zoom level, held as a grid of
+ * phi and theta cells. Each cell has the value {@link MineralMap#getSomeMineralConcentrations(java.util.Set, Coordinates, double)}
+ * gives at the centre of the cell, so a map overlay can be drawn by sampling the grid rather
+ * than searching the deposits for every pixel.
+ * Cells are worked out in blocks of rows when first read, so only the part of the surface
+ * that has been looked at is held.
+ */
+public final class MineralRaster {
+
+	/** Smallest zoom level; each level is twice the magnification of the one below. */
+	public static final int MIN_LEVEL = -3;
+	/** Largest zoom level. */
+	public static final int MAX_LEVEL = 2;
+
+	/** Cells per radian at a magnification of 1. */
+	private static final double BASE_CELLS = 160D;
+	/** Search angle at a magnification of 1. */
+	static final double BASE_ANGLE = .025;
+
+	private static final int BLOCK_ROWS = 32;
+	private static final double LOG_2 = Math.log(2);
+	private static final double TWO_PI = Math.PI * 2;
+
+	/**
+	 * A deposit of the mineral.
+	 *
+	 * @param phi
+	 * @param theta
+	 * @param concentration Percentage concentration
+	 */
+	record Deposit(double phi, double theta, double concentration) {}
+
+	private final int level;
+	private final double cellsPerRadian;
+	private final double angle;
+	private final int width;
+	private final int height;
+
+	// Deposits sorted by phi
+	private final double[] depositPhi;
+	private final double[] depositTheta;
+	private final double[] depositConc;
+
+	private final AtomicReferenceArray<byte[]> blocks;
+
+	/**
+	 * Creates a raster for the deposits of a mineral.
+	 *
+	 * @param level Zoom level
+	 * @param deposits Deposits of the mineral
+	 */
+	MineralRaster(int level, Collection<Deposit> deposits) {
+		this.level = level;
+		double mag = Math.pow(2, level);
+		this.cellsPerRadian = BASE_CELLS * mag;
+		this.angle = BASE_ANGLE / mag;
+		this.height = (int) Math.ceil(Math.PI * cellsPerRadian) + 1;
+		this.width = (int) Math.ceil(2 * Math.PI * cellsPerRadian) + 1;
+
+		Deposit[] sorted = deposits.toArray(new Deposit[0]);
+		Arrays.sort(sorted, Comparator.comparingDouble(Deposit::phi));
+		depositPhi = new double[sorted.length];
+		depositTheta = new double[sorted.length];
+		depositConc = new double[sorted.length];
+		for (int i = 0; i < sorted.length; i++) {
+			depositPhi[i] = sorted[i].phi();
+			depositTheta[i] = sorted[i].theta();
+			depositConc[i] = sorted[i].concentration();
+		}
+
+		blocks = new AtomicReferenceArray<>((height + BLOCK_ROWS - 1) / BLOCK_ROWS);
+	}
+
+	/**
+	 * Gets the zoom level for a map magnification.
+	 *
+	 * @param mag
+	 * @return
+	 */
+	public static int getLevel(double mag) {
+		int level = (int) Math.round(Math.log(mag) / LOG_2);
+		return Math.max(MIN_LEVEL, Math.min(MAX_LEVEL, level));
+	}
+
+	/**
+	 * Gets the zoom level of this raster.
+	 *
+	 * @return
+	 */
+	public int getLevel() {
+		return level;
+	}
+
+	/**
+	 * Gets the concentration at a location scaled to 0 to 255, where 255 is 100%.
+	 *
+	 * @param phi Between 0 and PI
+	 * @param theta Any angle; it is wrapped around the globe
+	 * @return
+	 */
+	public int getScaledConcentration(double phi, double theta) {
+		int row = (int) Math.round(phi * cellsPerRadian);
+		if (row < 0 || row >= height || Double.isNaN(theta)) {
+			return 0;
+		}
+		double wrapped = theta % TWO_PI;
+		if (wrapped < 0) {
+			wrapped += TWO_PI;
+		}
+		int col = Math.min(width - 1, (int) Math.round(wrapped * cellsPerRadian));
+
+		int block = row / BLOCK_ROWS;
+		byte[] cells = blocks.get(block);
+		if (cells == null) {
+			// Two threads may both work out a block; the result is the same
+			cells = createBlock(block);
+			if (!blocks.compareAndSet(block, null, cells)) {
+				cells = blocks.get(block);
+			}
+		}
+		return cells[((row - (block * BLOCK_ROWS)) * width) + col] & 0xff;
+	}
+
+	/**
+	 * Works out the cells of a block of rows by adding the effect of each deposit near it.
+	 */
+	private byte[] createBlock(int block) {
+		int firstRow = block * BLOCK_ROWS;
+		int rows = Math.min(BLOCK_ROWS, height - firstRow);
+		float[] totals = new float[rows * width];
+
+		double minPhi = (firstRow / cellsPerRadian) - angle;
+		double maxPhi = ((firstRow + rows - 1) / cellsPerRadian) + angle;
+
+		int start = Arrays.binarySearch(depositPhi, minPhi);
+		if (start < 0) {
+			start = -start - 1;
+		}
+		for (int d = start; (d < depositPhi.length) && (depositPhi[d] < maxPhi); d++) {
+			addDeposit(d, firstRow, rows, totals);
+		}
+
+		byte[] cells = new byte[totals.length];
+		for (int i = 0; i < totals.length; i++) {
+			cells[i] = (byte) (int) (255 * (Math.min(100D, totals[i]) / 100D));
+		}
+		return cells;
+	}
+
+	private void addDeposit(int d, int firstRow, int rows, float[] totals) {
+		double phi = depositPhi[d];
+		double theta = depositTheta[d];
+		double conc = depositConc[d];
+		if (conc <= 0) {
+			return;
+		}
+
+		int fromRow = Math.max(firstRow, (int) Math.floor((phi - angle) * cellsPerRadian));
+		int toRow = Math.min(firstRow + rows - 1, (int) Math.ceil((phi + angle) * cellsPerRadian));
+		int fromCol = Math.max(0, (int) Math.floor((theta - angle) * cellsPerRadian));
+		int toCol = Math.min(width - 1, (int) Math.ceil((theta + angle) * cellsPerRadian));
+
+		for (int row = fromRow; row <= toRow; row++) {
+			double cellPhi = row / cellsPerRadian;
+			if (Math.abs(cellPhi - phi) >= angle) {
+				continue;
+			}
+			int idx = (row - firstRow) * width;
+			for (int col = fromCol; col <= toCol; col++) {
+				double cellTheta = col / cellsPerRadian;
+				if (Math.abs(cellTheta - theta) >= angle) {
+					continue;
+				}
+
+				double distance = getDistance(cellPhi, cellTheta, phi, theta);
+				if (distance < conc) {
+					totals[idx + col] += (float) (conc - distance);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Gets the distance in km between two locations; the same as {@link Coordinates#getDistance(Coordinates)}.
+	 */
+	private static double getDistance(double phi1, double theta1, double phi2, double theta2) {
+		double sinPhi = Math.sin(Math.abs(phi1 - phi2) / 2D);
+		double sinTheta = Math.sin(Math.abs(theta1 - theta2) / 2D);
+		double a = (sinPhi * sinPhi) + (Math.sin(phi1) * Math.sin(phi2) * sinTheta * sinTheta);
+		return Coordinates.MARS_RADIUS_KM * 2D * Math.asin(Math.sqrt(a));
+	}
+}
@@ -17,6 +17,7 @@ import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -30,6 +31,7 @@ import com.mars_sim.core.UnitManager;
 import com.mars_sim.core.environment.MineralMapConfig.MineralType;
 import com.mars_sim.core.logging.SimLogger;
 import com.mars_sim.mapdata.location.Coordinates;
+import com.mars_sim.mapdata.location.CoordinatesGrid;
 import com.mars_sim.mapdata.location.Direction;
 import com.mars_sim.tools.Msg;
 import com.mars_sim.tools.util.RandomUtil;
@@ -78,11 +80,19 @@ public class RandomMineralMap implements MineralMap {
 
 	private String[] mineralTypeNames;
 	
-	private transient Set<Coordinates> allLocations;
+	// Spatial index of the locations in allMineralsByLoc
+	private transient volatile CoordinatesGrid<Coordinates> locationIndex;
 	
 	private transient MineralMapConfig mineralMapConfig;
 	
 	private transient UnitManager unitManager;
+
+	/** Concentration grids already worked out; dropped when a deposit changes. Guarded by this. */
+	private transient Map<RasterKey, MineralRaster> rasters;
+	/** Changes with every deposit so a grid worked out from older deposits is not kept. */
+	private transient int depositVersion;
+
+	private record RasterKey(String mineralType, int level) {}
 	
 	/**
 	 * Constructor.
@@ -92,8 +102,30 @@ public class RandomMineralMap implements MineralMap {
 		allMineralsByLoc = new HashMap<>();
 		// Determine mineral concentrations.
 		determineMineralConcentrations();
-		
-		allLocations = allMineralsByLoc.keySet();
+	}
+
+	/**
+	 * Gets the spatial index of the mineral locations; it is rebuilt after a reload.
+	 * This is called by the map rendering threads so the index is built under a lock.
+	 * The index is added to under the same lock, so it must also be held to search it.
+	 * 
+	 * @return
+	 */
+	private CoordinatesGrid<Coordinates> getLocationIndex() {
+		CoordinatesGrid<Coordinates> index = locationIndex;
+		if (index == null) {
+			synchronized (this) {
+				index = locationIndex;
+				if (index == null) {
+					index = new CoordinatesGrid<>();
+					for (Coordinates c : allMineralsByLoc.keySet()) {
+						index.add(c, c);
+					}
+					locationIndex = index;
+				}
+			}
+		}
+		return index;
 	}
 
 	/**
@@ -204,7 +236,15 @@ public class RandomMineralMap implements MineralMap {
 			map.put(mineralName, (int)Math.round(concentration));
 		}
 		
-		allMineralsByLoc.put(newLocation, map);
+		synchronized (this) {
+			if ((allMineralsByLoc.put(newLocation, map) == null) && (locationIndex != null)) {
+				locationIndex.add(newLocation, newLocation);
+			}
+			depositVersion++;
+			if (rasters != null) {
+				rasters.clear();
+			}
+		}
 
 		return remainingConc;
 	}
@@ -361,11 +401,18 @@ public class RandomMineralMap implements MineralMap {
 		
 		boolean emptyMap = true;
 		
-		if (allLocations == null) {
-			allLocations = allMineralsByLoc.keySet();
+		// Only visit the deposits in the grid cells around the location
+		Map<Coordinates, Map<String, Integer>> nearby = new LinkedHashMap<>();
+		synchronized (this) {
+			for (Coordinates c : getLocationIndex().getInBox(
+						Math.max(LIMIT, aLocation.getPhi() - angle),
+						Math.min(Math.PI - LIMIT, aLocation.getPhi() + angle),
+						aLocation.getTheta() - angle, aLocation.getTheta() + angle)) {
+				nearby.put(c, allMineralsByLoc.get(c));
+			}
 		}
-		
-		Iterator<Coordinates> i = allLocations.iterator();
+
+		Iterator<Coordinates> i = nearby.keySet().iterator();
 		while (i.hasNext()) {
 			Coordinates c = i.next();
 	
@@ -378,7 +425,7 @@ public class RandomMineralMap implements MineralMap {
 			if (phi > LIMIT && phi < Math.PI - LIMIT
 				&& phiDiff < angle && thetaDiff < angle) {
 				
-				Map<String, Integer> map = allMineralsByLoc.get(c);
+				Map<String, Integer> map = nearby.get(c);
 				
 				Set<String> mineralNames = updateMineralDisplay(mineralsDisplaySet, map.keySet());
 				if (mineralNames.isEmpty()) {
@@ -424,6 +471,64 @@ public class RandomMineralMap implements MineralMap {
 		return newMap;
 	}
 
+	/**
+	 * Gets the concentration grid of a mineral for a map magnification.
+	 * 
+	 * @param mineralType the mineral type
+	 * @param mag		  the map magnification factor
+	 * @return
+	 */
+	@Override
+	public MineralRaster getMineralRaster(String mineralType, double mag) {
+		int level = MineralRaster.getLevel(mag);
+		RasterKey key = new RasterKey(mineralType, level);
+		List<MineralRaster.Deposit> deposits;
+		int version;
+		synchronized (this) {
+			if (rasters == null) {
+				rasters = new HashMap<>();
+			}
+			MineralRaster raster = rasters.get(key);
+			if (raster != null) {
+				return raster;
+			}
+			deposits = getDeposits(mineralType);
+			version = depositVersion;
+		}
+
+		// Worked out outside the lock; only kept if no deposit has changed meanwhile
+		MineralRaster raster = new MineralRaster(level, deposits);
+		synchronized (this) {
+			if (version == depositVersion) {
+				MineralRaster existing = rasters.putIfAbsent(key, raster);
+				if (existing != null) {
+					raster = existing;
+				}
+			}
+		}
+		return raster;
+	}
+
+	/**
+	 * Gets the deposits of a mineral that are shown on a map. The caller must hold
+	 * the lock as deposits may be added by another thread.
+	 * 
+	 * @param mineralType
+	 * @return
+	 */
+	private List<MineralRaster.Deposit> getDeposits(String mineralType) {
+		List<MineralRaster.Deposit> result = new ArrayList<>();
+		for (Map.Entry<Coordinates, Map<String, Integer>> e : allMineralsByLoc.entrySet()) {
+			Integer conc = e.getValue().get(mineralType);
+			double phi = e.getKey().getPhi();
+			// Same boundary as getSomeMineralConcentrations
+			if (conc != null && phi > LIMIT && phi < Math.PI - LIMIT) {
+				result.add(new MineralRaster.Deposit(phi, e.getKey().getTheta(), conc));
+			}
+		}
+		return result;
+	}
+
 	/**
 	 * Gets all of the mineral concentrations at a given location.
 	 * 
@@ -504,19 +609,9 @@ public class RandomMineralMap implements MineralMap {
 	 */
 	public Set<Coordinates> generateMineralLocations(Coordinates startingLocation, double range) {
 
-		Set<Coordinates> locales = new HashSet<>();
-		
-		if (allLocations == null) {
-			allLocations = allMineralsByLoc.keySet();
-		}
-		
-		Iterator<Coordinates> i = allLocations.iterator();
-		while (i.hasNext()) {
-			Coordinates c = i.next();
-			double distance = Coordinates.computeDistance(startingLocation, c);
-			if (range >= distance) {
-				locales.add(c);
-			}
+		Set<Coordinates> locales;
+		synchronized (this) {
+			locales = new HashSet<>(getLocationIndex().findWithin(startingLocation, range));
 		}
 
 		int size = locales.size();
@@ -573,7 +668,11 @@ public class RandomMineralMap implements MineralMap {
 	public void destroy() {
 		allMineralsByLoc.clear();
 		allMineralsByLoc = null;
-		allLocations.clear();
-		allLocations = null;
+		synchronized (this) {
+			if (locationIndex != null) {
+				locationIndex.clear();
+				locationIndex = null;
+			}
+		}
 	}
 }
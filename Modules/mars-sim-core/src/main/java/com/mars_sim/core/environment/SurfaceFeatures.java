@@ -6,16 +6,14 @@
  */
 package com.mars_sim.core.environment;
 
-import java.io.IOException;
-import java.io.ObjectInputStream;
 import java.io.Serializable;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.locks.ReentrantLock;
 
+import com.mars_sim.core.environment.LocationSlots.Column;
 import com.mars_sim.core.logging.SimLogger;
 import com.mars_sim.core.structure.Settlement;
 import com.mars_sim.core.time.ClockPulse;
@@ -71,10 +69,10 @@ public class SurfaceFeatures implements Serializable, Temporal {
 
 	private static final double OPTICAL_DEPTH_STARTING = 0.2342;
 
-	/** The most recent value of optical depth by Coordinate. */
-	private transient Map<Coordinates, Double> opticalDepthMap = new HashMap<>();
-	/** The most recent value of solar irradiance by Coordinate. */
-	private transient Map<Coordinates, Double> currentIrradiance = new HashMap<>();
+	/** The most recent value of optical depth by location slot of the Weather. */
+	private transient volatile Column opticalDepthCache;
+	/** The most recent value of solar irradiance by location slot of the Weather. */
+	private transient volatile Column irradianceCache;
 	
 	// non-static instances
 	private MineralMap mineralMap;
@@ -84,9 +82,6 @@ public class SurfaceFeatures implements Serializable, Temporal {
 	private OrbitInfo orbitInfo;
 	private TerrainElevation terrainElevation;
 	
-	private final ReentrantLock opticalDepthLock = new ReentrantLock(true);
-	private final ReentrantLock sunlightLock = new ReentrantLock(true);
-
 	/** The set of locations that have been declared as Region of Interest (ROI). */
 	private Set<ExploredLocation> regioOfInterestLocations;
 
@@ -127,23 +122,33 @@ public class SurfaceFeatures implements Serializable, Temporal {
 	 * @return
 	 */
 	public double getOpticalDepth(Coordinates location) {
-		Double value = opticalDepthMap.get(location);
-		if (value != null)
-			return value.doubleValue();
+		if (opticalDepthCache == null) {
+			createCaches();
+		}
+		int slot = weather.getLocationSlots().getSlot(location);
+		// the value of optical depth doesn't need to be refreshed too often
+		int epoch = weather.getEpoch() / OPTICAL_DEPTH_REFRESH;
+		if (opticalDepthCache.isCurrent(slot, epoch)) {
+			return opticalDepthCache.get(slot);
+		}
 
-		opticalDepthLock.lock();
-		
 		double result = computeOpticalDepth(location);
-
-		// Make cache thread safe as this may be done on demand
-//		synchronized(opticalDepthMap)
-			opticalDepthMap.put(location, result);
-		
-		opticalDepthLock.unlock();
+		opticalDepthCache.set(slot, result, epoch);
 
 		return result;
 	}
 
+	/**
+	 * Creates the cache columns in the location slots of the Weather.
+	 */
+	private synchronized void createCaches() {
+		if (opticalDepthCache == null) {
+			LocationSlots slots = weather.getLocationSlots();
+			irradianceCache = slots.newColumn();
+			opticalDepthCache = slots.newColumn();
+		}
+	}
+
 	/**
 	 * Computes the optical depth due to the martian dust.
 	 *
@@ -169,14 +174,7 @@ public class SurfaceFeatures implements Serializable, Temporal {
 
 		// Equation: tau = 0.2342 + 0.2247 * yestersolAirPressureVariation;
 		// the starting value for opticalDepth is 0.2342. See Ref below
-		if (opticalDepthMap.containsKey(location))
-			tau = (.9 * opticalDepthMap.get(location) 
-				 + .1 * (OPTICAL_DEPTH_STARTING 
-						+ newTau
-						+ weather.getWindSpeed(location) / 20));
-		else {
-			tau = OPTICAL_DEPTH_STARTING + newTau;
-		}
+		tau = OPTICAL_DEPTH_STARTING + newTau;
 
 		// Make tau oscillate between .1 and 6 
 		if (tau > 3.0)
@@ -266,18 +264,18 @@ public class SurfaceFeatures implements Serializable, Temporal {
 	 * @return solar irradiance (W/m2)
 	 */
 	public double getSolarIrradiance(Coordinates location) {
-		Double cachedValue = currentIrradiance.get(location);
-		if (cachedValue != null)
-			return cachedValue.doubleValue();
+		if (opticalDepthCache == null) {
+			createCaches();
+		}
+		int slot = weather.getLocationSlots().getSlot(location);
+		// Refreshed every msol
+		int epoch = weather.getEpoch();
+		if (irradianceCache.isCurrent(slot, epoch)) {
+			return irradianceCache.get(slot);
+		}
 
-		sunlightLock.lock();
-			
 		double result = calculateSolarIrradiance(location);
-		// Make cache thread safe as this may be done on demand
-//		synchronized(currentIrradiance)
-			currentIrradiance.put(location, result);
-			
-		sunlightLock.unlock();
+		irradianceCache.set(slot, result, epoch);
 
 		return result;
 	}
@@ -467,10 +465,6 @@ public class SurfaceFeatures implements Serializable, Temporal {
 		else if (gh < 0)
 			gh = 0;
 
-		// Take the average of the last and current irradiance
-		Double lastGh = currentIrradiance.get(location);
-		if (lastGh != null)
-			gh = (gh + lastGh.doubleValue()) / 2;
 		return gh;
 	}
 
@@ -687,45 +681,17 @@ public class SurfaceFeatures implements Serializable, Temporal {
 	@Override
 	public boolean timePassing(ClockPulse pulse) {
 
-		if (pulse.isNewMSol()) {
-			double msol = pulse.getMarsTime().getMillisolInt();
-			
-			// the value of optical depth doesn't need to be refreshed too often
-			if (msol % OPTICAL_DEPTH_REFRESH == 0) {
-				opticalDepthMap.clear();
-			}
-			
-			// Precalculate entries just for Settlements
-			currentIrradiance.clear();
-		}
-		
+		// Cached values expire by their epoch so there is nothing to clear
 		return true;
 	}
 
-	/**
-	 * Executes the followings when deserializing this class. 
-	 * 
-	 * @param aInputStream
-	 * @throws ClassNotFoundException
-	 * @throws IOException
-	 */
-	private void readObject(ObjectInputStream aInputStream) throws ClassNotFoundException, IOException {   
-		// Perform the default de-serialization first
-	    aInputStream.defaultReadObject();
-	    
-		opticalDepthMap = new HashMap<>();
-		currentIrradiance = new HashMap<>();
-	}
-	 
 	/**
 	 * Prepares object for garbage collection.
 	 */
 	public void destroy() {
 
-		opticalDepthMap.clear();
-		opticalDepthMap = null;
-		currentIrradiance.clear();
-		currentIrradiance = null;
+		opticalDepthCache = null;
+		irradianceCache = null;
 		mineralMap.destroy();
 		mineralMap = null;
 		regioOfInterestLocations.clear();
@@ -13,15 +13,16 @@ import java.util.Collection;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.concurrent.locks.ReentrantLock;
 
 import com.mars_sim.core.Simulation;
 import com.mars_sim.core.air.AirComposition;
 import com.mars_sim.core.data.MSolDataItem;
 import com.mars_sim.core.data.MSolDataLogger;
+import com.mars_sim.core.environment.LocationSlots.Column;
 import com.mars_sim.core.logging.SimLogger;
 import com.mars_sim.core.structure.Settlement;
 import com.mars_sim.core.time.ClockPulse;
+import com.mars_sim.core.time.MarsTime;
 import com.mars_sim.core.time.MasterClock;
 import com.mars_sim.core.time.Temporal;
 import com.mars_sim.mapdata.location.Coordinates;
@@ -87,18 +88,17 @@ public class Weather implements Serializable, Temporal {
 	
 	private List<Coordinates> coordinateList;
 
-	private transient Map<Coordinates, Double> temperatureCacheMap;
-	private transient Map<Coordinates, Double> airPressureCacheMap;
-	private transient Map<Coordinates, Double> windSpeedCacheMap;
-	private transient Map<Coordinates, Integer> windDirCacheMap;
+	/** Slots of the locations with cached weather; created on demand. */
+	private transient volatile LocationSlots slots;
+	private transient Column temperatureCache;
+	private transient Column airPressureCache;
+	private transient Column windSpeedCache;
+	private transient Column windDirCache;
 
 	private List<DustStorm> dustStorms;
 	
 	private Map<Coordinates, SunData> sunDataMap;
 	
-	private final ReentrantLock tempLock = new ReentrantLock(true);
-	private final ReentrantLock pressureLock = new ReentrantLock(true);
-	
 	private OrbitInfo orbitInfo;
 	private MasterClock clock;
 	private SurfaceFeatures surfaceFeatures;
@@ -109,11 +109,6 @@ public class Weather implements Serializable, Temporal {
 		
 		coordinateList = new ArrayList<>();
 		dustStorms = new ArrayList<>();
-		
-		temperatureCacheMap = new HashMap<>();
-		airPressureCacheMap = new HashMap<>();
-		windSpeedCacheMap = new HashMap<>();
-		windDirCacheMap = new HashMap<>();
 
 		this.orbitInfo = orbitInfo;
 		this.clock = clock;
@@ -124,13 +119,54 @@ public class Weather implements Serializable, Temporal {
 	}
 
 	/**
-	 * Adds a location to the coordinate list.
+	 * Adds a location to the coordinate list. The location keeps its cache slot.
 	 * 
 	 * @param location
 	 */
 	public void addLocation(Coordinates location) {
-		if (!coordinateList.contains(location))
+		if (!coordinateList.contains(location)) {
 			coordinateList.add(location);
+			getLocationSlots().addLocation(location);
+		}
+	}
+
+	/**
+	 * Gets the slots of the locations with cached values; these are shared with SurfaceFeatures.
+	 * 
+	 * @return
+	 */
+	LocationSlots getLocationSlots() {
+		LocationSlots s = slots;
+		if (s == null) {
+			s = createSlots();
+		}
+		return s;
+	}
+
+	/**
+	 * Creates the location slots and the weather value columns.
+	 */
+	private synchronized LocationSlots createSlots() {
+		if (slots == null) {
+			LocationSlots s = new LocationSlots();
+			temperatureCache = s.newColumn();
+			airPressureCache = s.newColumn();
+			windSpeedCache = s.newColumn();
+			windDirCache = s.newColumn();
+			coordinateList.forEach(s::addLocation);
+			slots = s;
+		}
+		return slots;
+	}
+
+	/**
+	 * Gets the current epoch of the cached values, i.e. the millisols since the start of the mission.
+	 * 
+	 * @return
+	 */
+	int getEpoch() {
+		MarsTime now = clock.getMarsTime();
+		return now.getMissionSol() * 1000 + now.getMillisolInt();
 	}
 
 	/**
@@ -161,10 +197,14 @@ public class Weather implements Serializable, Temporal {
 	 * @return wind speed in m/s.
 	 */
 	private double computeWindSpeed(Coordinates location) {
+		int slot = getLocationSlots().getSlot(location);
+		int epoch = getEpoch();
+		if (windSpeedCache.isCurrent(slot, epoch)) {
+			// Already moved on this msol
+			return windSpeedCache.get(slot);
+		}
+
 		double newSpeed = 0;
-		
-		if (windSpeedCacheMap == null)
-			windSpeedCacheMap = new HashMap<>();
 
 		// On sol 214 in this list of Viking wind speeds, 
 		// 25.9 m/sec (93.24 km/hr) was recorded.
@@ -175,11 +215,9 @@ public class Weather implements Serializable, Temporal {
 		// of the storm's arrival they  had increased to 17 m/s (61 km/h), 
 		// with gusts up to 26 m/s (94 km/h)
 		// https://en.wikipedia.org/wiki/Climate_of_Mars
-		double optical = surfaceFeatures.getOpticalDepth(location);
-		
-		if (windSpeedCacheMap.containsKey(location)) {
+		if (windSpeedCache.has(slot)) {
 			// Load the previous wind speed
-			double currentSpeed = windSpeedCacheMap.get(location);
+			double currentSpeed = windSpeedCache.get(slot);
 			
 			// Check if the location is covered by a Dust Storm
 			DustStorm ds = null;
@@ -230,12 +268,10 @@ public class Weather implements Serializable, Temporal {
 			
 			else { // not a new sol, no need to check for dust storm
 				
-				int msol = clock.getMarsTime().getMillisolInt();
-				
 				// the value of optical depth doesn't need to be refreshed too often
-				if (clock.getClockPulse() != null && clock.getClockPulse().isNewMSol()
-						&& msol % WINDSPEED_REFRESH == 0) {
+				if (epoch % WINDSPEED_REFRESH == 0) {
 					
+					double optical = surfaceFeatures.getOpticalDepth(location);
 					double rand = RandomUtil.getRandomDouble(-0.02, 0.02);
 					
 					double[] terrain = surfaceFeatures.getTerrainElevation().getTerrainProfile(location);
@@ -288,7 +324,7 @@ public class Weather implements Serializable, Temporal {
 
 		// Note : 1 mile per hour (mph) = 0.44704 meter per sec (m/s)
 		
-		windSpeedCacheMap.put(location, newSpeed);
+		windSpeedCache.set(slot, newSpeed, epoch);
 		
 		return newSpeed;
 	}
@@ -322,15 +358,18 @@ public class Weather implements Serializable, Temporal {
 		if (getWindSpeed(location) < 0.01)
 			return 0;
 
-		int newDir = RandomUtil.getRandomInt(359);
+		int slot = getLocationSlots().getSlot(location);
+		int epoch = getEpoch();
+		if (windDirCache.isCurrent(slot, epoch)) {
+			return (int) windDirCache.get(slot);
+		}
 
-		if (windDirCacheMap == null)
-			windDirCacheMap = new HashMap<>();
+		int newDir = RandomUtil.getRandomInt(359);
 
-		if (windDirCacheMap.containsKey(location))
+		if (windDirCache.has(slot))
 			// TODO: should the ratio of the weight of the past direction and present
 			// direction of the wind be 9 to 1 ?
-			result = (windDirCacheMap.get(location) * 9 + newDir) / 10;
+			result = ((int) windDirCache.get(slot) * 9 + newDir) / 10;
 		else {
 			result = newDir;
 		}
@@ -338,7 +377,7 @@ public class Weather implements Serializable, Temporal {
 		if (result > 360)
 			result = result - 360;
 
-		windDirCacheMap.put(location, result);
+		windDirCache.set(slot, result, epoch);
 
 		return result;
 	}
@@ -366,32 +405,18 @@ public class Weather implements Serializable, Temporal {
 	 * @return air pressure in kPa.
 	 */
 	public double getCachedAirPressure(Coordinates location) {
-		double newP = 0;
-		
-		// Lazy instantiation of airPressureCacheMap.
-		if (airPressureCacheMap == null) {
-			airPressureCacheMap = new HashMap<>();
+		int slot = getLocationSlots().getSlot(location);
+		int epoch = getEpoch() / PRESSURE_REFRESH;
+		if (airPressureCache.isCurrent(slot, epoch)) {
+			return airPressureCache.get(slot);
 		}
 
-		pressureLock.lock();
-		
-		if (clock.getClockPulse() != null && clock.getClockPulse().isNewMSol()
-				&& clock.getMarsTime().getMillisolInt() % PRESSURE_REFRESH == 1) {
-			newP = calculateAirPressure(location, 0);
-			airPressureCacheMap.put(location, newP);
-		}
-		else {
-			newP = airPressureCacheMap.computeIfAbsent(location, l -> calculateAirPressure(l, 0));
-		}
-		
-		double prevP = 0;
-		if (airPressureCacheMap.containsKey(location)) {
-			prevP = airPressureCacheMap.get(location);
+		double newP = calculateAirPressure(location, 0);
+		if (airPressureCache.has(slot)) {
+			double prevP = airPressureCache.get(slot);
 			newP = Math.round((newP + prevP) / 2.0 * 100.0) / 100.0;
-			airPressureCacheMap.put(location, newP);
 		}
-		
-		pressureLock.unlock();
+		airPressureCache.set(slot, newP, epoch);
 		
 		return newP;
 	}
@@ -438,31 +463,18 @@ public class Weather implements Serializable, Temporal {
 	 * @return temperature in deg Celsius.
 	 */
 	public double getTemperature(Coordinates location) {
-		double newT = 0;
-		
-		// Lazy instantiation of temperatureCacheMap.
-		if (temperatureCacheMap == null) {
-			temperatureCacheMap = new HashMap<>();
+		int slot = getLocationSlots().getSlot(location);
+		int epoch = getEpoch() / TEMPERATURE_REFRESH;
+		if (temperatureCache.isCurrent(slot, epoch)) {
+			return temperatureCache.get(slot);
 		}
-	
-		tempLock.lock();
-		
-		if (clock.getClockPulse() != null && clock.getClockPulse().isNewMSol()
-				&& clock.getMarsTime().getMillisolInt() % TEMPERATURE_REFRESH == 0) {
-			newT = calculateTemperature(location);
-		} 
-		else {
-			newT = temperatureCacheMap.computeIfAbsent(location, l -> calculateTemperature(l));
-		}
-		
-		double prevT = 0;
-		if (temperatureCacheMap.containsKey(location)) {
-			prevT = temperatureCacheMap.get(location);
+
+		double newT = calculateTemperature(location, slot);
+		if (temperatureCache.has(slot)) {
+			double prevT = temperatureCache.get(slot);
 			newT = Math.round((newT + prevT) / 2.0 * 100.0) / 100.0;
-			temperatureCacheMap.put(location, newT);
 		}
-		
-		tempLock.unlock();
+		temperatureCache.set(slot, newT, epoch);
 
 		return newT;
 	}
@@ -500,6 +512,15 @@ public class Weather implements Serializable, Temporal {
 	 * @return temperature in Celsius.
 	 */
 	public double calculateTemperature(Coordinates location) {
+		return calculateTemperature(location, getLocationSlots().getSlot(location));
+	}
+
+	/**
+	 * Calculates the surface temperature at a location with its cache slot.
+	 * 
+	 * @return temperature in Celsius.
+	 */
+	private double calculateTemperature(Coordinates location, int slot) {
 
 		double t = 0;
 
@@ -587,11 +608,8 @@ public class Weather implements Serializable, Temporal {
 
 			// (5). Add windspeed
 			double windDt = 0;
-			if (windSpeedCacheMap == null)
-				windSpeedCacheMap = new HashMap<>();
-
-			if (windSpeedCacheMap.containsKey(location))
-				windDt = 10.0 / (1 + Math.exp(-.15 * windSpeedCacheMap.get(location)));
+			if (windSpeedCache.has(slot))
+				windDt = 10.0 / (1 + Math.exp(-.15 * windSpeedCache.get(slot)));
 
 			// Subtotal		
 			t = equatorialTemperature + VIKING_DT - latDt - terrainDT + seasonalDt;
@@ -614,41 +632,21 @@ public class Weather implements Serializable, Temporal {
 			// (7). Total
 			t += rand;  
 					
-			double previousTemperature = 0;
-			if (temperatureCacheMap == null) {
-				temperatureCacheMap = new HashMap<>();
-			}
-
-			if (temperatureCacheMap.containsKey(location)) {
-				previousTemperature = temperatureCacheMap.get(location);
+			// A fresh slot has no previous temperature to smooth with
+			if (temperatureCache.has(slot)) {
+				double previousTemperature = temperatureCache.get(slot);
+				t = Math.round((t + previousTemperature) / 2.0 * 100.0) / 100.0;
 			}
-
-			t = Math.round((t + previousTemperature) / 2.0 * 100.0) / 100.0;
 		}
 
 		return t;
 	}
 
 	/**
-	 * Clears weather-related parameter cache map to prevent excessive build-up of
-	 * key-value sets.
+	 * Clears the cached weather values; they are recalculated on demand.
 	 */
-	public synchronized void clearMap() {
-		if (temperatureCacheMap != null) {
-			temperatureCacheMap.clear();
-		}
-
-		if (airPressureCacheMap != null) {
-			airPressureCacheMap.clear();
-		}
-		
-		if (windSpeedCacheMap != null) {
-			windSpeedCacheMap.clear();
-		}
-		
-		if (windDirCacheMap != null) {
-			windDirCacheMap.clear();
-		}
+	public void clearMap() {
+		getLocationSlots().clearValues();
 	}
 
 	/**
@@ -737,6 +735,9 @@ public class Weather implements Serializable, Temporal {
 		}
 
 		if (pulse.isNewSol()) {
+			// Free the cache slots of locations no longer visited
+			getLocationSlots().startSol(pulse.getMarsTime().getMissionSol());
+
 			// Calculate the new sun data for each location based on yestersol
 			coordinateList.forEach(this::calculateSunRecord);
 					
@@ -954,22 +955,7 @@ public class Weather implements Serializable, Temporal {
 		coordinateList.clear();
 		coordinateList = null;
 		
-		if (temperatureCacheMap != null) {
-			temperatureCacheMap.clear();
-			temperatureCacheMap = null;
-		}
-		if (airPressureCacheMap != null) {
-			airPressureCacheMap.clear();
-			airPressureCacheMap = null;
-		}
-		if (windSpeedCacheMap != null) {
-			windSpeedCacheMap.clear();
-			windSpeedCacheMap = null;
-		}
-		if (windDirCacheMap != null) {
-			windDirCacheMap.clear();
-			windDirCacheMap = null;
-		}
+		slots = null;
 		if (dustStorms != null) {
 			dustStorms.clear();
 			dustStorms = null;
@@ -7,15 +7,14 @@
 package com.mars_sim.core.equipment;
 
 import java.io.Serializable;
-import java.util.HashMap;
-import java.util.Map;
+import java.util.HashSet;
 import java.util.Set;
-import java.util.stream.Collectors;
 
 import com.mars_sim.core.Unit;
 import com.mars_sim.core.UnitEventType;
+import com.mars_sim.core.data.IdDoubleMap;
+import com.mars_sim.core.data.IdIntMap;
 import com.mars_sim.core.logging.SimLogger;
-import com.mars_sim.core.resource.ItemResource;
 import com.mars_sim.core.resource.ItemResourceUtil;
 import com.mars_sim.core.resource.ResourceUtil;
 
@@ -24,48 +23,6 @@ import com.mars_sim.core.resource.ResourceUtil;
  */
 public class MicroInventory implements Serializable {
 
-	static final class AmountStored implements Serializable {
-
-		/** default serial id. */
-		private static final long serialVersionUID = 1L;
-
-		double capacity = 0;
-		double storedAmount = 0;
-
-		AmountStored(double capacity) {
-			super();
-			this.capacity = capacity;
-		}
-
-		@Override
-		public String toString() {
-			return "AmountStored [capacity=" + capacity
-					+ ", storedAmount=" + storedAmount
-					+ "]";
-		}
-	}
-
-	static final class ItemStored implements Serializable {
-
-		/** default serial id. */
-		private static final long serialVersionUID = 1L;
-
-		int quantity = 0;
-		double massPerItem = 0;
-		double totalMass = 0;
-
-		ItemStored() {
-			super();
-		}
-
-		@Override
-		public String toString() {
-			return "ItemStored quantity=" + quantity + " massPerItem=" + massPerItem
-					+ " totalMass=" + totalMass
-					+ "]";
-		}
-	}
-
 	/** default serial id. */
 	private static final long serialVersionUID = 1L;
 
@@ -76,10 +33,14 @@ public class MicroInventory implements Serializable {
 
 	/** The owner of this micro inventory. */
 	private Unit owner;
-	/** A map of amount resources. */
-	private Map<Integer, AmountStored> amountStorage = new HashMap<>();
-	/** A map of item resources. */
-	private Map<Integer, ItemStored> itemStorage = new HashMap<>();
+	/** The capacity of the supported amount resources. */
+	private IdDoubleMap amountCapacity = new IdDoubleMap();
+	/** The quantity of the supported amount resources. */
+	private IdDoubleMap amountStored = new IdDoubleMap();
+	/** The quantity of item resources. */
+	private IdIntMap itemQuantity = new IdIntMap();
+	/** The mass per item of item resources. */
+	private IdDoubleMap itemMass = new IdDoubleMap();
 
 	private double amountTotalMass = 0D;
 	private double itemTotalMass = 0D;
@@ -120,11 +81,7 @@ public class MicroInventory implements Serializable {
      * @return capacity (kg).
      */
     public double getCapacity(int resource) {
-		AmountStored s = amountStorage.get(resource);
-		if (s != null) {
-			return s.capacity;
-		}
-		return sharedCapacity;
+		return amountCapacity.getOrDefault(resource, sharedCapacity);
     }
 
 	/**
@@ -134,13 +91,10 @@ public class MicroInventory implements Serializable {
 	 * @param capacity
 	 */
 	public void setCapacity(int resource, double capacity) {
-		AmountStored s = amountStorage.get(resource);
-		if (s != null) {
-			s.capacity = capacity;
-		}
-		else {
-			amountStorage.put(resource, new AmountStored(capacity));
+		if (!amountCapacity.containsKey(resource)) {
+			amountStored.put(resource, 0D);
 		}
+		amountCapacity.put(resource, capacity);
 	}
 
 	/**
@@ -150,13 +104,10 @@ public class MicroInventory implements Serializable {
 	 * @param capacity
 	 */
 	public void addCapacity(int resource, double capacity) {
-		AmountStored s = amountStorage.get(resource);
-		if (s != null) {
-			s.capacity += capacity;
-		}
-		else {
-			amountStorage.put(resource, new AmountStored(capacity));
+		if (!amountCapacity.containsKey(resource)) {
+			amountStored.put(resource, 0D);
 		}
+		amountCapacity.put(resource, amountCapacity.get(resource) + capacity);
 	}
 
 	/**
@@ -166,13 +117,8 @@ public class MicroInventory implements Serializable {
 	 * @param capacity
 	 */
 	public void removeCapacity(int resource, double capacity) {
-		AmountStored s = amountStorage.get(resource);
-
-		if (s != null) {
-			s.capacity -= capacity;
-			if (s.capacity < 0D) {
-				s.capacity = 0D;
-			}
+		if (amountCapacity.containsKey(resource)) {
+			amountCapacity.put(resource, Math.max(0D, amountCapacity.get(resource) - capacity));
 		}
 	}
 
@@ -201,8 +147,7 @@ public class MicroInventory implements Serializable {
 	 * @return
 	 */
 	public boolean isEmpty(int resource) {
-		AmountStored s = amountStorage.get(resource);
-		return (s == null) || (s.storedAmount == 0D);
+		return amountStored.get(resource) == 0D;
 	}
 
 	/**
@@ -213,12 +158,12 @@ public class MicroInventory implements Serializable {
 	 * @return excess quantity that cannot be stored
 	 */
 	public double storeAmountResource(int resource, double quantity) {
-		AmountStored s = amountStorage.get(resource);
-		if (s == null) {
+		if (!amountCapacity.containsKey(resource)) {
 			return quantity;
 		}
 			
-		double remaining =  + s.capacity - s.storedAmount;
+		double stored = amountStored.get(resource);
+		double remaining = amountCapacity.get(resource) - stored;
 		double excess = 0D;
 		if (remaining < quantity) {
 			excess = quantity - remaining;
@@ -233,7 +178,7 @@ public class MicroInventory implements Serializable {
 			}
 		}
 
-		s.storedAmount += quantity;
+		amountStored.put(resource, stored + quantity);
 
 		// Update the amount total mass
 		updateAmountResourceTotalMass();
@@ -250,18 +195,15 @@ public class MicroInventory implements Serializable {
 	 * @return excess quantity that cannot be stored
 	 */
 	public int storeItemResource(int resource, int quantity) {
-		ItemStored s = itemStorage.get(resource);
-		if (s == null) {
-			s = new ItemStored();
-			s.massPerItem = ItemResourceUtil.findItemResource(resource).getMassPerItem();
-			s.totalMass = 0;
-
+		if (!itemMass.containsKey(resource)) {
 			// Save the item resource
-			itemStorage.put(resource, s);
+			itemMass.put(resource, ItemResourceUtil.findItemResource(resource).getMassPerItem());
+			itemQuantity.put(resource, 0);
 		}
 
-		double massPerItem = s.massPerItem;
-		double totalMass = s.totalMass;
+		double massPerItem = itemMass.get(resource);
+		int stored = itemQuantity.get(resource);
+		double totalMass = stored * massPerItem;
 
 		double rCap = sharedCapacity - totalMass;
 		int itemCap = (int)Math.floor(rCap / massPerItem);
@@ -269,19 +211,17 @@ public class MicroInventory implements Serializable {
 
 		if (itemCap > 0) {
 			if (quantity > itemCap) {
-				s.quantity += itemCap;
+				itemQuantity.put(resource, stored + itemCap);
 				missing = quantity - itemCap;
 				logger.warning(owner, "Storing " + itemCap + "x "
 						+ ItemResourceUtil.findItemResource(resource).getName()
 						+ ", returning the surplus " + missing + ".");
 			}
 			else {
-				s.quantity += quantity;
+				itemQuantity.put(resource, stored + quantity);
 				missing = 0;
 			}
 
-			s.totalMass = s.quantity * s.massPerItem;
-
 			// Update the item total mass
 			updateItemResourceTotalMass();
 
@@ -301,8 +241,7 @@ public class MicroInventory implements Serializable {
 	 * Recalculates the amount resource total mass.
 	 */
 	private void updateAmountResourceTotalMass() {
-		// Note: to avoid ConcurrentModificationException, use new ArrayList
-		amountTotalMass = amountStorage.values().stream().mapToDouble(r -> r.storedAmount).sum();
+		amountTotalMass = amountStored.sum();
 	}
 
 	/**
@@ -310,13 +249,8 @@ public class MicroInventory implements Serializable {
 	 */
 	private void updateItemResourceTotalMass() {
 		double result = 0;
-		for (int resource: itemStorage.keySet()) {
-			int q = itemStorage.get(resource).quantity;
-			if (q > 0) {
-				ItemResource ir = ItemResourceUtil.findItemResource(resource);
-				if (ir != null)
-					result += ir.getMassPerItem() * q;
-			}
+		for (int resource = itemQuantity.nextId(0); resource >= 0; resource = itemQuantity.nextId(resource + 1)) {
+			result += itemMass.get(resource) * itemQuantity.get(resource);
 		}
 
 		itemTotalMass = result;
@@ -330,13 +264,12 @@ public class MicroInventory implements Serializable {
 	 * @return quantity that cannot be retrieved
 	 */
 	public double retrieveAmountResource(int resource, double quantity) {
-		AmountStored s = amountStorage.get(resource);
-		if (s == null) {
+		if (!amountCapacity.containsKey(resource)) {
 			return quantity;
 		}
 
 		double shortfall = 0D;
-		double remaining = s.storedAmount - quantity;
+		double remaining = amountStored.get(resource) - quantity;
 
 		if (remaining < 0) {
 			shortfall = -remaining;
@@ -350,7 +283,7 @@ public class MicroInventory implements Serializable {
 		}
 
 		// Update the stored amount
-		s.storedAmount = remaining;
+		amountStored.put(resource, remaining);
 
 		// Remove this 'general' resource since its capacity is not set
 //		if (s.storedAmount == 0 && s.capacity == 0) {
@@ -373,13 +306,12 @@ public class MicroInventory implements Serializable {
 	 * @return quantity that cannot be retrieved
 	 */
 	public int retrieveItemResource(int resource, int quantity) {
-		ItemStored s = itemStorage.get(resource);
-		if (s == null) {
+		if (!itemQuantity.containsKey(resource)) {
 			return quantity;
 		}
 
 		int shortfall = 0;
-		int remaining = s.quantity - quantity;
+		int remaining = itemQuantity.get(resource) - quantity;
 
 		if (remaining < 0) {
 			shortfall = -remaining;
@@ -392,7 +324,7 @@ public class MicroInventory implements Serializable {
 		}
 
 		// Update the quantity
-		s.quantity = remaining;
+		itemQuantity.put(resource, remaining);
 
 		// Remove this 'general' resource since its capacity is not set
 //		if (s.quantity == 0 && s.capacity == 0) {
@@ -413,10 +345,13 @@ public class MicroInventory implements Serializable {
 	 * @return
 	 */
 	public Set<Integer> getResourcesStored() {
-		return amountStorage.keySet()
-				.stream()
-				.filter(i -> (amountStorage.get(i).storedAmount > 0))
-				.collect(Collectors.toSet());
+		Set<Integer> result = new HashSet<>();
+		for (int i = amountStored.nextId(0); i >= 0; i = amountStored.nextId(i + 1)) {
+			if (amountStored.get(i) > 0) {
+				result.add(i);
+			}
+		}
+		return result;
 	}
 
 	/**
@@ -425,10 +360,13 @@ public class MicroInventory implements Serializable {
 	 * @return
 	 */
 	public Set<Integer> getItemsStored() {
-		return itemStorage.keySet()
-				.stream()
-				.filter(i -> (itemStorage.get(i).quantity > 0))
-				.collect(Collectors.toSet());
+		Set<Integer> result = new HashSet<>();
+		for (int i = itemQuantity.nextId(0); i >= 0; i = itemQuantity.nextId(i + 1)) {
+			if (itemQuantity.get(i) > 0) {
+				result.add(i);
+			}
+		}
+		return result;
 	}
 
 	/**
@@ -438,11 +376,7 @@ public class MicroInventory implements Serializable {
 	 * @return quantity
 	 */
 	public double getAmountResourceRemainingCapacity(int resource) {
-		AmountStored s = amountStorage.get(resource);
-		if (s != null) {
-			return s.capacity - s.storedAmount;
-		}
-		return 0;
+		return amountCapacity.get(resource) - amountStored.get(resource);
 	}
 
 	/**
@@ -452,12 +386,7 @@ public class MicroInventory implements Serializable {
 	 * @return
 	 */
 	public boolean hasAmountResourceRemainingCapacity(int resource) {
-		AmountStored s = amountStorage.get(resource);
-		if (s != null) {
-			return s.capacity > s.storedAmount;
-		}
-		
-		return false;
+		return amountCapacity.get(resource) > amountStored.get(resource);
 	}
 	
 	/**
@@ -467,12 +396,10 @@ public class MicroInventory implements Serializable {
 	 * @return quantity
 	 */
 	public int getItemResourceRemainingQuantity(int resource) {
-		ItemStored s = itemStorage.get(resource);
-		if (s != null) {
-//			double massPerItem = ItemResourceUtil.findItemResource(resource).getMassPerItem();
-//			double totalMass = s.quantity * massPerItem;
-			double rCap = sharedCapacity - s.totalMass;
-			return (int)Math.floor(rCap / s.massPerItem);
+		if (itemMass.containsKey(resource)) {
+			double massPerItem = itemMass.get(resource);
+			double rCap = sharedCapacity - itemQuantity.get(resource) * massPerItem;
+			return (int)Math.floor(rCap / massPerItem);
 		}
 		return 0;
 	}
@@ -484,11 +411,7 @@ public class MicroInventory implements Serializable {
 	 * @return quantity
 	 */
 	public double getAmountResourceStored(int resource) {
-		AmountStored s = amountStorage.get(resource);
-		if (s != null) {
-			return s.storedAmount;
-		}
-		return 0;
+		return amountStored.get(resource);
 	}
 
 	/**
@@ -498,11 +421,7 @@ public class MicroInventory implements Serializable {
 	 * @return quantity
 	 */
 	public int getItemResourceStored(int resource) {
-		ItemStored s = itemStorage.get(resource);
-		if (s != null) {
-			return s.quantity;
-		}
-		return 0;
+		return itemQuantity.get(resource);
 	}
 
 	/**
@@ -512,7 +431,7 @@ public class MicroInventory implements Serializable {
 	 * @return
 	 */
 	public boolean isResourceSupported(int resource) {
-		return amountStorage.containsKey(resource);
+		return amountCapacity.containsKey(resource);
 	}
 
 
@@ -520,7 +439,9 @@ public class MicroInventory implements Serializable {
 	 * Cleans this container for future use.
 	 */
 	public void clean() {
-		amountStorage.clear();
-		itemStorage.clear();
+		amountCapacity.clear();
+		amountStored.clear();
+		itemQuantity.clear();
+		itemMass.clear();
 	}
 }
@@ -7,9 +7,14 @@
 package com.mars_sim.core.events;
 
 import java.io.Serializable;
+import java.util.AbstractList;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.PriorityQueue;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
 
 import com.mars_sim.core.time.ClockPulse;
 import com.mars_sim.core.time.MarsTime;
@@ -18,6 +23,10 @@ import com.mars_sim.core.time.Temporal;
 
 /**
  * This class manages a list off future scheduled events.
+ * The events are held in a binary heap ordered on when they are due, so adding and
+ * expiring an event is O(log n). New events are first posted to a lock-free inbox
+ * and moved into the heap by whoever next holds the heap lock, normally the pulse.
+ * Removed events are only marked as cancelled and dropped when they reach the top.
  */
 public class ScheduledEventManager implements Serializable, Temporal {
 
@@ -32,7 +41,11 @@ public class ScheduledEventManager implements Serializable, Temporal {
 		
         private MarsTime when;
         private ScheduledEventHandler handler;
-
+        // Tie breaker so events at the same time run in the order added
+        private long sequence;
+        private volatile boolean cancelled = false;
+        // Is this event in the heap; only changed under the heap lock
+        private boolean inHeap = false;
 
         public ScheduledEvent(MarsTime when, ScheduledEventHandler handler) {
             this.when = when;
@@ -51,6 +64,14 @@ public class ScheduledEventManager implements Serializable, Temporal {
             return handler;
         }
 
+        /**
+         * Has this event been removed from the manager ?
+         * @return
+         */
+        public boolean isCancelled() {
+            return cancelled;
+        }
+
         /**
          * Gets the description of the target handler.
          */
@@ -87,12 +108,21 @@ public class ScheduledEventManager implements Serializable, Temporal {
          */
         @Override
         public int compareTo(ScheduledEvent o) {
-            return Double.compare(when.getTotalMillisols(), o.when.getTotalMillisols());
+            int result = Double.compare(when.getTotalMillisols(), o.when.getTotalMillisols());
+            if (result == 0) {
+                result = Long.compare(sequence, o.sequence);
+            }
+            return result;
         }
     }
 
     private MasterClock master;
-    private List<ScheduledEvent> eventQueue = new ArrayList<>();
+    private PriorityQueue<ScheduledEvent> eventQueue = new PriorityQueue<>();
+    private Queue<ScheduledEvent> inbox = new ConcurrentLinkedQueue<>();
+    private AtomicLong nextSequence = new AtomicLong();
+    private int cancelledCount = 0;
+    private int heapVersion = 0;
+    private transient EventView view;
 
     public ScheduledEventManager(MasterClock clock) {
         this.master = clock;
@@ -126,37 +156,101 @@ public class ScheduledEventManager implements Serializable, Temporal {
         return result;
     }
 
-
+    /**
+     * Posts an event to the inbox; this never blocks on the heap.
+     * 
+     * @param newEvent
+     */
     private void addEvent(ScheduledEvent newEvent) {
-        synchronized(eventQueue) {
-            eventQueue.add(newEvent);
-            Collections.sort(eventQueue);
+        newEvent.sequence = nextSequence.getAndIncrement();
+        inbox.add(newEvent);
+    }
+
+    /**
+     * Moves any posted events into the heap. Must hold the eventQueue lock.
+     */
+    private void drainInbox() {
+        ScheduledEvent posted = inbox.poll();
+        while (posted != null) {
+            if (!posted.cancelled) {
+                eventQueue.add(posted);
+                posted.inHeap = true;
+                heapVersion++;
+            }
+            posted = inbox.poll();
         }
     }
 
     /**
-     * Removes a previously registered event against a handler.
+     * Removes the earliest event registered against a handler.
      * 
      * @param handler Handler to be removed
      */
     public void removeEvent(ScheduledEventHandler handler) {
         synchronized(eventQueue) {
+            drainInbox();
+            // The heap is not iterated in time order so find the earliest match
+            ScheduledEvent earliest = null;
             for(ScheduledEvent event : eventQueue) {
-                if (event.handler.equals(handler)) {
-                    eventQueue.remove(event);
-                    return;
+                if (!event.cancelled && event.handler.equals(handler)
+                        && ((earliest == null) || (event.compareTo(earliest) < 0))) {
+                    earliest = event;
                 }
             }
+            if (earliest != null) {
+                cancel(earliest);
+            }
+        }
+    }
+
+    /**
+     * Removes a previously scheduled event using the handle returned when it was added.
+     * 
+     * @param event Event to be removed
+     */
+    public void removeEvent(ScheduledEvent event) {
+        synchronized(eventQueue) {
+            if (!event.cancelled) {
+                cancel(event);
+            }
+        }
+    }
+
+    /**
+     * Marks an event as cancelled. The heap is rebuilt once most of it is dead.
+     * Must hold the eventQueue lock. Only events in the heap are counted; one still
+     * in the inbox is dropped when the inbox is drained.
+     * 
+     * @param event
+     */
+    private void cancel(ScheduledEvent event) {
+        event.cancelled = true;
+        if (event.inHeap) {
+            cancelledCount++;
+            heapVersion++;
+            if (cancelledCount > eventQueue.size() / 2) {
+                eventQueue.removeIf(e -> {
+                    if (e.cancelled) {
+                        e.inHeap = false;
+                    }
+                    return e.cancelled;
+                });
+                cancelledCount = 0;
+            }
         }
     }
 
     /**
-     * Returns a list of events are scheduled for the future.
+     * Returns a list of events are scheduled for the future. This is a live view
+     * in time order.
      * 
      * @return
      */
     public List<ScheduledEvent> getEvents() {
-        return Collections.unmodifiableList(eventQueue);
+        if (view == null) {
+            view = new EventView();
+        }
+        return view;
     }
 
     /**
@@ -167,32 +261,73 @@ public class ScheduledEventManager implements Serializable, Temporal {
     @Override
     public boolean timePassing(ClockPulse clockPulse) {
         synchronized(eventQueue) {
+            double now = clockPulse.getMarsTime().getTotalMillisols();
             MarsTime currentTime = clockPulse.getMarsTime();
 
-            if (!eventQueue.isEmpty()) {
-                ScheduledEvent next = eventQueue.get(0);
+            drainInbox();
+            ScheduledEvent next = eventQueue.peek();
 
-                // Keep executing events that have past
-                while((next != null) && next.when.getTotalMillisols() <= currentTime.getTotalMillisols()) {
-                    eventQueue.remove(next);
+            // Keep executing events that have past
+            while((next != null) && next.when.getTotalMillisols() <= now) {
+                eventQueue.poll();
+                next.inHeap = false;
+                heapVersion++;
+                if (next.cancelled) {
+                    cancelledCount--;
+                }
+                else {
                     int repeatInterval = next.handler.execute(currentTime);
-                    if (repeatInterval > 0) {
-                        // Update the when and add back intot he queue
+                    if ((repeatInterval > 0) && !next.cancelled) {
+                        // Update the when and add back into the queue
                         next.when = next.when.addTime(repeatInterval);
                         addEvent(next);
                     }
-
-                    // Get next event
-                    if (eventQueue.isEmpty()) {
-                        next = null;
-                    }
-                    else {
-                        next = eventQueue.get(0);
-                    }
                 }
+
+                // Handlers may have posted new events
+                drainInbox();
+                next = eventQueue.peek();
             }
         }
         
         return true;
     }
-}
\ No newline at end of file
+
+    /**
+     * A read only view of the active events sorted on time. The sorted copy is only
+     * rebuilt when the heap has changed.
+     */
+    private class EventView extends AbstractList<ScheduledEvent> {
+
+        private List<ScheduledEvent> sorted = Collections.emptyList();
+        private int sortedModCount = -1;
+
+        private List<ScheduledEvent> getSorted() {
+            synchronized(eventQueue) {
+                drainInbox();
+                if (sortedModCount != heapVersion) {
+                    List<ScheduledEvent> active = new ArrayList<>(eventQueue.size());
+                    for(ScheduledEvent e : eventQueue) {
+                        if (!e.cancelled) {
+                            active.add(e);
+                        }
+                    }
+                    Collections.sort(active);
+                    sorted = Collections.unmodifiableList(active);
+                    sortedModCount = heapVersion;
+                }
+                return sorted;
+            }
+        }
+
+        @Override
+        public ScheduledEvent get(int index) {
+            return getSorted().get(index);
+        }
+
+        @Override
+        public int size() {
+            return getSorted().size();
+        }
+    }
+}
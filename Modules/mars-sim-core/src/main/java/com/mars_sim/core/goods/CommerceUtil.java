@@ -9,9 +9,12 @@ package com.mars_sim.core.goods;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.Objects;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 import com.mars_sim.core.Unit;
 import com.mars_sim.core.UnitManager;
@@ -50,8 +53,22 @@ public final class CommerceUtil {
 	 */
 	private static final double SELL_CREDIT_LIMIT = 10_000_000D;
 
+	/**
+	 * Identifies a planned load between 2 settlements.
+	 */
+	private static record LoadKey(Settlement buyer, Settlement seller, double capacity) {}
+
+	/**
+	 * A planned load and the versions of the trade lists it was based on. The load is null
+	 * if nothing can be traded.
+	 */
+	private static record PlannedLoad(Shipment load, int buyerVersion, int sellerVersion) {}
+
 	private static MissionManager missionManager;
 	private static UnitManager unitManager;
+
+	/** Planned loads; reused until either settlement changes its buy or sell list. */
+	private static Map<LoadKey, PlannedLoad> plannedLoads = new ConcurrentHashMap<>();
 			
 	/**
 	 * Private constructor for utility class.
@@ -60,7 +77,8 @@ public final class CommerceUtil {
 	};
 
 	/**
-	 * Gets the best trade deal for a given settlement.
+	 * Gets the best trade deal for a given settlement. Only the settlements in range of the
+	 * vehicle are considered and their deals are evaluated in parallel.
 	 * 
 	 * @param startingSettlement the settlement to trade from.
 	 * @param commenceType The type of Commerce mission being evaulated
@@ -68,23 +86,30 @@ public final class CommerceUtil {
 	 * @return the deal(value points) for trade.
 	 */
 	public static Deal getBestDeal(Settlement startingSettlement, MissionType commerceType, Vehicle delivery) {
+		double possibleRange = delivery.getRange() * .8D;
+		List<Settlement> candidates = unitManager.getSettlementsWithin(startingSettlement.getCoordinates(),
+																	possibleRange);
+		List<Deal> deals = candidates.parallelStream()
+				.map(t -> getPotentialDeal(startingSettlement, commerceType, t, delivery))
+				.filter(Objects::nonNull)
+				.toList();
+
 		Deal bestDeal = null;
-		for (Settlement tradingSettlement : unitManager.getSettlements()) {
-			Deal deal = getPotentialDeal(startingSettlement, commerceType, tradingSettlement, delivery);
-			if ((deal != null) 
-				&& ((bestDeal == null) || (bestDeal.getProfit() > deal.getProfit()))) {
-					bestDeal = deal;
+		for (Deal deal : deals) {
+			if ((bestDeal == null) || (bestDeal.getProfit() > deal.getProfit())) {
+				bestDeal = deal;
 			}
 		}
 
 		if (bestDeal == null) {
-			logger.info(startingSettlement, 30_000, "No deal for a " 
+			logger.info(startingSettlement, 30_000, () -> "No deal for a " 
 				+ commerceType.name().toLowerCase() + " mission.");
 			return null;
 		}
-		logger.info(startingSettlement, "New best deal for a " + commerceType.name().toLowerCase() 
-				+ " mission to " + bestDeal.getBuyer().getName()
-				+ ": Profit " + Math.round(bestDeal.getProfit() * 10.0)/10.0 + ".");
+		Deal best = bestDeal;
+		logger.info(startingSettlement, () -> "New best deal for a " + commerceType.name().toLowerCase() 
+				+ " mission to " + best.getBuyer().getName()
+				+ ": Profit " + Math.round(best.getProfit() * 10.0)/10.0 + ".");
 		return bestDeal;
 	}
 
@@ -213,8 +238,7 @@ public final class CommerceUtil {
 		Shipment desiredBuyLoad = null;
 		if (credit > (SELL_CREDIT_LIMIT * -1D)) {
 			// Determine desired buy load,
-			desiredBuyLoad 	= determineLoad(buyingSettlement, sellingSettlement, 
-					delivery, Double.POSITIVE_INFINITY);
+			desiredBuyLoad 	= getPlannedLoad(buyingSettlement, sellingSettlement, delivery);
 		}
 
 		return desiredBuyLoad;
@@ -237,13 +261,38 @@ public final class CommerceUtil {
 		Shipment sellLoad = null;
 		if (credit < SELL_CREDIT_LIMIT) {
 			// Determine sell load.
-			sellLoad = determineLoad(buyingSettlement, sellingSettlement, delivery,
-									 Double.POSITIVE_INFINITY);
+			sellLoad = getPlannedLoad(buyingSettlement, sellingSettlement, delivery);
 		}
 
 		return sellLoad;
 	}
 
+	/**
+	 * Gets the load a buying settlement would take from a selling settlement when planning a trade.
+	 * The load is calculated once and reused until either settlement changes its buy or sell list.
+	 * 
+	 * @param buyingSettlement  the settlement buying the goods.
+	 * @param sellingSettlement the settlement selling the goods.
+	 * @param delivery             the Vehicle to carry the goods.
+	 * @return The load; null if nothing to trade
+	 */
+	private static Shipment getPlannedLoad(Settlement buyingSettlement, Settlement sellingSettlement,
+			Vehicle delivery) {
+		int buyerVersion = buyingSettlement.getGoodsManager().getTradeListVersion();
+		int sellerVersion = sellingSettlement.getGoodsManager().getTradeListVersion();
+		LoadKey key = new LoadKey(buyingSettlement, sellingSettlement, delivery.getCargoCapacity());
+
+		PlannedLoad planned = plannedLoads.get(key);
+		if ((planned == null) || (planned.buyerVersion() != buyerVersion)
+				|| (planned.sellerVersion() != sellerVersion)) {
+			Shipment load = determineLoad(buyingSettlement, sellingSettlement, delivery,
+										Double.POSITIVE_INFINITY);
+			planned = new PlannedLoad(load, buyerVersion, sellerVersion);
+			plannedLoads.put(key, planned);
+		}
+		return planned.load();
+	}
+
 	/**
 	 * Determines the load between a buying settlement and a selling settlement.
 	 * 
@@ -545,5 +594,6 @@ public final class CommerceUtil {
 	public static void initializeInstances(MissionManager m, UnitManager u) {
 		missionManager = m;
 		unitManager = u;
+		plannedLoads.clear();
 	}
 }
\ No newline at end of file
@@ -9,17 +9,22 @@ package com.mars_sim.core.goods;
 import java.io.IOException;
 import java.io.ObjectInputStream;
 import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.BitSet;
 import java.util.Collections;
 import java.util.EnumMap;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
-import java.util.Map.Entry;
 import java.util.Set;
+import java.util.concurrent.atomic.AtomicLongArray;
 
 import com.mars_sim.core.SimulationConfig;
 import com.mars_sim.core.UnitEventType;
 import com.mars_sim.core.UnitManager;
+import com.mars_sim.core.data.IdDoubleMap;
+import com.mars_sim.core.data.IdIntMap;
 import com.mars_sim.core.environment.MarsSurface;
 import com.mars_sim.core.events.ScheduledEventHandler;
 import com.mars_sim.core.logging.SimLogger;
@@ -149,6 +154,9 @@ public class GoodsManager implements Serializable {
 	private static final double PERCENT_90 = .9;
 	private static final double PERCENT_81 = .81;
 
+	/** Every this many updates all goods are revalued, not just the changed ones. */
+	private static final int FULL_UPDATE_PERIOD = 4;
+
 	// Fixed weights to apply to updates to commerce factors.
 	private static final Map<CommerceType, Double> FACTOR_WEIGHTS = Map.of(CommerceType.RESEARCH, 1.5D);
 
@@ -161,19 +169,33 @@ public class GoodsManager implements Serializable {
 	
 	private Map<CommerceType, Double> factors = new EnumMap<>(CommerceType.class);
 
-	private Map<Integer, Double> goodsValues = new HashMap<>();
-	private Map<Integer, Double> tradeCache = new HashMap<>();
+	// Indexed by good id. Every good is added up front so the arrays are never
+	// replaced when other settlements read the values
+	private IdDoubleMap goodsValues = new IdDoubleMap();
+	private IdDoubleMap tradeCache = new IdDoubleMap();
 
-	private Map<Integer, Double> demandCache = new HashMap<>();
-	private Map<Integer, Double> supplyCache = new HashMap<>();
+	private IdDoubleMap demandCache = new IdDoubleMap();
+	private IdDoubleMap supplyCache = new IdDoubleMap();
 
-	private Map<Integer, Integer> deflationIndexMap = new HashMap<>();
+	private IdIntMap deflationIndexMap = new IdIntMap();
+
+	/**
+	 * Goods whose supply or demand inputs changed since the last update, one bit per id.
+	 * Only resources are tracked so the ids are below the first vehicle id. Stores set
+	 * bits without taking the monitor of this manager.
+	 */
+	private transient AtomicLongArray changedGoods = createChangedGoods();
+	/** Revalue all goods at the next update. */
+	private transient volatile boolean fullUpdate = true;
+	private int updateCount = 0;
 
 	/** A standard list of resources to be excluded in buying negotiation. */
 	private static Set<Good> unsellableGoods = null;
 	/** A standard list of buying resources in buying negotiation. */
 	private transient Map<Good, ShoppingItem> buyList =  Collections.emptyMap();
 	private transient Map<Good, ShoppingItem> sellList = Collections.emptyMap();
+	/** Changes each time the buy or sell list is recalculated. */
+	private transient volatile int tradeListVersion = 0;
 
 	private Set<Integer> reviewedEssentials = new HashSet<>();
 
@@ -267,23 +289,107 @@ public class GoodsManager implements Serializable {
 	}
 
 	/**
-	 * Updates the good values for all good.
+	 * Updates the good values. Only the goods whose inputs have changed since the last
+	 * update are revalued, apart from every few updates or after a change to the
+	 * settlement when all are. Goods that read the demand of other goods only pick up
+	 * a change to those goods at the next full update.
+	 * A single event is fired for all the goods whose value changed.
 	 */
 	public void updateGoodValues() {
+		List<Good> changed = new ArrayList<>();
+		for (Good g: getGoodsToUpdate()) {
+			// Refresh the Supply and Demand values
+			g.refreshSupplyDemandValue(this);
+
+			double oldValue = goodsValues.get(g.getID());
+			if (calculateGoodValue(g) != oldValue) {
+				changed.add(g);
+			}
+		}
 
  		// Update the goods value gradually with the use of buffers
-		for (Good g: GoodsUtil.getGoodsList()) {
-			determineGoodValue(g);
-			
-			if (initialized) {
+		if (initialized) {
+			for (Good g: GoodsUtil.getGoodsList()) {
 				g.adjustInterMarketGoodValue();
 			}
 		}
-				
 		initialized = true;
+
+		if (!changed.isEmpty()) {
+			settlement.fireUnitUpdate(UnitEventType.GOODS_VALUE_EVENT, changed);
+		}
+	}
+
+	/**
+	 * Gets the goods to be revalued by the next update. Goods that are not resources
+	 * are always included as their supply comes from the units owned rather than storage.
+	 * 
+	 * @return
+	 */
+	private List<Good> getGoodsToUpdate() {
+		List<Good> all = GoodsUtil.getGoodsList();
+		BitSet changed = drainChangedGoods();
+		if (!initialized || fullUpdate || (++updateCount % FULL_UPDATE_PERIOD == 0)) {
+			fullUpdate = false;
+			return all;
+		}
+
+		List<Good> result = new ArrayList<>();
+		for (Good g : all) {
+			GoodCategory c = g.getCategory();
+			if (((c != GoodCategory.AMOUNT_RESOURCE) && (c != GoodCategory.ITEM_RESOURCE))
+					|| changed.get(g.getID())) {
+				result.add(g);
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Records that the supply or demand inputs of a good have changed, e.g. it has
+	 * been stored or retrieved, so it is revalued at the next update.
+	 * 
+	 * @param id Good id
+	 */
+	public void markChanged(int id) {
+		int word = id >> 6;
+		if ((id < 0) || (word >= changedGoods.length())) {
+			// Not a resource so always revalued
+			return;
+		}
+		long bit = 1L << id;
+		// Most stores repeat the same few resources so skip the write when already set
+		if ((changedGoods.get(word) & bit) == 0L) {
+			changedGoods.getAndAccumulate(word, bit, (a, b) -> a | b);
+		}
+	}
+
+	/**
+	 * Takes the goods marked as changed and clears them. Each word is swapped for zero
+	 * so a good marked during the drain is kept for this update or the next.
+	 * 
+	 * @return
+	 */
+	private BitSet drainChangedGoods() {
+		long[] words = new long[changedGoods.length()];
+		for (int i = 0; i < words.length; i++) {
+			words[i] = changedGoods.getAndSet(i, 0L);
+		}
+		return BitSet.valueOf(words);
+	}
+
+	private static AtomicLongArray createChangedGoods() {
+		return new AtomicLongArray((ResourceUtil.FIRST_VEHICLE_RESOURCE_ID + 63) >> 6);
+	}
+
+	/**
+	 * Records that the settlement has changed in a way that may affect any good,
+	 * e.g. a building or citizen was added, so all are revalued at the next update.
+	 */
+	public void markAllChanged() {
+		fullUpdate = true;
 	}
 
-	
 	/**
 	 * Determines the value of a good. This recalculates the supply & demand.
 	 *
@@ -295,39 +401,11 @@ public class GoodsManager implements Serializable {
 			// Refresh the Supply and Demand values
 			good.refreshSupplyDemandValue(this);
 
-			int id = good.getID();
-		
-			// Calculate the value point
-			double totalSupply = supplyCache.get(id);
-			double totalDemand = demandCache.get(id);
-			double value = totalDemand / (1 + totalSupply);
-
-			// Check if it surpasses MAX_VP
-			if (value > MAX_VP) {
-				// Update deflationIndexMap for other resources of the same category
-				value = updateDeflationMap(id, value, good.getCategory(), true);
-			}
-			// Check if it falls below MIN_VP
-			else if (value < MIN_VP) {
-				// Update deflationIndexMap for other resources of the same category
-				updateDeflationMap(id, value, good.getCategory(), false);
-			}
-
-			// Check for inflation and deflation adjustment due to other resources
-			value = checkDeflation(id, value);
-			// Adjust the value according to the inter-market value
-			double adjustment = adjustMarketValue(good, value) / 20.0;
-			if (value + adjustment > 0)
-				value += adjustment;
-
-			// Save the value point if it has changed
-			double oldValue = goodsValues.get(id);
+			double oldValue = goodsValues.get(good.getID());
+			double value = calculateGoodValue(good);
 			if (oldValue != value) {
-				goodsValues.put(id, value);
-
-				settlement.fireUnitUpdate(UnitEventType.GOODS_VALUE_EVENT, good);
+				settlement.fireUnitUpdate(UnitEventType.GOODS_VALUE_EVENT, List.of(good));
 			}
-
 			return value;
 		} else
 			logger.severe(settlement, "Good is null.");
@@ -335,6 +413,43 @@ public class GoodsManager implements Serializable {
 		return 0;
 	}
 
+	/**
+	 * Calculates the value point of a good from its current supply & demand and saves it.
+	 *
+	 * @param good     the good to check.
+	 * @return value of good.
+	 */
+	private double calculateGoodValue(Good good) {
+		int id = good.getID();
+	
+		// Calculate the value point
+		double totalSupply = supplyCache.get(id);
+		double totalDemand = demandCache.get(id);
+		double value = totalDemand / (1 + totalSupply);
+
+		// Check if it surpasses MAX_VP
+		if (value > MAX_VP) {
+			// Update deflationIndexMap for other resources of the same category
+			value = updateDeflationMap(id, value, good.getCategory(), true);
+		}
+		// Check if it falls below MIN_VP
+		else if (value < MIN_VP) {
+			// Update deflationIndexMap for other resources of the same category
+			updateDeflationMap(id, value, good.getCategory(), false);
+		}
+
+		// Check for inflation and deflation adjustment due to other resources
+		value = checkDeflation(id, value);
+		// Adjust the value according to the inter-market value
+		double adjustment = adjustMarketValue(good, value) / 20.0;
+		if (value + adjustment > 0)
+			value += adjustment;
+
+		// Save the value point
+		goodsValues.put(id, value);
+		return value;
+	}
+
 	/**
 	 * Adjusts the inter-market value of a good based on the local value of a settlement.
 	 * 
@@ -426,7 +541,7 @@ public class GoodsManager implements Serializable {
 	 */
 	private double updateDeflationMap(int id, double value, GoodCategory type, boolean exceed) {
 
-		for (int i : deflationIndexMap.keySet()) {
+		for (int i = deflationIndexMap.nextId(0); i >= 0; i = deflationIndexMap.nextId(i + 1)) {
 			if (id != i) {
 				if (type == GoodsUtil.getGood(i).getCategory()) {
 					// This good is of the same category as the one that cause the
@@ -594,6 +709,15 @@ public class GoodsManager implements Serializable {
         return sellList;
     }
 
+	/**
+	 * Gets the version of the buy and sell lists. This changes whenever either is recalculated.
+	 * 
+	 * @return
+	 */
+	public int getTradeListVersion() {
+		return tradeListVersion;
+	}
+
 	/**
 	 * Gets the price per item for a good.
 	 *
@@ -918,8 +1042,8 @@ public class GoodsManager implements Serializable {
 		Set<Good> excluded = new HashSet<>(GoodsManager.getUnsellableGoods());
 		excluded.addAll(buyList.keySet());   // Exclude goods that are already being bought
 
-		for(Entry<Integer, Double> item : supplyCache.entrySet()) {
-			Good good = GoodsUtil.getGood(item.getKey());
+		for (int id = supplyCache.nextId(0); id >= 0; id = supplyCache.nextId(id + 1)) {
+			Good good = GoodsUtil.getGood(id);
 
 			if (excluded.contains(good)) {
 				continue;
@@ -939,6 +1063,7 @@ public class GoodsManager implements Serializable {
 		}
 
 		sellList = Collections.unmodifiableMap(newSell);
+		tradeListVersion++;
 
 		// Any deal are now invalid
 		deals.clear();
@@ -952,14 +1077,14 @@ public class GoodsManager implements Serializable {
 		// This logic is a draft and need more refinement
 		Map<Good, ShoppingItem> newBuy = new HashMap<>();
 		Set<Good> excluded = GoodsManager.getUnsellableGoods();
-		for(Entry<Integer, Double> item : demandCache.entrySet()) {
-			Good good = GoodsUtil.getGood(item.getKey());
+		for (int id = demandCache.nextId(0); id >= 0; id = demandCache.nextId(id + 1)) {
+			Good good = GoodsUtil.getGood(id);
 			if (excluded.contains(good)) {
 				continue;
 			}
 
 			// Take Goods in demand more than supply
-			if (item.getValue() > supplyCache.get(good.getID())) {
+			if (demandCache.get(id) > supplyCache.get(id)) {
 				double buyPrice = getPrice(good) * 1.1D;
 				int quantity = (int)(good.getNumberForSettlement(settlement) * 0.1D);
 				if (quantity == 0) {
@@ -971,6 +1096,7 @@ public class GoodsManager implements Serializable {
 		}
 
 		buyList = Collections.unmodifiableMap(newBuy);
+		tradeListVersion++;
 
 		// Any deal are now invalid
 		deals.clear();
@@ -986,5 +1112,7 @@ public class GoodsManager implements Serializable {
 		deals = new EnumMap<>(MissionType.class);
 		buyList = Collections.emptyMap();
 		sellList = Collections.emptyMap();
+		changedGoods = createChangedGoods();
+		fullUpdate = true;
 	}
 }
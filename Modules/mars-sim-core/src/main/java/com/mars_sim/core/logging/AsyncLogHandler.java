@@ -0,0 +1,205 @@
+/*
+ * Mars Simulation Project
+ * AsyncLogHandler.java
+ * @date 2024-07-05
+ * @author Barry Evans
+ */
+package com.mars_sim.core.logging;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.ErrorManager;
+import java.util.logging.Handler;
+import java.util.logging.Level;
+import java.util.logging.LogManager;
+import java.util.logging.LogRecord;
+
+/**
+ * A log Handler that passes records to other Handlers on a background thread so the
+ * simulation threads never wait for the console or the log file.
+ * Records are held in a bounded queue; when it is full new records are dropped and counted
+ * rather than blocking the caller. The number dropped is logged once the queue drains.
+ * When created by the LogManager the Handlers are configured in the logging properties:
+ * <pre>
+ * handlers = com.mars_sim.core.logging.AsyncLogHandler
+ * com.mars_sim.core.logging.AsyncLogHandler.handlers = java.util.logging.FileHandler, java.util.logging.ConsoleHandler
+ * com.mars_sim.core.logging.AsyncLogHandler.capacity = 4096
+ * </pre>
+ */
+public class AsyncLogHandler extends Handler {
+
+	private static final int DEFAULT_CAPACITY = 4096;
+	private static final long CLOSE_WAIT = 2000;
+
+	private BlockingQueue<LogRecord> queue;
+	private List<Handler> targets;
+	private AtomicLong dropped = new AtomicLong();
+	private Thread drainer;
+	private volatile boolean closed = false;
+
+	/**
+	 * Creates a handler configured from the LogManager properties.
+	 */
+	public AsyncLogHandler() {
+		String prefix = getClass().getName();
+		LogManager manager = LogManager.getLogManager();
+
+		int capacity = DEFAULT_CAPACITY;
+		String value = manager.getProperty(prefix + ".capacity");
+		if (value != null) {
+			try {
+				capacity = Integer.parseInt(value.trim());
+			}
+			catch (NumberFormatException nfe) {
+				reportError("Bad capacity " + value, nfe, ErrorManager.OPEN_FAILURE);
+			}
+		}
+
+		List<Handler> configured = new ArrayList<>();
+		value = manager.getProperty(prefix + ".handlers");
+		if (value != null) {
+			for (String name : value.split("[,\\s]+")) {
+				if (!name.isEmpty()) {
+					Handler h = createHandler(name);
+					if (h != null) {
+						configured.add(h);
+					}
+				}
+			}
+		}
+
+		init(capacity, configured);
+	}
+
+	/**
+	 * Creates a handler passing records to some Handlers.
+	 *
+	 * @param capacity Records that can wait to be published
+	 * @param targets
+	 */
+	public AsyncLogHandler(int capacity, Handler... targets) {
+		init(capacity, List.of(targets));
+	}
+
+	private void init(int capacity, List<Handler> targets) {
+		this.queue = new ArrayBlockingQueue<>(Math.max(1, capacity));
+		this.targets = targets;
+
+		drainer = new Thread(this::drain, "log-writer");
+		drainer.setDaemon(true);
+		drainer.start();
+	}
+
+	private Handler createHandler(String name) {
+		try {
+			Class<?> c = Class.forName(name, true, ClassLoader.getSystemClassLoader());
+			return (Handler) c.getDeclaredConstructor().newInstance();
+		}
+		catch (ReflectiveOperationException | ClassCastException e) {
+			reportError("Cannot create handler " + name, e, ErrorManager.OPEN_FAILURE);
+			return null;
+		}
+	}
+
+	/**
+	 * Queues a record; dropped if the queue is full.
+	 */
+	@Override
+	public void publish(LogRecord logRecord) {
+		if (closed || !isLoggable(logRecord)) {
+			return;
+		}
+
+		// The caller is worked out from the stack so it must be done on the calling thread
+		logRecord.getSourceClassName();
+		if (!queue.offer(logRecord)) {
+			dropped.incrementAndGet();
+		}
+	}
+
+	/**
+	 * Body of the background thread.
+	 */
+	private void drain() {
+		List<LogRecord> batch = new ArrayList<>();
+		while (!closed || !queue.isEmpty()) {
+			try {
+				LogRecord first = queue.poll(200, TimeUnit.MILLISECONDS);
+				if (first != null) {
+					batch.add(first);
+					queue.drainTo(batch);
+					write(batch);
+					batch.clear();
+				}
+			}
+			catch (InterruptedException ie) {
+				Thread.currentThread().interrupt();
+				break;
+			}
+		}
+
+		// Anything left when interrupted
+		queue.drainTo(batch);
+		write(batch);
+	}
+
+	private void write(List<LogRecord> batch) {
+		for (LogRecord r : batch) {
+			for (Handler h : targets) {
+				h.publish(r);
+			}
+		}
+
+		long lost = dropped.getAndSet(0);
+		if (lost > 0) {
+			LogRecord r = new LogRecord(Level.WARNING, lost + " log records dropped as the log queue was full.");
+			r.setLoggerName(getClass().getName());
+			r.setSourceClassName(getClass().getName());
+			for (Handler h : targets) {
+				h.publish(r);
+			}
+		}
+	}
+
+	/**
+	 * Gets the number of records waiting to be published.
+	 *
+	 * @return
+	 */
+	public int getQueued() {
+		return queue.size();
+	}
+
+	@Override
+	public void flush() {
+		for (Handler h : targets) {
+			h.flush();
+		}
+	}
+
+	/**
+	 * Publishes the records still queued and closes the Handlers.
+	 */
+	@Override
+	public void close() {
+		if (closed) {
+			return;
+		}
+		closed = true;
+		try {
+			drainer.join(CLOSE_WAIT);
+		}
+		catch (InterruptedException ie) {
+			Thread.currentThread().interrupt();
+		}
+		drainer.interrupt();
+
+		for (Handler h : targets) {
+			h.close();
+		}
+	}
+}
@@ -7,10 +7,15 @@
 
 package com.mars_sim.core.logging;
 
+import java.lang.StackWalker.StackFrame;
+import java.text.MessageFormat;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.Optional;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
 import java.util.logging.Level;
+import java.util.logging.LogRecord;
 import java.util.logging.Logger;
 
 import com.mars_sim.core.Entity;
@@ -20,6 +25,9 @@ import com.mars_sim.core.Entity;
  * This is a logger class similar to Java Logger that is Simulation aware
  * to handle common formatting.
  * This actor as an Adapter to the underlying Java Logger.
+ * The message is only built once the level and the repeat throttle have both passed so
+ * callers should prefer the {@link Supplier} or parameterized methods, e.g.
+ * {@code logger.info(unit, 10_000, "Found {0} sites", count)}, over concatenating a String.
  */
 public class SimLogger {
 
@@ -30,21 +38,29 @@ public class SimLogger {
 		protected long startTime;
 		protected int count;
 
-		TimeAndCount() {
-			this.startTime = System.currentTimeMillis();
+		TimeAndCount(long now) {
+			this.startTime = now;
 			this.count = 1;
 		}
 	}
 
+	/**
+	 * Identifies a message by where it is logged and by whom.
+	 */
+	private static record MessageKey(String className, int line, String actor) {}
+
+	private static final String LOGGER_CLASS = SimLogger.class.getName();
+	private static final StackWalker WALKER = StackWalker.getInstance();
+
 	private static Map<String, SimLogger> loggers = new HashMap<>();
-	private static Map<String, TimeAndCount> lastLogged = new ConcurrentHashMap<>();
+	private static Map<MessageKey, TimeAndCount> lastLogged = new ConcurrentHashMap<>();
 
 	private static final String OPEN_BRACKET = " [x";
 	private static final String CLOSED_BRACKET = "]";
 	private static final String CLOSED_BRACKET_SPACE = "] ";
 	private static final String COLON = " : [";
 	private static final String DASH = " - ";
-	private static final String QUESTION = "?";
+	private static final String UNKNOWN = "unknown";
 	private static final long DEFAULT_WARNING_TIME = 1000;
 	public static final long DEFAULT_SEVERE_TIME = 500;
 	private static final long DEFAULT_INFO_TIME = 0;
@@ -91,46 +107,67 @@ public class SimLogger {
 	 * @param message         The actual message to log.
 	 */
 	public void log(Entity actor, Level level, long timeBetweenLogs, String message) {
-		baseLog(actor, level, timeBetweenLogs, message, null);
+		baseLog(actor, level, timeBetweenLogs, message, null, null, null);
+	}
+
+	/**
+	 * Logs a message built on demand. See {@link #log(Entity, Level, long, String)}.
+	 *
+	 * @param actor
+	 * @param level
+	 * @param timeBetweenLogs
+	 * @param message Only called if the message is logged
+	 */
+	public void log(Entity actor, Level level, long timeBetweenLogs, Supplier<String> message) {
+		baseLog(actor, level, timeBetweenLogs, null, message, null, null);
 	}
 
 	/**
-	 * Does the actual logging to the logger.
+	 * Does the actual logging to the logger. Nothing is built until the message is known to be logged.
+	 * The message is either a String, a Supplier or a {@link MessageFormat} pattern with parameters.
 	 * 
 	 * @param actor
 	 * @param level
 	 * @param timeBetweenLogs
 	 * @param message
+	 * @param supplier
+	 * @param params
 	 * @param t
 	 */
 	private void baseLog(Entity actor, Level level, long timeBetweenLogs, String message,
-			Throwable t) {
+			Supplier<String> supplier, Object[] params, Throwable t) {
 		if (!rootLogger.isLoggable(level)) {
 			return;
 		}
 
-		long dTime = timeBetweenLogs;
+		StringBuilder outputMessage = new StringBuilder(sourceName);
+		MessageKey key = null;
+		TimeAndCount lastTimeAndCount = null;
+		long now = 0;
+		if (timeBetweenLogs > 0) {
+			// Only throttled messages need to know where they come from
+			key = getUniqueIdentifer(actor);
+			now = System.currentTimeMillis();
+			lastTimeAndCount = lastLogged.get(key);
+		}
 
-		String uniqueIdentifier = getUniqueIdentifer(actor);
-		TimeAndCount lastTimeAndCount = lastLogged.get(uniqueIdentifier);
-		StringBuilder outputMessage = null;
 		if (lastTimeAndCount != null) {
 			synchronized (lastTimeAndCount) {
-				long now = System.currentTimeMillis();
-				if (now - lastTimeAndCount.startTime < dTime) {
+				if (now - lastTimeAndCount.startTime < timeBetweenLogs) {
 					// Increment count only since the message in the same and is within the time prescribed
 					lastTimeAndCount.count++;
 					return;
 				}
 
-				// Print the log statement with counts
-				outputMessage = new StringBuilder(sourceName);
+				// Print the log statement with counts and start again
 				outputMessage.append(OPEN_BRACKET).append(lastTimeAndCount.count).append(CLOSED_BRACKET);
+				lastTimeAndCount.startTime = now;
+				lastTimeAndCount.count = 1;
 			}
 		}
-		else {
+		else if (key != null) {
 			// First time for this message
-			outputMessage = new StringBuilder(sourceName);
+			lastLogged.put(key, new TimeAndCount(now));
 		}
 
 		// Add body, contents Settlement, Unit nickname message"
@@ -150,40 +187,38 @@ public class SimLogger {
 				outputMessage.append(CLOSED_BRACKET_SPACE).append(actor.getName()).append(DASH);
 			}
 		}
-		outputMessage.append(message);
 
-		if (t == null) {
-			rootLogger.log(level, outputMessage::toString);
+		if (supplier != null) {
+			outputMessage.append(supplier.get());
+		}
+		else if (params != null) {
+			outputMessage.append(MessageFormat.format(message, params));
 		}
 		else {
-			rootLogger.log(level, outputMessage.toString(), t);
+			outputMessage.append(message);
 		}
 
-		// Register the message
-		lastLogged.put(uniqueIdentifier, new TimeAndCount());
+		LogRecord logRecord = new LogRecord(level, outputMessage.toString());
+		logRecord.setLoggerName(rootLogger.getName());
+		// Saves Java logging walking the stack to find the caller
+		logRecord.setSourceClassName(LOGGER_CLASS);
+		logRecord.setThrown(t);
+		rootLogger.log(logRecord);
 	}
 
 	/**
-	 * Returns the line.
+	 * Identifies the message from the caller's class and line number.
 	 *
 	 * @return
 	 */
-	private static String getUniqueIdentifer(Entity actor) {
-		StackTraceElement[] stackTrace = Thread.currentThread().getStackTrace();
-		String loggerClass = SimLogger.class.getName();
-		String nickName = (actor != null ? actor.getName() : "unknown");
-
-		// Skip the first frame as it is the "getStackTrace" call
-		for (int idx = 1; idx < stackTrace.length; idx++) {
-			StackTraceElement ste = stackTrace[idx];
-			if (!ste.getClassName().equals(loggerClass)) {
-				// We have now file/line before entering SimLogger.
-				StringBuilder key = new StringBuilder();
-				key.append(ste.getFileName()).append(ste.getLineNumber()).append(nickName);
-				return key.toString();
-			}
-		}
-		return QUESTION;
+	private static MessageKey getUniqueIdentifer(Entity actor) {
+		String nickName = (actor != null ? actor.getName() : UNKNOWN);
+
+		// Only walks as far as the first frame outside SimLogger
+		Optional<StackFrame> caller = WALKER.walk(s -> s.filter(f -> !LOGGER_CLASS.equals(f.getClassName()))
+														.findFirst());
+		return caller.map(f -> new MessageKey(f.getClassName(), f.getLineNumber(), nickName))
+					.orElseGet(() -> new MessageKey(UNKNOWN, 0, nickName));
 	}
 
 	/**
@@ -223,7 +258,7 @@ public class SimLogger {
 	 * @param string
 	 */
 	public void fine(Entity actor, String string) {
-		baseLog(actor, Level.FINE, DEFAULT_INFO_TIME, string, null);
+		baseLog(actor, Level.FINE, DEFAULT_INFO_TIME, string, null, null, null);
 	}
 
 	/**
@@ -234,7 +269,41 @@ public class SimLogger {
 	 * @param string
 	 */
 	public void fine(Entity actor, long timeBetweenLogs, String string) {
-		baseLog(actor, Level.FINE, timeBetweenLogs, string, null);
+		baseLog(actor, Level.FINE, timeBetweenLogs, string, null, null, null);
+	}
+
+	/**
+	 * Helper method to log a fine message built only if it is logged.
+	 * 
+	 * @param actor
+	 * @param timeBetweenLogs Milliseconds to wait between similar log messages.
+	 * @param message
+	 */
+	public void fine(Entity actor, long timeBetweenLogs, Supplier<String> message) {
+		baseLog(actor, Level.FINE, timeBetweenLogs, null, message, null, null);
+	}
+
+	/**
+	 * Helper method to log a fine message built only if it is logged. Message timeout is predefined.
+	 * 
+	 * @param actor
+	 * @param message
+	 */
+	public void fine(Entity actor, Supplier<String> message) {
+		baseLog(actor, Level.FINE, DEFAULT_INFO_TIME, null, message, null, null);
+	}
+
+	/**
+	 * Helper method to log a fine message using a {@link MessageFormat} pattern.
+	 * The parameters are only formatted if the message is logged.
+	 * 
+	 * @param actor
+	 * @param timeBetweenLogs Milliseconds to wait between similar log messages.
+	 * @param pattern
+	 * @param params
+	 */
+	public void fine(Entity actor, long timeBetweenLogs, String pattern, Object... params) {
+		baseLog(actor, Level.FINE, timeBetweenLogs, pattern, null, params, null);
 	}
 	
 	/**
@@ -254,7 +323,7 @@ public class SimLogger {
 	 * @param string
 	 */
 	public void info(Entity actor, long timeBetweenLogs, String string) {
-		baseLog(actor, Level.INFO, timeBetweenLogs, string, null);
+		baseLog(actor, Level.INFO, timeBetweenLogs, string, null, null, null);
 	}
 
 	/**
@@ -264,7 +333,41 @@ public class SimLogger {
 	 * @param string
 	 */
 	public void info(Entity actor, String string) {
-		baseLog(actor, Level.INFO, DEFAULT_INFO_TIME, string, null);
+		baseLog(actor, Level.INFO, DEFAULT_INFO_TIME, string, null, null, null);
+	}
+
+	/**
+	 * Helper method to log a info message built only if it is logged.
+	 * 
+	 * @param actor
+	 * @param timeBetweenLogs Milliseconds to wait between similar log messages.
+	 * @param message
+	 */
+	public void info(Entity actor, long timeBetweenLogs, Supplier<String> message) {
+		baseLog(actor, Level.INFO, timeBetweenLogs, null, message, null, null);
+	}
+
+	/**
+	 * Helper method to log a info message built only if it is logged. Message timeout is predefined.
+	 * 
+	 * @param actor
+	 * @param message
+	 */
+	public void info(Entity actor, Supplier<String> message) {
+		baseLog(actor, Level.INFO, DEFAULT_INFO_TIME, null, message, null, null);
+	}
+
+	/**
+	 * Helper method to log a info message using a {@link MessageFormat} pattern.
+	 * The parameters are only formatted if the message is logged.
+	 * 
+	 * @param actor
+	 * @param timeBetweenLogs Milliseconds to wait between similar log messages.
+	 * @param pattern
+	 * @param params
+	 */
+	public void info(Entity actor, long timeBetweenLogs, String pattern, Object... params) {
+		baseLog(actor, Level.INFO, timeBetweenLogs, pattern, null, params, null);
 	}
 
 	/**
@@ -284,7 +387,7 @@ public class SimLogger {
 	 * @param string
 	 */
 	public void warning(Entity actor, long timeBetweenLogs, String string) {
-		baseLog(actor, Level.WARNING, timeBetweenLogs, string, null);
+		baseLog(actor, Level.WARNING, timeBetweenLogs, string, null, null, null);
 	}
 
 	/**
@@ -294,11 +397,55 @@ public class SimLogger {
 	 * @param string
 	 */
 	public void warning(Entity actor, String string) {
-		baseLog(actor, Level.WARNING, DEFAULT_WARNING_TIME, string, null);
+		baseLog(actor, Level.WARNING, DEFAULT_WARNING_TIME, string, null, null, null);
+	}
+
+	/**
+	 * Helper method to log a warning message built only if it is logged.
+	 * 
+	 * @param actor
+	 * @param timeBetweenLogs Milliseconds to wait between similar log messages.
+	 * @param message
+	 */
+	public void warning(Entity actor, long timeBetweenLogs, Supplier<String> message) {
+		baseLog(actor, Level.WARNING, timeBetweenLogs, null, message, null, null);
+	}
+
+	/**
+	 * Helper method to log a warning message built only if it is logged. Message timeout is predefined.
+	 * 
+	 * @param actor
+	 * @param message
+	 */
+	public void warning(Entity actor, Supplier<String> message) {
+		baseLog(actor, Level.WARNING, DEFAULT_WARNING_TIME, null, message, null, null);
+	}
+
+	/**
+	 * Helper method to log a warning message using a {@link MessageFormat} pattern.
+	 * The parameters are only formatted if the message is logged.
+	 * 
+	 * @param actor
+	 * @param timeBetweenLogs Milliseconds to wait between similar log messages.
+	 * @param pattern
+	 * @param params
+	 */
+	public void warning(Entity actor, long timeBetweenLogs, String pattern, Object... params) {
+		baseLog(actor, Level.WARNING, timeBetweenLogs, pattern, null, params, null);
 	}
 
 	public void warning(long timeBetweenLogs, String message) {
-		baseLog(null, Level.WARNING, timeBetweenLogs, sourceName + " : " + message, null);
+		baseLog(null, Level.WARNING, timeBetweenLogs, sourceName + " : " + message, null, null, null);
+	}
+
+	/**
+	 * Helper method to log a warning message built only if it is logged.
+	 * 
+	 * @param timeBetweenLogs Milliseconds to wait between similar log messages.
+	 * @param message
+	 */
+	public void warning(long timeBetweenLogs, Supplier<String> message) {
+		baseLog(null, Level.WARNING, timeBetweenLogs, null, () -> sourceName + " : " + message.get(), null, null);
 	}
 
 	/**
@@ -326,7 +473,7 @@ public class SimLogger {
 	 * @param message
 	 */
 	public void severe(Entity actor, String string) {
-		baseLog(actor, Level.SEVERE, DEFAULT_SEVERE_TIME, string, null);
+		baseLog(actor, Level.SEVERE, DEFAULT_SEVERE_TIME, string, null, null, null);
 	}
 
 	/**
@@ -338,7 +485,7 @@ public class SimLogger {
 	 * @param e
 	 */
 	public void severe(Entity actor, long timeBetweenLogs, String string, Exception e) {
-		baseLog(actor, Level.SEVERE, timeBetweenLogs, string, e);
+		baseLog(actor, Level.SEVERE, timeBetweenLogs, string, null, null, e);
 	}
 
 	/**
@@ -349,7 +496,7 @@ public class SimLogger {
 	 * @param string
 	 */
 	public void severe(Entity actor, long timeBetweenLogs, String string) {
-		baseLog(actor, Level.SEVERE, timeBetweenLogs, string, null);
+		baseLog(actor, Level.SEVERE, timeBetweenLogs, string, null, null, null);
 	}
 
 	/**
@@ -360,7 +507,7 @@ public class SimLogger {
 	 * @param reason
 	 */
 	public void severe(Entity actor, String message, Throwable reason) {
-		baseLog(actor, Level.SEVERE, DEFAULT_SEVERE_TIME, message, reason);
+		baseLog(actor, Level.SEVERE, DEFAULT_SEVERE_TIME, message, null, null, reason);
 	}
 
 	/**
@@ -372,6 +519,15 @@ public class SimLogger {
 		log(Level.CONFIG, message);
 	}
 
+	/**
+	 * Logs directly a message built only if it is logged.
+	 * 
+	 * @param message
+	 */
+	public void config(Supplier<String> message) {
+		rootLogger.log(Level.CONFIG, () -> sourceName + " : " + message.get());
+	}
+
 	/**
 	 * Helper method just to log a config message. Message timeout is predefined.
 	 * 
@@ -379,7 +535,7 @@ public class SimLogger {
 	 * @param message
 	 */
 	public void config(Entity actor, String message) {
-		baseLog(actor, Level.CONFIG, 0, message, null);
+		baseLog(actor, Level.CONFIG, 0, message, null, null, null);
 	}
 
 	public boolean isLoggable(Level level) {
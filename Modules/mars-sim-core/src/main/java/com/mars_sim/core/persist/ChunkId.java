@@ -0,0 +1,57 @@
+/*
+ * Mars Simulation Project
+ * ChunkId.java
+ * @date 2024-06-25
+ * @author Barry Evans
+ */
+package com.mars_sim.core.persist;
+
+import java.nio.ByteBuffer;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+/**
+ * Identifies a chunk of a journal by the digest of its raw content.
+ * 
+ * @param high Upper 64 bits of the digest
+ * @param low Lower 64 bits of the digest
+ */
+public record ChunkId(long high, long low) {
+
+	/** Number of bytes of a serialized id. */
+	static final int BYTES = 16;
+
+	/**
+	 * Computes the id of some raw content.
+	 * 
+	 * @param data
+	 * @param length
+	 * @return
+	 */
+	static ChunkId of(byte[] data, int length) {
+		try {
+			MessageDigest md = MessageDigest.getInstance("MD5");
+			md.update(data, 0, length);
+			ByteBuffer digest = ByteBuffer.wrap(md.digest());
+			return new ChunkId(digest.getLong(), digest.getLong());
+		}
+		catch (NoSuchAlgorithmException e) {
+			throw new IllegalStateException("No MD5 digest available", e);
+		}
+	}
+
+	/**
+	 * Reads an id from a buffer.
+	 */
+	static ChunkId read(ByteBuffer buf) {
+		return new ChunkId(buf.getLong(), buf.getLong());
+	}
+
+	/**
+	 * Writes this id to a buffer.
+	 */
+	void write(ByteBuffer buf) {
+		buf.putLong(high);
+		buf.putLong(low);
+	}
+}
@@ -0,0 +1,203 @@
+/*
+ * Mars Simulation Project
+ * JournalOutputStream.java
+ * @date 2024-06-25
+ * @author Barry Evans
+ */
+package com.mars_sim.core.persist;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.channels.FileChannel;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+/**
+ * This writes one save into a {@link SnapshotJournal}. The raw stream is cut into
+ * content defined chunks using a rolling gear hash so an insertion early in the stream
+ * only changes the chunks around it. Chunks already in the chain are only referenced;
+ * new chunks are compressed in parallel and appended to the file.
+ */
+public class JournalOutputStream extends SectionOutputStream {
+
+	private static final int MIN_CHUNK = 16 * 1024;
+	private static final int MAX_CHUNK = 256 * 1024;
+	/** Gives an average chunk of about 64KB above the minimum. */
+	private static final long CUT_MASK = (1L << 16) - 1;
+
+	private static final long[] GEAR = new long[256];
+
+	static {
+		// Fixed seed so the chunk boundaries are stable between runs
+		Random rnd = new Random(0x4D415253L);
+		for (int i = 0; i < GEAR.length; i++) {
+			GEAR[i] = rnd.nextLong();
+		}
+	}
+
+	private SnapshotJournal journal;
+	private FileChannel channel;
+	private File temp;
+	private File target;
+	private SaveCodec codec;
+	private ExecutorService executor;
+	private int maxInFlight;
+	private Set<ChunkId> known;
+
+	private byte[] chunk = new byte[MAX_CHUNK];
+	private int used = 0;
+	private long hash = 0;
+	private boolean closed = false;
+
+	private List<ChunkId> recipe = new ArrayList<>();
+	private Deque<PendingChunk> pending = new ArrayDeque<>();
+
+	private long fileSize = SnapshotJournal.HEADER_SIZE;
+	private int newChunks = 0;
+	private int reusedChunks = 0;
+
+	private record PendingChunk(ChunkId id, int rawLength, Future<byte[]> compressed) {}
+
+	JournalOutputStream(SnapshotJournal journal, FileChannel channel, File temp, File target,
+						SaveCodec codec, Set<ChunkId> known, ExecutorService executor, int threads) {
+		this.journal = journal;
+		this.channel = channel;
+		this.temp = temp;
+		this.target = target;
+		this.codec = codec;
+		this.known = known;
+		this.executor = executor;
+		this.maxInFlight = Math.max(2, threads * 2);
+	}
+
+	@Override
+	public void write(int b) throws IOException {
+		chunk[used++] = (byte) b;
+		hash = (hash << 1) + GEAR[b & 0xFF];
+		addRawSize(1);
+		if (((used >= MIN_CHUNK) && ((hash & CUT_MASK) == 0)) || (used == MAX_CHUNK)) {
+			cutChunk();
+		}
+	}
+
+	@Override
+	public void write(byte[] b, int off, int len) throws IOException {
+		int end = off + len;
+		for (int i = off; i < end; i++) {
+			byte v = b[i];
+			chunk[used++] = v;
+			hash = (hash << 1) + GEAR[v & 0xFF];
+			if (((used >= MIN_CHUNK) && ((hash & CUT_MASK) == 0)) || (used == MAX_CHUNK)) {
+				addRawSize(i + 1 - off);
+				len -= (i + 1 - off);
+				off = i + 1;
+				cutChunk();
+			}
+		}
+		addRawSize(len);
+	}
+
+	/**
+	 * Ends the current chunk; it is only written if it is not already in the chain.
+	 */
+	private void cutChunk() throws IOException {
+		if (used == 0) {
+			return;
+		}
+		ChunkId id = ChunkId.of(chunk, used);
+		recipe.add(id);
+		if (known.add(id)) {
+			final byte[] raw = Arrays.copyOf(chunk, used);
+			final int length = used;
+			pending.add(new PendingChunk(id, length, executor.submit(() -> codec.encode(raw, length))));
+			newChunks++;
+
+			while (pending.size() >= maxInFlight) {
+				writeNextPending();
+			}
+			while (!pending.isEmpty() && pending.peek().compressed().isDone()) {
+				writeNextPending();
+			}
+		}
+		else {
+			reusedChunks++;
+		}
+		used = 0;
+		hash = 0;
+	}
+
+	private void writeNextPending() throws IOException {
+		PendingChunk next = pending.poll();
+		try {
+			fileSize += SnapshotJournal.writeChunk(channel, next.id(), next.rawLength(),
+											next.compressed().get());
+		}
+		catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new InterruptedIOException("Interrupted compressing a chunk");
+		}
+		catch (ExecutionException e) {
+			throw new IOException("Problem compressing a chunk", e.getCause());
+		}
+	}
+
+	@Override
+	public void close() throws IOException {
+		if (closed) {
+			return;
+		}
+		closed = true;
+		boolean complete = false;
+		try {
+			endSection();
+			cutChunk();
+			while (!pending.isEmpty()) {
+				writeNextPending();
+			}
+			fileSize += SnapshotJournal.writeRecipe(channel, recipe, getSections());
+			channel.force(false);
+			complete = true;
+		}
+		finally {
+			pending.forEach(p -> p.compressed().cancel(true));
+			pending.clear();
+			chunk = null;
+			channel.close();
+			if (!complete) {
+				temp.delete();
+			}
+		}
+		journal.saveCompleted(temp, target);
+	}
+
+	/**
+	 * Gets the number of bytes written to the journal for this save.
+	 */
+	@Override
+	public long getFileSize() {
+		return fileSize;
+	}
+
+	/**
+	 * Gets the number of chunks written by this save.
+	 */
+	public int getNewChunks() {
+		return newChunks;
+	}
+
+	/**
+	 * Gets the number of chunks of this save that were already in the journal.
+	 */
+	public int getReusedChunks() {
+		return reusedChunks;
+	}
+}
@@ -0,0 +1,172 @@
+/*
+ * Mars Simulation Project
+ * SaveCodec.java
+ * @date 2024-06-20
+ * @author Barry Evans
+ */
+package com.mars_sim.core.persist;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+import org.tukaani.xz.LZMA2Options;
+import org.tukaani.xz.XZInputStream;
+import org.tukaani.xz.XZOutputStream;
+
+/**
+ * The compression applied to each block of a saved simulation.
+ * Each block is compressed independently so blocks can be processed in parallel.
+ */
+public enum SaveCodec {
+
+	/** No compression; fastest but largest file. */
+	NONE {
+		@Override
+		byte[] encode(byte[] raw, int length) {
+			byte[] result = new byte[length];
+			System.arraycopy(raw, 0, result, 0, length);
+			return result;
+		}
+
+		@Override
+		byte[] decode(byte[] compressed, int rawLength) {
+			return compressed;
+		}
+	},
+
+	/** Fast LZ style compression using Deflate at the fastest level. */
+	FAST {
+		@Override
+		byte[] encode(byte[] raw, int length) {
+			Deflater deflater = new Deflater(Deflater.BEST_SPEED, true);
+			try {
+				deflater.setInput(raw, 0, length);
+				deflater.finish();
+				ByteArrayOutputStream out = new ByteArrayOutputStream(length / 2 + 64);
+				byte[] buf = new byte[BUFFER_SIZE];
+				while (!deflater.finished()) {
+					int n = deflater.deflate(buf);
+					out.write(buf, 0, n);
+				}
+				return out.toByteArray();
+			}
+			finally {
+				deflater.end();
+			}
+		}
+
+		@Override
+		byte[] decode(byte[] compressed, int rawLength) throws IOException {
+			Inflater inflater = new Inflater(true);
+			try {
+				inflater.setInput(compressed);
+				byte[] result = new byte[rawLength];
+				int done = 0;
+				while (done < rawLength) {
+					int n = inflater.inflate(result, done, rawLength - done);
+					if ((n == 0) && (inflater.finished() || inflater.needsInput())) {
+						break;
+					}
+					done += n;
+				}
+				if (done != rawLength) {
+					throw new IOException("Block is truncated; expected " + rawLength + " bytes but found " + done);
+				}
+				return result;
+			}
+			catch (DataFormatException e) {
+				throw new IOException("Block is corrupt", e);
+			}
+			finally {
+				inflater.end();
+			}
+		}
+	},
+
+	/** High ratio LZMA2 compression using the XZ library. Slowest but smallest file. */
+	XZ {
+		@Override
+		byte[] encode(byte[] raw, int length) throws IOException {
+			ByteArrayOutputStream out = new ByteArrayOutputStream(length / 4 + 64);
+			try (XZOutputStream xz = new XZOutputStream(out, new LZMA2Options(XZ_PRESET))) {
+				xz.write(raw, 0, length);
+			}
+			return out.toByteArray();
+		}
+
+		@Override
+		byte[] decode(byte[] compressed, int rawLength) throws IOException {
+			byte[] result = new byte[rawLength];
+			try (InputStream in = new XZInputStream(new ByteArrayInputStream(compressed))) {
+				int done = 0;
+				while (done < rawLength) {
+					int n = in.read(result, done, rawLength - done);
+					if (n < 0) {
+						throw new IOException("Block is truncated; expected " + rawLength + " bytes but found " + done);
+					}
+					done += n;
+				}
+			}
+			return result;
+		}
+	};
+
+	private static final int BUFFER_SIZE = 64 * 1024;
+	private static final int XZ_PRESET = 3;
+
+	/**
+	 * Compresses a block.
+	 * 
+	 * @param raw Buffer holding the raw bytes
+	 * @param length Number of bytes used in the buffer
+	 * @return The compressed block
+	 * @throws IOException
+	 */
+	abstract byte[] encode(byte[] raw, int length) throws IOException;
+
+	/**
+	 * Decompresses a block.
+	 * 
+	 * @param compressed The compressed block
+	 * @param rawLength The length of the raw block
+	 * @return The raw bytes
+	 * @throws IOException
+	 */
+	abstract byte[] decode(byte[] compressed, int rawLength) throws IOException;
+
+	/**
+	 * Finds the codec recorded in the header of a saved file.
+	 * 
+	 * @param code The code byte as read from the file
+	 * @return
+	 * @throws IOException If the code does not match a codec, i.e. the file is corrupt
+	 */
+	static SaveCodec fromCode(byte code) throws IOException {
+		int ordinal = Byte.toUnsignedInt(code);
+		SaveCodec[] codecs = values();
+		if (ordinal >= codecs.length) {
+			throw new IOException("Unknown save codec " + ordinal + "; the file is corrupt");
+		}
+		return codecs[ordinal];
+	}
+
+	/**
+	 * Finds the codec matching a name; this is case insensitive.
+	 * 
+	 * @param name
+	 * @return
+	 */
+	public static SaveCodec fromName(String name) {
+		for (SaveCodec c : values()) {
+			if (c.name().equalsIgnoreCase(name)) {
+				return c;
+			}
+		}
+		throw new IllegalArgumentException("No save codec called '" + name + "'");
+	}
+}
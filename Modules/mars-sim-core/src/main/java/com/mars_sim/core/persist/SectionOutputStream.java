@@ -0,0 +1,89 @@
+/*
+ * Mars Simulation Project
+ * SectionOutputStream.java
+ * @date 2024-06-22
+ * @author Barry Evans
+ */
+package com.mars_sim.core.persist;
+
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * An output stream of a snapshot that keeps track of the raw size and the named
+ * sections written to it.
+ */
+public abstract class SectionOutputStream extends OutputStream {
+
+	private long rawSize = 0;
+	private List<SnapshotSection> sections = new ArrayList<>();
+	private String openSection = null;
+	private long openSectionStart = 0;
+
+	/**
+	 * Starts a new named section at the current raw position. Any open section is closed.
+	 * The caller must flush any buffering stream layered on top before calling this.
+	 * 
+	 * @param name
+	 */
+	public void startSection(String name) {
+		endSection();
+		openSection = name;
+		openSectionStart = rawSize;
+	}
+
+	/**
+	 * Closes the current open section.
+	 */
+	public void endSection() {
+		if (openSection != null) {
+			sections.add(new SnapshotSection(openSection, openSectionStart, rawSize - openSectionStart));
+			openSection = null;
+		}
+	}
+
+	/**
+	 * Records that raw bytes have been written.
+	 * 
+	 * @param count
+	 */
+	protected void addRawSize(int count) {
+		rawSize += count;
+	}
+
+	/**
+	 * Gets the sections written so far.
+	 * 
+	 * @return
+	 */
+	public List<SnapshotSection> getSections() {
+		return sections;
+	}
+
+	/**
+	 * Gets the number of raw bytes written to the stream.
+	 * 
+	 * @return
+	 */
+	public long getRawSize() {
+		return rawSize;
+	}
+
+	/**
+	 * Gets the number of bytes written to disk so far.
+	 * 
+	 * @return
+	 */
+	public long getFileSize() {
+		return 0;
+	}
+
+	/**
+	 * Flushing does not cut a block; blocks are only processed once full or on close.
+	 */
+	@Override
+	public void flush() {
+		// Nothing to do
+	}
+}
@@ -0,0 +1,108 @@
+/*
+ * Mars Simulation Project
+ * SnapshotCapture.java
+ * @date 2024-06-22
+ * @author Barry Evans
+ */
+package com.mars_sim.core.persist;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * This captures the raw stream of a snapshot in memory so it can be compressed and
+ * written to disk later by another thread. Capturing only costs the serialization,
+ * so the simulation can carry on as soon as the capture is complete.
+ */
+public class SnapshotCapture extends SectionOutputStream {
+
+	private List<byte[]> blocks = new ArrayList<>();
+	private byte[] block = new byte[SnapshotOutputStream.BLOCK_SIZE];
+	private int used = 0;
+
+	@Override
+	public void write(int b) {
+		if (used == block.length) {
+			nextBlock();
+		}
+		block[used++] = (byte) b;
+		addRawSize(1);
+	}
+
+	@Override
+	public void write(byte[] b, int off, int len) {
+		while (len > 0) {
+			if (used == block.length) {
+				nextBlock();
+			}
+			int n = Math.min(len, block.length - used);
+			System.arraycopy(b, off, block, used, n);
+			used += n;
+			off += n;
+			len -= n;
+			addRawSize(n);
+		}
+	}
+
+	private void nextBlock() {
+		blocks.add(block);
+		block = new byte[SnapshotOutputStream.BLOCK_SIZE];
+		used = 0;
+	}
+
+	@Override
+	public void close() {
+		endSection();
+	}
+
+	/**
+	 * Replays the captured stream, including the sections, into a snapshot file.
+	 * The captured blocks are released as they are written.
+	 * 
+	 * @param out Destination
+	 * @throws IOException
+	 */
+	public void writeTo(SectionOutputStream out) throws IOException {
+		List<SnapshotSection> sections = getSections();
+		int nextSection = 0;
+		long position = 0;
+
+		int count = blocks.size() + 1;
+		for (int i = 0; i < count; i++) {
+			byte[] data = (i < blocks.size() ? blocks.get(i) : block);
+			int length = (i < blocks.size() ? data.length : used);
+			int offset = 0;
+
+			while (offset < length) {
+				// Write up to the start of the next section
+				long limit = position + (length - offset);
+				if (nextSection < sections.size()) {
+					limit = Math.min(limit, sections.get(nextSection).rawStart());
+				}
+				int n = (int) (limit - position);
+				if (n > 0) {
+					out.write(data, offset, n);
+					offset += n;
+					position += n;
+				}
+				while ((nextSection < sections.size())
+						&& (sections.get(nextSection).rawStart() == position)) {
+					out.startSection(sections.get(nextSection).name());
+					nextSection++;
+				}
+			}
+
+			if (i < blocks.size()) {
+				blocks.set(i, null);
+			}
+		}
+
+		// Any empty sections at the end
+		while (nextSection < sections.size()) {
+			out.startSection(sections.get(nextSection++).name());
+		}
+		out.endSection();
+		block = null;
+	}
+}
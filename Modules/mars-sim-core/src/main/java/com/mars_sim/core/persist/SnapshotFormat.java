@@ -0,0 +1,98 @@
+/*
+ * Mars Simulation Project
+ * SnapshotFormat.java
+ * @date 2024-06-20
+ * @author Barry Evans
+ */
+package com.mars_sim.core.persist;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+/**
+ * Constants and helpers shared by the readers and writers of the snapshot save layout.
+ */
+public final class SnapshotFormat {
+
+	/** Marker at the start of a snapshot file; "MSIM". */
+	static final int MAGIC = 0x4D53494D;
+	/** Version of the layout. */
+	static final short VERSION = 1;
+
+	static final Charset CHARSET = StandardCharsets.UTF_8;
+
+	/** Number of threads compressing blocks. */
+	public static final int THREADS = Math.max(1, Runtime.getRuntime().availableProcessors() - 1);
+
+	private static ExecutorService executor;
+
+	private SnapshotFormat() {
+		// Static helper class
+	}
+
+	/**
+	 * Gets the shared executor that compresses and decompresses blocks.
+	 * 
+	 * @return
+	 */
+	public static synchronized ExecutorService getExecutor() {
+		if (executor == null) {
+			executor = Executors.newFixedThreadPool(THREADS,
+					new ThreadFactoryBuilder().setNameFormat("snapshot-codec-%d")
+											.setDaemon(true).build());
+		}
+		return executor;
+	}
+
+	/**
+	 * Checks whether a file uses the snapshot layout rather than the legacy GZIP stream.
+	 * 
+	 * @param file
+	 * @return
+	 * @throws IOException
+	 */
+	public static boolean isSnapshot(File file) throws IOException {
+		try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+			ByteBuffer buf = ByteBuffer.allocate(4);
+			while (buf.hasRemaining()) {
+				if (channel.read(buf) < 0) {
+					return false;
+				}
+			}
+			buf.flip();
+			return buf.getInt() == MAGIC;
+		}
+	}
+
+	/**
+	 * Opens a snapshot file for reading.
+	 * 
+	 * @param file
+	 * @return
+	 * @throws IOException
+	 */
+	public static InputStream openSnapshot(File file) throws IOException {
+		return new SnapshotInputStream(file, getExecutor(), THREADS);
+	}
+
+	/**
+	 * Creates a new snapshot file for writing.
+	 * 
+	 * @param file
+	 * @param codec
+	 * @return
+	 * @throws IOException
+	 */
+	public static SnapshotOutputStream createSnapshot(File file, SaveCodec codec) throws IOException {
+		return new SnapshotOutputStream(file, codec, getExecutor(), THREADS);
+	}
+}
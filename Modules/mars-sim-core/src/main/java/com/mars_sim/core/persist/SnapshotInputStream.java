@@ -0,0 +1,190 @@
+/*
+ * Mars Simulation Project
+ * SnapshotInputStream.java
+ * @date 2024-06-20
+ * @author Barry Evans
+ */
+package com.mars_sim.core.persist;
+
+import java.io.EOFException;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+/**
+ * This reads the raw stream back from a file written by {@link SnapshotOutputStream}.
+ * Blocks are read ahead from the FileChannel and decompressed in parallel on
+ * the executor; they are handed to the caller in order.
+ */
+public class SnapshotInputStream extends InputStream {
+
+	private FileChannel channel;
+	private SaveCodec codec;
+	private ExecutorService executor;
+	private int readAhead;
+
+	private Deque<Future<byte[]>> pending = new ArrayDeque<>();
+	private boolean noMoreBlocks = false;
+	private List<SnapshotSection> sections = null;
+
+	private byte[] current = null;
+	private int pos = 0;
+
+	/**
+	 * Opens a snapshot file.
+	 * 
+	 * @param file
+	 * @param executor Executor for decompressing blocks
+	 * @param threads Number of threads in the executor
+	 * @throws IOException
+	 */
+	public SnapshotInputStream(File file, ExecutorService executor, int threads) throws IOException {
+		this.executor = executor;
+		this.readAhead = Math.max(2, threads);
+		this.channel = FileChannel.open(file.toPath(), StandardOpenOption.READ);
+
+		ByteBuffer header = readFully(7);
+		if (header.getInt() != SnapshotFormat.MAGIC) {
+			channel.close();
+			throw new IOException(file.getName() + " is not a snapshot file");
+		}
+		short version = header.getShort();
+		if (version != SnapshotFormat.VERSION) {
+			channel.close();
+			throw new IOException(file.getName() + " has unsupported snapshot version " + version);
+		}
+		try {
+			codec = SaveCodec.fromCode(header.get());
+		}
+		catch (IOException e) {
+			channel.close();
+			throw e;
+		}
+	}
+
+	/**
+	 * Reads the next blocks from the file and submits them for decompression.
+	 */
+	private void fillReadAhead() throws IOException {
+		while (!noMoreBlocks && (pending.size() < readAhead)) {
+			ByteBuffer blockHeader = readFully(4);
+			int rawLength = blockHeader.getInt();
+			if (rawLength == 0) {
+				noMoreBlocks = true;
+				readSections();
+			}
+			else {
+				int compressedLength = readFully(4).getInt();
+				byte[] compressed = readFully(compressedLength).array();
+				pending.add(executor.submit(() -> codec.decode(compressed, rawLength)));
+			}
+		}
+	}
+
+	/**
+	 * Reads the section table that follows the last block.
+	 */
+	private void readSections() throws IOException {
+		int count = readFully(4).getInt();
+		sections = new ArrayList<>(count);
+		for (int i = 0; i < count; i++) {
+			int nameLength = readFully(2).getShort();
+			String name = new String(readFully(nameLength).array(), SnapshotFormat.CHARSET);
+			ByteBuffer range = readFully(16);
+			sections.add(new SnapshotSection(name, range.getLong(), range.getLong()));
+		}
+	}
+
+	private ByteBuffer readFully(int length) throws IOException {
+		ByteBuffer buf = ByteBuffer.allocate(length);
+		while (buf.hasRemaining()) {
+			if (channel.read(buf) < 0) {
+				throw new EOFException("Snapshot is truncated");
+			}
+		}
+		buf.flip();
+		return buf;
+	}
+
+	/**
+	 * Makes sure there is a current block with unread data.
+	 * 
+	 * @return false if the end of stream has been reached
+	 */
+	private boolean nextBlock() throws IOException {
+		while ((current == null) || (pos >= current.length)) {
+			fillReadAhead();
+			Future<byte[]> next = pending.poll();
+			if (next == null) {
+				return false;
+			}
+			try {
+				current = next.get();
+				pos = 0;
+			}
+			catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new InterruptedIOException("Interrupted decompressing a block");
+			}
+			catch (ExecutionException e) {
+				throw new IOException("Problem decompressing a block", e.getCause());
+			}
+		}
+		return true;
+	}
+
+	@Override
+	public int read() throws IOException {
+		if (!nextBlock()) {
+			return -1;
+		}
+		return current[pos++] & 0xFF;
+	}
+
+	@Override
+	public int read(byte[] b, int off, int len) throws IOException {
+		if (len == 0) {
+			return 0;
+		}
+		if (!nextBlock()) {
+			return -1;
+		}
+		int n = Math.min(len, current.length - pos);
+		System.arraycopy(current, pos, b, off, n);
+		pos += n;
+		return n;
+	}
+
+	@Override
+	public int available() {
+		return (current == null ? 0 : current.length - pos);
+	}
+
+	/**
+	 * Gets the sections of the snapshot. These are only available once all blocks have been read.
+	 * 
+	 * @return
+	 */
+	public List<SnapshotSection> getSections() {
+		return sections;
+	}
+
+	@Override
+	public void close() throws IOException {
+		pending.forEach(f -> f.cancel(true));
+		pending.clear();
+		current = null;
+		channel.close();
+	}
+}
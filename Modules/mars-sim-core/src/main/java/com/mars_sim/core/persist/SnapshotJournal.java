@@ -0,0 +1,556 @@
+/*
+ * Mars Simulation Project
+ * SnapshotJournal.java
+ * @date 2024-06-25
+ * @author Barry Evans
+ */
+package com.mars_sim.core.persist;
+
+import java.io.EOFException;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.logging.Logger;
+
+/**
+ * A journal holds a chain of saves in a directory: a full base checkpoint followed by
+ * delta files. The raw stream of each save is cut into content defined chunks; a delta
+ * only holds the chunks that are not already in the chain plus the recipe, i.e. the
+ * ordered list of chunks, to rebuild the raw stream. Loading replays the recipe of the
+ * latest save against the chain. Compaction folds the chain into a new base holding
+ * only the chunks used by the latest save.
+ * 
+ * Layout of each file:
+ * <pre>
+ * int MAGIC, short VERSION, byte codec, byte kind, long sequence
+ * { byte CHUNK, ChunkId, int rawLength, int compressedLength, byte[compressedLength] } repeated
+ * byte RECIPE, int chunkCount, ChunkId repeated, int sectionCount, { short nameLength, name, long rawStart, long rawLength } repeated
+ * byte END
+ * </pre>
+ */
+public class SnapshotJournal {
+
+	private static final Logger logger = Logger.getLogger(SnapshotJournal.class.getName());
+
+	/** Marker at the start of a journal file; "MSJL". */
+	static final int MAGIC = 0x4D534A4C;
+	static final short VERSION = 1;
+
+	static final byte KIND_BASE = 0;
+	static final byte KIND_DELTA = 1;
+
+	static final byte TAG_END = 0;
+	static final byte TAG_CHUNK = 1;
+	static final byte TAG_RECIPE = 2;
+
+	static final int HEADER_SIZE = 16;
+
+	private static final String PREFIX = "journal-";
+	private static final String SUFFIX = ".simj";
+	private static final String TEMP = ".tmp";
+
+	/** Default number of deltas before the chain is compacted. */
+	public static final int DEFAULT_MAX_DELTAS = 12;
+
+	private File dir;
+	private int maxDeltas;
+
+	/**
+	 * Where a chunk is held in the chain.
+	 */
+	record ChunkLocation(File file, SaveCodec codec, long position, int rawLength, int compressedLength) {}
+
+	/**
+	 * The contents of one complete journal file.
+	 */
+	private record JournalFile(File file, SaveCodec codec, byte kind, long sequence,
+							   Map<ChunkId, ChunkLocation> chunks, List<ChunkId> recipe,
+							   List<SnapshotSection> sections) {}
+
+	/**
+	 * Opens a journal in a directory. The directory is created on the first save.
+	 * 
+	 * @param dir
+	 * @param maxDeltas Number of deltas allowed before the chain is compacted
+	 */
+	public SnapshotJournal(File dir, int maxDeltas) {
+		this.dir = dir;
+		this.maxDeltas = maxDeltas;
+	}
+
+	/**
+	 * Checks whether a file is a journal directory.
+	 * 
+	 * @param file
+	 * @return
+	 */
+	public static boolean isJournal(File file) {
+		if (!file.isDirectory()) {
+			return false;
+		}
+		String[] names = file.list((d, n) -> n.startsWith(PREFIX) && n.endsWith(SUFFIX));
+		return (names != null) && (names.length > 0);
+	}
+
+	/**
+	 * Starts a new save in the journal. It is a delta if there is already a chain otherwise a base.
+	 * 
+	 * @param codec Codec for new chunks
+	 * @return Stream to write the save to; it completes on close
+	 * @throws IOException
+	 */
+	public JournalOutputStream startSave(SaveCodec codec) throws IOException {
+		if (!dir.exists()) {
+			dir.mkdirs();
+		}
+
+		List<JournalFile> chain = readChain();
+		Set<ChunkId> known = new HashSet<>();
+		chain.forEach(f -> known.addAll(f.chunks().keySet()));
+		byte kind = (chain.isEmpty() ? KIND_BASE : KIND_DELTA);
+		long sequence = nextSequence();
+
+		File target = getFile(sequence);
+		File temp = new File(dir, target.getName() + TEMP);
+		FileChannel channel = openForWrite(temp, codec, kind, sequence);
+		return new JournalOutputStream(this, channel, temp, target, codec, known,
+						SnapshotFormat.getExecutor(), SnapshotFormat.THREADS);
+	}
+
+	/**
+	 * Callback when a save has been written completely. The temporary file is made live and
+	 * the chain is compacted if it has become too long.
+	 * 
+	 * @param temp
+	 * @param target
+	 * @throws IOException
+	 */
+	void saveCompleted(File temp, File target) throws IOException {
+		Files.move(temp.toPath(), target.toPath(), StandardCopyOption.REPLACE_EXISTING,
+						StandardCopyOption.ATOMIC_MOVE);
+
+		List<JournalFile> chain = readChain();
+		if (chain.size() > (maxDeltas + 1)) {
+			compact();
+		}
+	}
+
+	/**
+	 * Folds the chain into a new base holding only the chunks needed by the latest save.
+	 * The compressed chunks are copied as they are. Files before the new base are removed.
+	 * 
+	 * @throws IOException
+	 */
+	public void compact() throws IOException {
+		List<JournalFile> chain = readChain();
+		if (chain.size() <= 1) {
+			return;
+		}
+
+		JournalFile latest = chain.get(chain.size() - 1);
+		Map<ChunkId, ChunkLocation> index = buildIndex(chain);
+		long sequence = nextSequence();
+		File target = getFile(sequence);
+		File temp = new File(dir, target.getName() + TEMP);
+
+		// Chunks can come from files with different codecs so the base keeps the latest codec
+		// and recompresses any chunk from another codec
+		SaveCodec codec = latest.codec();
+		try (FileChannel out = openForWrite(temp, codec, KIND_BASE, sequence)) {
+			Set<ChunkId> written = new HashSet<>();
+			for (ChunkId id : latest.recipe()) {
+				if (written.add(id)) {
+					ChunkLocation loc = index.get(id);
+					if (loc == null) {
+						throw new IOException("Journal is missing chunk " + id);
+					}
+					byte[] compressed = readChunkData(loc);
+					if (loc.codec() != codec) {
+						compressed = codec.encode(loc.codec().decode(compressed, loc.rawLength()),
+													loc.rawLength());
+					}
+					writeChunk(out, id, loc.rawLength(), compressed);
+				}
+			}
+			writeRecipe(out, latest.recipe(), latest.sections());
+			out.force(false);
+		}
+		Files.move(temp.toPath(), target.toPath(), StandardCopyOption.REPLACE_EXISTING,
+						StandardCopyOption.ATOMIC_MOVE);
+
+		// Remove everything before the new base
+		for (File f : listFiles()) {
+			if (getSequence(f) < sequence) {
+				Files.deleteIfExists(f.toPath());
+			}
+		}
+		logger.config("Compacted " + chain.size() + " journal files into " + target.getName() + ".");
+	}
+
+	/**
+	 * Opens the raw stream of the latest save in the journal.
+	 * 
+	 * @return
+	 * @throws IOException
+	 */
+	public InputStream openLatest() throws IOException {
+		List<JournalFile> chain = readChain();
+		if (chain.isEmpty()) {
+			throw new IOException("No complete save in journal " + dir);
+		}
+		JournalFile latest = chain.get(chain.size() - 1);
+		return new ChainInputStream(latest.recipe(), buildIndex(chain));
+	}
+
+	/**
+	 * Gets the sections of the latest save in the journal.
+	 * 
+	 * @return
+	 * @throws IOException
+	 */
+	public List<SnapshotSection> getLatestSections() throws IOException {
+		List<JournalFile> chain = readChain();
+		return (chain.isEmpty() ? List.of() : chain.get(chain.size() - 1).sections());
+	}
+
+	/**
+	 * Gets the current chain: the latest complete base and the deltas after it.
+	 */
+	private List<JournalFile> readChain() throws IOException {
+		List<JournalFile> all = new ArrayList<>();
+		for (File f : listFiles()) {
+			JournalFile jf = readFile(f);
+			if (jf != null) {
+				all.add(jf);
+			}
+		}
+		all.sort((a, b) -> Long.compare(a.sequence(), b.sequence()));
+
+		int baseIdx = -1;
+		for (int i = 0; i < all.size(); i++) {
+			if (all.get(i).kind() == KIND_BASE) {
+				baseIdx = i;
+			}
+		}
+		if (baseIdx < 0) {
+			return new ArrayList<>();
+		}
+		return new ArrayList<>(all.subList(baseIdx, all.size()));
+	}
+
+	private static Map<ChunkId, ChunkLocation> buildIndex(List<JournalFile> chain) {
+		Map<ChunkId, ChunkLocation> index = new HashMap<>();
+		chain.forEach(f -> index.putAll(f.chunks()));
+		return index;
+	}
+
+	private List<File> listFiles() {
+		File[] files = dir.listFiles((d, n) -> n.startsWith(PREFIX) && n.endsWith(SUFFIX));
+		return (files == null ? List.of() : List.of(files));
+	}
+
+	private long nextSequence() {
+		long next = 1;
+		File[] files = dir.listFiles((d, n) -> n.startsWith(PREFIX));
+		if (files != null) {
+			for (File f : files) {
+				next = Math.max(next, getSequence(f) + 1);
+			}
+		}
+		return next;
+	}
+
+	private static long getSequence(File f) {
+		String n = f.getName();
+		int end = n.indexOf('.');
+		try {
+			return Long.parseLong(n.substring(PREFIX.length(), end));
+		}
+		catch (NumberFormatException | IndexOutOfBoundsException e) {
+			return -1;
+		}
+	}
+
+	private File getFile(long sequence) {
+		return new File(dir, PREFIX + String.format("%08d", sequence) + SUFFIX);
+	}
+
+	private static FileChannel openForWrite(File file, SaveCodec codec, byte kind, long sequence)
+				throws IOException {
+		FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.CREATE,
+						StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+		ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+		header.putInt(MAGIC);
+		header.putShort(VERSION);
+		header.put((byte) codec.ordinal());
+		header.put(kind);
+		header.putLong(sequence);
+		header.flip();
+		writeFully(channel, header);
+		return channel;
+	}
+
+	/**
+	 * Writes a chunk entry.
+	 * 
+	 * @return bytes written
+	 */
+	static long writeChunk(FileChannel channel, ChunkId id, int rawLength, byte[] compressed)
+				throws IOException {
+		ByteBuffer header = ByteBuffer.allocate(1 + ChunkId.BYTES + 8);
+		header.put(TAG_CHUNK);
+		id.write(header);
+		header.putInt(rawLength);
+		header.putInt(compressed.length);
+		header.flip();
+		long written = writeFully(channel, header);
+		return written + writeFully(channel, ByteBuffer.wrap(compressed));
+	}
+
+	/**
+	 * Writes the recipe and the end marker.
+	 * 
+	 * @return bytes written
+	 */
+	static long writeRecipe(FileChannel channel, List<ChunkId> recipe, List<SnapshotSection> sections)
+				throws IOException {
+		ByteBuffer buf = ByteBuffer.allocate(1 + 4 + recipe.size() * ChunkId.BYTES + 4);
+		buf.put(TAG_RECIPE);
+		buf.putInt(recipe.size());
+		recipe.forEach(id -> id.write(buf));
+		buf.putInt(sections.size());
+		buf.flip();
+		long written = writeFully(channel, buf);
+		for (SnapshotSection s : sections) {
+			byte[] name = s.name().getBytes(SnapshotFormat.CHARSET);
+			ByteBuffer entry = ByteBuffer.allocate(2 + name.length + 16);
+			entry.putShort((short) name.length);
+			entry.put(name);
+			entry.putLong(s.rawStart());
+			entry.putLong(s.rawLength());
+			entry.flip();
+			written += writeFully(channel, entry);
+		}
+		ByteBuffer end = ByteBuffer.allocate(1);
+		end.put(TAG_END);
+		end.flip();
+		return written + writeFully(channel, end);
+	}
+
+	private static long writeFully(FileChannel channel, ByteBuffer buf) throws IOException {
+		long written = 0;
+		while (buf.hasRemaining()) {
+			written += channel.write(buf);
+		}
+		return written;
+	}
+
+	/**
+	 * Reads the index and recipe of a journal file.
+	 * 
+	 * @return null if the file is not complete or not a journal
+	 */
+	private static JournalFile readFile(File file) throws IOException {
+		try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+			ByteBuffer header = read(channel, HEADER_SIZE);
+			if ((header.getInt() != MAGIC) || (header.getShort() != VERSION)) {
+				logger.warning("Ignoring " + file.getName() + "; it is not a journal file.");
+				return null;
+			}
+			SaveCodec codec = SaveCodec.fromCode(header.get());
+			byte kind = header.get();
+			long sequence = header.getLong();
+
+			Map<ChunkId, ChunkLocation> chunks = new HashMap<>();
+			List<ChunkId> recipe = null;
+			List<SnapshotSection> sections = null;
+			while (true) {
+				byte tag = read(channel, 1).get();
+				if (tag == TAG_END) {
+					break;
+				}
+				else if (tag == TAG_CHUNK) {
+					ByteBuffer entry = read(channel, ChunkId.BYTES + 8);
+					ChunkId id = ChunkId.read(entry);
+					int rawLength = entry.getInt();
+					int compressedLength = entry.getInt();
+					chunks.put(id, new ChunkLocation(file, codec, channel.position(), rawLength, compressedLength));
+					channel.position(channel.position() + compressedLength);
+				}
+				else if (tag == TAG_RECIPE) {
+					int count = read(channel, 4).getInt();
+					ByteBuffer ids = read(channel, count * ChunkId.BYTES);
+					recipe = new ArrayList<>(count);
+					for (int i = 0; i < count; i++) {
+						recipe.add(ChunkId.read(ids));
+					}
+					int sectionCount = read(channel, 4).getInt();
+					sections = new ArrayList<>(sectionCount);
+					for (int i = 0; i < sectionCount; i++) {
+						int nameLength = read(channel, 2).getShort();
+						String name = new String(read(channel, nameLength).array(), SnapshotFormat.CHARSET);
+						ByteBuffer range = read(channel, 16);
+						sections.add(new SnapshotSection(name, range.getLong(), range.getLong()));
+					}
+				}
+				else {
+					throw new IOException("Unknown entry " + tag);
+				}
+			}
+
+			if (recipe == null) {
+				return null;
+			}
+			return new JournalFile(file, codec, kind, sequence, chunks, recipe, sections);
+		}
+		catch (IOException e) {
+			logger.warning("Ignoring incomplete journal file " + file.getName() + ": " + e.getMessage());
+			return null;
+		}
+	}
+
+	private static ByteBuffer read(FileChannel channel, int length) throws IOException {
+		ByteBuffer buf = ByteBuffer.allocate(length);
+		while (buf.hasRemaining()) {
+			if (channel.read(buf) < 0) {
+				throw new EOFException("Journal file is truncated");
+			}
+		}
+		buf.flip();
+		return buf;
+	}
+
+	private static byte[] readChunkData(ChunkLocation loc) throws IOException {
+		try (FileChannel channel = FileChannel.open(loc.file().toPath(), StandardOpenOption.READ)) {
+			ByteBuffer buf = ByteBuffer.allocate(loc.compressedLength());
+			long pos = loc.position();
+			while (buf.hasRemaining()) {
+				int n = channel.read(buf, pos);
+				if (n < 0) {
+					throw new EOFException("Journal file is truncated");
+				}
+				pos += n;
+			}
+			return buf.array();
+		}
+	}
+
+	/**
+	 * Rebuilds the raw stream of a save by following its recipe. Chunks are decompressed
+	 * ahead in parallel.
+	 */
+	private static class ChainInputStream extends InputStream {
+
+		private Iterator<ChunkId> recipe;
+		private Map<ChunkId, ChunkLocation> index;
+		private Map<File, FileChannel> channels = new HashMap<>();
+		private Deque<Future<byte[]>> pending = new ArrayDeque<>();
+		private int readAhead = Math.max(2, SnapshotFormat.THREADS * 2);
+
+		private byte[] current = null;
+		private int pos = 0;
+
+		private ChainInputStream(List<ChunkId> recipe, Map<ChunkId, ChunkLocation> index) {
+			this.recipe = recipe.iterator();
+			this.index = index;
+		}
+
+		private void fillReadAhead() throws IOException {
+			while (recipe.hasNext() && (pending.size() < readAhead)) {
+				ChunkId id = recipe.next();
+				ChunkLocation loc = index.get(id);
+				if (loc == null) {
+					throw new IOException("Journal is missing chunk " + id);
+				}
+				FileChannel channel = channels.get(loc.file());
+				if (channel == null) {
+					channel = FileChannel.open(loc.file().toPath(), StandardOpenOption.READ);
+					channels.put(loc.file(), channel);
+				}
+				ByteBuffer buf = ByteBuffer.allocate(loc.compressedLength());
+				long p = loc.position();
+				while (buf.hasRemaining()) {
+					int n = channel.read(buf, p);
+					if (n < 0) {
+						throw new EOFException("Journal file is truncated");
+					}
+					p += n;
+				}
+				byte[] compressed = buf.array();
+				pending.add(SnapshotFormat.getExecutor().submit(
+								() -> loc.codec().decode(compressed, loc.rawLength())));
+			}
+		}
+
+		private boolean nextChunk() throws IOException {
+			while ((current == null) || (pos >= current.length)) {
+				fillReadAhead();
+				Future<byte[]> next = pending.poll();
+				if (next == null) {
+					return false;
+				}
+				try {
+					current = next.get();
+					pos = 0;
+				}
+				catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+					throw new InterruptedIOException("Interrupted decompressing a chunk");
+				}
+				catch (ExecutionException e) {
+					throw new IOException("Problem decompressing a chunk", e.getCause());
+				}
+			}
+			return true;
+		}
+
+		@Override
+		public int read() throws IOException {
+			if (!nextChunk()) {
+				return -1;
+			}
+			return current[pos++] & 0xFF;
+		}
+
+		@Override
+		public int read(byte[] b, int off, int len) throws IOException {
+			if (len == 0) {
+				return 0;
+			}
+			if (!nextChunk()) {
+				return -1;
+			}
+			int n = Math.min(len, current.length - pos);
+			System.arraycopy(current, pos, b, off, n);
+			pos += n;
+			return n;
+		}
+
+		@Override
+		public void close() throws IOException {
+			pending.forEach(f -> f.cancel(true));
+			pending.clear();
+			for (FileChannel c : channels.values()) {
+				c.close();
+			}
+			channels.clear();
+		}
+	}
+}
@@ -0,0 +1,228 @@
+/*
+ * Mars Simulation Project
+ * SnapshotOutputStream.java
+ * @date 2024-06-20
+ * @author Barry Evans
+ */
+package com.mars_sim.core.persist;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+/**
+ * This is an output stream that writes a saved simulation in the snapshot layout.
+ * The raw bytes are cut into fixed size blocks; each block is compressed by the
+ * shared save executor in parallel and the results are written in order through a
+ * FileChannel. The stream also records named sections, i.e. where each subsystem
+ * starts in the raw stream, and writes them as a table after the last block.
+ * 
+ * Layout:
+ * <pre>
+ * int MAGIC, short VERSION, byte codec
+ * { int rawLength, int compressedLength, byte[compressedLength] } repeated
+ * int 0 (end of blocks)
+ * int sectionCount, { UTF name, long rawStart, long rawLength } repeated
+ * </pre>
+ */
+public class SnapshotOutputStream extends SectionOutputStream {
+
+	/** Default size of a raw block. */
+	static final int BLOCK_SIZE = 4 * 1024 * 1024;
+	/** Most blocks waiting to be compressed or written. */
+	private static final int MAX_IN_FLIGHT = 8;
+	/** Fraction of the free heap the blocks in flight may use. */
+	private static final int HEAP_SHARE = 8;
+
+	private FileChannel channel;
+	private SaveCodec codec;
+	private ExecutorService executor;
+	private int maxInFlight;
+
+	private byte[] block;
+	private int used = 0;
+	private long fileSize = 0;
+	private boolean closed = false;
+
+	private Deque<PendingBlock> pending = new ArrayDeque<>();
+
+	/**
+	 * A block that has been submitted for compression.
+	 */
+	private record PendingBlock(int rawLength, Future<byte[]> compressed) {}
+
+	/**
+	 * Creates a stream writing to a file.
+	 * 
+	 * @param file Destination file; this is overwritten
+	 * @param codec Codec to compress each block
+	 * @param executor Executor to compress the blocks
+	 * @param threads Number of threads in the executor; used with the free heap to bound the blocks in memory
+	 * @throws IOException
+	 */
+	public SnapshotOutputStream(File file, SaveCodec codec, ExecutorService executor, int threads)
+				throws IOException {
+		this.codec = codec;
+		this.executor = executor;
+		this.maxInFlight = getMaxInFlight(threads);
+		this.block = new byte[BLOCK_SIZE];
+		this.channel = FileChannel.open(file.toPath(), StandardOpenOption.CREATE,
+						StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+
+		ByteBuffer header = ByteBuffer.allocate(7);
+		header.putInt(SnapshotFormat.MAGIC);
+		header.putShort(SnapshotFormat.VERSION);
+		header.put((byte) codec.ordinal());
+		header.flip();
+		writeFully(header);
+	}
+
+	/**
+	 * Gets how many blocks may be in flight. Each one holds a raw and a compressed copy
+	 * so this is limited by a share of the free heap as well as a fixed window.
+	 * 
+	 * @param threads Number of threads compressing
+	 * @return
+	 */
+	private static int getMaxInFlight(int threads) {
+		Runtime rt = Runtime.getRuntime();
+		long freeHeap = rt.maxMemory() - (rt.totalMemory() - rt.freeMemory());
+		long byHeap = freeHeap / HEAP_SHARE / (2L * BLOCK_SIZE);
+		long window = Math.min(MAX_IN_FLIGHT, threads + 1L);
+		return (int) Math.max(2, Math.min(window, byHeap));
+	}
+
+	@Override
+	public void write(int b) throws IOException {
+		if (used == block.length) {
+			submitBlock();
+		}
+		block[used++] = (byte) b;
+		addRawSize(1);
+	}
+
+	@Override
+	public void write(byte[] b, int off, int len) throws IOException {
+		while (len > 0) {
+			if (used == block.length) {
+				submitBlock();
+			}
+			int n = Math.min(len, block.length - used);
+			System.arraycopy(b, off, block, used, n);
+			used += n;
+			off += n;
+			len -= n;
+			addRawSize(n);
+		}
+	}
+
+	/**
+	 * Hands the current block to the executor and writes any completed blocks.
+	 */
+	private void submitBlock() throws IOException {
+		if (used == 0) {
+			return;
+		}
+		final byte[] raw = block;
+		final int length = used;
+		pending.add(new PendingBlock(length, executor.submit(() -> codec.encode(raw, length))));
+		block = new byte[BLOCK_SIZE];
+		used = 0;
+
+		// Bound the memory held by uncompressed blocks
+		while (pending.size() >= maxInFlight) {
+			writeNextPending();
+		}
+		while (!pending.isEmpty() && pending.peek().compressed().isDone()) {
+			writeNextPending();
+		}
+	}
+
+	/**
+	 * Waits for the oldest pending block and writes it to the file.
+	 */
+	private void writeNextPending() throws IOException {
+		PendingBlock next = pending.poll();
+		byte[] compressed;
+		try {
+			compressed = next.compressed().get();
+		}
+		catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new InterruptedIOException("Interrupted compressing a block");
+		}
+		catch (ExecutionException e) {
+			throw new IOException("Problem compressing a block", e.getCause());
+		}
+
+		ByteBuffer header = ByteBuffer.allocate(8);
+		header.putInt(next.rawLength());
+		header.putInt(compressed.length);
+		header.flip();
+		writeFully(header);
+		writeFully(ByteBuffer.wrap(compressed));
+	}
+
+	private void writeFully(ByteBuffer buf) throws IOException {
+		while (buf.hasRemaining()) {
+			fileSize += channel.write(buf);
+		}
+	}
+
+	@Override
+	public void close() throws IOException {
+		if (closed) {
+			return;
+		}
+		closed = true;
+		try {
+			endSection();
+			submitBlock();
+			while (!pending.isEmpty()) {
+				writeNextPending();
+			}
+
+			// End of blocks marker followed by the section table
+			ByteBuffer end = ByteBuffer.allocate(8);
+			end.putInt(0);
+			end.putInt(getSections().size());
+			end.flip();
+			writeFully(end);
+			for (SnapshotSection s : getSections()) {
+				byte[] name = s.name().getBytes(SnapshotFormat.CHARSET);
+				ByteBuffer entry = ByteBuffer.allocate(2 + name.length + 16);
+				entry.putShort((short) name.length);
+				entry.put(name);
+				entry.putLong(s.rawStart());
+				entry.putLong(s.rawLength());
+				entry.flip();
+				writeFully(entry);
+			}
+			channel.force(false);
+		}
+		finally {
+			pending.forEach(p -> p.compressed().cancel(true));
+			pending.clear();
+			block = null;
+			channel.close();
+		}
+	}
+
+	/**
+	 * Gets the number of bytes written to the file.
+	 * 
+	 * @return
+	 */
+	@Override
+	public long getFileSize() {
+		return fileSize;
+	}
+}
@@ -0,0 +1,16 @@
+/*
+ * Mars Simulation Project
+ * SnapshotSection.java
+ * @date 2024-06-20
+ * @author Barry Evans
+ */
+package com.mars_sim.core.persist;
+
+/**
+ * A named range of the raw stream in a snapshot holding one subsystem.
+ * 
+ * @param name Name of the subsystem
+ * @param rawStart Offset in the raw stream
+ * @param rawLength Number of raw bytes
+ */
+public record SnapshotSection(String name, long rawStart, long rawLength) {}
@@ -9,10 +9,15 @@ package com.mars_sim.core.person.ai.mission;
 import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.NavigableMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
 import java.util.concurrent.CopyOnWriteArrayList;
-import java.util.stream.Collectors;
+import java.util.function.Predicate;
 
 import com.mars_sim.core.Simulation;
 import com.mars_sim.core.data.Rating;
@@ -29,6 +34,10 @@ import com.mars_sim.tools.util.RandomUtil;
 /**
  * This class keeps track of ongoing missions in the simulation.
  * The simulation has only one mission manager.
+ * Missions are indexed by their associated Settlement so the queries for one Settlement
+ * do not scan every mission. Each mission is given a sequence number when added so the
+ * index returns missions in the order they were added.
+ * Missions leave the index lazily, when a query finds them done.
  */
 public class MissionManager implements Serializable {
 
@@ -68,8 +77,16 @@ public class MissionManager implements Serializable {
 	/** The mission listeners. */
 	private transient List<MissionManagerListener> listeners;
 
-	/** The currently on-going missions in the simulation. */
-	private List<Mission> onGoingMissions;
+	/** Sequence number of the next mission added. */
+	private long nextSequence = 0;
+	/** The currently on-going missions in the simulation, by sequence number. */
+	private NavigableMap<Long, Mission> onGoingMissions;
+	/** Sequence number of each mission; guarded by this manager. */
+	private Map<Mission, Long> sequences;
+	/** Missions not done by associated settlement. */
+	private Map<Settlement, NavigableMap<Long, Mission>> activeBySettlement;
+	/** Read only copy of the missions; rebuilt after a change. */
+	private transient volatile List<Mission> snapshot;
 	/** A history of mission plans by sol. */
 	private SolMetricDataLogger<String> historicalMissions;
 
@@ -80,7 +97,9 @@ public class MissionManager implements Serializable {
 		// Initialize data members
 		identifier = 1;
 		solCache = 1;
-		onGoingMissions = new CopyOnWriteArrayList<>();
+		onGoingMissions = new ConcurrentSkipListMap<>();
+		sequences = new IdentityHashMap<>();
+		activeBySettlement = new ConcurrentHashMap<>();
 		historicalMissions = new SolMetricDataLogger<>(30);
 		listeners = null;
 	}
@@ -155,16 +174,26 @@ public class MissionManager implements Serializable {
 	}
 
 	/**
-	 * Gets a list of current missions.
+	 * Gets a list of current missions. This is a read only copy that does not change
+	 * when missions are added or removed.
 	 *
 	 * @return list of missions.
 	 */
 	public List<Mission> getMissions() {
-		if (onGoingMissions != null) {
-			return Collections.unmodifiableList(onGoingMissions);
+		List<Mission> result = snapshot;
+		if (result == null) {
+			synchronized (this) {
+				if (onGoingMissions == null) {
+					return Collections.emptyList();
+				}
+				result = snapshot;
+				if (result == null) {
+					result = List.copyOf(onGoingMissions.values());
+					snapshot = result;
+				}
+			}
 		}
-		else
-			return Collections.emptyList();
+		return result;
 	}
 
 	/**
@@ -177,17 +206,28 @@ public class MissionManager implements Serializable {
 			throw new IllegalArgumentException("newMission is null");
 		}
 
-		synchronized (onGoingMissions) {
-			if (!onGoingMissions.contains(newMission)) {
-				onGoingMissions.add(newMission);
+		synchronized (this) {
+			if (sequences.containsKey(newMission)) {
+				return;
+			}
 
-				// Update listeners.
-				if (listeners != null) {
-					synchronized (listeners) {
-						for(MissionManagerListener l : listeners) {
-							l.addMission(newMission);
-						}
-					}
+			Long seq = nextSequence++;
+			sequences.put(newMission, seq);
+			onGoingMissions.put(seq, newMission);
+			snapshot = null;
+
+			Settlement s = newMission.getAssociatedSettlement();
+			if (s != null) {
+				activeBySettlement.computeIfAbsent(s, k -> new ConcurrentSkipListMap<>())
+							.put(seq, newMission);
+			}
+		}
+
+		// Update listeners.
+		if (listeners != null) {
+			synchronized (listeners) {
+				for(MissionManagerListener l : listeners) {
+					l.addMission(newMission);
 				}
 			}
 		}
@@ -199,22 +239,73 @@ public class MissionManager implements Serializable {
 	 * @param the mission to be removed
 	 */
 	private void removeMission(Mission oldMission) {
-		synchronized (onGoingMissions) {
-			if (onGoingMissions.contains(oldMission)) {
-				onGoingMissions.remove(oldMission);
-
-				// Update listeners.
-				if (listeners != null) {
-					synchronized (listeners) {
-						for(MissionManagerListener l : listeners) {
-							l.removeMission(oldMission);
-						}
-					}
+		synchronized (this) {
+			Long seq = sequences.remove(oldMission);
+			if (seq == null) {
+				return;
+			}
+
+			onGoingMissions.remove(seq);
+			snapshot = null;
+			removeFromIndex(activeBySettlement, oldMission, seq);
+		}
+
+		// Update listeners.
+		if (listeners != null) {
+			synchronized (listeners) {
+				for(MissionManagerListener l : listeners) {
+					l.removeMission(oldMission);
 				}
+			}
+		}
 
-				logger.config("Removing '" + oldMission.getName() + "' mission.");
+		logger.config("Removing '" + oldMission.getName() + "' mission.");
+	}
+
+	private static void removeFromIndex(Map<Settlement, NavigableMap<Long, Mission>> index,
+										Mission m, Long seq) {
+		Settlement s = m.getAssociatedSettlement();
+		if (s != null) {
+			var missions = index.get(s);
+			if (missions != null) {
+				missions.remove(seq);
+			}
+		}
+	}
+
+	private static boolean isPending(Mission m) {
+		MissionPlanning plan = m.getPlan();
+		return (plan != null) && (plan.getStatus() == PlanType.PENDING);
+	}
+
+	/**
+	 * Finds the missions of a Settlement in an index that still match. Those that
+	 * no longer match are removed from the index.
+	 *
+	 * @param index
+	 * @param settlement
+	 * @param stillValid
+	 * @return
+	 */
+	private static List<Mission> getIndexed(Map<Settlement, NavigableMap<Long, Mission>> index,
+									Settlement settlement, Predicate<Mission> stillValid) {
+		var missions = index.get(settlement);
+		if ((missions == null) || missions.isEmpty()) {
+			return new ArrayList<>();
+		}
+
+		List<Mission> result = new ArrayList<>(missions.size());
+		Iterator<Mission> it = missions.values().iterator();
+		while (it.hasNext()) {
+			Mission m = it.next();
+			if (stillValid.test(m)) {
+				result.add(m);
+			}
+			else {
+				it.remove();
 			}
 		}
+		return result;
 	}
 
 	/**
@@ -302,11 +393,13 @@ public class MissionManager implements Serializable {
 	 * @return number
 	 */
 	private int numParticularMissions(MissionType mType, Settlement settlement) {
-		return (int) onGoingMissions.stream()
-							.filter(( m -> !m.isDone()
-									&& settlement.equals(m.getAssociatedSettlement())
-									&& (m.getMissionType() == mType)))
-							.count();
+		int count = 0;
+		for (Mission m : getMissionsForSettlement(settlement)) {
+			if (m.getMissionType() == mType) {
+				count++;
+			}
+		}
+		return count;
 	}
 
 	/**
@@ -321,33 +414,28 @@ public class MissionManager implements Serializable {
 			throw new IllegalArgumentException("settlement is null");
 		}
 
-		if (onGoingMissions == null || onGoingMissions.isEmpty()) {
+		if (activeBySettlement == null) {
 			return Collections.emptyList();
 		}
 
-		return onGoingMissions.stream()
-				.filter(m -> (!m.isDone() && settlement.equals(m.getAssociatedSettlement())))
-				.collect(Collectors.toList());
+		return getIndexed(activeBySettlement, settlement, m -> !m.isDone());
 	}
 
 	/**
-	 * Gets the missions pending for approval in a given settlement.
+	 * Gets the missions pending for approval in a given settlement. The status of a plan
+	 * changes after the mission is added so these are filtered from the active missions.
 	 *
 	 * @param settlement
 	 * @return list of pending missions associated with the settlement.
 	 */
 	public List<Mission> getPendingMissions(Settlement settlement) {
-
-		if (settlement == null) {
-			throw new IllegalArgumentException("settlement is null");
+		List<Mission> result = new ArrayList<>();
+		for (Mission m : getMissionsForSettlement(settlement)) {
+			if (isPending(m)) {
+				result.add(m);
+			}
 		}
-
-		return onGoingMissions.stream()
-							  .filter(m -> (!m.isDone()
-									  && settlement.equals(m.getAssociatedSettlement())
-									  && m.getPlan() != null
-									  && m.getPlan().getStatus() == PlanType.PENDING))
-							  .collect(Collectors.toList());
+		return result;
 	}
 
 
@@ -421,6 +509,9 @@ public class MissionManager implements Serializable {
 		if (onGoingMissions != null) {
 			onGoingMissions.clear();
 			onGoingMissions = null;
+			sequences = null;
+			activeBySettlement = null;
+			snapshot = null;
 		}
 		if (listeners != null) {
 			listeners.clear();
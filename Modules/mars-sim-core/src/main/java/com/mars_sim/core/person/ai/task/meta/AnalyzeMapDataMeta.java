@@ -13,6 +13,7 @@ import java.util.stream.Collectors;
 import com.mars_sim.core.data.RatingScore;
 import com.mars_sim.core.environment.ExploredLocation;
 import com.mars_sim.core.goods.GoodsManager.CommerceType;
+import com.mars_sim.core.location.LocationStateType;
 import com.mars_sim.core.person.Person;
 import com.mars_sim.core.person.ai.fav.FavoriteType;
 import com.mars_sim.core.person.ai.job.util.JobType;
@@ -39,6 +40,7 @@ public class AnalyzeMapDataMeta extends FactoryMetaTask {
 
     public AnalyzeMapDataMeta() {
 		super(NAME, WorkerType.PERSON, TaskScope.WORK_HOUR);
+		setRequiredLocation(LocationStateType.INSIDE_SETTLEMENT, LocationStateType.INSIDE_VEHICLE);
 		setFavorite(FavoriteType.RESEARCH, FavoriteType.OPERATION);
 		setTrait(TaskTrait.ACADEMIC);
 		
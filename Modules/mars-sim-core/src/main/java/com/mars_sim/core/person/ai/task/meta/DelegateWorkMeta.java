@@ -9,6 +9,7 @@ package com.mars_sim.core.person.ai.task.meta;
 import java.util.List;
 
 import com.mars_sim.core.data.RatingScore;
+import com.mars_sim.core.location.LocationStateType;
 import com.mars_sim.core.person.Person;
 import com.mars_sim.core.person.ai.role.RoleType;
 import com.mars_sim.core.person.ai.task.DelegateWork;
@@ -32,6 +33,7 @@ public class DelegateWorkMeta extends FactoryMetaTask {
     
     public DelegateWorkMeta() {
 		super(NAME, WorkerType.PERSON, TaskScope.ANY_HOUR);
+		setRequiredLocation(LocationStateType.INSIDE_SETTLEMENT, LocationStateType.INSIDE_VEHICLE);
 		setTrait(TaskTrait.ORGANIZATION, TaskTrait.LEADERSHIP);
 
 	}
@@ -9,6 +9,7 @@ package com.mars_sim.core.person.ai.task.meta;
 import java.util.List;
 
 import com.mars_sim.core.data.RatingScore;
+import com.mars_sim.core.location.LocationStateType;
 import com.mars_sim.core.person.Person;
 import com.mars_sim.core.person.ai.NaturalAttributeManager;
 import com.mars_sim.core.person.ai.NaturalAttributeType;
@@ -35,6 +36,7 @@ public class DoInventoryMeta extends FactoryMetaTask {
 	
     public DoInventoryMeta() {
 		super(NAME, WorkerType.PERSON, TaskScope.WORK_HOUR);
+		setRequiredLocation(LocationStateType.INSIDE_SETTLEMENT);
 		setFavorite(FavoriteType.TINKERING);
 	
 		setPreferredRole(RoleType.RESOURCE_SPECIALIST, 
@@ -55,8 +57,7 @@ public class DoInventoryMeta extends FactoryMetaTask {
 		}
 
 		// Compute total entropy and average minimum entropy per node
-		double totENPerL = person.getAssociatedSettlement().getBuildingManager()
-					.getTotalEntropyPerLab();
+		double totENPerL = person.getAssociatedSettlement().getPulseView().getEntropyPerLab();
 
 		if (totENPerL < 0) {
 			return EMPTY_TASKLIST;
@@ -9,6 +9,7 @@ package com.mars_sim.core.person.ai.task.meta;
 import java.util.List;
 
 import com.mars_sim.core.data.RatingScore;
+import com.mars_sim.core.location.LocationStateType;
 import com.mars_sim.core.person.Person;
 import com.mars_sim.core.person.PhysicalCondition;
 import com.mars_sim.core.person.ai.task.ListenToMusic;
@@ -33,6 +34,7 @@ public class ListenToMusicMeta extends FactoryMetaTask {
 
     public ListenToMusicMeta() {
 		super(NAME, WorkerType.PERSON, TaskScope.ANY_HOUR);
+		setRequiredLocation(LocationStateType.INSIDE_SETTLEMENT, LocationStateType.INSIDE_VEHICLE);
 		setTrait(TaskTrait.RELAXATION);
 
 	}
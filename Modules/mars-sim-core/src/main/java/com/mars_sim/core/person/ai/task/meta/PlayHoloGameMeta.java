@@ -10,6 +10,7 @@ import java.util.List;
 
 import com.mars_sim.core.data.RatingScore;
 import com.mars_sim.core.goods.GoodsManager.CommerceType;
+import com.mars_sim.core.location.LocationStateType;
 import com.mars_sim.core.person.Person;
 import com.mars_sim.core.person.PhysicalCondition;
 import com.mars_sim.core.person.ai.fav.FavoriteType;
@@ -36,6 +37,7 @@ public class PlayHoloGameMeta extends FactoryMetaTask {
 
     public PlayHoloGameMeta() {
 		super(NAME, WorkerType.PERSON, TaskScope.NONWORK_HOUR);
+		setRequiredLocation(LocationStateType.INSIDE_SETTLEMENT, LocationStateType.INSIDE_VEHICLE);
 		
 		setFavorite(FavoriteType.GAMING);
 		setTrait(TaskTrait.AGILITY, TaskTrait.RELAXATION);
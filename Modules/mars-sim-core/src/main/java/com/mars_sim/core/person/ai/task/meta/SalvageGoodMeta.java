@@ -9,6 +9,7 @@ package com.mars_sim.core.person.ai.task.meta;
 import java.util.List;
 
 import com.mars_sim.core.data.RatingScore;
+import com.mars_sim.core.location.LocationStateType;
 import com.mars_sim.core.person.Person;
 import com.mars_sim.core.person.ai.SkillManager;
 import com.mars_sim.core.person.ai.SkillType;
@@ -35,6 +36,7 @@ public class SalvageGoodMeta extends FactoryMetaTask {
 
     public SalvageGoodMeta() {
 		super(NAME, WorkerType.PERSON, TaskScope.WORK_HOUR);
+		setRequiredLocation(LocationStateType.INSIDE_SETTLEMENT);
 		setFavorite(FavoriteType.OPERATION, FavoriteType.TINKERING);
 		setTrait(TaskTrait.STRENGTH, TaskTrait.ARTISTIC);
 		setPreferredJob(JobType.ENGINEER, JobType.TECHNICIAN);
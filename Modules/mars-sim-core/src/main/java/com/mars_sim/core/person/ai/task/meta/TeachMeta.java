@@ -10,6 +10,7 @@ import java.util.Collection;
 import java.util.List;
 
 import com.mars_sim.core.data.RatingScore;
+import com.mars_sim.core.location.LocationStateType;
 import com.mars_sim.core.person.Person;
 import com.mars_sim.core.person.ai.task.Teach;
 import com.mars_sim.core.person.ai.task.util.FactoryMetaTask;
@@ -35,6 +36,7 @@ public class TeachMeta extends FactoryMetaTask {
 	
     public TeachMeta() {
 		super(NAME, WorkerType.BOTH, TaskScope.ANY_HOUR);
+		setRequiredLocation(LocationStateType.INSIDE_SETTLEMENT, LocationStateType.INSIDE_VEHICLE);
 		
 		setTrait(TaskTrait.TEACHING);
 	}
@@ -9,6 +9,7 @@ package com.mars_sim.core.person.ai.task.meta;
 import java.util.List;
 
 import com.mars_sim.core.data.RatingScore;
+import com.mars_sim.core.location.LocationStateType;
 import com.mars_sim.core.person.Person;
 import com.mars_sim.core.person.PhysicalCondition;
 import com.mars_sim.core.person.ai.fav.FavoriteType;
@@ -35,6 +36,7 @@ public class WorkoutMeta extends FactoryMetaTask {
 	
     public WorkoutMeta() {
 		super(NAME, WorkerType.PERSON, TaskScope.NONWORK_HOUR);
+		setRequiredLocation(LocationStateType.INSIDE_SETTLEMENT);
 		setFavorite(FavoriteType.SPORT);
 		setTrait(TaskTrait.AGILITY, TaskTrait.RELAXATION);
 
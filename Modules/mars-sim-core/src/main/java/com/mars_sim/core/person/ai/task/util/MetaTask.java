@@ -8,6 +8,7 @@ package com.mars_sim.core.person.ai.task.util;
 
 import java.util.Collections;
 import java.util.EnumMap;
+import java.util.EnumSet;
 import java.util.HashSet;
 import java.util.Map;
 import java.util.Set;
@@ -16,6 +17,7 @@ import com.mars_sim.core.Simulation;
 import com.mars_sim.core.data.RatingScore;
 import com.mars_sim.core.environment.SurfaceFeatures;
 import com.mars_sim.core.goods.GoodsManager.CommerceType;
+import com.mars_sim.core.location.LocationStateType;
 import com.mars_sim.core.person.Person;
 import com.mars_sim.core.person.ai.fav.FavoriteType;
 import com.mars_sim.core.person.ai.job.util.JobType;
@@ -24,6 +26,7 @@ import com.mars_sim.core.person.ai.role.RoleType;
 import com.mars_sim.core.robot.RobotType;
 import com.mars_sim.core.structure.Settlement;
 import com.mars_sim.core.structure.building.Building;
+import com.mars_sim.core.structure.building.function.FunctionType;
 import com.mars_sim.core.time.MarsTime;
 import com.mars_sim.core.time.MasterClock;
 import com.mars_sim.core.vehicle.Vehicle;
@@ -101,6 +104,10 @@ public abstract class MetaTask {
 	private Set<RobotType> preferredRobots = new HashSet<>();
 	private Map<RoleType, Double> preferredRoles = new EnumMap<>(RoleType.class);
 	
+	/* Where a Person must be for this task to apply; null means anywhere. */
+	private Set<LocationStateType> requiredLocations = null;
+	/* Building function the Person's settlement must have. */
+	private FunctionType requiredFunction = null;
 	
 	/**
 	 * Constructor.
@@ -198,6 +205,52 @@ public abstract class MetaTask {
 		}
 	}
     
+	/**
+	 * Defines where a Person must be for this Task to apply. This must match the
+	 * location check at the start of the scoring since the Task is skipped
+	 * without being scored anywhere else.
+	 * 
+	 * @param states
+	 */
+	protected void setRequiredLocation(LocationStateType... states) {
+		requiredLocations = EnumSet.copyOf(Set.of(states));
+	}
+
+	/**
+	 * Defines a building function that the Person's settlement must have for this
+	 * Task to apply. Only used when the Task requires the Person to be in a settlement.
+	 * 
+	 * @param function
+	 */
+	protected void setRequiredFunction(FunctionType function) {
+		requiredFunction = function;
+	}
+
+	/**
+	 * Can this Task apply to a Person at a location ? A person carried by another
+	 * unit is always a candidate.
+	 * 
+	 * @param state Location of the Person
+	 * @return
+	 */
+	public boolean isApplicableAt(LocationStateType state) {
+		return (requiredLocations == null) || (state == LocationStateType.ON_PERSON_OR_ROBOT)
+					|| requiredLocations.contains(state);
+	}
+
+	/**
+	 * Gets the building function the settlement must have for this Task.
+	 * 
+	 * @return Function or null if there is none
+	 */
+	public FunctionType getRequiredFunction() {
+		if ((requiredLocations != null) && (requiredLocations.size() == 1)
+				&& requiredLocations.contains(LocationStateType.INSIDE_SETTLEMENT)) {
+			return requiredFunction;
+		}
+		return null;
+	}
+
 	/**
 	 * Gets the associated task name.
 	 * 
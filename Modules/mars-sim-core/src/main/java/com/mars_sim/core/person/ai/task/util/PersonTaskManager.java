@@ -101,6 +101,9 @@ public class PersonTaskManager extends TaskManager {
 				throw new IllegalStateException("Do not know status " + workStatus);
 		}
 
+		// Only score the MetaTasks that can apply where the Person is
+		mtList = TaskCandidates.getCandidates(shiftDesc, mtList, person, now);
+
 		// Create new taskProbCache
 		TaskCache newCache = new TaskCache(shiftDesc, now);
 
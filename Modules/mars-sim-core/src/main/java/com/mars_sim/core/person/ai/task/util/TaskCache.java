@@ -22,6 +22,7 @@ public class TaskCache {
     private String context;
     private MarsTime createdOn;
     private TaskJob lastSelected;
+    private long buildTime = 0;
 
     /**
      * Create a cache of Tasks. A cache can work in transient mode where selected entries are removed.
@@ -66,6 +67,22 @@ public class TaskCache {
         return createdOn;
     }
 
+    /**
+     * Records how long this cache took to build.
+     * @param nanos Build time in nanoseconds
+     */
+    void setBuildTime(long nanos) {
+        this.buildTime = nanos;
+    }
+
+    /**
+     * How long did this cache take to build ?
+     * @return Build time in nanoseconds
+     */
+    public long getBuildTime() {
+        return buildTime;
+    }
+
     /**
      * Get the total probability score for all tasks.
      * @return
@@ -0,0 +1,97 @@
+/*
+ * Mars Simulation Project
+ * TaskCandidates.java
+ * @date 2024-06-25
+ * @author Barry Evans
+ */
+package com.mars_sim.core.person.ai.task.util;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import com.mars_sim.core.location.LocationStateType;
+import com.mars_sim.core.person.Person;
+import com.mars_sim.core.structure.Settlement;
+import com.mars_sim.core.structure.building.function.FunctionType;
+import com.mars_sim.core.time.MarsTime;
+
+/**
+ * Pre-filters the MetaTasks that a Person could do before they are scored. A MetaTask is
+ * dropped if the Person is not where it requires or the settlement lacks the building
+ * function it needs. The filtered list depends only on the settlement, the shift list and
+ * the location so it is shared by all the Persons in that state for the current millisol.
+ * Only the filtering is shared; each MetaTask still scores the Person in full because
+ * the scores do not separate the settlement part from the Person part.
+ */
+public final class TaskCandidates {
+
+	/**
+	 * Key of a filtered list.
+	 */
+	private static record Key(String shift, int settlementId, LocationStateType location) {}
+
+	/**
+	 * A filtered list and the millisol it was built.
+	 */
+	private static record Entry(int msol, List<FactoryMetaTask> candidates) {}
+
+	private static final Map<Key, Entry> memo = new ConcurrentHashMap<>();
+
+	/**
+	 * Private constructor for utility class.
+	 */
+	private TaskCandidates() {
+	}
+
+	/**
+	 * Gets the MetaTasks from a shift list that could apply to a Person.
+	 *
+	 * @param shift Name of the shift list
+	 * @param source Full list of MetaTasks for the shift
+	 * @param person
+	 * @param now
+	 * @return The applicable MetaTasks
+	 */
+	public static List<FactoryMetaTask> getCandidates(String shift, List<FactoryMetaTask> source,
+										Person person, MarsTime now) {
+		LocationStateType location = person.getLocationStateType();
+		Settlement settlement = (person.isInSettlement() ? person.getSettlement() : null);
+		Key key = new Key(shift, (settlement != null ? settlement.getIdentifier() : -1), location);
+		int msol = (int) now.getTotalMillisols();
+
+		Entry found = memo.get(key);
+		if ((found == null) || (found.msol() != msol)) {
+			found = new Entry(msol, filter(source, location, settlement));
+			memo.put(key, found);
+		}
+		return found.candidates();
+	}
+
+	/**
+	 * Filters the MetaTasks for a location.
+	 */
+	private static List<FactoryMetaTask> filter(List<FactoryMetaTask> source, LocationStateType location,
+										Settlement settlement) {
+		List<FactoryMetaTask> result = new ArrayList<>(source.size());
+		for (FactoryMetaTask mt : source) {
+			if (mt.isApplicableAt(location)) {
+				FunctionType f = mt.getRequiredFunction();
+				if ((f == null) || (settlement == null)
+						|| !settlement.getBuildingManager().getBuildingSet(f).isEmpty()) {
+					result.add(mt);
+				}
+			}
+		}
+		return Collections.unmodifiableList(result);
+	}
+
+	/**
+	 * Clears any filtered lists, e.g. after the simulation is reloaded.
+	 */
+	public static void reset() {
+		memo.clear();
+	}
+}
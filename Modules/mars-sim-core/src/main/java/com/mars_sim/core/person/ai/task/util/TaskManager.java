@@ -10,6 +10,7 @@ import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.LongAdder;
 
 import com.mars_sim.core.Simulation;
 import com.mars_sim.core.SimulationConfig;
@@ -41,6 +42,10 @@ public abstract class TaskManager implements Serializable {
 	/** Number of days to record Tack Activities. */	
 	private static MasterClock master;
 
+	/** Count and total time of all task cache rebuilds. */
+	private static final LongAdder rebuildCount = new LongAdder();
+	private static final LongAdder rebuildNanos = new LongAdder();
+
 	/**The worker **/
 	protected transient Unit worker;
 	/** The current task the worker is doing. */
@@ -451,7 +456,12 @@ public abstract class TaskManager implements Serializable {
 		MarsTime now = master.getMarsTime();
 		if ((taskProbCache == null)  || (taskProbCache.getCreatedOn() == null) || taskProbCache.getTasks().isEmpty()
 				|| (now.getMillisol() != taskProbCache.getCreatedOn().getMillisol())) {
+			long start = System.nanoTime();
 			taskProbCache = rebuildTaskCache(now);
+			long elapsed = System.nanoTime() - start;
+			taskProbCache.setBuildTime(elapsed);
+			rebuildCount.increment();
+			rebuildNanos.add(elapsed);
 		}
 
 		if (taskProbCache.getTasks().isEmpty()) { 
@@ -673,8 +683,28 @@ public abstract class TaskManager implements Serializable {
 		MetaTaskUtil.initialiseInstances(sim);
 		Task.initializeInstances(sim, conf.getPersonConfig());
 		RespondToStudyInvitation.initialiseInstances(conf.getScienceConfig());
+		TaskCandidates.reset();
 		master = sim.getMasterClock();
 	}
+
+	/**
+	 * Gets how many task caches have been rebuilt across all workers.
+	 * 
+	 * @return
+	 */
+	public static long getRebuildCount() {
+		return rebuildCount.sum();
+	}
+
+	/**
+	 * Gets the average time to rebuild a task cache.
+	 * 
+	 * @return Average time in microseconds
+	 */
+	public static double getAverageRebuildTime() {
+		long count = rebuildCount.sum();
+		return (count == 0 ? 0D : rebuildNanos.sum() / 1000D / count);
+	}
 	
 
 	/**
@@ -131,7 +131,7 @@ public class ExamineBodyMeta  extends MetaTask implements SettlementMetaTask {
 	private boolean hasNeedyMedicalAidsAtSettlement(Settlement settlement) {
 
 		// Check all medical care buildings.
-		for (Building b : settlement.getBuildingManager().getBuildingSet(FunctionType.MEDICAL_CARE)) {
+		for (Building b : settlement.getPulseView().getBuildings(FunctionType.MEDICAL_CARE)) {
 			// Check if there are any sick beds at building.
 			if (b.getMedical().hasEmptyBeds()) {
 				return true;
@@ -25,6 +25,7 @@ import com.mars_sim.core.science.ScienceType;
 import com.mars_sim.core.science.ScientificStudy;
 import com.mars_sim.core.science.StudyStatus;
 import com.mars_sim.core.structure.Lab;
+import com.mars_sim.core.structure.Settlement;
 import com.mars_sim.tools.Msg;
 
 /**
@@ -65,7 +66,10 @@ public class StudyFieldSamplesMeta extends FactoryMetaTask {
 		double mostStored = 0D;
 
 		Unit container = person.getContainerUnit();
-		if (container instanceof ResourceHolder rh) {
+		if (container instanceof Settlement s) {
+			mostStored = s.getPulseView().getMostRockStored();
+		}
+		else if (container instanceof ResourceHolder rh) {
 			for (int i: ResourceUtil.rockIDs) {
 				double stored = rh.getAmountResourceStored(i);
 				mostStored = Math.max(stored, mostStored);
@@ -273,6 +273,8 @@ public class Settlement extends Structure implements Temporal,
 	protected BuildingConnectorManager buildingConnectorManager;
 	/** The settlement's goods manager. */
 	protected GoodsManager goodsManager;
+	/** The shared view of this settlement for the current pulse. */
+	private transient volatile SettlementPulseView pulseView;
 	/** The settlement's construction manager. */
 	protected ConstructionManager constructionManager;
 	/** The settlement's building power grid. */
@@ -905,7 +907,7 @@ public class Settlement extends Structure implements Temporal,
 			// Creates an initial explored site in SurfaceFeatures
 			createARegionOfInterest(firstSite, 0);
 			
-			logger.info(this, "On Sol 1, " + firstSite.getFormattedString() 
+			logger.info(this, () -> "On Sol 1, " + firstSite.getFormattedString() 
 						+ " was the very first exploration site chosen to be analyzed and explored.");
 			
 			checkMineralMapImprovement();			
@@ -918,6 +920,9 @@ public class Settlement extends Structure implements Temporal,
 		powerGrid.timePassing(pulse);
 		thermalSystem.timePassing(pulse);
 		buildingManager.timePassing(pulse);
+
+		// The view of the last pulse is stale; the first Task choice of this pulse builds a new one
+		pulseView = null;
 		taskManager.timePassing();
 
 		// Update citizens
@@ -964,7 +969,7 @@ public class Settlement extends Structure implements Temporal,
 			// Creates an initial explored site in SurfaceFeatures
 			createARegionOfInterest(anotherSite, skill);
 			
-			logger.info(this, "On Sol " + sol + ", " +  anotherSite.getFormattedString() 
+			logger.info(this, () -> "On Sol " + sol + ", " +  anotherSite.getFormattedString() 
 						+ " was added to be analyzed and explored.");
 			
 			checkMineralMapImprovement();	
@@ -1001,7 +1006,7 @@ public class Settlement extends Structure implements Temporal,
     	
     	if (size > 0 && improved > 0) {
 	    	double result = 1.0 * improved / size;
-			logger.info(this, "Average improvement score on " + size + " mineral location(s): " + Math.round(result * 10.0)/10.0);
+			logger.info(this, () -> "Average improvement score on " + size + " mineral location(s): " + Math.round(result * 10.0)/10.0);
     	}
     	else {
 			logger.info(this, "Zero improvement score on mineral locations.");
@@ -1315,6 +1320,27 @@ public class Settlement extends Structure implements Temporal,
 		return goodsManager;
 	}
 
+	/**
+	 * Gets the view of this settlement for the current pulse. It is built on the first
+	 * call in a pulse and then shared. This is intended for scoring MetaTasks where a
+	 * value shared for the pulse is better than the very latest one.
+	 *
+	 * @return
+	 */
+	public SettlementPulseView getPulseView() {
+		SettlementPulseView result = pulseView;
+		if (result == null) {
+			synchronized (this) {
+				result = pulseView;
+				if (result == null) {
+					result = new SettlementPulseView(this, (int) masterClock.getMarsTime().getTotalMillisols());
+					pulseView = result;
+				}
+			}
+		}
+		return result;
+	}
+
 
 	/**
 	 * Checks for available airlocks.
@@ -1876,6 +1902,7 @@ public class Settlement extends Structure implements Temporal,
 
 			// Fire unit update
 			fireUnitUpdate(UnitEventType.ADD_ASSOCIATED_PERSON_EVENT, this);
+			goodsChanged();
 			
 			return true;
 		}
@@ -1908,6 +1935,7 @@ public class Settlement extends Structure implements Temporal,
 			numCitizens = citizens.size();
 			// Fire unit update
 			fireUnitUpdate(UnitEventType.REMOVE_ASSOCIATED_PERSON_EVENT, this);
+			goodsChanged();
 			
 			return true;
 		}
@@ -3258,6 +3286,7 @@ public class Settlement extends Structure implements Temporal,
 	 */
 	@Override
 	public int storeItemResource(int resource, int quantity) {
+		goodsChanged(resource);
 		return eqmInventory.storeItemResource(resource, quantity);
 	}
 
@@ -3270,6 +3299,7 @@ public class Settlement extends Structure implements Temporal,
 	 */
 	@Override
 	public int retrieveItemResource(int resource, int quantity) {
+		goodsChanged(resource);
 		return eqmInventory.retrieveItemResource(resource, quantity);
 	}
 
@@ -3284,6 +3314,26 @@ public class Settlement extends Structure implements Temporal,
 		return eqmInventory.getItemResourceStored(resource);
 	}
 
+	/**
+	 * Tells the goods manager a stored resource has changed.
+	 *
+	 * @param resource
+	 */
+	public void goodsChanged(int resource) {
+		if (goodsManager != null) {
+			goodsManager.markChanged(resource);
+		}
+	}
+
+	/**
+	 * Tells the goods manager the settlement has changed so all goods need revaluing.
+	 */
+	public void goodsChanged() {
+		if (goodsManager != null) {
+			goodsManager.markAllChanged();
+		}
+	}
+
 	/**
 	 * Stores the amount resource.
 	 *
@@ -3293,6 +3343,7 @@ public class Settlement extends Structure implements Temporal,
 	 */
 	@Override
 	public double storeAmountResource(int resource, double quantity) {
+		goodsChanged(resource);
 		return eqmInventory.storeAmountResource(resource, quantity);
 	}
 
@@ -3305,6 +3356,7 @@ public class Settlement extends Structure implements Temporal,
 	 */
 	@Override
 	public double retrieveAmountResource(int resource, double quantity) {
+		goodsChanged(resource);
 		return eqmInventory.retrieveAmountResource(resource, quantity);
 	}
 
@@ -3516,11 +3568,13 @@ public class Settlement extends Structure implements Temporal,
 
 	@Override
 	public double storeAmountResource(BinType type, int id, int resource, double quantity) {
+		goodsChanged(resource);
 		return eqmInventory.storeAmountResource(type, id, resource, quantity);
 	}
 
 	@Override
 	public double retrieveAmountResource(BinType type, int id, int resource, double quantity) {
+		goodsChanged(resource);
 		return eqmInventory.retrieveAmountResource(type, id, resource, quantity);
 	}
 
@@ -0,0 +1,100 @@
+/*
+ * Mars Simulation Project
+ * SettlementPulseView.java
+ * @date 2024-06-26
+ * @author Barry Evans
+ */
+package com.mars_sim.core.structure;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import com.mars_sim.core.resource.ResourceUtil;
+import com.mars_sim.core.structure.building.Building;
+import com.mars_sim.core.structure.building.BuildingManager;
+import com.mars_sim.core.structure.building.function.FunctionType;
+
+/**
+ * A view of the settlement wide facts that MetaTasks score against. The Settlement
+ * creates it the first time it is asked for in a pulse, so the many Workers choosing a
+ * Task during that pulse can read it without recalculating the same values. A pulse
+ * where no Task is chosen does not build one.
+ * It only holds what the MetaTasks read. The building lists are copied the first time
+ * a function is asked for during the pulse; the other values are as they were when
+ * the view was built.
+ */
+public final class SettlementPulseView {
+
+	private final int missionMSol;
+	private final BuildingManager mgr;
+	private final Map<FunctionType, List<Building>> buildings = new ConcurrentHashMap<>();
+	private final double entropyPerLab;
+	private final double mostRockStored;
+
+	/**
+	 * Builds a view of the current state of a settlement.
+	 *
+	 * @param settlement
+	 * @param missionMSol Millisol since the start of the mission when built
+	 */
+	SettlementPulseView(Settlement settlement, int missionMSol) {
+		this.missionMSol = missionMSol;
+		this.mgr = settlement.getBuildingManager();
+		this.entropyPerLab = mgr.getTotalEntropyPerLab();
+
+		double mostRock = 0D;
+		for (int id : ResourceUtil.rockIDs) {
+			mostRock = Math.max(mostRock, settlement.getAmountResourceStored(id));
+		}
+		this.mostRockStored = mostRock;
+	}
+
+	/**
+	 * Gets the millisol since the start of the mission when this view was built.
+	 *
+	 * @return
+	 */
+	public int getMissionMSol() {
+		return missionMSol;
+	}
+
+	/**
+	 * Gets the buildings with a function.
+	 *
+	 * @param function
+	 * @return Unmodifiable list; empty if none
+	 */
+	public List<Building> getBuildings(FunctionType function) {
+		return buildings.computeIfAbsent(function, f -> List.copyOf(mgr.getBuildingSet(f)));
+	}
+
+	/**
+	 * Does the settlement have a building with a function ?
+	 *
+	 * @param function
+	 * @return
+	 */
+	public boolean hasFunction(FunctionType function) {
+		return !getBuildings(function).isEmpty();
+	}
+
+	/**
+	 * Gets the average entropy of the labs.
+	 *
+	 * @return
+	 * @see BuildingManager#getTotalEntropyPerLab()
+	 */
+	public double getEntropyPerLab() {
+		return entropyPerLab;
+	}
+
+	/**
+	 * Gets the amount of the most plentiful type of rock sample.
+	 *
+	 * @return kg
+	 */
+	public double getMostRockStored() {
+		return mostRockStored;
+	}
+}
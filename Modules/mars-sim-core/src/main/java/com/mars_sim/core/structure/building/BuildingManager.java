@@ -8,6 +8,7 @@ package com.mars_sim.core.structure.building;
 
 import java.io.Serializable;
 import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.EnumMap;
 import java.util.HashMap;
 import java.util.HashSet;
@@ -65,7 +66,10 @@ import com.mars_sim.core.structure.building.function.PowerGeneration;
 import com.mars_sim.core.structure.building.function.PowerStorage;
 import com.mars_sim.core.structure.building.function.Recreation;
 import com.mars_sim.core.structure.building.function.Research;
+import com.mars_sim.core.structure.building.function.ResourceFlowSolver;
+import com.mars_sim.core.structure.building.function.ResourceProcess;
 import com.mars_sim.core.structure.building.function.ResourceProcessing;
+import com.mars_sim.core.structure.building.function.ResourceProcessor;
 import com.mars_sim.core.structure.building.function.RoboticStation;
 import com.mars_sim.core.structure.building.function.Storage;
 import com.mars_sim.core.structure.building.function.ThermalGeneration;
@@ -115,6 +119,10 @@ public class BuildingManager implements Serializable {
 	private transient Map<String, Double> vPNewCache = new HashMap<>();
 	private transient Map<String, Double> vPOldCache = new HashMap<>();
 	private transient Map<FunctionType, Set<Building>> buildingFunctionsMap;
+	/** Runs the resource processes of all buildings together. */
+	private transient ResourceFlowSolver flowSolver;
+	/** The resource processes of all buildings in a fixed order; rebuilt when the buildings change. */
+	private transient List<ResourceProcess> resourceProcesses;
 	/** The settlement's map of adjacent buildings. */
 	private transient Map<Building, Set<Building>> adjacentBuildingMap = new HashMap<>();
 	/** The settlement's maintenance parts map. */
@@ -201,6 +209,7 @@ public class BuildingManager implements Serializable {
 	}
 
 	private void addBuildingToMap(Building b) {
+		resourceProcesses = null;
 		for(Function f : b.getFunctions()) {
 			buildingFunctionsMap.computeIfAbsent(f.getFunctionType(),
 						ft -> new UnitSet<>()).add(b);
@@ -228,6 +237,7 @@ public class BuildingManager implements Serializable {
 			}
 
 			settlement.fireUnitUpdate(UnitEventType.REMOVE_BUILDING_EVENT, oldBuilding);
+			settlement.goodsChanged();
 		}
 	}
 
@@ -240,6 +250,7 @@ public class BuildingManager implements Serializable {
 	 * @param a function
 	 */
 	public void removeOneFunctionfromBFMap(Building b, Function f) {
+		resourceProcesses = null;
 		if (buildingFunctionsMap != null) {
 			FunctionType ft = f.getFunctionType();
 			Set<Building> list = buildingFunctionsMap.get(ft);
@@ -325,6 +336,7 @@ public class BuildingManager implements Serializable {
 			refreshFunctionMapForBuilding(newBuilding);
 
 			settlement.fireUnitUpdate(UnitEventType.ADD_BUILDING_EVENT, newBuilding);
+			settlement.goodsChanged();
 			
 			if (createBuildingConnections) {
 				// Note: at the star of the sim, BuildingConnectorManager is still null
@@ -817,9 +829,42 @@ public class BuildingManager implements Serializable {
 				logger.severe(b, "Problem applying pulse to Building", rte);
 			}
 		}
+
+		// Resource processes share the settlement storage so the due ones are run together
+		if (flowSolver == null) {
+			flowSolver = new ResourceFlowSolver();
+		}
+		try {
+			flowSolver.solve(settlement, getResourceProcesses());
+		}
+		catch (RuntimeException rte) {
+			logger.severe(settlement, "Problem running resource processes", rte);
+		}
 		return true;
 	}
 
+	/**
+	 * Gets the resource and waste processes of all buildings in a fixed order. The list
+	 * is kept until a building or function is added or removed.
+	 *
+	 * @return
+	 */
+	private List<ResourceProcess> getResourceProcesses() {
+		List<ResourceProcess> result = resourceProcesses;
+		if (result == null) {
+			result = new ArrayList<>();
+			for (FunctionType type : List.of(FunctionType.RESOURCE_PROCESSING, FunctionType.WASTE_PROCESSING)) {
+				List<Building> sorted = new ArrayList<>(getBuildingSet(type));
+				sorted.sort(Comparator.comparingInt(Building::getIdentifier));
+				for (Building b : sorted) {
+					result.addAll(((ResourceProcessor) b.getFunction(type)).getProcesses());
+				}
+			}
+			resourceProcesses = result;
+		}
+		return result;
+	}
+
 	/**
 	 * Gets a random building with an airlock.
 	 *
@@ -2089,6 +2134,10 @@ public class BuildingManager implements Serializable {
 			return null;
 		for (Building b: nodeBldgs) {
 			Computation node = b.getComputation();
+			if (node.getPeakCU() < need) {
+				// Can never fit
+				continue;
+			}
 			double score = node.evaluateScheduleTask(need, startTime, endTime);
 			if (score > 0)
 				scores.put(node, score);
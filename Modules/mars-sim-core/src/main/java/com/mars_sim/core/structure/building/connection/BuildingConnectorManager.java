@@ -61,6 +61,9 @@ public class BuildingConnectorManager implements Serializable {
 	private Settlement settlement;
 	
 	private Set<BuildingConnector> buildingConnections;
+
+	/** Routing graph built from the connectors; dropped whenever they change. */
+	private transient volatile ConnectorGraph graph;
 		
 	/**
 	 * Constructor
@@ -88,6 +91,7 @@ public class BuildingConnectorManager implements Serializable {
 	public void initialize(Settlement settlement, List<BuildingTemplate> buildingTemplates) {
 		
 		buildingConnections = new HashSet<>();
+		graph = null;
 
 		BuildingManager buildingManager = settlement.getBuildingManager();
 
@@ -373,6 +377,7 @@ public class BuildingConnectorManager implements Serializable {
 
 		if (!buildingConnections.contains(buildingConnector)) {
 			buildingConnections.add(buildingConnector);
+			graph = null;
 		} else {
 			throw new IllegalArgumentException("BuildingConnector already exists.");
 		}
@@ -387,6 +392,7 @@ public class BuildingConnectorManager implements Serializable {
 
 		if (buildingConnections.contains(buildingConnector)) {
 			buildingConnections.remove(buildingConnector);
+			graph = null;
 		} else {
 			throw new IllegalArgumentException("BuildingConnector does not exists.");
 		}
@@ -458,16 +464,25 @@ public class BuildingConnectorManager implements Serializable {
 	 */
 	public Set<BuildingConnector> getConnectionsToBuilding(Building building) {
 
-		Set<BuildingConnector> result = new HashSet<>();
+		return new HashSet<>(getGraph().getConnectors(building));
+	}
 
-		Iterator<BuildingConnector> i = buildingConnections.iterator();
-		while (i.hasNext()) {
-			BuildingConnector connector = i.next();
-			if (building.equals(connector.getBuilding1()) || building.equals(connector.getBuilding2())) {
-				result.add(connector);
+	/**
+	 * Gets the routing graph of the connectors, building it if the connectors have changed.
+	 * 
+	 * @return
+	 */
+	private ConnectorGraph getGraph() {
+		ConnectorGraph result = graph;
+		if (result == null) {
+			synchronized (this) {
+				result = graph;
+				if (result == null) {
+					result = new ConnectorGraph(buildingConnections);
+					graph = result;
+				}
 			}
 		}
-
 		return result;
 	}
 
@@ -486,10 +501,7 @@ public class BuildingConnectorManager implements Serializable {
 			throw new IllegalArgumentException("Building arguments cannot be null");
 		}
 
-		InsideBuildingPath validPath = determineShortestPath(building1, building1.getPosition(),
-															building2, building2.getPosition());
-
-		if (validPath != null) {
+		if (building1.equals(building2) || getGraph().isConnected(building1, building2)) {
 			result = true;
 		}
 		else if (logger.isLoggable(Level.FINEST)) {
@@ -514,15 +526,13 @@ public class BuildingConnectorManager implements Serializable {
 		BuildingLocation start = new BuildingLocation(startBuilding, startPosition);
 		BuildingLocation end = new BuildingLocation(endBuilding, endPosition);
 
-		InsideBuildingPath startingPath = new InsideBuildingPath();
-		startingPath.addPathLocation(start);
-
 		InsideBuildingPath finalPath = null;
 		if (!startBuilding.equals(endBuilding)) {
-			// Check shortest path to target building from this building.
-			finalPath = determineShortestPath(startingPath, startBuilding, endBuilding, end);
+			// Route through the connectors to the target building.
+			finalPath = getGraph().findPath(start, end);
 		} else {
-			finalPath = startingPath;
+			finalPath = new InsideBuildingPath();
+			finalPath.addPathLocation(start);
 			finalPath.addPathLocation(end);
 		}
 
@@ -534,89 +544,6 @@ public class BuildingConnectorManager implements Serializable {
 		return finalPath;
 	}
 
-	/**
-	 * Recursive method to determine the shortest path between two buildings.
-	 * 
-	 * @param existingPath    the current path.
-	 * @param currentBuilding the current building.
-	 * @param targetBuilding  the target building.
-	 * @param endingLocation  the end building location.
-	 * @return shortest path or null if none found.
-	 */
-	private InsideBuildingPath determineShortestPath(InsideBuildingPath existingPath, Building currentBuilding,
-			Building targetBuilding, BuildingLocation endingLocation) {
-
-		InsideBuildingPath result = null;
-
-		// Try each building connection from current building.
-		Iterator<BuildingConnector> i = getConnectionsToBuilding(currentBuilding).iterator();
-		while (i.hasNext()) {
-			BuildingConnector connector = i.next();
-
-			Building connectionBuilding = null;
-			Hatch nearHatch = null;
-			Hatch farHatch = null;
-			if (connector.getBuilding1().equals(currentBuilding)) {
-				connectionBuilding = connector.getBuilding2();
-				nearHatch = connector.getHatch1();
-				farHatch = connector.getHatch2();
-			} else {
-				connectionBuilding = connector.getBuilding1();
-				nearHatch = connector.getHatch2();
-				farHatch = connector.getHatch1();
-			}
-
-			// Make sure building or connection is not already in existing path.
-			boolean inExistingPath = existingPath.containsPathLocation(connectionBuilding);
-            if (existingPath.containsPathLocation(connector)) {
-				inExistingPath = true;
-			}
-			if (existingPath.containsPathLocation(nearHatch)) {
-				inExistingPath = true;
-			}
-			if (existingPath.containsPathLocation(farHatch)) {
-				inExistingPath = true;
-			}
-			if (inExistingPath) {
-				continue;
-			}
-
-			// Copy existing path to create new path.
-			InsideBuildingPath newPath = new InsideBuildingPath(existingPath);
-
-			// Add building connector to new path.
-			if (connector.isSplitConnection()) {
-				newPath.addPathLocation(nearHatch);
-				newPath.addPathLocation(connector);
-				newPath.addPathLocation(farHatch);
-			} else {
-				newPath.addPathLocation(connector);
-			}
-
-			InsideBuildingPath bestPath = null;
-			if (connectionBuilding.equals(targetBuilding)) {
-				// Add ending location within connection building.
-				newPath.addPathLocation(endingLocation);
-				bestPath = newPath;
-			} else {
-				// Add connection building to new path.
-				newPath.addPathLocation(connectionBuilding);
-
-				// Recursively call this method with new path and connection building.
-				// Note: how to avoid StackOverflow ?
-				bestPath = determineShortestPath(newPath, connectionBuilding, targetBuilding, endingLocation);
-			}
-
-			if (bestPath != null) {
-				if ((result == null) || (bestPath.getPathLength() < result.getPathLength())) {
-					result = bestPath;
-				}
-			}
-		}
-
-		return result;
-	}
-
 	/**
 	 * Creates building connections from a new building to the surrounding buildings.
 	 * 
@@ -624,6 +551,9 @@ public class BuildingConnectorManager implements Serializable {
 	 */
 	public void createBuildingConnections(Building newBuilding) {
 
+		// The connections are about to change so drop the routing graph.
+		graph = null;
+
 		// Only create building connections for habitable buildings.
 		if (!newBuilding.isInhabitable()) {
 			// If building connector, determine end connections first.
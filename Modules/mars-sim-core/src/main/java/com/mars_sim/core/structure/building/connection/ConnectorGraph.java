@@ -0,0 +1,220 @@
+/*
+ * Mars Simulation Project
+ * ConnectorGraph.java
+ * @date 2024-06-20
+ * @author Barry Evans
+ */
+package com.mars_sim.core.structure.building.connection;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+
+import com.mars_sim.core.structure.building.Building;
+import com.mars_sim.mapdata.location.LocalPosition;
+
+/**
+ * An immutable routing graph of the buildings at a settlement joined by their connectors.
+ * It holds the connectors of each building and which connected group each building
+ * belongs to, so a reachability check is a lookup. Routes are found with A* using the
+ * straight line distance to the destination as the heuristic.
+ */
+class ConnectorGraph {
+
+	/**
+	 * One step of a route; crossing a connector from one building into the next.
+	 */
+	private static record Step(BuildingConnector connector, Building from, Building to) {
+
+		Hatch nearHatch() {
+			return (connector.getBuilding1().equals(from) ? connector.getHatch1() : connector.getHatch2());
+		}
+
+		Hatch farHatch() {
+			return (connector.getBuilding1().equals(from) ? connector.getHatch2() : connector.getHatch1());
+		}
+
+		/**
+		 * Length of this step when leaving from a point in the near building and arriving
+		 * at a point in the far building.
+		 */
+		double getLength(LocalPosition leave, LocalPosition arrive) {
+			Hatch near = nearHatch();
+			Hatch far = farHatch();
+			if (connector.isSplitConnection()) {
+				return leave.getDistanceTo(near.getPosition())
+						+ near.getPosition().getDistanceTo(connector.getPosition())
+						+ connector.getPosition().getDistanceTo(far.getPosition())
+						+ far.getPosition().getDistanceTo(arrive);
+			}
+			return leave.getDistanceTo(connector.getPosition())
+						+ connector.getPosition().getDistanceTo(arrive);
+		}
+	}
+
+	/**
+	 * A building on the A* frontier.
+	 */
+	private static record Node(Building building, double cost, double estimate)
+			implements Comparable<Node> {
+
+		@Override
+		public int compareTo(Node o) {
+			return Double.compare(estimate, o.estimate);
+		}
+	}
+
+	private Map<Building, List<Step>> steps = new HashMap<>();
+	private Map<Building, Integer> groups = new HashMap<>();
+
+	/**
+	 * Builds the graph from a set of connectors.
+	 *
+	 * @param connectors
+	 */
+	ConnectorGraph(Collection<BuildingConnector> connectors) {
+		for (BuildingConnector c : connectors) {
+			Building b1 = c.getBuilding1();
+			Building b2 = c.getBuilding2();
+			steps.computeIfAbsent(b1, k -> new ArrayList<>()).add(new Step(c, b1, b2));
+			steps.computeIfAbsent(b2, k -> new ArrayList<>()).add(new Step(c, b2, b1));
+		}
+
+		// Flood fill the connected groups
+		int group = 0;
+		for (Building b : steps.keySet()) {
+			if (!groups.containsKey(b)) {
+				Deque<Building> open = new ArrayDeque<>();
+				open.add(b);
+				groups.put(b, group);
+				while (!open.isEmpty()) {
+					for (Step s : steps.get(open.poll())) {
+						if (groups.putIfAbsent(s.to(), group) == null) {
+							open.add(s.to());
+						}
+					}
+				}
+				group++;
+			}
+		}
+	}
+
+	/**
+	 * Gets the connectors attached to a building.
+	 *
+	 * @param building
+	 * @return
+	 */
+	List<BuildingConnector> getConnectors(Building building) {
+		List<Step> found = steps.get(building);
+		if (found == null) {
+			return Collections.emptyList();
+		}
+		return found.stream().map(Step::connector).toList();
+	}
+
+	/**
+	 * Are two different buildings joined by any chain of connectors ?
+	 *
+	 * @param building1
+	 * @param building2
+	 * @return
+	 */
+	boolean isConnected(Building building1, Building building2) {
+		Integer g1 = groups.get(building1);
+		return (g1 != null) && g1.equals(groups.get(building2));
+	}
+
+	/**
+	 * Finds the shortest path between two different buildings. The path passes through
+	 * the centre of every intermediate building, as the original search did.
+	 *
+	 * @param start
+	 * @param end
+	 * @return The path or null if the buildings are not connected
+	 */
+	InsideBuildingPath findPath(BuildingLocation start, BuildingLocation end) {
+		Building startBuilding = start.getBuilding();
+		Building endBuilding = end.getBuilding();
+		if (!isConnected(startBuilding, endBuilding)) {
+			return null;
+		}
+
+		LocalPosition target = end.getPosition();
+		Map<Building, Double> costs = new HashMap<>();
+		Map<Building, Step> arrivedBy = new HashMap<>();
+		PriorityQueue<Node> open = new PriorityQueue<>();
+		costs.put(startBuilding, 0D);
+		open.add(new Node(startBuilding, 0D, start.getPosition().getDistanceTo(target)));
+
+		while (!open.isEmpty()) {
+			Node current = open.poll();
+			Building b = current.building();
+			if (b.equals(endBuilding)) {
+				return buildPath(start, end, arrivedBy);
+			}
+			if (current.cost() > costs.get(b)) {
+				// Stale entry; a cheaper route was found later
+				continue;
+			}
+
+			LocalPosition leave = (b.equals(startBuilding) ? start.getPosition() : b.getPosition());
+			for (Step s : steps.get(b)) {
+				Building next = s.to();
+				if (next.equals(startBuilding)) {
+					continue;
+				}
+				LocalPosition arrive = (next.equals(endBuilding) ? target : next.getPosition());
+				double cost = current.cost() + s.getLength(leave, arrive);
+				Double known = costs.get(next);
+				if ((known == null) || (cost < known)) {
+					costs.put(next, cost);
+					arrivedBy.put(next, s);
+					open.add(new Node(next, cost, cost + arrive.getDistanceTo(target)));
+				}
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Converts the steps found by the search into a path.
+	 */
+	private static InsideBuildingPath buildPath(BuildingLocation start, BuildingLocation end,
+											Map<Building, Step> arrivedBy) {
+		Deque<Step> route = new ArrayDeque<>();
+		Building b = end.getBuilding();
+		while (!b.equals(start.getBuilding())) {
+			Step s = arrivedBy.get(b);
+			route.push(s);
+			b = s.from();
+		}
+
+		InsideBuildingPath path = new InsideBuildingPath();
+		path.addPathLocation(start);
+		for (Step s : route) {
+			if (s.connector().isSplitConnection()) {
+				path.addPathLocation(s.nearHatch());
+				path.addPathLocation(s.connector());
+				path.addPathLocation(s.farHatch());
+			}
+			else {
+				path.addPathLocation(s.connector());
+			}
+
+			if (s.to().equals(end.getBuilding())) {
+				path.addPathLocation(end);
+			}
+			else {
+				path.addPathLocation(s.to());
+			}
+		}
+		return path;
+	}
+}
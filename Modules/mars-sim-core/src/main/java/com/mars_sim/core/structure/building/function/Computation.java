@@ -6,10 +6,8 @@
  */
 package com.mars_sim.core.structure.building.function;
 
-import java.util.HashMap;
-import java.util.Map;
-
 import com.mars_sim.core.UnitEventType;
+import com.mars_sim.core.computing.ComputingSchedule;
 import com.mars_sim.core.computing.ComputingTask;
 import com.mars_sim.core.logging.SimLogger;
 import com.mars_sim.core.structure.Settlement;
@@ -54,8 +52,10 @@ public class Computation extends Function {
 	private double combinedkW;
 	/** The power demand for each non-load CU [in kW/CU] - Assume 10% of full load. */
 	private double nonLoadkW;
-	/** The schedule demand [in CUs] for the current mission sol. */
-	private Map<Integer, Double> todayDemand;
+	/** The scheduled demand [in CUs] for each msol of the sol. */
+	private ComputingSchedule schedule;
+	/** The msol of the last update; the demand of the msols since then has passed. */
+	private int lastMSol = -1;
 
 	/**
 	 * Constructor.
@@ -79,7 +79,7 @@ public class Computation extends Function {
 		// Assume 10% of full load
 		nonLoadkW = 0.1 * combinedkW;
 		
-		todayDemand = new HashMap<>();
+		schedule = new ComputingSchedule();
 	}
 
 	/**
@@ -182,53 +182,35 @@ public class Computation extends Function {
 	 * @return
 	 */
 	public boolean scheduleTask(double needed, int beginningMSol, int endMSol) {
-		double existing = 0;
-		
-		int duration = endMSol - beginningMSol;
-		if (duration < 0)
-			duration = endMSol + 1000 - beginningMSol;
-
-		// Test to see if the assigned duration has enough resources
-		for (int i = 0; i < duration; i++) {
-			int sol = i + beginningMSol;
-			if (sol > 999) {
-				sol = sol - 1000;
-			}
-			if (todayDemand.containsKey(sol)) {
-				existing = todayDemand.get(sol);
-			}
-			// Need to make sure each msol has enough resources
-			double available = peakCU - existing - needed;
-			if (available < 0) {
-				logger.info(getBuilding(), 30_000L, "peakCU: " + Math.round(peakCU * 100.0)/100.0
-						+ "  exist: " + Math.round(existing * 1000.0)/1000.0
-						+ "  need: " + Math.round(needed * 1000.0)/1000.0
-						+ "  av: " + Math.round(available * 1000.0)/1000.0);
-				
-				return false;
-			}
+		int duration = getDuration(beginningMSol, endMSol);
+		if (duration == 0) {
+			return true;
 		}
 
-		// Now the actual scheduling
-		for (int i = 0; i < duration; i++) {
-			int sol = i + beginningMSol;
-			if (sol > 999) {
-				sol = sol - 1000;
-			}
-			if (todayDemand.containsKey(sol)) {
-				existing = todayDemand.get(sol);
-			}
-			todayDemand.put(sol, existing + needed);
+		// Need to make sure each msol has enough resources
+		double existing = schedule.getMaxDemand(beginningMSol, duration);
+		double available = peakCU - existing - needed;
+		if (available < 0) {
+			logger.info(getBuilding(), 30_000L, "peakCU: " + Math.round(peakCU * 100.0)/100.0
+					+ "  exist: " + Math.round(existing * 1000.0)/1000.0
+					+ "  need: " + Math.round(needed * 1000.0)/1000.0
+					+ "  av: " + Math.round(available * 1000.0)/1000.0);
 			
-			// Increase the entropy
-			increaseEntropy(needed * ENTROPY_FACTOR);
+			return false;
 		}
 
+		// Now the actual scheduling
+		schedule.reserve(needed, beginningMSol, duration);
+
+		// Increase the entropy
+		increaseEntropy(needed * ENTROPY_FACTOR * duration);
+
 		return true;
 	}
 	
 	/**
 	 * Returns the evaluation score if scheduling for a computing task for a prescribed period of time. 
+	 * The score is the total CUs left free over the period.
 	 * 
 	 * @param needed CU(s) per millisol
 	 * @param beginningMSol
@@ -236,39 +218,40 @@ public class Computation extends Function {
 	 * @return
 	 */
 	public double evaluateScheduleTask(double needed, int beginningMSol, int endMSol) {
-		double score = 0;
-		double existing = 0;
-		
-		int duration = endMSol - beginningMSol;
-		if (duration < 0)
-			duration = endMSol + 1000 - beginningMSol;
+		int duration = getDuration(beginningMSol, endMSol);
+		if (duration == 0) {
+			return 0;
+		}
 		
-		// Test to see if the assigned duration has enough resources
-		for (int i = 0; i < duration; i++) {
-			int sol = i + beginningMSol;
-			if (sol > 999) {
-				sol = sol - 1000;
-			}
-			if (todayDemand.containsKey(sol)) {
-				existing = todayDemand.get(sol);
-			}
-			// Need to make sure each msol has enough resources
-			double available = peakCU - existing - needed;
-			if (available < 0) {
-				logger.info(getBuilding(), 30_000L, "peakCU: " + Math.round(peakCU * 100.0)/100.0
-						+ "  exist: " + Math.round(existing * 1000.0)/1000.0
-						+ "  need: " + Math.round(needed * 1000.0)/1000.0
-						+ "  av: " + Math.round(available * 1000.0)/1000.0);
-				
-				return 0;
-			}
+		// Need to make sure each msol has enough resources
+		double existing = schedule.getMaxDemand(beginningMSol, duration);
+		double available = peakCU - existing - needed;
+		if (available < 0) {
+			logger.info(getBuilding(), 30_000L, "peakCU: " + Math.round(peakCU * 100.0)/100.0
+					+ "  exist: " + Math.round(existing * 1000.0)/1000.0
+					+ "  need: " + Math.round(needed * 1000.0)/1000.0
+					+ "  av: " + Math.round(available * 1000.0)/1000.0);
 			
-			score += available;
+			return 0;
 		}
+
+		double score = (peakCU - needed) * duration - schedule.getTotalDemand(beginningMSol, duration);
 		
-		score = score * getEntropyPenalty();
-		
-		return score;
+		return score * getEntropyPenalty();
+	}
+
+	/**
+	 * Gets the number of msols between a start and end msol, allowing for the end being in the next sol.
+	 * 
+	 * @param beginningMSol
+	 * @param endMSol
+	 * @return
+	 */
+	private static int getDuration(int beginningMSol, int endMSol) {
+		int duration = endMSol - beginningMSol;
+		if (duration < 0)
+			duration = endMSol + ComputingSchedule.MSOLS - beginningMSol;
+		return Math.min(duration, ComputingSchedule.MSOLS);
 	}
 	
 	/**
@@ -300,20 +283,15 @@ public class Computation extends Function {
 				
 				increaseEntropy(pulse.getElapsed() * ENTROPY_FACTOR * currentCU / 10);
 	
-				double newDemand = 0;
-				
-				// Delete past demand on previous sol
-				if (msol - 1 > 0 && todayDemand.containsKey(msol - 1)) {
-					todayDemand.remove(msol - 1);
-				}
-				// Delete past demand on the sol before yestersol 
-				if (msol - 2 > 0 && todayDemand.containsKey(msol - 2)) {
-					todayDemand.remove(msol - 2);
+				// Delete past demand so the msols are free on the next sol
+				if (lastMSol >= 0) {
+					for (int m = lastMSol; m != msol; m = (m + 1) % ComputingSchedule.MSOLS) {
+						schedule.release(m);
+					}
 				}
+				lastMSol = msol;
 				
-				if (todayDemand.containsKey(msol)) {
-					newDemand = todayDemand.get(msol);
-				}
+				double newDemand = schedule.getDemand(msol);
 				if (newDemand > 0) {
 					// Updates the CUs
 					setCU(peakCU - newDemand); 
@@ -430,8 +408,7 @@ public class Computation extends Function {
 	
 	@Override
 	public void destroy() {
-		todayDemand.clear();
-		todayDemand = null;
+		schedule = null;
 		super.destroy();
 	}
 
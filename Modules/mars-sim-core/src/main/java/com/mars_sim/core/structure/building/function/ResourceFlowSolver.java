@@ -0,0 +1,276 @@
+/*
+ * Mars Simulation Project
+ * ResourceFlowSolver.java
+ * @date 2024-07-10
+ * @author Barry Evans
+ */
+package com.mars_sim.core.structure.building.function;
+
+import java.util.Arrays;
+import java.util.List;
+
+import com.mars_sim.core.equipment.ResourceHolder;
+import com.mars_sim.core.logging.SimLogger;
+import com.mars_sim.core.resource.ResourceUtil;
+
+/**
+ * Runs the resource processes of a settlement together once per pulse.
+ * The processes that are due to run are gathered into dense arrays of the amounts they
+ * take in and give out, indexed by resource. Storage is read once per resource and an input
+ * that is short is shared out in proportion to demand, so every process drawing on it gets the
+ * same fraction. Each process then runs at the fraction allowed by its most limiting input
+ * or output and the net change of every resource is applied to storage in one go.
+ * The result only depends on the storage at the start of the pulse, not on the order
+ * of the buildings.
+ */
+public class ResourceFlowSolver {
+
+	/** default logger. */
+	private static final SimLogger logger = SimLogger.getLogger(ResourceFlowSolver.class.getName());
+
+	private static final double SMALL_AMOUNT = 0.000001;
+
+	// Dense index of each resource plus one; 0 if not used this pulse
+	private int[] slots = new int[ResourceUtil.FIRST_ITEM_RESOURCE_ID];
+	private int numResources;
+
+	// Per resource
+	private int[] resources = new int[16];
+	private double[] demand = new double[16];
+	private double[] supply = new double[16];
+	private double[] inputShare = new double[16];
+	private double[] produced = new double[16];
+	private double[] outputShare = new double[16];
+	private double[] net = new double[16];
+
+	// Per flow; the flows of each process are held together, inputs first
+	private int[] flowResource = new int[64];
+	private double[] flowAmount = new double[64];
+	private int numFlows;
+
+	// Per process
+	private ResourceProcess[] due = new ResourceProcess[16];
+	private int[] firstFlow = new int[17];
+	private int[] firstOutput = new int[16];
+	private double[] fraction = new double[16];
+	private int numDue;
+
+	/**
+	 * Runs the processes that are due.
+	 *
+	 * @param storage Storage the processes draw on and fill
+	 * @param processes The processes in a fixed order
+	 */
+	public void solve(ResourceHolder storage, List<ResourceProcess> processes) {
+		numResources = 0;
+		numFlows = 0;
+		numDue = 0;
+
+		for (ResourceProcess p : processes) {
+			if (p.getPendingTime() > 0D) {
+				addProcess(p);
+			}
+		}
+		if (numDue == 0) {
+			return;
+		}
+
+		try {
+			// Share out the inputs
+			for (int r = 0; r < numResources; r++) {
+				if (demand[r] > 0D) {
+					supply[r] = storage.getAmountResourceStored(resources[r]);
+					inputShare[r] = getShare(supply[r], demand[r]);
+				}
+			}
+			for (int d = 0; d < numDue; d++) {
+				double f = 1D;
+				for (int i = firstFlow[d]; i < firstOutput[d]; i++) {
+					f = Math.min(f, inputShare[flowResource[i]]);
+				}
+				fraction[d] = f;
+				for (int i = firstOutput[d]; i < firstFlow[d + 1]; i++) {
+					produced[flowResource[i]] += flowAmount[i] * f;
+				}
+			}
+
+			// Share out the space for the outputs
+			for (int r = 0; r < numResources; r++) {
+				if (produced[r] > 0D) {
+					double space = storage.getAmountResourceRemainingCapacity(resources[r]);
+					outputShare[r] = getShare(space, produced[r]);
+				}
+			}
+			for (int d = 0; d < numDue; d++) {
+				double f = fraction[d];
+				for (int i = firstOutput[d]; i < firstFlow[d + 1]; i++) {
+					f = Math.min(f, outputShare[flowResource[i]]);
+				}
+				fraction[d] = f;
+
+				for (int i = firstFlow[d]; i < firstOutput[d]; i++) {
+					net[flowResource[i]] -= flowAmount[i] * f;
+				}
+				for (int i = firstOutput[d]; i < firstFlow[d + 1]; i++) {
+					net[flowResource[i]] += flowAmount[i] * f;
+				}
+			}
+
+			// Take out before storing so space freed by an input can be used
+			for (int r = 0; r < numResources; r++) {
+				if (net[r] < 0D) {
+					storage.retrieveAmountResource(resources[r], -net[r]);
+				}
+			}
+			for (int r = 0; r < numResources; r++) {
+				if (net[r] > 0D) {
+					storage.storeAmountResource(resources[r], net[r]);
+				}
+			}
+
+			for (int d = 0; d < numDue; d++) {
+				completeProcess(storage, d);
+			}
+		}
+		finally {
+			clear();
+		}
+	}
+
+	/**
+	 * Gets the share of the wanted amount that can be met.
+	 */
+	private static double getShare(double available, double wanted) {
+		if (available < SMALL_AMOUNT) {
+			return 0D;
+		}
+		return (wanted > available ? available / wanted : 1D);
+	}
+
+	/**
+	 * Adds the flows of a process that is due.
+	 */
+	private void addProcess(ResourceProcess p) {
+		if (numDue == due.length) {
+			int size = numDue * 2;
+			due = Arrays.copyOf(due, size);
+			firstFlow = Arrays.copyOf(firstFlow, size + 1);
+			firstOutput = Arrays.copyOf(firstOutput, size);
+			fraction = Arrays.copyOf(fraction, size);
+		}
+
+		double scale = p.getPendingLevel() * p.getPendingTime();
+		due[numDue] = p;
+		firstFlow[numDue] = numFlows;
+		for (Integer resource : p.getInputResources()) {
+			if (!p.isAmbientInputResource(resource)) {
+				int r = addFlow(resource, p.getBaseFullInputRate(resource) * scale);
+				demand[r] += flowAmount[numFlows - 1];
+			}
+		}
+		firstOutput[numDue] = numFlows;
+		for (Integer resource : p.getOutputResources()) {
+			addFlow(resource, p.getBaseFullOutputRate(resource) * scale);
+		}
+		numDue++;
+		firstFlow[numDue] = numFlows;
+	}
+
+	/**
+	 * Adds a flow of a resource.
+	 *
+	 * @return Dense index of the resource
+	 */
+	private int addFlow(int resource, double amount) {
+		if (numFlows == flowResource.length) {
+			flowResource = Arrays.copyOf(flowResource, numFlows * 2);
+			flowAmount = Arrays.copyOf(flowAmount, numFlows * 2);
+		}
+		int r = getIndex(resource);
+		flowResource[numFlows] = r;
+		flowAmount[numFlows] = amount;
+		numFlows++;
+		return r;
+	}
+
+	/**
+	 * Gets the dense index of a resource, adding it if not yet used this pulse.
+	 */
+	private int getIndex(int resource) {
+		if (resource >= slots.length) {
+			slots = Arrays.copyOf(slots, resource + 1);
+		}
+		int r = slots[resource] - 1;
+		if (r < 0) {
+			if (numResources == resources.length) {
+				int size = numResources * 2;
+				resources = Arrays.copyOf(resources, size);
+				demand = Arrays.copyOf(demand, size);
+				supply = Arrays.copyOf(supply, size);
+				inputShare = Arrays.copyOf(inputShare, size);
+				produced = Arrays.copyOf(produced, size);
+				outputShare = Arrays.copyOf(outputShare, size);
+				net = Arrays.copyOf(net, size);
+			}
+			r = numResources++;
+			resources[r] = resource;
+			demand[r] = 0D;
+			produced[r] = 0D;
+			net[r] = 0D;
+			inputShare[r] = 1D;
+			outputShare[r] = 1D;
+			slots[resource] = r + 1;
+		}
+		return r;
+	}
+
+	/**
+	 * Sets the production level a process ran at. A process that was held back has used up
+	 * an input or filled the storage of an output so is stopped.
+	 */
+	private void completeProcess(ResourceHolder storage, int d) {
+		ResourceProcess p = due[d];
+		double f = fraction[d];
+		p.completeProcessTime(p.getPendingLevel() * f);
+
+		if (f < 1D) {
+			int limit = getLimitingFlow(d);
+			boolean input = limit < firstOutput[d];
+			int r = flowResource[limit];
+			logger.fine(storage.getHolder(), 30_000, () -> (input ? "Used up all '" : "No more space for '")
+					+ ResourceUtil.findAmountResourceName(resources[r])
+					+ (input ? "' input to run '" : "' output to run '") + p.getProcessName()
+					+ "'. Ran at " + Math.round(f * 1000.0)/10.0 + "% of the required rate.");
+			p.setProcessRunning(false);
+		}
+	}
+
+	/**
+	 * Gets the flow of a process that is most limited.
+	 */
+	private int getLimitingFlow(int d) {
+		int limit = firstFlow[d];
+		double lowest = Double.MAX_VALUE;
+		for (int i = firstFlow[d]; i < firstFlow[d + 1]; i++) {
+			double share = (i < firstOutput[d] ? inputShare : outputShare)[flowResource[i]];
+			if (share < lowest) {
+				lowest = share;
+				limit = i;
+			}
+		}
+		return limit;
+	}
+
+	/**
+	 * Clears the resources used this pulse and the processes held.
+	 */
+	private void clear() {
+		for (int r = 0; r < numResources; r++) {
+			slots[resources[r]] = 0;
+		}
+		Arrays.fill(due, 0, numDue, null);
+		numResources = 0;
+		numFlows = 0;
+		numDue = 0;
+	}
+}
@@ -1,7 +1,7 @@
 /*
  * Mars Simulation Project
  * ResourceProcess.java
- * @date 2024-06-09
+ * @date 2024-07-10
  * @author Scott Davis
  */
 package com.mars_sim.core.structure.building.function;
@@ -10,11 +10,9 @@ import java.io.Serializable;
 import java.util.Set;
 
 import com.mars_sim.core.goods.GoodsManager;
-import com.mars_sim.core.logging.SimLogger;
 import com.mars_sim.core.resource.ResourceUtil;
 import com.mars_sim.core.structure.Settlement;
 import com.mars_sim.core.structure.building.ResourceProcessEngine;
-import com.mars_sim.core.time.ClockPulse;
 import com.mars_sim.core.time.MarsTime;
 import com.mars_sim.core.time.MasterClock;
 import com.mars_sim.tools.util.RandomUtil;
@@ -27,8 +25,6 @@ public class ResourceProcess implements Serializable {
 
 	/** default serial id. */
 	private static final long serialVersionUID = 1L;
-	/** default logger. */
-	private static SimLogger logger = SimLogger.getLogger(ResourceProcess.class.getName());
 
 	private static final double MAX_VP = GoodsManager.MAX_FINAL_VP;
 	
@@ -46,6 +42,10 @@ public class ResourceProcess implements Serializable {
 	
 	/** The time accumulated [in millisols]. */
 	private double accumulatedTime;
+	/** The time the process is due to run for [in millisols]. */
+	private double pendingTime;
+	/** The production level the process is due to run at. */
+	private double pendingLevel;
 
 	private double currentProductionLevel;
 
@@ -252,123 +252,62 @@ public class ResourceProcess implements Serializable {
 	}
 
 	/**
-	 * Processes resources for a given amount of time.
+	 * Adds time to the process at a production level. Once enough time has built up the
+	 * process is due and is run for all of it by the {@link ResourceFlowSolver}.
 	 *
-	 * @param pulse
+	 * @param time            the amount of time passing (millisols)
 	 * @param productionLevel proportion of max process rate (0.0D - 1.0D)
-	 * @param inventory       the inventory pool to use for processes.
-	 * @throws Exception if error processing resources.
 	 */
-	public void processResources(ClockPulse pulse, double productionLevel, Settlement settlement) {
-		double time = pulse.getElapsed();
-		double level = productionLevel;
-
-		if ((level < 0D) || (level > 1D) || (time < SMALL_AMOUNT))
+	public void addProcessTime(double time, double productionLevel) {
+		if ((productionLevel < 0D) || (productionLevel > 1D) || (time < SMALL_AMOUNT))
 			return;
 
 		if (runningProcess) {
 
 			accumulatedTime += time;
 
-			double newCheckPeriod = PROCESS_CHECK_FREQUENCY * time;
-			
-			if (accumulatedTime >= newCheckPeriod) {
-				// Compute the remaining accumulatedTime
-				accumulatedTime -= newCheckPeriod;
-//				logger.info(settlement, 30_000, name + "  pulse width: " + Math.round(time * 10000.0)/10000.0 
-//						+ "  accumulatedTime: " + Math.round(accumulatedTime * 100.0)/100.0 
-//						+ "  processInterval: " + processInterval);
-	
-				double bottleneck = 1D;
-
-				// Input resources from inventory.
-				for (Integer resource : engine.getInputResources()) {
-					if (!engine.isAmbientInputResource(resource)) {
-						double fullRate = engine.getBaseFullInputRate(resource);
-						double resourceRate = fullRate * level;
-						double required = resourceRate * accumulatedTime;
-						double stored = settlement.getAmountResourceStored(resource);
-						
-						// Get resource bottleneck
-						double desiredResourceAmount = fullRate * time;
-						double proportionAvailable = 1D;
-						if (desiredResourceAmount > 0D)
-							proportionAvailable = stored / desiredResourceAmount;
-						if (bottleneck > proportionAvailable)
-							bottleneck = proportionAvailable;
-						
-						// Retrieve the right amount
-						if (stored > SMALL_AMOUNT) {
-							if (required > stored) {
-								logger.fine(settlement, 30_000, "Case A. Used up all '" + ResourceUtil.findAmountResourceName(resource)
-									+ "' input to start '" + name + "'. Required: " + Math.round(required * 1000.0)/1000.0 + " kg. Remaining: "
-									+ Math.round(stored * 1000.0)/1000.0 + " kg in storage.");
-								required = stored;
-								settlement.retrieveAmountResource(resource, required);
-								setProcessRunning(false);
-								break;
-								// Note: turn on a yellow flag and indicate which the input resource is missing
-							}
-							else
-								settlement.retrieveAmountResource(resource, required);
-							
-						}
-						else {
-							logger.fine(settlement, 30_000, "Case B. Not enough '" + ResourceUtil.findAmountResourceName(resource)
-								+ "' input to start '" + name + "'. Required: " + Math.round(required * 1000.0)/1000.0 + " kg. Remaining: "
-								+ Math.round(stored * 1000.0)/1000.0 + " kg in storage.");
-							setProcessRunning(false);
-							break;
-						}
-					}
-				}
-
-				// Set level
-				if (level > bottleneck)
-					level = bottleneck;
-				
-				// Output resources to inventory.
-				for (Integer resource : engine.getOutputResources()) {
-//					if (!engine.isWasteOutputResource(resource)) {
-						double maxRate = engine.getBaseFullOutputRate(resource);
-						double resourceRate = maxRate * level;
-						double required = resourceRate * accumulatedTime;
-						double remainingCap = settlement.getAmountResourceRemainingCapacity(resource);
-						
-						// Store the right amount
-						if (remainingCap > SMALL_AMOUNT) {
-							if (required > remainingCap) {
-								logger.fine(settlement, 30_000, "Case C. Used up all remaining space for storing '" 
-										+ ResourceUtil.findAmountResourceName(resource)
-										+ "' output in '" + name + "'. Required: " + Math.round((required - remainingCap) * 1000.0)/1000.0 
-										+ " kg of storage. Remaining cap: 0 kg.");
-								required = remainingCap;
-								settlement.storeAmountResource(resource, required);
-								setProcessRunning(false);						
-								break;
-								// Note: turn on a yellow flag and indicate which the output resource is missing
-							}
-							else
-								settlement.storeAmountResource(resource, required);
-							
-						}
-						else {
-							logger.fine(settlement, 30_000, "Case D. Not enough space for storing '" 
-									+ ResourceUtil.findAmountResourceName(resource)
-									+ "' output to continue '" + name + "'. Required: " + Math.round(required * 1000.0)/1000.0 
-									+ " kg of storage. Remaining cap: " + Math.round(remainingCap * 1000.0)/1000.0 + " kg.");
-							setProcessRunning(false);
-							break;
-						}
-//					}
-				}
+			double checkPeriod = PROCESS_CHECK_FREQUENCY * time;
+			if (accumulatedTime >= checkPeriod) {
+				// As before the solver, the amount run is the time left over the check
+				// period and that time stays accumulated for the next check
+				accumulatedTime -= checkPeriod;
+				pendingTime = accumulatedTime;
+				pendingLevel = productionLevel;
+			}
+			else {
+				currentProductionLevel = productionLevel;
 			}
-
-			// Set the current production level.
-			currentProductionLevel = level;
 		}
 	}
 
+	/**
+	 * Gets the time the process is due to run for.
+	 *
+	 * @return millisols; 0 if not due
+	 */
+	double getPendingTime() {
+		return pendingTime;
+	}
+
+	/**
+	 * Gets the production level the process is due to run at.
+	 *
+	 * @return proportion of max process rate (0.0D - 1.0D)
+	 */
+	double getPendingLevel() {
+		return pendingLevel;
+	}
+
+	/**
+	 * Records that the due process has run.
+	 *
+	 * @param level the production level it ran at
+	 */
+	void completeProcessTime(double level) {
+		currentProductionLevel = level;
+		pendingTime = 0D;
+	}
+
 
 	/**
 	 * Gets the string value for this object.
@@ -144,9 +144,10 @@ public abstract class ResourceProcessor extends Function {
 				productionLevel = 1D;
 			else if (getBuilding().getPowerMode() == PowerMode.LOW_POWER)
 				productionLevel = powerDownProcessingLevel;
-			// Run each resource process.
+			// Add the time to each resource process; the ones that are due are run
+			// together by the BuildingManager once every building has had the pulse
 			for (ResourceProcess p : processes) {
-				p.processResources(pulse, productionLevel, getBuilding().getSettlement());
+				p.addProcessTime(pulse.getElapsed(), productionLevel);
 			}
 		}
 		return valid;
@@ -9,6 +9,7 @@ package com.mars_sim.core.structure.building.function.task;
 import java.util.List;
 
 import com.mars_sim.core.data.RatingScore;
+import com.mars_sim.core.location.LocationStateType;
 import com.mars_sim.core.person.Person;
 import com.mars_sim.core.person.ai.NaturalAttributeType;
 import com.mars_sim.core.person.ai.fav.FavoriteType;
@@ -39,6 +40,8 @@ public class CookMealMeta extends FactoryMetaTask {
 	
     public CookMealMeta() {
 		super(NAME, WorkerType.BOTH, TaskScope.ANY_HOUR);
+		setRequiredLocation(LocationStateType.INSIDE_SETTLEMENT);
+		setRequiredFunction(FunctionType.COOKING);
 		setFavorite(FavoriteType.COOKING);
 		setTrait(TaskTrait.ARTISTIC);
 		setPreferredJob(JobType.CHEF);
@@ -80,7 +80,7 @@ public class ObserveAstronomicalObjectsMeta extends MetaTask implements Settleme
     public List<SettlementTask> getSettlementTasks(Settlement target) {
         List<SettlementTask> result = new ArrayList<>();
         if (ObserveAstronomicalObjects.areConditionsSuitable(target)
-                && !target.getBuildingManager().getBuildingSet(FunctionType.ASTRONOMICAL_OBSERVATION).isEmpty()) {    
+                && target.getPulseView().hasFunction(FunctionType.ASTRONOMICAL_OBSERVATION)) {    
             // Any Astro based study active at this Settlement
             for (ScientificStudy s : getAstroStudies(target)) {
             	// Suitable study so create tasks for each Observatory
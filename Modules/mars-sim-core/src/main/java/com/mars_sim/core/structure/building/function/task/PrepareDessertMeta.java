@@ -9,6 +9,7 @@ package com.mars_sim.core.structure.building.function.task;
 import java.util.List;
 
 import com.mars_sim.core.data.RatingScore;
+import com.mars_sim.core.location.LocationStateType;
 import com.mars_sim.core.person.Person;
 import com.mars_sim.core.person.ai.fav.FavoriteType;
 import com.mars_sim.core.person.ai.job.util.JobType;
@@ -40,6 +41,8 @@ public class PrepareDessertMeta extends FactoryMetaTask {
     
     public PrepareDessertMeta() {
 		super(NAME, WorkerType.BOTH, TaskScope.ANY_HOUR);
+		setRequiredLocation(LocationStateType.INSIDE_SETTLEMENT);
+		setRequiredFunction(FunctionType.PREPARING_DESSERT);
 		
 		setFavorite(FavoriteType.COOKING);
 		setTrait(TaskTrait.ARTISTIC);
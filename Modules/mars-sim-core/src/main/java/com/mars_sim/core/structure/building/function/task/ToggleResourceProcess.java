@@ -15,6 +15,7 @@ import com.mars_sim.core.person.ai.SkillType;
 import com.mars_sim.core.person.ai.task.util.Task;
 import com.mars_sim.core.person.ai.task.util.TaskPhase;
 import com.mars_sim.core.person.ai.task.util.Worker;
+import com.mars_sim.core.structure.Settlement;
 import com.mars_sim.core.structure.building.Building;
 import com.mars_sim.core.structure.building.function.FunctionType;
 import com.mars_sim.core.structure.building.function.ResourceProcess;
@@ -199,6 +200,15 @@ public class ToggleResourceProcess extends Task {
 				process.setProcessRunning(false);
 			}
 
+			// The demand for the inputs and outputs has changed
+			Settlement settlement = resourceProcessBuilding.getSettlement();
+			for (int r : process.getInputResources()) {
+				settlement.goodsChanged(r);
+			}
+			for (int r : process.getOutputResources()) {
+				settlement.goodsChanged(r);
+			}
+
 			if (resourceProcessBuilding.hasFunction(FunctionType.LIFE_SUPPORT))
 				logger.fine(resourceProcessBuilding, process + " : " + worker
 						+ " just toggled it " + toggle + " manually.");
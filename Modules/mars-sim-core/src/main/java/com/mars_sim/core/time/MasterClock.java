@@ -24,6 +24,7 @@ import java.util.concurrent.ThreadPoolExecutor;
 import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import com.mars_sim.core.SimulationConfig;
 import com.mars_sim.core.SimulationRuntime;
+import com.mars_sim.core.UnitEventDispatcher;
 import com.mars_sim.core.logging.SimLogger;
 import com.mars_sim.core.person.ai.task.util.Task;
 
@@ -502,7 +503,7 @@ public class MasterClock implements Serializable {
 				realElapsedMillisec = (long) (nextPulseTime * MILLISECONDS_PER_MILLISOL 
 						/ desiredTR);
 				// Reset the elapsed clock to ignore this pulse
-				logger.warning(10_000, "Elapsed real time is " + realElapsedMillisec 
+				logger.warning(10_000, () -> "Elapsed real time is " + realElapsedMillisec 
 						+ " ms, longer than the max time " + MAX_ELAPSED + " ms.");				
 			}
 			
@@ -514,7 +515,7 @@ public class MasterClock implements Serializable {
 				if (nextPulseTime > 0)
 					realElapsedMillisec = (long) (nextPulseTime * MILLISECONDS_PER_MILLISOL / desiredTR);
 				// Reset the elapsed clock to ignore this pulse
-				logger.warning(10_000, "Zero elapsed real time. Resetting it back to " + realElapsedMillisec + " ms.");
+				logger.warning(10_000, () -> "Zero elapsed real time. Resetting it back to " + realElapsedMillisec + " ms.");
 			}
 			
 			else {
@@ -578,7 +579,7 @@ public class MasterClock implements Serializable {
 			}
 			else {
 				// NOTE: when resuming from power saving, timePulse becomes zero
-				logger.config("Pulse width deviated too much: " + nextPulseDeviation
+				logger.config(() -> "Pulse width deviated too much: " + nextPulseDeviation
 						+ "  acceptablePulse is false.");
 			}
 		}
@@ -633,7 +634,7 @@ public class MasterClock implements Serializable {
 				optPulse = optPulse + diff / refPulse / PULSE_STEPS;
 				if (optPulse > maxMilliSolPerPulse * 1.05) {
 					optPulse = maxMilliSolPerPulse * 1.05;
-					logger.warning(30_000L, "refPulse / optPulse = " + ratio + ". Set optPulse to max.");
+					logger.warning(30_000L, () -> "refPulse / optPulse = " + ratio + ". Set optPulse to max.");
 				}
 				goOn = false;
 			}
@@ -657,7 +658,7 @@ public class MasterClock implements Serializable {
 					nextPulse = nextPulse + (1 - ratio) * nextPulse / PULSE_STEPS / 2;
 					if (nextPulse > maxMilliSolPerPulse * 1.05) {
 						nextPulse = maxMilliSolPerPulse * 1.05;
-						logger.warning(30_000L, "actualTR / desiredTR = " + ratio + ". Set nextPulse to max.");
+						logger.warning(30_000L, () -> "actualTR / desiredTR = " + ratio + ". Set nextPulse to max.");
 					}
 					goOn = false;
 				}
@@ -681,7 +682,7 @@ public class MasterClock implements Serializable {
 					nextPulse = nextPulse + diff / refPulse / PULSE_STEPS / 2;
 					if (nextPulse > maxMilliSolPerPulse * 1.05) {
 						nextPulse = maxMilliSolPerPulse * 1.05;
-						logger.warning(30_000L, "refPulse / nextPulse = " + ratio + ". Set nextPulse to max.");
+						logger.warning(30_000L, () -> "refPulse / nextPulse = " + ratio + ". Set nextPulse to max.");
 					}
 					goOn = false;
 				}
@@ -703,7 +704,7 @@ public class MasterClock implements Serializable {
 		optMilliSolPerPulse = optPulse;
 		
 		if (optPulse > 10 * refPulse) 
-			logger.warning(30_000L, "optPulse is " + optPulse + ", 10x the ref pulse.");
+			logger.warning(30_000L, () -> "optPulse is " + optPulse + ", 10x the ref pulse.");
 			
 		// Update the pulse time for use in tasks
 		double oldPulse = Task.getStandardPulseTime();
@@ -850,6 +851,9 @@ public class MasterClock implements Serializable {
 		if (clockListenerTasks != null) {
 			Collections.synchronizedSet(new HashSet<>(clockListenerTasks)).stream().forEach(this::executeClockListenerTask);
 		}
+
+		// Hand the unit events of this pulse to the listeners
+		UnitEventDispatcher.endPulse();
 	}
 
 	/**
@@ -898,6 +902,7 @@ public class MasterClock implements Serializable {
 		clockThreadTask.startRunning();
 
 		startClockListenerExecutor();
+		UnitEventDispatcher.start();
 
 		if (clockExecutor == null) {
 			int num = 1; // Should only have 1 thread updating the time
@@ -1035,6 +1040,7 @@ public class MasterClock implements Serializable {
 			listenerExecutor.shutdownNow();
 		if (clockExecutor != null)
 			clockExecutor.shutdownNow();
+		UnitEventDispatcher.stop();
 	}
 
 	/**
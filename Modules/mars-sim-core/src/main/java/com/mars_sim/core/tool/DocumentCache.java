@@ -0,0 +1,197 @@
+/*
+ * Mars Simulation Project
+ * DocumentCache.java
+ * @date 2024-07-09
+ * @author Barry Evans
+ */
+package com.mars_sim.core.tool;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import org.jdom2.Attribute;
+import org.jdom2.Content;
+import org.jdom2.Document;
+import org.jdom2.Element;
+import org.jdom2.Text;
+
+/**
+ * Keeps parsed XML documents in a compact binary file so they can be loaded without
+ * parsing the XML again. The file records the MD5 of every source file; if any source
+ * has changed, or the file was written by a different format version, nothing is loaded.
+ * Only elements, attributes and text are kept; comments and processing instructions
+ * are dropped as the configuration never reads them.
+ */
+public class DocumentCache {
+
+	private static final Logger logger = Logger.getLogger(DocumentCache.class.getName());
+
+	private static final int MAGIC = 0x4D534443;
+	/** Change if the layout of the file changes. */
+	private static final int FORMAT_VERSION = 1;
+
+	private static final byte ELEMENT = 1;
+	private static final byte TEXT = 2;
+	private static final byte END = 0;
+
+	private File cacheFile;
+	private Map<String, File> sources;
+	private Map<String, String> hashes = new LinkedHashMap<>();
+
+	/**
+	 * Creates a cache for a set of source files.
+	 *
+	 * @param cacheFile Binary file holding the documents
+	 * @param sources Source XML files keyed by name
+	 * @throws IOException Problem reading a source
+	 */
+	public DocumentCache(File cacheFile, Map<String, File> sources) throws IOException {
+		this.cacheFile = cacheFile;
+		this.sources = sources;
+		for (Map.Entry<String, File> e : sources.entrySet()) {
+			hashes.put(e.getKey(), Hash.MD5.getChecksumString(e.getValue()));
+		}
+	}
+
+	/**
+	 * Loads the documents if the cache holds every source unchanged.
+	 *
+	 * @return Documents keyed by name; null if the cache cannot be used
+	 */
+	public Map<String, Document> load() {
+		if (!cacheFile.exists()) {
+			return null;
+		}
+
+		try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(cacheFile)))) {
+			if ((in.readInt() != MAGIC) || (in.readInt() != FORMAT_VERSION)) {
+				return null;
+			}
+
+			Map<String, Document> result = new HashMap<>();
+			int count = in.readInt();
+			for (int i = 0; i < count; i++) {
+				String name = readString(in);
+				String hash = readString(in);
+				if (!hash.equals(hashes.get(name))) {
+					return null;
+				}
+				result.put(name, new Document(readElement(in)));
+			}
+
+			if (!result.keySet().containsAll(sources.keySet())) {
+				return null;
+			}
+			return result;
+		}
+		catch (IOException | RuntimeException e) {
+			logger.log(Level.WARNING, "Ignoring unreadable document cache " + cacheFile.getName(), e);
+			return null;
+		}
+	}
+
+	/**
+	 * Saves the documents of the sources. The file is written under a temporary name and
+	 * renamed once complete.
+	 *
+	 * @param documents Documents keyed by name
+	 */
+	public void save(Map<String, Document> documents) {
+		File temp = new File(cacheFile.getPath() + ".tmp");
+		try {
+			try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(temp)))) {
+				out.writeInt(MAGIC);
+				out.writeInt(FORMAT_VERSION);
+				out.writeInt(hashes.size());
+				for (Map.Entry<String, String> e : hashes.entrySet()) {
+					writeString(out, e.getKey());
+					writeString(out, e.getValue());
+					writeElement(out, documents.get(e.getKey()).getRootElement());
+				}
+			}
+			Files.move(temp.toPath(), cacheFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+		}
+		catch (IOException e) {
+			logger.log(Level.WARNING, "Cannot save document cache " + cacheFile.getName(), e);
+			temp.delete();
+		}
+	}
+
+	/**
+	 * Writes an element as its name, its attributes and then its content.
+	 */
+	static void writeElement(DataOutputStream out, Element element) throws IOException {
+		writeString(out, element.getName());
+
+		out.writeShort(element.getAttributes().size());
+		for (Attribute a : element.getAttributes()) {
+			writeString(out, a.getName());
+			writeString(out, a.getValue());
+		}
+
+		for (Content c : element.getContent()) {
+			if (c instanceof Element child) {
+				out.writeByte(ELEMENT);
+				writeElement(out, child);
+			}
+			else if (c instanceof Text text) {
+				out.writeByte(TEXT);
+				writeString(out, text.getText());
+			}
+		}
+		out.writeByte(END);
+	}
+
+	/**
+	 * Reads an element written by writeElement.
+	 */
+	static Element readElement(DataInputStream in) throws IOException {
+		Element element = new Element(readString(in));
+
+		int attributes = in.readShort();
+		for (int i = 0; i < attributes; i++) {
+			String name = readString(in);
+			element.setAttribute(name, readString(in));
+		}
+
+		byte type = in.readByte();
+		while (type != END) {
+			switch (type) {
+				case ELEMENT -> element.addContent(readElement(in));
+				case TEXT -> element.addContent(new Text(readString(in)));
+				default -> throw new IOException("Unknown content type " + type);
+			}
+			type = in.readByte();
+		}
+		return element;
+	}
+
+	/**
+	 * Strings are written as a length and UTF-8 bytes as writeUTF is limited to 64K.
+	 */
+	private static void writeString(DataOutputStream out, String value) throws IOException {
+		byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+		out.writeInt(bytes.length);
+		out.write(bytes);
+	}
+
+	private static String readString(DataInputStream in) throws IOException {
+		byte[] bytes = new byte[in.readInt()];
+		in.readFully(bytes);
+		return new String(bytes, StandardCharsets.UTF_8);
+	}
+}
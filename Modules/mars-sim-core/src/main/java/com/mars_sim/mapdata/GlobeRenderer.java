@@ -0,0 +1,205 @@
+/*
+ * Mars Simulation Project
+ * GlobeRenderer.java
+ * @date 2024-07-06
+ * @author Barry Evans
+ */
+package com.mars_sim.mapdata;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Renders a view of the globe from a cylindrical map texture on the CPU.
+ * This gives the same result as {@link IntegerMapData#convertRectToSpherical(double, double, double, double, double)}
+ * followed by a texture lookup for every pixel, but the output rows are shared out across
+ * the ForkJoin common pool and nothing is allocated per pixel.
+ * The sin/cos of the view center are worked out once per image and the terms that only
+ * depend on the row or the column once per row or column.
+ * The texture comes from the smallest level of a {@link MapTilePyramid} that still has a
+ * texture pixel for every output pixel, so a zoomed out view reads few tiles.
+ */
+final class GlobeRenderer {
+
+	private static final double TWO_PI = Math.PI * 2;
+
+	/** Pixel used off the globe; left transparent as the GPU path does. */
+	static final int BACKGROUND = 0x00000000;
+
+	/** Rows rendered by one task without splitting further. */
+	private static final int ROWS_PER_TASK = 16;
+
+	private final MapTilePyramid pyramid;
+	private final Level[] levels;
+
+	/**
+	 * Creates a renderer for a texture.
+	 *
+	 * @param pyramid Texture levels
+	 */
+	GlobeRenderer(MapTilePyramid pyramid) {
+		this.pyramid = pyramid;
+		this.levels = new Level[pyramid.getLevels()];
+		for (int l = 0; l < levels.length; l++) {
+			int texWidth = pyramid.getWidth(l);
+			int texHeight = pyramid.getHeight(l);
+			levels[l] = new Level(l, texHeight / Math.PI, texWidth / TWO_PI, texHeight - 1, texWidth - 1);
+		}
+	}
+
+	/**
+	 * The scaling of one level of the texture.
+	 */
+	private record Level(int level, double rowScale, double colScale, int maxRow, int maxCol) {}
+
+	/**
+	 * The view being rendered; the per column terms are shared by all the rows.
+	 */
+	private record View(double cosPhi, double sinPhi, double cosTheta, double sinTheta,
+						double rho, double rhoSq, int halfWidth, int halfHeight,
+						int width, double[] xSq, int[] out, Level tex) {}
+
+	/**
+	 * Selects the smallest texture level with at least one pixel per output pixel.
+	 *
+	 * @param rho Map scale; pixels per radian
+	 * @return
+	 */
+	int selectLevel(double rho) {
+		int level = 0;
+		while ((level + 1 < levels.length) && (levels[level + 1].rowScale() >= rho)) {
+			level++;
+		}
+		return level;
+	}
+
+	/**
+	 * Renders a view.
+	 *
+	 * @param centerPhi Center phi of the view
+	 * @param centerTheta Center theta of the view
+	 * @param rho Map scale; pixels per radian
+	 * @param out Output pixels row by row
+	 * @param width Output width
+	 * @param height Output height
+	 */
+	void render(double centerPhi, double centerTheta, double rho, int[] out, int width, int height) {
+		int halfWidth = width / 2;
+		double[] xSq = new double[width];
+		for (int x = 0; x < width; x++) {
+			double dx = (double) x - halfWidth;
+			xSq[x] = dx * dx;
+		}
+
+		View v = new View(Math.cos(centerPhi), Math.sin(centerPhi), Math.cos(centerTheta),
+						  Math.sin(centerTheta), rho, rho * rho, halfWidth, height / 2,
+						  width, xSq, out, levels[selectLevel(rho)]);
+
+		if (height <= ROWS_PER_TASK) {
+			renderRows(v, 0, height);
+		}
+		else {
+			ForkJoinPool.commonPool().invoke(new RowBand(v, 0, height));
+		}
+	}
+
+	/**
+	 * Renders a band of rows, splitting it in two if large.
+	 */
+	@SuppressWarnings("serial")
+	private class RowBand extends RecursiveAction {
+		private final View v;
+		private final int from;
+		private final int to;
+
+		RowBand(View v, int from, int to) {
+			this.v = v;
+			this.from = from;
+			this.to = to;
+		}
+
+		@Override
+		protected void compute() {
+			if (to - from <= ROWS_PER_TASK) {
+				renderRows(v, from, to);
+			}
+			else {
+				int mid = (from + to) >>> 1;
+				invokeAll(new RowBand(v, from, mid), new RowBand(v, mid, to));
+			}
+		}
+	}
+
+	private void renderRows(View v, int from, int to) {
+		double[] xSq = v.xSq();
+		int[] out = v.out();
+		MapTilePyramid.TileReader reader = pyramid.newReader();
+		for (int row = from; row < to; row++) {
+			double y = (double) row - v.halfHeight();
+			double rowSq = v.rhoSq() - (y * y);
+			double yCos = y * v.cosPhi();
+			double ySin = y * v.sinPhi();
+			int idx = row * v.width();
+
+			for (int col = 0; col < v.width(); col++) {
+				double x = (double) col - v.halfWidth();
+				double zSq = rowSq - xSq[col];
+				if (zSq < 0) {
+					// Off the globe
+					out[idx++] = BACKGROUND;
+					continue;
+				}
+
+				double z = Math.sqrt(zSq);
+				double y2 = yCos + (z * v.sinPhi());
+				double z2 = (z * v.cosPhi()) - ySin;
+				double x3 = (x * v.cosTheta()) + (y2 * v.sinTheta());
+				double y3 = (y2 * v.cosTheta()) - (x * v.sinTheta());
+
+				double phi = Math.acos(Math.max(-1D, Math.min(1D, z2 / v.rho())));
+				double theta = Math.atan2(x3, y3);
+				if (theta < 0) {
+					theta += TWO_PI;
+				}
+
+				out[idx++] = lookup(reader, v.tex(), phi, theta);
+			}
+		}
+	}
+
+	/**
+	 * Gets the full size texture pixel of a location.
+	 *
+	 * @param phi Between 0 and PI
+	 * @param theta Between 0 and 2 PI
+	 * @return
+	 */
+	int lookup(double phi, double theta) {
+		return lookup(0, phi, theta);
+	}
+
+	/**
+	 * Gets the texture pixel of a location at a level.
+	 *
+	 * @param level Texture level
+	 * @param phi Between 0 and PI
+	 * @param theta Between 0 and 2 PI
+	 * @return
+	 */
+	int lookup(int level, double phi, double theta) {
+		Level tex = levels[level];
+		return pyramid.getPixel(level, getRow(tex, phi), getCol(tex, theta));
+	}
+
+	private static int lookup(MapTilePyramid.TileReader reader, Level tex, double phi, double theta) {
+		return reader.getPixel(tex.level(), getRow(tex, phi), getCol(tex, theta));
+	}
+
+	private static int getRow(Level tex, double phi) {
+		return Math.min((int) Math.round(phi * tex.rowScale()), tex.maxRow());
+	}
+
+	private static int getCol(Level tex, double theta) {
+		return Math.min((int) Math.round(theta * tex.colScale()), tex.maxCol());
+	}
+}
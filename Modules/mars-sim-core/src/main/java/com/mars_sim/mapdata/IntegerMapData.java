@@ -16,18 +16,14 @@ import static com.mars_sim.mapdata.OpenCL.getQueue;
 import java.awt.Image;
 import java.awt.geom.Point2D;
 import java.awt.image.BufferedImage;
-import java.awt.image.DataBufferByte;
-import java.io.IOException;
+import java.awt.image.DataBufferInt;
 import java.nio.IntBuffer;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
-import javax.imageio.ImageIO;
-
 import com.jogamp.opencl.CLBuffer;
 import com.jogamp.opencl.CLKernel;
 import com.jogamp.opencl.CLProgram;
-import com.mars_sim.mapdata.common.FileLocator;
 
  /**
   * A map that uses integer data stored in files to represent colors.
@@ -56,7 +52,8 @@ import com.mars_sim.mapdata.common.FileLocator;
   	public static double MAG_DEFAULT;
 
  	// Data members.
- 	private int[][] baseMapPixels = null;
+ 	// The map pixels as tiled levels
+ 	private MapTilePyramid pyramid;
  	// # of pixels in the width of the map image
 	private int pixelWidth;
  	// # of pixels in the height of the map image
@@ -74,26 +71,24 @@ import com.mars_sim.mapdata.common.FileLocator;
 	private CLProgram program;
 	
 	private CLKernel kernel;
+
+	private GlobeRenderer cpuRenderer;
  	
  	/**
  	 * Constructor.
  	 * 
-	 * @param name   the name/description of the data
- 	 * @param filename   the map data file name.
- 	 * @throws IOException Problem loading map data
+	 * @param newMeta   the map meta data
+	 * @param pyramid   the map pixels; owned by the caller
  	 */
- 	IntegerMapData(MapMetaData newMeta) throws IOException {
+ 	IntegerMapData(MapMetaData newMeta, MapTilePyramid pyramid) {
 		this.meta = newMeta;
+		this.pyramid = pyramid;
 		
-		// Load data files
 		String metaMap = newMeta.getFile();
-		
-		try {
-			loadMapData(metaMap);
-		} catch(Exception e) {
-			logger.log(Level.SEVERE, "Unable to load map. " + e.getMessage());
-		}
-		
+		pixelWidth = pyramid.getWidth(0);
+		pixelHeight = pyramid.getHeight(0);
+		cpuRenderer = new GlobeRenderer(pyramid);
+
 		rho = pixelHeight / Math.PI;
 		RHO_DEFAULT = rho;
 		MAX_RHO = RHO_DEFAULT * 6;
@@ -206,98 +201,6 @@ import com.mars_sim.mapdata.common.FileLocator;
 		return pixelHeight;
 	}
 
- 	/**
- 	 * Loads the whole map data set into an 2-D integer array.
- 	 * 
- 	 * @param imageName
- 	 * @return
- 	 * @throws IOException
- 	 */
- 	private void loadMapData(String imageName) throws IOException {
-
- 		BufferedImage cylindricalMapImage = null;
- 		
-		try {
-			cylindricalMapImage = ImageIO.read(FileLocator.locateFile(MapDataFactory.MAPS_FOLDER + imageName));
-			
-			// Use getRaster() is fastest
-		    // See https://stackoverflow.com/questions/10954389/which-amongst-pixelgrabber-vs-getrgb-is-faster/12062932#12062932
-			// See https://stackoverflow.com/questions/6524196/java-get-pixel-array-from-image
-			
-			final byte[] pixels = ((DataBufferByte) cylindricalMapImage.getRaster().getDataBuffer()).getData();
-//	 		int[] srcPixels = ((DataBufferInt)cylindricalMapImage.getRaster().getDataBuffer()).getData();
-
-	 		pixelWidth = cylindricalMapImage.getWidth();
-	 		pixelHeight = cylindricalMapImage.getHeight();
-	 		logger.severe(imageName + " : " + pixelWidth + " x " + pixelHeight);
-	 		
-	 		final boolean hasAlphaChannel = cylindricalMapImage.getAlphaRaster() != null;
-		
-	 		baseMapPixels = new int[pixelHeight][pixelWidth];
-	 		
-	 		if (hasAlphaChannel) {
-	 			final int pixelLength = 4;
-	 			
-	 			// Note: int pos = (y * pixelLength * width) + (x * pixelLength);
-	 			
-	 			for (int pos = 0, row = 0, col = 0; pos + 3 < pixels.length; pos += pixelLength) {
-	 				int argb = 0;
-	 				
-	 				// See https://stackoverflow.com/questions/11380062/what-does-value-0xff-do-in-java
-	 				// When applying '& 0xff', it would end up with the value ff ff ff fe instead of 00 00 00 fe. 
-	 				// A further subtlety is that '&' is defined to operate only on int values. As a result, 
-	 				//
-	 				// 1. value is promoted to an int (ff ff ff fe).
-	 				// 2. 0xff is an int literal (00 00 00 ff).
-	 				// 3. The '&' is applied to yield the desired value for result.
-
-	 				argb += (((int) pixels[pos] & 0xff) << 24); // alpha
-	 				argb += ((int) pixels[pos + 1] & 0xff); // blue
-	 				argb += (((int) pixels[pos + 2] & 0xff) << 8); // green
-	 				argb += (((int) pixels[pos + 3] & 0xff) << 16); // red
-	 				
-//	 				The Red and Blue channel comments are flipped. 
-//	 				Red should be +1 and blue should be +3 (or +0 and +2 respectively in the No Alpha code).
-	 				
-//	 				You could also make a final int pixel_offset = hasAlpha?1:0; and 
-//	 				do ((int) pixels[pixel + pixel_offset + 1] & 0xff); // green; 
-//	 				and merge the two loops into one. – Tomáš Zato Mar 23 '15 at 23:02
-	 						
-	 				baseMapPixels[row][col] = argb;
-	 				col++;
-	 				if (col == pixelWidth) {
-	 					col = 0;
-	 					row++;
-	 				}
-	 			}
-	 		}
-	 		
-	 		else {
-	 			final int pixelLength = 3;
-	 			for (int pixel = 0, row = 0, col = 0; pixel + 2 < pixels.length; pixel += pixelLength) {
-	 				int argb = 0;
-	 				
-	 				argb += -16777216; // 255 alpha
-	 				argb += ((int) pixels[pixel] & 0xff); // blue
-	 				argb += (((int) pixels[pixel + 1] & 0xff) << 8); // green
-	 				argb += (((int) pixels[pixel + 2] & 0xff) << 16); // red
-	 				
-	 				baseMapPixels[row][col] = argb;
-	 				col++;
-	 				if (col == pixelWidth) {
-	 					col = 0;
-	 					row++;
-	 				}
-	 			}
-	 		}
-	 		
-		} catch (IOException e) {
-			logger.severe("Can't read image file '" + imageName + "'.");
-		}
-
-// 		return mapPixels;
- 	}
- 	
  	/**
  	 * Gets the map image based on the center phi and theta coordinates given.
  	 * 
@@ -338,10 +241,8 @@ import com.mars_sim.mapdata.common.FileLocator;
 
  		// May experiment with BufferedImage.getSubimage(int x, int y, int w, int h);
 
-// 		logger.config("transparency: " + result.getTransparency());
- 		
- 		// Create an array of int RGB color values to create the map image from.
- 		int[] mapArray = new int[mapBoxWidth * mapBoxHeight];
+ 		// Draw straight into the pixels of the image
+ 		int[] mapArray = ((DataBufferInt) bImage.getRaster().getDataBuffer()).getData();
  
 		if (HARDWARE_ACCELERATION) {
 			try {
@@ -349,14 +250,12 @@ import com.mars_sim.mapdata.common.FileLocator;
 			} catch(Exception e) {
 				HARDWARE_ACCELERATION = false;
 				logger.log(Level.SEVERE, "Disabling GPU OpenCL acceleration due to exception caused while rendering: " + e.getMessage());
+				cpuRenderer.render(centerPhi, centerTheta, getRho(), mapArray, mapBoxWidth, mapBoxHeight);
 			}
 		}
 		else {
-			cpu0(centerPhi, centerTheta, mapBoxWidth, mapBoxHeight, mapArray);
+			cpuRenderer.render(centerPhi, centerTheta, getRho(), mapArray, mapBoxWidth, mapBoxHeight);
 		}
-
- 		// Create new map image.
- 		bImage.setRGB(0, 0, mapBoxWidth, mapBoxHeight, mapArray, 0, mapBoxWidth);
  		
  		// If alpha value is 255, it is fully opaque.
  		//  A value of 1 would mean it is (almost) fully transparent.
@@ -384,30 +283,6 @@ import com.mars_sim.mapdata.common.FileLocator;
  	}
  	
 
- 	/**
- 	 * Constructs a map array for display with CPU.
- 	 * 
- 	 * @param centerPhi
- 	 * @param centerTheta
- 	 * @param mapBoxWidth
- 	 * @param mapBoxHeight
- 	 * @param mapArray
- 	 * @param scale
- 	 */
-	 private void cpu0(double centerPhi, double centerTheta, int mapBoxWidth, int mapBoxHeight, int[] mapArray) {
-		 int halfWidth = mapBoxWidth / 2;
-		 int halfHeight = mapBoxHeight / 2;
-
-		 for(int y = 0; y < mapBoxHeight; y++) {
-			 for(int x = 0; x < mapBoxWidth; x++) {
-				 int index = x + (y * mapBoxWidth);
-
-				 Point2D loc = convertRectToSpherical(x - halfWidth, y - halfHeight, centerPhi, centerTheta, getRho());
-				 mapArray[index] = getRGBColorInt(loc.getX(), loc.getY());
-			 }
-		 }
-	 }
-		 
 	 /**
 	  * Constructs a map array for display with GPU via JOCL.
 	  * 
@@ -450,9 +325,13 @@ import com.mars_sim.mapdata.common.FileLocator;
 		 int[] cols = new int[size];
 		 colBuffer.getBuffer().get(cols);
 
+		 MapTilePyramid.TileReader reader = pyramid.newReader();
 		 for(int i = 0; i < size; i++) {
 			 if(!(rows[i] == 0 && cols[i] == 0)) {
-				 mapArray[i] = baseMapPixels[rows[i]][cols[i]];
+				 mapArray[i] = reader.getPixel(0, rows[i], cols[i]);
+			 }
+			 else {
+				 mapArray[i] = GlobeRenderer.BACKGROUND;
 			 }
 		 }
 
@@ -533,19 +412,7 @@ import com.mars_sim.mapdata.common.FileLocator;
  		while (theta < 0)
  			theta += TWO_PI;
 
- 		int row = (int) Math.round(phi * ((double) baseMapPixels.length / Math.PI));
- 		if (row > baseMapPixels.length - 1)
- 			row = baseMapPixels.length - 1;
-
- 		int column = (int) Math.round(theta * ((double) baseMapPixels[0].length / TWO_PI));
- 		if (column > baseMapPixels[0].length - 1)
- 			column = baseMapPixels[0].length - 1;
- 		
-// 		int pixel = baseMapPixels[row][column];
-// 		int pixelWithAlpha = (pixel >> 24) & 0xFF; 
-// 		return pixelWithAlpha;
- 		
- 		return baseMapPixels[row][column];
+ 		return cpuRenderer.lookup(phi, theta);
  	}
 
 // 	/**
@@ -564,15 +431,28 @@ import com.mars_sim.mapdata.common.FileLocator;
 // 		return cylindricalMapImage;
 // 	}
  	
+ 	/**
+ 	 * Gets a copy of the map pixels as rows.
+ 	 * 
+ 	 * @return
+ 	 */
  	public int[][] getPixels() {
- 		return baseMapPixels;
+ 		MapTilePyramid.TileReader reader = pyramid.newReader();
+ 		int[][] rows = new int[pixelHeight][pixelWidth];
+ 		for (int r = 0; r < pixelHeight; r++) {
+ 			for (int c = 0; c < pixelWidth; c++) {
+ 				rows[r][c] = reader.getPixel(0, r, c);
+ 			}
+ 		}
+ 		return rows;
  	}
 
 	/**
 	 * Prepares map panel for deletion.
 	 */
 	public void destroy() {
-	 	baseMapPixels = null;
+	 	pyramid = null;
+	 	cpuRenderer = null;
 	 	meta = null;
 		program = null;
 		kernel = null;
@@ -21,6 +21,7 @@ import java.util.Properties;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
+import com.mars_sim.mapdata.common.FileLocator;
 import com.mars_sim.mapdata.megdr.MEGDRMapArray;
 import com.mars_sim.mapdata.megdr.MEGDRMapDirect;
 import com.mars_sim.mapdata.megdr.MEGDRMapMemory;
@@ -61,6 +62,12 @@ import com.mars_sim.tools.util.RandomUtil;
 
 	private MEGDRMapReader reader;
 
+	/** Tiled map textures already opened, keyed by map file. */
+	private Map<String, MapTilePyramid> pyramids = new HashMap<>();
+
+	/** Tiles of all the opened map textures share one heap budget. */
+	private MapTilePyramid.TileCache tileCache = new MapTilePyramid.TileCache(MapTilePyramid.DEFAULT_TILE_BUDGET);
+
  	/**
  	 * Constructor.
  	 */
@@ -173,7 +180,7 @@ import com.mars_sim.tools.util.RandomUtil;
 
 		try {
 			// Obtain a new MapData instance
-			mapData = new IntegerMapData(metaData);
+			mapData = new IntegerMapData(metaData, getPyramid(metaData.getFile()));
 			
 			// Patch the metadata to be locally available
 			metaData.setLocallyAvailable(true);
@@ -191,6 +198,22 @@ import com.mars_sim.tools.util.RandomUtil;
 		return mapData;
  	}
 
+	/**
+	 * Gets the tiled texture of a map file, building its tile cache on first use.
+	 * 
+	 * @param file Map file name
+	 * @return
+	 * @throws IOException
+	 */
+	private synchronized MapTilePyramid getPyramid(String file) throws IOException {
+		MapTilePyramid pyramid = pyramids.get(file);
+		if (pyramid == null) {
+			pyramid = MapTilePyramid.open(FileLocator.locateFile(MAPS_FOLDER + file), tileCache);
+			pyramids.put(file, pyramid);
+		}
+		return pyramid;
+	}
+
 	/**
 	 * Gets the available map types.
 	 * 
@@ -244,9 +267,21 @@ import com.mars_sim.tools.util.RandomUtil;
 			try {
 				cl.close();
 			} catch (IOException e) {
+				logger.log(Level.WARNING, "Problem closing the elevation reader.", e);
 			}
 		}
 		reader = null;
+
+		synchronized (this) {
+			for (MapTilePyramid p : pyramids.values()) {
+				try {
+					p.close();
+				} catch (IOException e) {
+					logger.log(Level.WARNING, "Problem closing a map tile file.", e);
+				}
+			}
+			pyramids.clear();
+		}
 	}
 
    /**
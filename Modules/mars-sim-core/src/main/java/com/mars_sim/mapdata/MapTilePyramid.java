@@ -0,0 +1,477 @@
+/*
+ * Mars Simulation Project
+ * MapTilePyramid.java
+ * @date 2024-07-07
+ * @author Barry Evans
+ */
+package com.mars_sim.mapdata;
+
+import java.awt.image.BufferedImage;
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.logging.Logger;
+
+import javax.imageio.ImageIO;
+
+/**
+ * A map texture held as a pyramid of levels, each half the size of the one below, cut
+ * into square tiles. The pyramid is built once from the map image and saved as a raw
+ * tile file next to it; after that tiles are read straight from the file so nothing is
+ * decoded again. Tiles are read onto the heap only when a pixel in them is wanted and are
+ * held in a {@link TileCache} that may be shared by several pyramids, so one budget
+ * covers all the open maps.
+ * The cache file holds a header followed by the levels, largest first; each level is
+ * a row by row set of tiles and each tile is its ARGB pixels row by row.
+ */
+final class MapTilePyramid implements Closeable {
+
+	private static final Logger logger = Logger.getLogger(MapTilePyramid.class.getName());
+
+	/** Identifies the cache file layout; change it if the layout changes. */
+	private static final int MAGIC = 0x4D545031;
+	private static final int HEADER_SIZE = 64;
+
+	static final int TILE_SHIFT = 8;
+	static final int TILE_SIZE = 1 << TILE_SHIFT;
+	private static final int TILE_MASK = TILE_SIZE - 1;
+	private static final int TILE_PIXELS = TILE_SIZE * TILE_SIZE;
+	private static final int TILE_BYTES = TILE_PIXELS * Integer.BYTES;
+
+	static final String CACHE_SUFFIX = ".tiles";
+
+	/** Tiles held on the heap by default across all pyramids; each is 256 KB. */
+	static final int DEFAULT_TILE_BUDGET = 128;
+
+	private final int levels;
+	private final int[] widths;
+	private final int[] heights;
+	private final int[] tilesAcross;
+	private final long[] levelOffsets;
+	private final RandomAccessFile source;
+	private final FileChannel channel;
+	private final TileCache tiles;
+
+	/**
+	 * Opens an existing cache file.
+	 *
+	 * @param cache The tile file
+	 * @param tiles Holds the tiles read on the heap
+	 * @throws IOException
+	 */
+	MapTilePyramid(File cache, TileCache tiles) throws IOException {
+		this.tiles = tiles;
+		source = new RandomAccessFile(cache, "r");
+		channel = source.getChannel();
+		try {
+			if (source.readInt() != MAGIC || source.readInt() != TILE_SHIFT) {
+				throw new IOException("Tile file " + cache.getName() + " has an unknown layout");
+			}
+			int width = source.readInt();
+			int height = source.readInt();
+			levels = source.readInt();
+
+			widths = new int[levels];
+			heights = new int[levels];
+			tilesAcross = new int[levels];
+			levelOffsets = new long[levels];
+
+			long offset = HEADER_SIZE;
+			for (int l = 0; l < levels; l++) {
+				widths[l] = width;
+				heights[l] = height;
+				tilesAcross[l] = tileCount(width);
+				levelOffsets[l] = offset;
+				offset += levelSize(width, height);
+
+				width = (width + 1) / 2;
+				height = (height + 1) / 2;
+			}
+			if (channel.size() < offset) {
+				throw new IOException("Tile file " + cache.getName() + " is truncated");
+			}
+		}
+		catch (IOException e) {
+			source.close();
+			throw e;
+		}
+	}
+
+	/**
+	 * Opens the pyramid of a map image, building the tile file first if it is missing
+	 * or was built from a different copy of the image.
+	 *
+	 * @param image The map image
+	 * @param tiles Holds the tiles read on the heap
+	 * @return
+	 * @throws IOException
+	 */
+	static MapTilePyramid open(File image, TileCache tiles) throws IOException {
+		File cache = new File(image.getParentFile(), image.getName() + CACHE_SUFFIX);
+		if (!isCurrent(cache, image)) {
+			long start = System.currentTimeMillis();
+			BufferedImage decoded = ImageIO.read(image);
+			if (decoded == null) {
+				throw new IOException("Can't decode image file '" + image.getName() + "'.");
+			}
+			int width = decoded.getWidth();
+			int height = decoded.getHeight();
+			int[] pixels = decoded.getRGB(0, 0, width, height, null, 0, width);
+			decoded = null;
+
+			write(pixels, width, height, image.length(), image.lastModified(), cache);
+			logger.info("Built map tiles " + cache.getName() + " (" + width + " by " + height
+						+ ") in " + (System.currentTimeMillis() - start) + " ms.");
+		}
+
+		return new MapTilePyramid(cache, tiles);
+	}
+
+	/**
+	 * Is the tile file built from this copy of the image ?
+	 *
+	 * @param cache
+	 * @param image
+	 * @return
+	 */
+	static boolean isCurrent(File cache, File image) {
+		if (!cache.exists()) {
+			return false;
+		}
+		try (RandomAccessFile raf = new RandomAccessFile(cache, "r")) {
+			if (raf.readInt() != MAGIC || raf.readInt() != TILE_SHIFT) {
+				return false;
+			}
+			raf.skipBytes(3 * Integer.BYTES);
+			return (raf.readLong() == image.length()) && (raf.readLong() == image.lastModified());
+		}
+		catch (IOException e) {
+			return false;
+		}
+	}
+
+	/**
+	 * Writes the tile file for a texture. The file is written under a temporary name
+	 * and renamed once complete so a half written file is never opened.
+	 *
+	 * @param pixels Level 0 pixels row by row
+	 * @param width
+	 * @param height
+	 * @param sourceLength Length of the image the pixels came from
+	 * @param sourceModified Modified time of the image the pixels came from
+	 * @param cache The tile file
+	 * @throws IOException
+	 */
+	static void write(int[] pixels, int width, int height, long sourceLength, long sourceModified,
+					  File cache) throws IOException {
+		int levels = countLevels(width, height);
+		File temp = new File(cache.getPath() + ".tmp");
+
+		try (FileChannel channel = FileChannel.open(temp.toPath(), StandardOpenOption.CREATE,
+								StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+			ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+			header.putInt(MAGIC).putInt(TILE_SHIFT).putInt(width).putInt(height).putInt(levels)
+				  .putLong(sourceLength).putLong(sourceModified);
+			header.clear();
+			writeFully(channel, header);
+
+			int[] tile = new int[TILE_PIXELS];
+			ByteBuffer tileBytes = ByteBuffer.allocate(TILE_BYTES);
+			for (int l = 0; l < levels; l++) {
+				if (l > 0) {
+					pixels = downsample(pixels, width, height);
+					width = (width + 1) / 2;
+					height = (height + 1) / 2;
+				}
+
+				for (int ty = 0; ty < tileCount(height); ty++) {
+					for (int tx = 0; tx < tileCount(width); tx++) {
+						copyTile(pixels, width, height, tx, ty, tile);
+						tileBytes.clear();
+						tileBytes.asIntBuffer().put(tile);
+						writeFully(channel, tileBytes);
+					}
+				}
+			}
+		}
+
+		Files.move(temp.toPath(), cache.toPath(), StandardCopyOption.REPLACE_EXISTING);
+	}
+
+	private static void writeFully(FileChannel channel, ByteBuffer buffer) throws IOException {
+		while (buffer.hasRemaining()) {
+			channel.write(buffer);
+		}
+	}
+
+	/**
+	 * Copies one tile out of a level; the parts past the edge are zero.
+	 */
+	private static void copyTile(int[] pixels, int width, int height, int tx, int ty, int[] tile) {
+		int x0 = tx << TILE_SHIFT;
+		int y0 = ty << TILE_SHIFT;
+		int across = Math.min(TILE_SIZE, width - x0);
+		int down = Math.min(TILE_SIZE, height - y0);
+
+		for (int r = 0; r < down; r++) {
+			System.arraycopy(pixels, ((y0 + r) * width) + x0, tile, r << TILE_SHIFT, across);
+			if (across < TILE_SIZE) {
+				Arrays.fill(tile, (r << TILE_SHIFT) + across, (r + 1) << TILE_SHIFT, 0);
+			}
+		}
+		if (down < TILE_SIZE) {
+			Arrays.fill(tile, down << TILE_SHIFT, TILE_PIXELS, 0);
+		}
+	}
+
+	/**
+	 * Halves a level by averaging each 2 by 2 block. An odd last row or column is
+	 * averaged with itself.
+	 *
+	 * @param pixels
+	 * @param width
+	 * @param height
+	 * @return
+	 */
+	static int[] downsample(int[] pixels, int width, int height) {
+		int newWidth = (width + 1) / 2;
+		int newHeight = (height + 1) / 2;
+		int[] result = new int[newWidth * newHeight];
+
+		int idx = 0;
+		for (int y = 0; y < newHeight; y++) {
+			int row0 = (2 * y) * width;
+			int row1 = Math.min((2 * y) + 1, height - 1) * width;
+			for (int x = 0; x < newWidth; x++) {
+				int col0 = 2 * x;
+				int col1 = Math.min(col0 + 1, width - 1);
+				result[idx++] = average(pixels[row0 + col0], pixels[row0 + col1],
+										pixels[row1 + col0], pixels[row1 + col1]);
+			}
+		}
+		return result;
+	}
+
+	private static int average(int a, int b, int c, int d) {
+		int result = 0;
+		for (int shift = 0; shift < 32; shift += 8) {
+			int sum = ((a >>> shift) & 0xff) + ((b >>> shift) & 0xff)
+						+ ((c >>> shift) & 0xff) + ((d >>> shift) & 0xff);
+			result |= ((sum + 2) >> 2) << shift;
+		}
+		return result;
+	}
+
+	/**
+	 * Gets the number of levels for a texture; the top level fits in one tile across.
+	 *
+	 * @param width
+	 * @param height
+	 * @return
+	 */
+	static int countLevels(int width, int height) {
+		int levels = 1;
+		while (Math.max(width, height) > TILE_SIZE) {
+			width = (width + 1) / 2;
+			height = (height + 1) / 2;
+			levels++;
+		}
+		return levels;
+	}
+
+	private static int tileCount(int pixels) {
+		return (pixels + TILE_MASK) >> TILE_SHIFT;
+	}
+
+	private static long levelSize(int width, int height) {
+		return (long) tileCount(width) * tileCount(height) * TILE_BYTES;
+	}
+
+	/**
+	 * Gets the number of levels.
+	 *
+	 * @return
+	 */
+	int getLevels() {
+		return levels;
+	}
+
+	/**
+	 * Gets the width of a level in pixels.
+	 *
+	 * @param level
+	 * @return
+	 */
+	int getWidth(int level) {
+		return widths[level];
+	}
+
+	/**
+	 * Gets the height of a level in pixels.
+	 *
+	 * @param level
+	 * @return
+	 */
+	int getHeight(int level) {
+		return heights[level];
+	}
+
+	/**
+	 * Gets a tile, reading it from the file if it is not held.
+	 */
+	private int[] getTile(int level, int tileRow, int tileCol) {
+		TileKey key = new TileKey(this, tileKey(level, tileRow, tileCol));
+		int[] tile = tiles.get(key);
+		if (tile == null) {
+			// Read outside the lock so other threads are not held up; a duplicate is harmless
+			long index = ((long) tileRow * tilesAcross[level]) + tileCol;
+			tile = readTile(levelOffsets[level] + (index * TILE_BYTES));
+			tiles.put(key, tile);
+		}
+		return tile;
+	}
+
+	private int[] readTile(long position) {
+		ByteBuffer bytes = ByteBuffer.allocate(TILE_BYTES);
+		try {
+			while (bytes.hasRemaining()) {
+				if (channel.read(bytes, position + bytes.position()) < 0) {
+					throw new IOException("Tile file ends before tile at " + position);
+				}
+			}
+		}
+		catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+		bytes.flip();
+
+		int[] tile = new int[TILE_PIXELS];
+		bytes.asIntBuffer().get(tile);
+		return tile;
+	}
+
+	private static long tileKey(int level, int tileRow, int tileCol) {
+		return ((long) level << 48) | ((long) tileRow << 24) | tileCol;
+	}
+
+	/**
+	 * Gets a single pixel. Use a TileReader when reading many pixels.
+	 *
+	 * @param level
+	 * @param row
+	 * @param col
+	 * @return ARGB value
+	 */
+	int getPixel(int level, int row, int col) {
+		int[] tile = getTile(level, row >> TILE_SHIFT, col >> TILE_SHIFT);
+		return tile[((row & TILE_MASK) << TILE_SHIFT) | (col & TILE_MASK)];
+	}
+
+	/**
+	 * Creates a reader for one thread that remembers the last tile used.
+	 *
+	 * @return
+	 */
+	TileReader newReader() {
+		return new TileReader();
+	}
+
+	/**
+	 * Reads pixels for a single thread; neighbouring pixels mostly share a tile so the
+	 * last one is kept to hand.
+	 */
+	final class TileReader {
+		private long lastKey = -1;
+		private int[] lastTile;
+
+		private TileReader() {
+		}
+
+		/**
+		 * Gets a pixel.
+		 *
+		 * @param level
+		 * @param row
+		 * @param col
+		 * @return ARGB value
+		 */
+		int getPixel(int level, int row, int col) {
+			int tileRow = row >> TILE_SHIFT;
+			int tileCol = col >> TILE_SHIFT;
+			long key = tileKey(level, tileRow, tileCol);
+			if (key != lastKey) {
+				lastTile = getTile(level, tileRow, tileCol);
+				lastKey = key;
+			}
+			return lastTile[((row & TILE_MASK) << TILE_SHIFT) | (col & TILE_MASK)];
+		}
+	}
+
+	/**
+	 * Drops the held tiles and closes the file.
+	 */
+	@Override
+	public void close() throws IOException {
+		tiles.removeAll(this);
+		source.close();
+	}
+
+	/**
+	 * Identifies a tile of a pyramid in a shared cache.
+	 */
+	private static record TileKey(MapTilePyramid owner, long tile) {}
+
+	/**
+	 * Holds the tiles read from one or more pyramids on the heap. The least recently
+	 * used tiles are dropped once the budget is reached, whichever pyramid they came from.
+	 */
+	static final class TileCache {
+		private final Map<TileKey, int[]> tiles;
+
+		/**
+		 * Constructor.
+		 *
+		 * @param budget Maximum tiles held
+		 */
+		TileCache(int budget) {
+			int limit = Math.max(1, budget);
+			tiles = new LinkedHashMap<>(limit * 2, 0.75F, true) {
+				@Override
+				protected boolean removeEldestEntry(Map.Entry<TileKey, int[]> eldest) {
+					return size() > limit;
+				}
+			};
+		}
+
+		private synchronized int[] get(TileKey key) {
+			return tiles.get(key);
+		}
+
+		private synchronized void put(TileKey key, int[] tile) {
+			tiles.put(key, tile);
+		}
+
+		private synchronized void removeAll(MapTilePyramid owner) {
+			tiles.keySet().removeIf(k -> k.owner() == owner);
+		}
+
+		/**
+		 * Gets the number of tiles currently held.
+		 *
+		 * @return
+		 */
+		synchronized int size() {
+			return tiles.size();
+		}
+	}
+}
@@ -0,0 +1,231 @@
+/*
+ * Mars Simulation Project
+ * CoordinatesGrid.java
+ * @date 2024-06-22
+ * @author Barry Evans
+ */
+package com.mars_sim.mapdata.location;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * A spatial index of items placed on the surface of Mars. The surface is cut into a
+ * latitude/longitude grid of one degree cells so a range query only visits the cells
+ * that overlap the range, rather than every item.
+ * This is not thread safe. If the grid changes once it is shared, the owner must hold
+ * one lock for the updates and for every search.
+ *
+ * @param <T> Type of item held
+ */
+public class CoordinatesGrid<T> {
+
+	private static final int PHI_CELLS = 180;
+	private static final int THETA_CELLS = 360;
+	private static final double CELL_ANGLE = Math.PI / PHI_CELLS;
+
+	/**
+	 * An item and where it is.
+	 */
+	private static record Entry<T>(Coordinates location, T item) {}
+
+	/**
+	 * Is given an item found by a search and its distance.
+	 */
+	@FunctionalInterface
+	private interface Visitor<T> {
+		void accept(T item, double distance);
+	}
+
+	private List<Entry<T>>[] cells;
+	private int size = 0;
+
+	@SuppressWarnings("unchecked")
+	public CoordinatesGrid() {
+		cells = new List[PHI_CELLS * THETA_CELLS];
+	}
+
+	private static int phiCell(double phi) {
+		return Math.min(PHI_CELLS - 1, Math.max(0, (int) (phi / CELL_ANGLE)));
+	}
+
+	private static int thetaCell(double theta) {
+		return Math.floorMod((int) Math.floor(theta / CELL_ANGLE), THETA_CELLS);
+	}
+
+	/**
+	 * Adds an item at a location.
+	 *
+	 * @param location
+	 * @param item
+	 */
+	public void add(Coordinates location, T item) {
+		int idx = phiCell(location.getPhi()) * THETA_CELLS + thetaCell(location.getTheta());
+		List<Entry<T>> cell = cells[idx];
+		if (cell == null) {
+			cell = new ArrayList<>(4);
+			cells[idx] = cell;
+		}
+		cell.add(new Entry<>(location, item));
+		size++;
+	}
+
+	/**
+	 * Removes an item from a location.
+	 *
+	 * @param location Where the item was added
+	 * @param item
+	 * @return Was the item found ?
+	 */
+	public boolean remove(Coordinates location, T item) {
+		List<Entry<T>> cell = cells[phiCell(location.getPhi()) * THETA_CELLS + thetaCell(location.getTheta())];
+		if ((cell != null) && cell.remove(new Entry<>(location, item))) {
+			size--;
+			return true;
+		}
+		return false;
+	}
+
+	/**
+	 * Removes all items.
+	 */
+	public void clear() {
+		for (int i = 0; i < cells.length; i++) {
+			cells[i] = null;
+		}
+		size = 0;
+	}
+
+	/**
+	 * How many items are held ?
+	 *
+	 * @return
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * Finds the items inside a phi/theta box. The theta range does not wrap around
+	 * zero; items must still be checked against any exact criteria.
+	 *
+	 * @param minPhi
+	 * @param maxPhi
+	 * @param minTheta
+	 * @param maxTheta
+	 * @return Items in the cells overlapping the box
+	 */
+	public List<T> getInBox(double minPhi, double maxPhi, double minTheta, double maxTheta) {
+		List<T> result = new ArrayList<>();
+		if ((minPhi > maxPhi) || (minTheta > maxTheta)) {
+			return result;
+		}
+
+		int lowTheta = Math.max(0, (int) Math.floor(minTheta / CELL_ANGLE));
+		int highTheta = Math.min(THETA_CELLS - 1, (int) Math.floor(maxTheta / CELL_ANGLE));
+		for (int p = phiCell(minPhi); p <= phiCell(maxPhi); p++) {
+			for (int t = lowTheta; t <= highTheta; t++) {
+				List<Entry<T>> cell = cells[p * THETA_CELLS + t];
+				if (cell != null) {
+					for (Entry<T> e : cell) {
+						result.add(e.item());
+					}
+				}
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Finds the items within a surface distance of a location.
+	 *
+	 * @param center
+	 * @param range Distance in km
+	 * @return Items no further than range away
+	 */
+	public List<T> findWithin(Coordinates center, double range) {
+		List<T> result = new ArrayList<>();
+		visitWithin(center, range, (item, distance) -> result.add(item));
+		return result;
+	}
+
+	/**
+	 * Finds the items nearest to a location.
+	 *
+	 * @param center
+	 * @param count Maximum number of items
+	 * @return Items closest first
+	 */
+	public List<T> findNearest(Coordinates center, int count) {
+		record Found<T>(T item, double distance) {}
+
+		List<Found<T>> found = new ArrayList<>();
+		if ((count <= 0) || (size == 0)) {
+			return new ArrayList<>();
+		}
+
+		// Widen the search until enough are found; the furthest point is half way round
+		double maxRange = Math.PI * Coordinates.MARS_RADIUS_KM;
+		double range = CELL_ANGLE * Coordinates.MARS_RADIUS_KM;
+		while (true) {
+			found.clear();
+			visitWithin(center, range, (item, distance) -> found.add(new Found<>(item, distance)));
+			if ((found.size() >= count) || (range >= maxRange)) {
+				break;
+			}
+			range = Math.min(range * 2, maxRange);
+		}
+
+		found.sort(Comparator.comparingDouble(Found::distance));
+		List<T> result = new ArrayList<>(Math.min(count, found.size()));
+		for (int i = 0; i < Math.min(count, found.size()); i++) {
+			result.add(found.get(i).item());
+		}
+		return result;
+	}
+
+	/**
+	 * Visits the items within a surface distance of a location.
+	 *
+	 * @param center
+	 * @param range Distance in km
+	 * @param visitor Given each item and its distance
+	 */
+	private void visitWithin(Coordinates center, double range, Visitor<T> visitor) {
+		double angle = range / Coordinates.MARS_RADIUS_KM;
+		double phi = center.getPhi();
+		int lowPhi = phiCell(phi - angle);
+		int highPhi = phiCell(phi + angle);
+
+		// Longitude half width of a circle on a sphere; a circle over a pole covers all
+		int lowTheta = 0;
+		int highTheta = THETA_CELLS - 1;
+		if ((phi - angle > 0) && (phi + angle < Math.PI)) {
+			double ratio = Math.sin(angle) / Math.sin(phi);
+			if (ratio < 1D) {
+				double halfWidth = Math.asin(ratio);
+				int low = (int) Math.floor((center.getTheta() - halfWidth) / CELL_ANGLE);
+				int high = (int) Math.floor((center.getTheta() + halfWidth) / CELL_ANGLE);
+				if (high - low + 1 < THETA_CELLS) {
+					lowTheta = low;
+					highTheta = high;
+				}
+			}
+		}
+
+		for (int p = lowPhi; p <= highPhi; p++) {
+			for (int t = lowTheta; t <= highTheta; t++) {
+				List<Entry<T>> cell = cells[p * THETA_CELLS + Math.floorMod(t, THETA_CELLS)];
+				if (cell != null) {
+					for (Entry<T> e : cell) {
+						double distance = center.getDistance(e.location());
+						if (distance <= range) {
+							visitor.accept(e.item(), distance);
+						}
+					}
+				}
+			}
+		}
+	}
+}
@@ -6,59 +6,159 @@
  */
 package com.mars_sim.mapdata.megdr;
 
-import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
 import java.util.logging.Logger;
 
-import com.google.common.cache.Cache;
-import com.google.common.cache.CacheBuilder;
-
 /**
- * This is a reader where the selected elevation values are cached for later reuse.
+ * This is a reader where blocks of elevation values are cached for later reuse.
+ * A miss loads the whole block of neighbouring samples as a short array. Lookups of
+ * a cached block are lock free; when too many blocks are held the least recently
+ * referenced is evicted using the CLOCK algorithm.
  */
 public abstract class MEGDRCachedReader extends MEGDRMapReader {
 
     private static final Logger logger = Logger.getLogger(MEGDRCachedReader.class.getName());
-    	
-	private Cache<Integer, Integer> cache;
-	private int requests = 0;
-	private int hits = 0;
-
-    protected MEGDRCachedReader(int maximumEntries, int maxIdleMinutes) {
-		
-		cache = CacheBuilder.newBuilder()
-								.maximumSize(maximumEntries)
-								.expireAfterAccess(maxIdleMinutes, TimeUnit.MINUTES)
-								.build();
+
+	/** Number of samples in a block as a power of 2. */
+	private static final int BLOCK_SHIFT = 12;
+	static final int BLOCK_SIZE = 1 << BLOCK_SHIFT;
+	private static final int BLOCK_MASK = BLOCK_SIZE - 1;
+
+	private int maxBlocks;
+	private int numSamples;
+
+	private AtomicReferenceArray<short[]> blocks;
+	private AtomicIntegerArray referenced;
+	private AtomicInteger resident = new AtomicInteger();
+	private int clockHand = 0;
+
+	private LongAdder hits = new LongAdder();
+	private LongAdder misses = new LongAdder();
+
+	/**
+	 * Constructor.
+	 *
+	 * @param maxBlocks Maximum number of blocks of samples to cache
+	 */
+    protected MEGDRCachedReader(int maxBlocks) {
+		this.maxBlocks = maxBlocks;
 	}
 
 	/**
-	 * Gets the elevation at a certain index into the map data. This will check the cached value first.
-	 * 
+	 * Sets the size of the map and prepares the block table.
+	 */
+	@Override
+	protected void setSize(short width, short height) {
+		super.setSize(width, height);
+
+		numSamples = width * height;
+		int numBlocks = (numSamples + BLOCK_MASK) >> BLOCK_SHIFT;
+		blocks = new AtomicReferenceArray<>(numBlocks);
+		referenced = new AtomicIntegerArray(numBlocks);
+	}
+
+	/**
+	 * Gets the elevation at a certain index into the map data. This will check the cached block first.
+	 *
 	 * @param index Index to the data.
 	 */
+	@Override
     protected short getElevation(int index) {
-		short result = 0;
-		requests++;
-		Integer value = cache.getIfPresent(index);
-		if (value != null) {
-			result = value.shortValue();
-			hits++;
+		int block = index >>> BLOCK_SHIFT;
+		short[] data = blocks.get(block);
+		if (data != null) {
+			// Only write the flag when it changes to avoid contention
+			if (referenced.get(block) == 0) {
+				referenced.set(block, 1);
+			}
+			hits.increment();
+			return data[index & BLOCK_MASK];
+		}
+
+		misses.increment();
+		data = loadBlock(block);
+		if (blocks.compareAndSet(block, null, data)) {
+			referenced.set(block, 1);
+			if (resident.incrementAndGet() > maxBlocks) {
+				evict();
+			}
 		}
-		else {
-			result = loadElevation(index);
-			cache.put(index, Integer.valueOf(result));
+
+		long missCount = misses.sum();
+		if (missCount % 1000 == 0) {
+			logger.fine("MEGDR Cache hit rate " + Math.round(getHitRate() * 100) + "%, requests="
+						+ getRequests() + ", blocks=" + resident.get());
+		}
+		return data[index & BLOCK_MASK];
+	}
+
+	/**
+	 * Loads a complete block of samples.
+	 *
+	 * @param block
+	 * @return
+	 */
+	private short[] loadBlock(int block) {
+		int start = block << BLOCK_SHIFT;
+		short[] data = new short[Math.min(BLOCK_SIZE, numSamples - start)];
+		loadElevations(start, data);
+		return data;
+	}
+
+	/**
+	 * Evicts blocks until the cache is within its limit. A block that has been referenced
+	 * since the clock hand last passed gets a second chance.
+	 */
+	private synchronized void evict() {
+		int numBlocks = blocks.length();
+		while (resident.get() > maxBlocks) {
+			clockHand = (clockHand + 1) % numBlocks;
+			if ((blocks.get(clockHand) != null)
+					&& (referenced.getAndSet(clockHand, 0) == 0)
+					&& (blocks.getAndSet(clockHand, null) != null)) {
+				resident.decrementAndGet();
+			}
 		}
+	}
 
-		if (requests % 10000 == 0) {
-			logger.fine("MEGDR Cache hit rate " + ((100 * hits)/requests)  + "%, requests="
-						+ requests + ", size=" + cache.size());
+	/**
+	 * Gets the number of elevation requests served.
+	 *
+	 * @return
+	 */
+	public long getRequests() {
+		return hits.sum() + misses.sum();
+	}
+
+	/**
+	 * Gets the fraction of requests served from the cache.
+	 *
+	 * @return Hit rate between 0 and 1
+	 */
+	public double getHitRate() {
+		long h = hits.sum();
+		long total = h + misses.sum();
+		return (total == 0 ? 0D : (double) h / total);
+	}
+
+	/**
+	 * Loads a run of short values from the mapdata. The default loads each one individually.
+	 *
+	 * @param start Index of the first value
+	 * @param dest Destination for the values; its length is the number to load
+	 */
+	protected void loadElevations(int start, short[] dest) {
+		for (int i = 0; i < dest.length; i++) {
+			dest[i] = loadElevation(start + i);
 		}
-		return result;
 	}
 
 	/**
 	 * Loads a short value from the mapdata.
-	 * 
+	 *
 	 * @param index
 	 * @return
 	 */
@@ -10,6 +10,7 @@ import java.io.Closeable;
 import java.io.File;
 import java.io.IOException;
 import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
 import java.util.logging.Logger;
 
 import com.mars_sim.mapdata.common.FileLocator;
@@ -21,11 +22,14 @@ public class MEGDRMapDirect extends MEGDRCachedReader
 		implements Closeable {
 
     private static final Logger logger = Logger.getLogger(MEGDRMapDirect.class.getName());
+
+	/** Blocks of samples held in the cache. */
+	private static final int CACHED_BLOCKS = 256;
     	
 	private RandomAccessFile mapData;
 
     public MEGDRMapDirect(String imageName) throws IOException {
-		super(1000, 5);
+		super(CACHED_BLOCKS);
 		prepareDirectFile(FileLocator.locateFile(imageName));
 	}
 
@@ -53,6 +57,26 @@ public class MEGDRMapDirect extends MEGDRCachedReader
 		return 0;
 	}
 
+	/**
+	 * Loads a run of short values from the directly access file in one read.
+	 * 
+	 * @param start
+	 * @param dest
+	 */
+	@Override
+	protected synchronized void loadElevations(int start, short[] dest) {
+		byte []data = new byte[dest.length * 2];
+
+		try {
+			mapData.seek(start * 2L);
+			mapData.readFully(data);
+			ByteBuffer.wrap(data).asShortBuffer().get(dest);
+		}
+		catch (IOException ioe) {
+			logger.severe("Problem reading map source " + ioe.getMessage());
+		}
+	}
+
 	/**
 	 * Opens the map file for access.
 	 * 
@@ -23,13 +23,16 @@ public class MEGDRMapMemory extends MEGDRCachedReader
 			implements Closeable {
 
     private static final Logger logger = Logger.getLogger(MEGDRMapMemory.class.getName());
+
+	/** Blocks of samples held in the cache. */
+	private static final int CACHED_BLOCKS = 256;
     	
 	private MappedByteBuffer memoryBuffer;
 
 	private RandomAccessFile mapData;
 
     public MEGDRMapMemory(String imgName) throws IOException {
-		super(1000, 5);
+		super(CACHED_BLOCKS);
 
 		prepareMemoryFile(FileLocator.locateFile(imgName));
 	}
@@ -47,6 +50,19 @@ public class MEGDRMapMemory extends MEGDRCachedReader
 	}
 
 
+	/**
+	 * Loads a run of short values from the memory mapped file.
+	 * 
+	 * @param start
+	 * @param dest
+	 */
+	@Override
+	protected void loadElevations(int start, short[] dest) {
+		// Absolute get on a duplicate so no lock is needed
+		memoryBuffer.duplicate().position(start * 2).asShortBuffer().get(dest);
+	}
+
+
 	/**
 	 * Opens the map file for memory mapped access.
 	 * 
@@ -0,0 +1,131 @@
+package com.mars_sim.core;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+public class UnitEventDispatcherTest extends AbstractMarsSimUnitTest {
+
+    private static final long TIMEOUT = 2000;
+
+    private static class Recorder implements UnitListener {
+        List<UnitEvent> events = Collections.synchronizedList(new ArrayList<>());
+
+        @Override
+        public void unitUpdate(UnitEvent event) {
+            events.add(event);
+        }
+
+        List<UnitEventType> types() {
+            synchronized (events) {
+                return events.stream().map(UnitEvent::getType).toList();
+            }
+        }
+    }
+
+    private static class BatchedRecorder extends Recorder implements BatchedUnitListener {
+        private int limit;
+
+        BatchedRecorder(int limit) {
+            this.limit = limit;
+        }
+
+        @Override
+        public int getMaxEventsPerBatch() {
+            return limit;
+        }
+    }
+
+    @Override
+    protected void tearDown() throws Exception {
+        UnitEventDispatcher.stop();
+        super.tearDown();
+    }
+
+    private static void awaitEvents(Recorder r, int count) throws InterruptedException {
+        long end = System.currentTimeMillis() + TIMEOUT;
+        while ((r.events.size() < count) && (System.currentTimeMillis() < end)) {
+            Thread.sleep(10);
+        }
+        assertEquals("Events delivered", count, r.events.size());
+    }
+
+    public void testCoreListenerSynchronous() throws InterruptedException {
+        var s = buildSettlement("Test");
+        var core = new Recorder();
+        var ui = new BatchedRecorder(Integer.MAX_VALUE);
+        s.addUnitListener(core);
+        s.addUnitListener(ui);
+
+        UnitEventDispatcher.start();
+        s.fireUnitUpdate(UnitEventType.NAME_EVENT);
+        assertEquals("Core listener called at once", List.of(UnitEventType.NAME_EVENT), core.types());
+
+        UnitEventDispatcher.endPulse();
+        awaitEvents(ui, 1);
+    }
+
+    public void testBatchMergesInOrder() throws InterruptedException {
+        var s = buildSettlement("Test");
+        var ui = new BatchedRecorder(Integer.MAX_VALUE);
+        s.addUnitListener(ui);
+
+        UnitEventDispatcher.start();
+        s.fireUnitUpdate(UnitEventType.NAME_EVENT);
+        s.fireUnitUpdate(UnitEventType.MASS_EVENT);
+        s.fireUnitUpdate(UnitEventType.NAME_EVENT);
+        s.fireUnitUpdate(UnitEventType.LOCATION_EVENT);
+        UnitEventDispatcher.endPulse();
+
+        awaitEvents(ui, 3);
+        assertEquals("Delivered in order", List.of(UnitEventType.NAME_EVENT, UnitEventType.MASS_EVENT,
+                                                    UnitEventType.LOCATION_EVENT), ui.types());
+        assertEquals("Events in pulse", 4, UnitEventDispatcher.getEventsLastPulse());
+        assertEquals("Merged in pulse", 1, UnitEventDispatcher.getMergedLastPulse());
+    }
+
+    public void testFlushWithoutPulse() throws InterruptedException {
+        var s = buildSettlement("Test");
+        var ui = new BatchedRecorder(Integer.MAX_VALUE);
+        s.addUnitListener(ui);
+
+        // As when the clock is paused
+        UnitEventDispatcher.start();
+        s.fireUnitUpdate(UnitEventType.NAME_EVENT);
+        awaitEvents(ui, 1);
+    }
+
+    public void testBatchLimit() throws InterruptedException {
+        var s = buildSettlement("Test");
+        var ui = new BatchedRecorder(1);
+        s.addUnitListener(ui);
+
+        UnitEventDispatcher.start();
+        s.fireUnitUpdate(UnitEventType.NAME_EVENT);
+        s.fireUnitUpdate(UnitEventType.MASS_EVENT);
+        UnitEventDispatcher.endPulse();
+
+        // Second event is held for a later batch
+        awaitEvents(ui, 2);
+        assertEquals("Held event delivered later", List.of(UnitEventType.NAME_EVENT, UnitEventType.MASS_EVENT),
+                        ui.types());
+    }
+
+    public void testStop() throws InterruptedException {
+        var s = buildSettlement("Test");
+        var ui = new BatchedRecorder(Integer.MAX_VALUE);
+        s.addUnitListener(ui);
+
+        UnitEventDispatcher.start();
+        s.fireUnitUpdate(UnitEventType.NAME_EVENT);
+        UnitEventDispatcher.stop();
+        assertFalse("Stopped", UnitEventDispatcher.isRunning());
+
+        Thread.sleep(2 * UnitEventDispatcher.FLUSH_PERIOD);
+        assertTrue("Queued event discarded", ui.events.isEmpty());
+
+        // Delivered directly once stopped
+        s.fireUnitUpdate(UnitEventType.MASS_EVENT);
+        assertEquals("Direct delivery", List.of(UnitEventType.MASS_EVENT), ui.types());
+    }
+}
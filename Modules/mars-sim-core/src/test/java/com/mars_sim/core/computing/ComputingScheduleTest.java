@@ -0,0 +1,41 @@
+package com.mars_sim.core.computing;
+
+import junit.framework.TestCase;
+
+public class ComputingScheduleTest extends TestCase {
+
+    public void testReserveAndQuery() {
+        var s = new ComputingSchedule();
+        s.reserve(2D, 100, 50);
+        s.reserve(1D, 120, 10);
+
+        assertEquals("Before window", 0D, s.getDemand(99));
+        assertEquals("Single", 2D, s.getDemand(100));
+        assertEquals("Overlap", 3D, s.getDemand(125));
+        assertEquals("Max over window", 3D, s.getMaxDemand(0, 200));
+        assertEquals("Max outside overlap", 2D, s.getMaxDemand(100, 20));
+        assertEquals("Total", 110D, s.getTotalDemand(0, 1000), 1e-9);
+        assertEquals("Partial total", 2D * 5 + 1D * 5, s.getTotalDemand(125, 5), 1e-9);
+    }
+
+    public void testWrapAround() {
+        var s = new ComputingSchedule();
+        s.reserve(1D, 990, 20);
+
+        assertEquals("End of sol", 1D, s.getDemand(999));
+        assertEquals("Start of sol", 1D, s.getDemand(9));
+        assertEquals("After window", 0D, s.getDemand(10));
+        assertEquals("Total", 20D, s.getTotalDemand(980, 40), 1e-9);
+        assertEquals("Max", 1D, s.getMaxDemand(5, 2));
+    }
+
+    public void testRelease() {
+        var s = new ComputingSchedule();
+        s.reserve(4D, 10, 5);
+        s.release(12);
+
+        assertEquals("Released", 0D, s.getDemand(12), 1e-9);
+        assertEquals("Kept", 4D, s.getDemand(13), 1e-9);
+        assertEquals("Total", 16D, s.getTotalDemand(0, 1000), 1e-9);
+    }
+}
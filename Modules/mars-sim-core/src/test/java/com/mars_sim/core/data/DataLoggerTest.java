@@ -0,0 +1,61 @@
+package com.mars_sim.core.data;
+
+import com.mars_sim.core.time.MarsTime;
+
+import junit.framework.TestCase;
+
+public class DataLoggerTest extends TestCase {
+
+    private static void setSol(int sol) {
+        DataLogger.changeTime(new MarsTime(1, 1, 1, 500D, sol));
+    }
+
+    public void testSingleMetricRing() {
+        var log = new SolSingleMetricDataLogger(3);
+        for (int sol = 1; sol <= 5; sol++) {
+            setSol(sol);
+            log.increaseDataPoint(sol);
+            log.increaseDataPoint(sol);
+        }
+
+        assertEquals("Today", 10D, log.getTodayData());
+        assertEquals("Yestersol", 8D, log.getYestersolData());
+        assertEquals("Oldest held", 6D, log.getSolData(3));
+        assertNull("Dropped sol", log.getSolData(2));
+        assertEquals("History size", 3, log.getHistory().size());
+        assertEquals("Today value", 10D, log.getTodayDataValue());
+    }
+
+    public void testSkippedSols() {
+        var log = new SolListDataLogger<String>(5);
+        setSol(1);
+        log.addData("a");
+        setSol(4);
+        log.addData("b");
+
+        assertEquals("First sol", 1, log.getSolData(1).size());
+        assertNull("Skipped sol", log.getSolData(2));
+        assertEquals("Latest sol", "b", log.getSolData(4).get(0));
+        assertEquals("History", 2, log.getHistory().size());
+    }
+
+    public void testMetricColumns() {
+        var log = new SolMetricDataLogger<String>(2);
+        setSol(1);
+        log.increaseDataPoint("x", 1D);
+        setSol(2);
+        log.increaseDataPoint("y", 2D);
+        log.increaseDataPoint("y", 3D);
+
+        assertNull("Not logged today", log.getDataPoint("x"));
+        assertEquals("Today", 5D, log.getDataPoint("y"));
+        assertEquals("Earlier sol", 1D, log.getSolData(1).get("x"));
+        assertFalse("Earlier sol missing metric", log.getSolData(1).containsKey("y"));
+
+        // Slot of sol 1 is reused
+        setSol(3);
+        log.increaseDataPoint("y", 1D);
+        assertNull("Dropped sol", log.getSolData(1));
+        assertEquals("Reused slot", 1, log.getTodayData().size());
+    }
+}
@@ -0,0 +1,103 @@
+package com.mars_sim.core.data;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+
+import junit.framework.TestCase;
+
+public class IdDoubleMapTest extends TestCase {
+
+    public void testPutGet() {
+        var m = new IdDoubleMap();
+        assertFalse("Empty", m.containsKey(5));
+        assertEquals("Missing value", 0D, m.get(5));
+        assertEquals("Missing default", -1D, m.getOrDefault(5, -1D));
+
+        // Forces the table to grow
+        m.put(5, 1.5D);
+        m.put(1040, 2.5D);
+        assertTrue("Present", m.containsKey(5));
+        assertEquals("Small id", 1.5D, m.get(5));
+        assertEquals("Large id", 2.5D, m.get(1040));
+        assertEquals("Size", 2, m.size());
+        assertEquals("Sum", 4D, m.sum());
+
+        m.put(5, 3D);
+        assertEquals("Replaced", 3D, m.get(5));
+        assertEquals("Size after replace", 2, m.size());
+        assertFalse("Negative id", m.containsKey(-1));
+        assertEquals("Negative value", 0D, m.get(-1));
+    }
+
+    public void testRemoveAndIterate() {
+        var m = new IdDoubleMap(10);
+        m.put(2, 1D);
+        m.put(7, 1D);
+        m.put(300, 1D);
+
+        assertTrue("Removed", m.remove(7));
+        assertFalse("Removed again", m.remove(7));
+        assertEquals("Removed value", 0D, m.get(7));
+
+        int count = 0;
+        int last = -1;
+        for (int i = m.nextId(0); i >= 0; i = m.nextId(i + 1)) {
+            assertTrue("In order", i > last);
+            last = i;
+            count++;
+        }
+        assertEquals("Ids visited", 2, count);
+        assertEquals("Last id", 300, last);
+
+        m.clear();
+        assertEquals("Cleared", 0, m.size());
+        assertEquals("Cleared value", 0D, m.get(2));
+    }
+
+    public void testExtendDown() {
+        var m = new IdDoubleMap();
+        m.put(1040, 1D);
+        m.put(1000, 2D);
+        m.put(1100, 3D);
+        assertEquals("First id", 1000, m.nextId(0));
+        assertEquals("Old id kept", 1D, m.get(1040));
+        assertEquals("Lower id", 2D, m.get(1000));
+        assertEquals("Higher id", 3D, m.get(1100));
+        assertFalse("Gap", m.containsKey(1041));
+        assertEquals("Sum", 6D, m.sum());
+        assertEquals("Size", 3, m.size());
+    }
+
+    public void testFillBothWays() {
+        var m = new IdDoubleMap();
+        for (int i = 0; i < 500; i++) {
+            m.put(1000 + i, i);
+            m.put(999 - i, -i);
+        }
+        assertEquals("Size", 1000, m.size());
+        assertEquals("First id", 500, m.nextId(0));
+        for (int i = 0; i < 500; i++) {
+            assertEquals("Up " + i, (double) i, m.get(1000 + i));
+            assertEquals("Down " + i, (double) -i, m.get(999 - i));
+        }
+        assertEquals("Past the end", -1, m.nextId(1500));
+        assertFalse("Spare slot", m.containsKey(1500));
+    }
+
+    public void testSerializable() throws Exception {
+        var m = new IdDoubleMap();
+        m.put(200, 4D);
+
+        var bytes = new ByteArrayOutputStream();
+        try (var out = new ObjectOutputStream(bytes)) {
+            out.writeObject(m);
+        }
+        try (var in = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+            var copy = (IdDoubleMap) in.readObject();
+            assertTrue("Present after load", copy.containsKey(200));
+            assertEquals("Value after load", 4D, copy.get(200));
+        }
+    }
+}
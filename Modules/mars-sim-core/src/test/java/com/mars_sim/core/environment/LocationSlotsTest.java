@@ -0,0 +1,56 @@
+package com.mars_sim.core.environment;
+
+import com.mars_sim.mapdata.location.Coordinates;
+
+import junit.framework.TestCase;
+
+public class LocationSlotsTest extends TestCase {
+
+    public void testSlotsAndEpochs() {
+        var slots = new LocationSlots();
+        var col = slots.newColumn();
+        var base = new Coordinates("10.0 N", "20.0 E");
+
+        int slot = slots.addLocation(base);
+        assertEquals("Same slot for equal location", slot, slots.getSlot(new Coordinates("10.0 N", "20.0 E")));
+        assertFalse("No value", col.has(slot));
+
+        col.set(slot, 5D, 3);
+        assertTrue("Current", col.isCurrent(slot, 3));
+        assertFalse("Expired", col.isCurrent(slot, 4));
+        assertEquals("Value", 5D, col.get(slot));
+
+        // Grow beyond the initial size
+        for (int i = 0; i < 100; i++) {
+            col.set(slots.getSlot(new Coordinates(0.01 * i, 0.02 * i)), i, 1);
+        }
+        assertEquals("Value kept after growth", 5D, col.get(slot));
+
+        slots.clearValues();
+        assertFalse("Cleared", col.has(slot));
+        assertEquals("Cleared value", 0D, col.get(slot));
+    }
+
+    public void testUnusedReleased() {
+        var slots = new LocationSlots();
+        var col = slots.newColumn();
+        var base = new Coordinates("10.0 N", "20.0 E");
+        var visit = new Coordinates("30.0 S", "40.0 W");
+
+        slots.addLocation(base);
+        int visitSlot = slots.getSlot(visit);
+        col.set(visitSlot, 1D, 1);
+        slots.startSol(1);
+        assertEquals("Used in last sol", 2, slots.size());
+
+        // Sol 1 passes without the visit
+        slots.startSol(2);
+        assertEquals("Visit released", 1, slots.size());
+        assertFalse("Released value cleared", col.has(visitSlot));
+        assertEquals("Released value zeroed", 0D, col.get(visitSlot));
+
+        // Released slot is not reused straight away
+        int next = slots.getSlot(new Coordinates("1.0 N", "1.0 E"));
+        assertTrue("New slot", next != visitSlot);
+    }
+}
@@ -0,0 +1,90 @@
+package com.mars_sim.core.environment;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import com.mars_sim.mapdata.location.Coordinates;
+
+import junit.framework.TestCase;
+
+/**
+ * Unit test suite for the MineralRaster class.
+ */
+public class MineralRasterTest extends TestCase {
+
+    private static List<MineralRaster.Deposit> createDeposits() {
+        Random rnd = new Random(3);
+        List<MineralRaster.Deposit> deposits = new ArrayList<>();
+        for (int i = 0; i < 400; i++) {
+            double phi = 1 + rnd.nextDouble();
+            double theta = 2 + rnd.nextDouble();
+            deposits.add(new MineralRaster.Deposit(phi, theta, rnd.nextInt(60)));
+        }
+        return deposits;
+    }
+
+    /**
+     * Adds up the deposits in the same way as RandomMineralMap.getSomeMineralConcentrations.
+     */
+    private static int expected(List<MineralRaster.Deposit> deposits, Coordinates loc, double angle) {
+        double total = 0;
+        for (MineralRaster.Deposit d : deposits) {
+            if (Math.abs(loc.getPhi() - d.phi()) < angle && Math.abs(loc.getTheta() - d.theta()) < angle) {
+                double distance = loc.getDistance(new Coordinates(d.phi(), d.theta()));
+                if (distance < d.concentration()) {
+                    total += (1D - (distance / d.concentration())) * d.concentration();
+                }
+            }
+        }
+        return (int) (255 * (Math.min(100D, total) / 100D));
+    }
+
+    public void testGetLevel() {
+        assertEquals("Default zoom", 0, MineralRaster.getLevel(1D));
+        assertEquals("Zoomed in", 1, MineralRaster.getLevel(2.2));
+        assertEquals("Zoomed out", -2, MineralRaster.getLevel(0.25));
+        assertEquals("Max zoom", MineralRaster.MAX_LEVEL, MineralRaster.getLevel(100D));
+        assertEquals("Min zoom", MineralRaster.MIN_LEVEL, MineralRaster.getLevel(0.01));
+    }
+
+    public void testMatchesDeposits() {
+        List<MineralRaster.Deposit> deposits = createDeposits();
+        for (int level = 0; level <= 1; level++) {
+            MineralRaster raster = new MineralRaster(level, deposits);
+            double cellsPerRadian = 160D * Math.pow(2, level);
+            double angle = MineralRaster.BASE_ANGLE / Math.pow(2, level);
+
+            int found = 0;
+            for (int row = 150; row < 350; row += 7) {
+                for (int col = 320 * (level + 1); col < 480 * (level + 1); col += 5) {
+                    double phi = row / cellsPerRadian;
+                    double theta = col / cellsPerRadian;
+                    int value = raster.getScaledConcentration(phi, theta);
+                    int expected = expected(deposits, new Coordinates(phi, theta), angle);
+                    // Allow for float rounding
+                    assertTrue("Concentration at " + row + "," + col, Math.abs(expected - value) <= 1);
+                    if (value > 0) {
+                        found++;
+                    }
+                }
+            }
+            assertTrue("Some minerals found", found > 0);
+        }
+    }
+
+    public void testWrapsTheta() {
+        MineralRaster raster = new MineralRaster(0, createDeposits());
+        for (double theta = 2D; theta < 3D; theta += 0.01) {
+            int value = raster.getScaledConcentration(1.5, theta);
+            assertEquals("Past 2 PI at " + theta, value, raster.getScaledConcentration(1.5, theta + (2 * Math.PI)));
+            assertEquals("Below 0 at " + theta, value, raster.getScaledConcentration(1.5, theta - (2 * Math.PI)));
+        }
+    }
+
+    public void testNoDeposits() {
+        MineralRaster raster = new MineralRaster(0, List.of());
+        assertEquals("Empty", 0, raster.getScaledConcentration(1.5, 3D));
+        assertEquals("Off the grid", 0, raster.getScaledConcentration(-1D, 3D));
+    }
+}
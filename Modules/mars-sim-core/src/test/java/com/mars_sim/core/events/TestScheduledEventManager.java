@@ -1,6 +1,7 @@
 package com.mars_sim.core.events;
 
 import java.util.Collection;
+import java.util.List;
 
 import com.mars_sim.core.AbstractMarsSimUnitTest;
 import com.mars_sim.core.events.ScheduledEventManager.ScheduledEvent;
@@ -141,5 +142,61 @@ public class TestScheduledEventManager extends AbstractMarsSimUnitTest  {
 			assertEquals("Handler executuon count", count, handler.counter);
 		}
     }
+
+	public void testRemoveByHandle() {
+		TestHandler handler = new TestHandler("Handler", 0);
+		ScheduledEvent first = mgr.addEvent(100, handler);
+		mgr.addEvent(200, handler);
+
+		mgr.removeEvent(first);
+		assertTrue("Event cancelled", first.isCancelled());
+		Collection<ScheduledEvent> events = mgr.getEvents();
+		assertEquals("One event left", 1, events.size());
+
+		MarsTime eventTime = clock.getMarsTime().addTime(300);
+		mgr.timePassing(createPulse(eventTime, false, false));
+		assertEquals("Only remaining event executed", 1, handler.counter);
+		assertTrue("All event queue empty", events.isEmpty());
+	}
+
+	public void testRemoveEarliestByHandler() {
+		TestHandler handler = new TestHandler("Handler", 0);
+		TestHandler other = new TestHandler("Other", 0);
+		// The heap holds these as 100, 300, 200 so its order is not the time order
+		ScheduledEvent last = mgr.addEvent(300, handler);
+		mgr.addEvent(100, other);
+		ScheduledEvent earliest = mgr.addEvent(200, handler);
+
+		mgr.removeEvent(handler);
+		assertTrue("Earliest cancelled", earliest.isCancelled());
+		assertFalse("Last kept", last.isCancelled());
+		assertEquals("Two events left", 2, mgr.getEvents().size());
+		assertEquals("Remaining event", last, mgr.getEvents().get(1));
+	}
+
+	public void testManyEvents() {
+		int count = 10000;
+		TestHandler [] handlers = new TestHandler[count];
+		for(int i = 0; i < count; i++) {
+			// Spread the durations out of order
+			handlers[i] = new TestHandler("Handler " + i, 0);
+			mgr.addEvent(1 + ((i * 7919) % 5000), handlers[i]);
+		}
+		for(int i = 0; i < count; i += 2) {
+			mgr.removeEvent(handlers[i]);
+		}
+
+		List<ScheduledEvent> events = mgr.getEvents();
+		assertEquals("Half the events left", count/2, events.size());
+		for(int i = 1; i < events.size(); i++) {
+			assertTrue("Events in time order", events.get(i-1).compareTo(events.get(i)) <= 0);
+		}
+
+		MarsTime eventTime = clock.getMarsTime().addTime(5001);
+		mgr.timePassing(createPulse(eventTime, false, false));
+		assertTrue("All event queue empty", events.isEmpty());
+		for(int i = 0; i < count; i++) {
+			assertEquals("Execution count of " + i, (i % 2), handlers[i].counter);
+		}
+	}
 }
-   
\ No newline at end of file
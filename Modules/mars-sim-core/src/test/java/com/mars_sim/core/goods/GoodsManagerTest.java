@@ -5,6 +5,7 @@ import static org.junit.Assert.assertNotEquals;
 
 import com.mars_sim.core.AbstractMarsSimUnitTest;
 import com.mars_sim.core.goods.GoodsManager.CommerceType;
+import com.mars_sim.core.resource.ResourceUtil;
 
 public class GoodsManagerTest extends AbstractMarsSimUnitTest {
 
@@ -45,4 +46,29 @@ public class GoodsManagerTest extends AbstractMarsSimUnitTest {
         double newDemand = gm.getDemandValueWithID(reserved);
         assertNotEquals("Demand has changed after review", initialDemand, newDemand);
     }
+
+    public void testOnlyChangedGoodsUpdated() {
+        var s = buildSettlement();
+        buildPerson("P1", s);
+
+        var gm = new GoodsManager(s);
+
+        // First update values everything
+        gm.updateGoodValues();
+
+        int changed = ResourceUtil.oxygenID;
+        int unchanged = ResourceUtil.waterID;
+        double changedDemand = gm.getDemandValueWithID(changed);
+        double unchangedDemand = gm.getDemandValueWithID(unchanged);
+
+        gm.markChanged(changed);
+        gm.updateGoodValues();
+        assertNotEquals("Changed good revalued", changedDemand, gm.getDemandValueWithID(changed));
+        assertEquals("Unchanged good not revalued", unchangedDemand, gm.getDemandValueWithID(unchanged));
+
+        // Settlement wide change revalues all
+        gm.markAllChanged();
+        gm.updateGoodValues();
+        assertNotEquals("All goods revalued", unchangedDemand, gm.getDemandValueWithID(unchanged));
+    }
 }
@@ -0,0 +1,83 @@
+package com.mars_sim.core.logging;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Handler;
+import java.util.logging.Level;
+import java.util.logging.LogRecord;
+
+import junit.framework.TestCase;
+
+public class AsyncLogHandlerTest extends TestCase {
+
+    /**
+     * Collects records; can hold up the first one.
+     */
+    private static class Collector extends Handler {
+        List<LogRecord> records = new CopyOnWriteArrayList<>();
+        CountDownLatch entered = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(0);
+        boolean closed = false;
+
+        @Override
+        public void publish(LogRecord r) {
+            entered.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            records.add(r);
+        }
+
+        @Override
+        public void flush() {
+        }
+
+        @Override
+        public void close() {
+            closed = true;
+        }
+    }
+
+    public void testPublishedInOrder() {
+        var target = new Collector();
+        var handler = new AsyncLogHandler(100, target);
+        for (int i = 0; i < 50; i++) {
+            handler.publish(new LogRecord(Level.INFO, "Message " + i));
+        }
+        handler.close();
+
+        assertEquals("All published", 50, target.records.size());
+        assertEquals("First", "Message 0", target.records.get(0).getMessage());
+        assertEquals("Last", "Message 49", target.records.get(49).getMessage());
+        assertTrue("Target closed", target.closed);
+    }
+
+    public void testFullQueueDrops() throws InterruptedException {
+        var target = new Collector();
+        target.release = new CountDownLatch(1);
+        int capacity = 10;
+        var handler = new AsyncLogHandler(capacity, target);
+
+        // Background thread is held up by the first record
+        handler.publish(new LogRecord(Level.INFO, "First"));
+        assertTrue("Writer started", target.entered.await(5, TimeUnit.SECONDS));
+
+        for (int i = 0; i < capacity + 3; i++) {
+            handler.publish(new LogRecord(Level.INFO, "Message " + i));
+        }
+        assertEquals("Queue full", capacity, handler.getQueued());
+
+        target.release.countDown();
+        handler.close();
+
+        // First, the queued ones and the dropped count
+        assertEquals("Records published", capacity + 2, target.records.size());
+        var warnings = target.records.stream().filter(r -> r.getLevel() == Level.WARNING).toList();
+        assertEquals("Dropped warning", 1, warnings.size());
+        assertTrue("Dropped count", warnings.get(0).getMessage().startsWith("3 "));
+    }
+}
@@ -0,0 +1,90 @@
+package com.mars_sim.core.logging;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.logging.Handler;
+import java.util.logging.Level;
+import java.util.logging.LogRecord;
+import java.util.logging.Logger;
+
+import junit.framework.TestCase;
+
+public class SimLoggerTest extends TestCase {
+
+    private static final String NAME = "com.mars_sim.core.logging.SimLoggerTest";
+
+    private List<String> messages = new ArrayList<>();
+    private Handler collector = new Handler() {
+        @Override
+        public void publish(LogRecord r) {
+            messages.add(r.getMessage());
+        }
+
+        @Override
+        public void flush() {
+        }
+
+        @Override
+        public void close() {
+        }
+    };
+
+    @Override
+    public void setUp() {
+        var root = Logger.getLogger(NAME);
+        root.setLevel(Level.INFO);
+        root.setUseParentHandlers(false);
+        root.addHandler(collector);
+    }
+
+    @Override
+    public void tearDown() {
+        Logger.getLogger(NAME).removeHandler(collector);
+    }
+
+    public void testSupplierNotCalledBelowLevel() {
+        var logger = SimLogger.getLogger(NAME);
+        logger.fine(null, 0, () -> {
+            fail("Supplier called for a FINE message");
+            return "";
+        });
+        assertTrue("Nothing logged", messages.isEmpty());
+
+        logger.info(null, () -> "Built");
+        assertEquals("Logged", 1, messages.size());
+        assertTrue("Supplied message", messages.get(0).endsWith("Built"));
+    }
+
+    public void testThrottledMessageNotFormatted() {
+        var logger = SimLogger.getLogger(NAME);
+        int[] built = {0};
+        for (int i = 0; i < 5; i++) {
+            logger.info(null, 60_000, () -> {
+                built[0]++;
+                return "Repeated";
+            });
+        }
+        assertEquals("Logged once", 1, messages.size());
+        assertEquals("Built once", 1, built[0]);
+    }
+
+    public void testSystemSupplier() {
+        var logger = SimLogger.getLogger(NAME);
+        logger.config(() -> {
+            fail("Supplier called for a CONFIG message");
+            return "";
+        });
+        for (int i = 0; i < 3; i++) {
+            logger.warning(60_000, () -> "Pulse " + messages.size());
+        }
+        assertEquals("Logged once", 1, messages.size());
+        assertTrue("Supplied message", messages.get(0).endsWith("Pulse 0"));
+    }
+
+    public void testParameters() {
+        var logger = SimLogger.getLogger(NAME);
+        logger.warning(null, 0, "Found {0} sites at {1}", 3, "Base");
+        assertEquals("Logged", 1, messages.size());
+        assertTrue("Formatted", messages.get(0).endsWith("Found 3 sites at Base"));
+    }
+}
@@ -0,0 +1,158 @@
+package com.mars_sim.core.persist;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.commons.io.FileUtils;
+
+import junit.framework.TestCase;
+
+/**
+ * Tests the journal of base and delta saves.
+ */
+public class SnapshotJournalTest extends TestCase {
+
+    private File dir;
+
+    @Override
+    public void setUp() throws IOException {
+        dir = Files.createTempDirectory("journal-test").toFile();
+    }
+
+    @Override
+    public void tearDown() throws IOException {
+        FileUtils.deleteDirectory(dir);
+    }
+
+    /**
+     * Models the layout of a saved simulation: a graph of objects with shared
+     * references followed by a log that grows every pulse. New objects renumber the
+     * back references written after them so the log must come last to give a small delta.
+     */
+    public void testDeltaWithGrowingLog() throws Exception {
+        SnapshotJournal journal = new SnapshotJournal(dir, 10);
+        List<Node> graph = createGraph(100_000);
+        List<Node> log = new ArrayList<>();
+        Node source = new Node("Source", null);
+        appendLog(log, source, 0, 1000);
+
+        JournalOutputStream base = save(journal, graph, log);
+        assertEquals("Base reuses nothing", 0, base.getReusedChunks());
+
+        // Update a value in the graph and append new objects to the log
+        graph.get(50_000).value = -1D;
+        appendLog(log, source, 1000, 500);
+        JournalOutputStream delta = save(journal, graph, log);
+        assertTrue("Delta reuses chunks", delta.getReusedChunks() > 0);
+        assertTrue("Delta is much smaller", delta.getFileSize() * 5 < base.getFileSize());
+
+        Object[] loaded = load(journal, 2);
+        @SuppressWarnings("unchecked")
+        List<Node> loadedGraph = (List<Node>) loaded[0];
+        @SuppressWarnings("unchecked")
+        List<Node> loadedLog = (List<Node>) loaded[1];
+        assertEquals("Graph size", graph.size(), loadedGraph.size());
+        assertEquals("Updated value", -1D, loadedGraph.get(50_000).value, 0D);
+        assertEquals("Log size", log.size(), loadedLog.size());
+        assertSame("Owner is shared", loadedGraph.get(0).owner, loadedGraph.get(100).owner);
+        assertSame("Source is shared", loadedLog.get(0).owner, loadedLog.get(1499).owner);
+        assertEquals("Sections", 2, journal.getLatestSections().size());
+    }
+
+    public void testCompaction() throws Exception {
+        SnapshotJournal journal = new SnapshotJournal(dir, 2);
+        List<String> state = createState(50_000);
+
+        for (int i = 0; i < 5; i++) {
+            state.set(i * 1000, "Update " + i);
+            save(journal, state);
+        }
+
+        // Chain never grows beyond a base and 2 deltas
+        String[] files = dir.list();
+        assertTrue("Chain is compacted", files.length <= 3);
+        assertEquals("Latest state", state, load(journal, 1)[0]);
+
+        journal.compact();
+        assertEquals("Single base", 1, dir.list().length);
+        assertEquals("State after compact", state, load(journal, 1)[0]);
+    }
+
+    public void testIsJournal() throws Exception {
+        assertFalse("Empty directory", SnapshotJournal.isJournal(dir));
+        save(new SnapshotJournal(dir, 2), createState(10));
+        assertTrue("Journal directory", SnapshotJournal.isJournal(dir));
+    }
+
+    private static List<String> createState(int size) {
+        List<String> state = new ArrayList<>();
+        for (int i = 0; i < size; i++) {
+            state.add("Unit " + i);
+        }
+        return state;
+    }
+
+    /**
+     * Creates a graph where every node belongs to one of a few shared owners.
+     */
+    private static List<Node> createGraph(int size) {
+        List<Node> owners = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            owners.add(new Node("Owner " + i, null));
+        }
+        List<Node> graph = new ArrayList<>();
+        for (int i = 0; i < size; i++) {
+            graph.add(new Node("Node " + i, owners.get(i % owners.size())));
+        }
+        return graph;
+    }
+
+    private static void appendLog(List<Node> log, Node source, int first, int count) {
+        for (int i = first; i < first + count; i++) {
+            log.add(new Node("Event " + i, source));
+        }
+    }
+
+    private static JournalOutputStream save(SnapshotJournal journal, Object... sections) throws IOException {
+        JournalOutputStream out = journal.startSave(SaveCodec.FAST);
+        try (ObjectOutputStream oos = new ObjectOutputStream(out)) {
+            for (int i = 0; i < sections.length; i++) {
+                oos.flush();
+                out.startSection("Section " + i);
+                oos.writeObject(sections[i]);
+            }
+        }
+        return out;
+    }
+
+    private static Object[] load(SnapshotJournal journal, int count) throws Exception {
+        try (InputStream in = journal.openLatest();
+            ObjectInputStream ois = new ObjectInputStream(in)) {
+            Object[] result = new Object[count];
+            for (int i = 0; i < count; i++) {
+                result[i] = ois.readObject();
+            }
+            return result;
+        }
+    }
+
+    private static class Node implements Serializable {
+        private static final long serialVersionUID = 1L;
+
+        private String name;
+        private Node owner;
+        private double value;
+
+        Node(String name, Node owner) {
+            this.name = name;
+            this.owner = owner;
+        }
+    }
+}
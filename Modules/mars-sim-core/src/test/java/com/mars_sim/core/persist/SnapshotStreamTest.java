@@ -0,0 +1,148 @@
+package com.mars_sim.core.persist;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.RandomAccessFile;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import junit.framework.TestCase;
+
+/**
+ * Tests the snapshot streams used to save a simulation.
+ */
+public class SnapshotStreamTest extends TestCase {
+
+    private File saveFile;
+
+    @Override
+    public void setUp() throws IOException {
+        saveFile = File.createTempFile("snapshot-test", ".sim");
+    }
+
+    @Override
+    public void tearDown() {
+        if ((saveFile != null) && saveFile.isFile()) {
+            saveFile.delete();
+        }
+    }
+
+    public void testNoneCodec() throws Exception {
+        roundTrip(SaveCodec.NONE);
+    }
+
+    public void testFastCodec() throws Exception {
+        roundTrip(SaveCodec.FAST);
+    }
+
+    public void testXZCodec() throws Exception {
+        roundTrip(SaveCodec.XZ);
+    }
+
+    public void testLegacyDetection() throws Exception {
+        assertFalse("Empty file is not a snapshot", SnapshotFormat.isSnapshot(saveFile));
+    }
+
+    public void testCorruptCodec() throws Exception {
+        try (SectionOutputStream sos = SnapshotFormat.createSnapshot(saveFile, SaveCodec.FAST)) {
+            sos.write(new byte[] {1, 2, 3});
+        }
+
+        // Codec byte follows the magic and version
+        try (RandomAccessFile raf = new RandomAccessFile(saveFile, "rw")) {
+            raf.seek(6);
+            raf.write(0x7F);
+        }
+
+        try (InputStream in = SnapshotFormat.openSnapshot(saveFile)) {
+            fail("Corrupt codec accepted");
+        }
+        catch (IOException e) {
+            assertTrue("Reports the codec", e.getMessage().contains("codec"));
+        }
+    }
+
+    public void testCapture() throws Exception {
+        List<String> names = new ArrayList<>();
+        for (int i = 0; i < 400_000; i++) {
+            names.add("Person " + i);
+        }
+
+        // Capture in memory first and then write it out
+        SnapshotCapture capture = new SnapshotCapture();
+        try (ObjectOutputStream oos = new ObjectOutputStream(capture)) {
+            oos.flush();
+            capture.startSection("Empty");
+            capture.startSection("Names");
+            oos.writeObject(names);
+            oos.flush();
+            capture.startSection("Count");
+            oos.writeInt(names.size());
+            oos.flush();
+        }
+        assertTrue("Capture spans blocks", capture.getRawSize() > SnapshotOutputStream.BLOCK_SIZE);
+
+        try (SnapshotOutputStream sos = SnapshotFormat.createSnapshot(saveFile, SaveCodec.FAST)) {
+            capture.writeTo(sos);
+            sos.close();
+            assertEquals("Raw size", capture.getRawSize(), sos.getRawSize());
+            assertEquals("Sections", capture.getSections(), sos.getSections());
+        }
+
+        try (InputStream in = SnapshotFormat.openSnapshot(saveFile);
+            ObjectInputStream ois = new ObjectInputStream(in)) {
+            assertEquals("Names match", names, ois.readObject());
+            assertEquals("Count", names.size(), ois.readInt());
+        }
+    }
+
+    /**
+     * Writes enough data to span several blocks and checks it reads back.
+     */
+    private void roundTrip(SaveCodec codec) throws Exception {
+        // Mixture of random and repeated data to cover compressible and incompressible blocks
+        Random rnd = new Random(42);
+        byte[] noise = new byte[SnapshotOutputStream.BLOCK_SIZE + 1000];
+        rnd.nextBytes(noise);
+        List<String> names = new ArrayList<>();
+        for (int i = 0; i < 100_000; i++) {
+            names.add("Settlement " + (i % 50));
+        }
+
+        try (SnapshotOutputStream sos = SnapshotFormat.createSnapshot(saveFile, codec);
+            ObjectOutputStream oos = new ObjectOutputStream(sos)) {
+            oos.flush();
+            sos.startSection("Noise");
+            oos.writeObject(noise);
+            oos.flush();
+            sos.startSection("Names");
+            oos.writeObject(names);
+            oos.flush();
+            sos.endSection();
+
+            assertEquals("Sections", 2, sos.getSections().size());
+            assertEquals("First section", "Noise", sos.getSections().get(0).name());
+        }
+
+        assertTrue("File is a snapshot", SnapshotFormat.isSnapshot(saveFile));
+
+        try (InputStream in = SnapshotFormat.openSnapshot(saveFile);
+            ObjectInputStream ois = new ObjectInputStream(in)) {
+            byte[] readNoise = (byte[]) ois.readObject();
+            assertTrue("Noise matches", java.util.Arrays.equals(noise, readNoise));
+
+            @SuppressWarnings("unchecked")
+            List<String> readNames = (List<String>) ois.readObject();
+            assertEquals("Names match", names, readNames);
+
+            assertEquals("End of stream", -1, in.read());
+            List<SnapshotSection> sections = ((SnapshotInputStream) in).getSections();
+            assertEquals("Sections read", 2, sections.size());
+            assertEquals("Second section", "Names", sections.get(1).name());
+        }
+    }
+}
@@ -0,0 +1,105 @@
+package com.mars_sim.core.person.ai.mission;
+
+import java.util.List;
+
+import com.mars_sim.core.AbstractMarsSimUnitTest;
+import com.mars_sim.core.mission.MissionProject;
+import com.mars_sim.core.person.Person;
+
+public class MissionManagerTest extends AbstractMarsSimUnitTest {
+
+    @SuppressWarnings("serial")
+    private static class TestMission extends MissionProject {
+        private MissionPlanning plan;
+        private boolean done = false;
+
+        TestMission(String name, Person leader) {
+            super(name, MissionType.AREOLOGY, 1, 1, 1, leader);
+        }
+
+        @Override
+        public MissionPlanning getPlan() {
+            return plan;
+        }
+
+        @Override
+        public boolean isDone() {
+            return done;
+        }
+
+        @Override
+        public void abortMission(String reason) {
+            done = true;
+        }
+    }
+
+    public void testAddAndQueryBySettlement() {
+        var home = buildSettlement("Home");
+        var other = buildSettlement("Other");
+        var m1 = new TestMission("M1", buildPerson("P1", home));
+        var m2 = new TestMission("M2", buildPerson("P2", other));
+        var m3 = new TestMission("M3", buildPerson("P3", home));
+
+        var mgr = new MissionManager();
+        mgr.addMission(m1);
+        mgr.addMission(m2);
+        mgr.addMission(m3);
+        mgr.addMission(m1);
+
+        assertEquals("All missions in order", List.of(m1, m2, m3), mgr.getMissions());
+        assertEquals("Active missions", 3, mgr.getNumActiveMissions());
+        assertEquals("Home missions", List.of(m1, m3), mgr.getMissionsForSettlement(home));
+        assertEquals("Other missions", List.of(m2), mgr.getMissionsForSettlement(other));
+    }
+
+    public void testPendingFollowsPlan() {
+        var home = buildSettlement("Home");
+        var m1 = new TestMission("M1", buildPerson("P1", home));
+        var m2 = new TestMission("M2", buildPerson("P2", home));
+
+        var mgr = new MissionManager();
+        mgr.addMission(m1);
+        mgr.addMission(m2);
+        assertTrue("No plans", mgr.getPendingMissions(home).isEmpty());
+
+        // Plan is submitted after the mission was added
+        m2.plan = new MissionPlanning(m2, 1);
+        m2.plan.setStatus(PlanType.PENDING);
+        assertEquals("Pending once submitted", List.of(m2), mgr.getPendingMissions(home));
+
+        mgr.approveMissionPlan(m2.plan, PlanType.APPROVED, 0D);
+        assertTrue("Approved not pending", mgr.getPendingMissions(home).isEmpty());
+        assertEquals("Approved still active", List.of(m1, m2), mgr.getMissionsForSettlement(home));
+    }
+
+    public void testRemoveRejected() {
+        var home = buildSettlement("Home");
+        var m1 = new TestMission("M1", buildPerson("P1", home));
+        m1.plan = new MissionPlanning(m1, 1);
+        m1.plan.setStatus(PlanType.PENDING);
+
+        var mgr = new MissionManager();
+        mgr.addMission(m1);
+        assertEquals("Pending", List.of(m1), mgr.getPendingMissions(home));
+
+        mgr.approveMissionPlan(m1.plan, PlanType.NOT_APPROVED, 0D);
+        assertTrue("Rejected removed", mgr.getMissions().isEmpty());
+        assertEquals("No active missions", 0, mgr.getNumActiveMissions());
+        assertTrue("Rejected not in settlement", mgr.getMissionsForSettlement(home).isEmpty());
+        assertTrue("Rejected not pending", mgr.getPendingMissions(home).isEmpty());
+    }
+
+    public void testDoneLeavesSettlement() {
+        var home = buildSettlement("Home");
+        var m1 = new TestMission("M1", buildPerson("P1", home));
+        var m2 = new TestMission("M2", buildPerson("P2", home));
+
+        var mgr = new MissionManager();
+        mgr.addMission(m1);
+        mgr.addMission(m2);
+
+        m1.done = true;
+        assertEquals("Done mission dropped", List.of(m2), mgr.getMissionsForSettlement(home));
+        assertEquals("Done mission still listed", List.of(m1, m2), mgr.getMissions());
+    }
+}
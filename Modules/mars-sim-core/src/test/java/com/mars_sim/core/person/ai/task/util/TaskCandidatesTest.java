@@ -0,0 +1,48 @@
+package com.mars_sim.core.person.ai.task.util;
+
+import com.mars_sim.core.AbstractMarsSimUnitTest;
+import com.mars_sim.core.location.LocationStateType;
+import com.mars_sim.core.person.Person;
+import com.mars_sim.core.time.MarsTime;
+
+public class TaskCandidatesTest extends AbstractMarsSimUnitTest {
+
+    private static final String SHIFT = "Test";
+
+    public void testLocationFilter() {
+        MetaTask workout = MetaTaskUtil.getMetaTask("WORKOUT");
+        assertTrue("Workout in settlement", workout.isApplicableAt(LocationStateType.INSIDE_SETTLEMENT));
+        assertFalse("Workout in vehicle", workout.isApplicableAt(LocationStateType.INSIDE_VEHICLE));
+        assertFalse("Workout outside", workout.isApplicableAt(LocationStateType.MARS_SURFACE));
+
+        MetaTask relax = MetaTaskUtil.getMetaTask("RELAX");
+        assertTrue("Relax in vehicle", relax.isApplicableAt(LocationStateType.INSIDE_VEHICLE));
+        assertFalse("Relax outside", relax.isApplicableAt(LocationStateType.SETTLEMENT_VICINITY));
+    }
+
+    public void testFunctionFilter() {
+        var s = buildSettlement();
+        Person p = buildPerson("Cook", s);
+        MarsTime now = sim.getMasterClock().getMarsTime();
+
+        // Settlement has no kitchen so no cooking
+        var candidates = TaskCandidates.getCandidates(SHIFT, MetaTaskUtil.getDutyHourTasks(), p, now);
+        assertFalse("No cooking without kitchen", candidates.contains(MetaTaskUtil.getMetaTask("COOKMEAL")));
+        assertTrue("Workout in settlement", candidates.contains(MetaTaskUtil.getMetaTask("WORKOUT")));
+        assertTrue("Fewer candidates", candidates.size() < MetaTaskUtil.getDutyHourTasks().size());
+    }
+
+    public void testSharedCandidates() {
+        var s = buildSettlement();
+        Person p1 = buildPerson("First", s);
+        Person p2 = buildPerson("Second", s);
+        MarsTime now = sim.getMasterClock().getMarsTime();
+
+        var candidates1 = TaskCandidates.getCandidates(SHIFT, MetaTaskUtil.getDutyHourTasks(), p1, now);
+        var candidates2 = TaskCandidates.getCandidates(SHIFT, MetaTaskUtil.getDutyHourTasks(), p2, now);
+        assertSame("Same candidates in the same millisol", candidates1, candidates2);
+
+        var candidates3 = TaskCandidates.getCandidates(SHIFT, MetaTaskUtil.getDutyHourTasks(), p1, now.addTime(1));
+        assertNotSame("New candidates in a later millisol", candidates1, candidates3);
+    }
+}
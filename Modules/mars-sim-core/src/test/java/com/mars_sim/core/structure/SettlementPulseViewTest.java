@@ -0,0 +1,57 @@
+/*
+ * Mars Simulation Project
+ * SettlementPulseViewTest.java
+ * @date 2024-06-26
+ * @author Barry Evans
+ */
+package com.mars_sim.core.structure;
+
+import com.mars_sim.core.AbstractMarsSimUnitTest;
+import com.mars_sim.core.resource.ResourceUtil;
+import com.mars_sim.core.structure.building.function.FunctionType;
+import com.mars_sim.mapdata.location.LocalPosition;
+
+/**
+ * Tests the view of a Settlement shared during a pulse.
+ */
+public class SettlementPulseViewTest extends AbstractMarsSimUnitTest {
+
+	public void testContents() {
+		var s = buildSettlement("View", true);
+		var lab = buildResearch(s.getBuildingManager(), LocalPosition.DEFAULT_POSITION, 0D, 1);
+		int rockId = ResourceUtil.rockIDs[0];
+		s.storeAmountResource(rockId, 100D);
+
+		var view = new SettlementPulseView(s, 10);
+		assertEquals("Built on", 10, view.getMissionMSol());
+		assertTrue("Has research", view.hasFunction(FunctionType.RESEARCH));
+		assertTrue("Research building", view.getBuildings(FunctionType.RESEARCH).contains(lab));
+		assertFalse("No observatory", view.hasFunction(FunctionType.ASTRONOMICAL_OBSERVATION));
+		assertEquals("Most rock", 100D, view.getMostRockStored());
+		assertEquals("Entropy", s.getBuildingManager().getTotalEntropyPerLab(), view.getEntropyPerLab());
+	}
+
+	public void testImmutable() {
+		var s = buildSettlement("View", true);
+		int rockId = ResourceUtil.rockIDs[0];
+		s.storeAmountResource(rockId, 100D);
+
+		var view = s.getPulseView();
+		assertSame("View reused", view, s.getPulseView());
+		assertFalse("No research at first read", view.hasFunction(FunctionType.RESEARCH));
+
+		// Later changes are not seen by the view
+		s.storeAmountResource(rockId, 50D);
+		buildResearch(s.getBuildingManager(), LocalPosition.DEFAULT_POSITION, 0D, 1);
+		assertEquals("Rock at start", 100D, view.getMostRockStored());
+		assertFalse("Research list kept", view.hasFunction(FunctionType.RESEARCH));
+
+		try {
+			view.getBuildings(FunctionType.RESEARCH).clear();
+			fail("Building list can be changed");
+		}
+		catch (UnsupportedOperationException e) {
+			// Expected
+		}
+	}
+}
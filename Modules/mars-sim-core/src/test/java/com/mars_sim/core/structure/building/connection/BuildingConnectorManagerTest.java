@@ -222,4 +222,43 @@ public class BuildingConnectorManagerTest extends TestCase {
         assertEquals(1D, nextPath.getPosition().getY(), SMALL_DELTA);
         assertTrue(path3.isEndOfPath());
     }
-}
\ No newline at end of file
+
+    public void testRoutingAfterRemoval() {
+
+        Settlement settlement = new MockSettlement();
+        BuildingManager buildingManager = settlement.getBuildingManager();
+
+        MockBuilding building0 = new MockBuilding(settlement, 0, new BoundedObject(0D, 0D, 9D, 9D, 0D));
+        BuildingTemplate buildingTemplate0 = new BuildingTemplate("0", 0, "building 0", "building 0", new BoundedObject(0D, 0D, 9D, 9D, 0D));
+        buildingTemplate0.addBuildingConnection("2", new LocalPosition(-4.5D, 0D));
+        buildingManager.addBuilding(building0, false);
+
+        MockBuilding building1 = new MockBuilding(settlement, 1, new BoundedObject(-12D, 0D, 6D, 9D, 270D));
+        BuildingTemplate buildingTemplate1 = new BuildingTemplate("1", 0, "building 1", "building 1", new BoundedObject(-12D, 0D, 6D, 9D, 270D));
+        buildingTemplate1.addBuildingConnection("2", new LocalPosition(0D, 4.5D));
+        buildingManager.addBuilding(building1, false);
+
+        MockBuilding building2 = new MockBuilding(settlement, 2, new BoundedObject(-6D, 0D, 2D, 3D, 270D));
+        BuildingTemplate buildingTemplate2 = new BuildingTemplate("2", 0, "building 2", "building 2", new BoundedObject(-6D, 0D, 6D, 9D, 270D));
+        buildingTemplate2.addBuildingConnection("0", new LocalPosition(0D, 1.5D));
+        buildingTemplate2.addBuildingConnection("1", new LocalPosition(0D, -1.5D));
+        buildingManager.addBuilding(building2, false);
+
+        List<BuildingTemplate> buildingTemplates = new ArrayList<BuildingTemplate>();
+        buildingTemplates.add(buildingTemplate0);
+        buildingTemplates.add(buildingTemplate1);
+        buildingTemplates.add(buildingTemplate2);
+
+        BuildingConnectorManager manager = new BuildingConnectorManager(settlement, buildingTemplates);
+        assertTrue(manager.hasValidPath(building0, building1));
+        assertNotNull(manager.determineShortestPath(building0, new LocalPosition(2D, -1D),
+                building1, new LocalPosition(-10D, 1D)));
+
+        // Cutting the middle building must drop the cached route
+        manager.removeAllConnectionsToBuilding(building2);
+        assertFalse(manager.hasValidPath(building0, building1));
+        assertNull(manager.determineShortestPath(building0, new LocalPosition(2D, -1D),
+                building1, new LocalPosition(-10D, 1D)));
+        assertTrue(manager.hasValidPath(building0, building0));
+    }
+}
@@ -0,0 +1,238 @@
+package com.mars_sim.core.structure.building.function;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+
+import com.mars_sim.core.Unit;
+import com.mars_sim.core.equipment.ResourceHolder;
+import com.mars_sim.core.structure.building.ResourceProcessEngine;
+import com.mars_sim.core.structure.building.ResourceProcessSpec;
+
+class ResourceFlowSolverTest {
+
+    private static final int WATER = 1;
+    private static final int OXYGEN = 2;
+    private static final int HYDROGEN = 3;
+    private static final int ICE = 4;
+    private static final int CO2 = 5;
+
+    private static final double DELTA = 0.000001;
+    private static final double TIME = 1D;
+
+    /**
+     * Simple storage with a fixed capacity per resource.
+     */
+    private static class Storage implements ResourceHolder {
+        private final Map<Integer, Double> stored = new HashMap<>();
+        private final double capacity;
+
+        Storage(double capacity) {
+            this.capacity = capacity;
+        }
+
+        @Override
+        public double getAmountResourceStored(int resource) {
+            return stored.getOrDefault(resource, 0D);
+        }
+
+        @Override
+        public double getAllAmountResourceStored(int resource) {
+            return getAmountResourceStored(resource);
+        }
+
+        @Override
+        public double storeAmountResource(int resource, double quantity) {
+            double space = getAmountResourceRemainingCapacity(resource);
+            double stores = Math.min(space, quantity);
+            stored.put(resource, getAmountResourceStored(resource) + stores);
+            return quantity - stores;
+        }
+
+        @Override
+        public double retrieveAmountResource(int resource, double quantity) {
+            double taken = Math.min(getAmountResourceStored(resource), quantity);
+            stored.put(resource, getAmountResourceStored(resource) - taken);
+            return quantity - taken;
+        }
+
+        @Override
+        public double getAmountResourceCapacity(int resource) {
+            return capacity;
+        }
+
+        @Override
+        public double getAmountResourceRemainingCapacity(int resource) {
+            return capacity - getAmountResourceStored(resource);
+        }
+
+        @Override
+        public double getCargoCapacity() {
+            return capacity;
+        }
+
+        @Override
+        public Set<Integer> getAmountResourceIDs() {
+            return stored.keySet();
+        }
+
+        @Override
+        public Set<Integer> getAllAmountResourceIDs() {
+            return stored.keySet();
+        }
+
+        @Override
+        public Unit getHolder() {
+            return null;
+        }
+
+        @Override
+        public boolean hasAmountResourceRemainingCapacity(int resource) {
+            return getAmountResourceRemainingCapacity(resource) > 0D;
+        }
+    }
+
+    private static ResourceProcess createProcess(String name, int input, double inRate, int output, double outRate) {
+        ResourceProcessSpec spec = new ResourceProcessSpec(name, 1D, 100, 10, true);
+        spec.addBaseInputResourceRate(input, inRate, false);
+        spec.addBaseOutputResourceRate(output, outRate, false);
+        return new ResourceProcess(new ResourceProcessEngine(spec, 1));
+    }
+
+    /**
+     * Adds time to the processes until they are all due to run for TIME.
+     */
+    private static void makeDue(List<ResourceProcess> processes) {
+        for (ResourceProcess p : processes) {
+            // Due once 5 pulses worth has built up; runs for the time over that
+            p.addProcessTime(2 * TIME, 1D);
+            p.addProcessTime(TIME / 4, 1D);
+            assertEquals(p.getProcessName() + " is due", TIME, p.getPendingTime(), DELTA);
+        }
+    }
+
+    @Test
+    void testFullRate() {
+        Storage storage = new Storage(1000D);
+        storage.storeAmountResource(WATER, 100D);
+
+        ResourceProcess electrolysis = createProcess("Electrolysis", WATER, 2D, OXYGEN, 1.5D);
+        List<ResourceProcess> processes = List.of(electrolysis);
+        makeDue(processes);
+
+        new ResourceFlowSolver().solve(storage, processes);
+
+        assertEquals("Water used", 98D, storage.getAmountResourceStored(WATER), DELTA);
+        assertEquals("Oxygen made", 1.5D, storage.getAmountResourceStored(OXYGEN), DELTA);
+        assertEquals("Full production", 1D, electrolysis.getCurrentProductionLevel(), DELTA);
+        assertTrue("Still running", electrolysis.isProcessRunning());
+        assertEquals("Not due", 0D, electrolysis.getPendingTime(), DELTA);
+    }
+
+    @Test
+    void testSharedInput() {
+        Storage storage = new Storage(1000D);
+        storage.storeAmountResource(WATER, 3D);
+
+        // Both want 2 kg of water but only 3 kg is there
+        ResourceProcess oxygen = createProcess("Oxygen", WATER, 2D, OXYGEN, 2D);
+        ResourceProcess hydrogen = createProcess("Hydrogen", WATER, 2D, HYDROGEN, 1D);
+        List<ResourceProcess> processes = List.of(oxygen, hydrogen);
+        makeDue(processes);
+
+        new ResourceFlowSolver().solve(storage, processes);
+
+        assertEquals("Water used up", 0D, storage.getAmountResourceStored(WATER), DELTA);
+        assertEquals("Oxygen made", 1.5D, storage.getAmountResourceStored(OXYGEN), DELTA);
+        assertEquals("Hydrogen made", .75D, storage.getAmountResourceStored(HYDROGEN), DELTA);
+        for (ResourceProcess p : processes) {
+            assertEquals(p.getProcessName() + " fair share", .75D, p.getCurrentProductionLevel(), DELTA);
+            assertFalse(p.getProcessName() + " stopped", p.isProcessRunning());
+        }
+    }
+
+    @Test
+    void testOutputFull() {
+        Storage storage = new Storage(10D);
+        storage.storeAmountResource(ICE, 10D);
+        storage.storeAmountResource(WATER, 9D);
+
+        ResourceProcess melt = createProcess("Melt Ice", ICE, 4D, WATER, 4D);
+        List<ResourceProcess> processes = List.of(melt);
+        makeDue(processes);
+
+        new ResourceFlowSolver().solve(storage, processes);
+
+        assertEquals("Water full", 10D, storage.getAmountResourceStored(WATER), DELTA);
+        assertEquals("Ice used", 9D, storage.getAmountResourceStored(ICE), DELTA);
+        assertEquals("Limited by space", .25D, melt.getCurrentProductionLevel(), DELTA);
+        assertFalse("Stopped", melt.isProcessRunning());
+    }
+
+    private static List<ResourceProcess> createChain() {
+        List<ResourceProcess> processes = new ArrayList<>();
+        processes.add(createProcess("A", WATER, 3D, OXYGEN, 1D));
+        processes.add(createProcess("B", OXYGEN, 1D, CO2, 1D));
+        processes.add(createProcess("C", WATER, 1D, HYDROGEN, 2D));
+        return processes;
+    }
+
+    @Test
+    void testOrderIndependent() {
+        List<ResourceProcess> processes = createChain();
+        Storage forward = new Storage(1000D);
+        forward.storeAmountResource(WATER, 2D);
+        forward.storeAmountResource(OXYGEN, 5D);
+        makeDue(processes);
+        new ResourceFlowSolver().solve(forward, processes);
+
+        // New processes as the time left over stays built up in the first ones
+        Storage reverse = new Storage(1000D);
+        reverse.storeAmountResource(WATER, 2D);
+        reverse.storeAmountResource(OXYGEN, 5D);
+        List<ResourceProcess> reversed = createChain();
+        Collections.reverse(reversed);
+        makeDue(reversed);
+        new ResourceFlowSolver().solve(reverse, reversed);
+
+        for (int resource : List.of(WATER, OXYGEN, HYDROGEN, CO2)) {
+            assertEquals("Resource " + resource, forward.getAmountResourceStored(resource),
+                         reverse.getAmountResourceStored(resource), DELTA);
+        }
+        // Oxygen made by A is not used by B in the same pulse
+        assertEquals("Oxygen", 5D - 1D + .5D, forward.getAmountResourceStored(OXYGEN), DELTA);
+    }
+
+    @Test
+    void testRunsTimeOverCheckPeriod() {
+        ResourceProcess p = createProcess("Electrolysis", WATER, 2D, OXYGEN, 1.5D);
+        p.addProcessTime(TIME, 1D);
+        assertEquals("Not due yet", 0D, p.getPendingTime(), DELTA);
+
+        // 1.1 x TIME built up against a check period of 5 x .1 x TIME
+        p.addProcessTime(TIME / 10, 1D);
+        assertEquals("Time over the check period", .6D * TIME, p.getPendingTime(), DELTA);
+    }
+
+    @Test
+    void testNotDue() {
+        Storage storage = new Storage(1000D);
+        storage.storeAmountResource(WATER, 100D);
+
+        ResourceProcess p = createProcess("Electrolysis", WATER, 2D, OXYGEN, 1.5D);
+        p.addProcessTime(TIME, 1D);
+
+        new ResourceFlowSolver().solve(storage, List.of(p));
+
+        assertEquals("Water untouched", 100D, storage.getAmountResourceStored(WATER), DELTA);
+    }
+}
@@ -0,0 +1,97 @@
+package com.mars_sim.core.tool;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.file.Files;
+import java.util.Map;
+
+import org.apache.commons.io.FileUtils;
+import org.jdom2.Document;
+import org.jdom2.Element;
+import org.jdom2.output.XMLOutputter;
+import org.junit.jupiter.api.Test;
+
+class DocumentCacheTest {
+
+    private static final String NAME = "sample";
+
+    private static Document createDocument() {
+        Element root = new Element("root");
+        root.setAttribute("version", "1");
+        for (int i = 0; i < 5; i++) {
+            Element child = new Element("item");
+            child.setAttribute("name", "Item " + i);
+            child.setAttribute("value", Double.toString(i * 1.5));
+            child.addContent("Text \u00e9 " + i);
+            child.addContent(new Element("empty"));
+            root.addContent(child);
+        }
+        // Longer than writeUTF allows
+        root.addContent(new Element("long").addContent("x".repeat(70000)));
+        return new Document(root);
+    }
+
+    private static File createSource(File dir, String content) throws IOException {
+        File source = new File(dir, NAME + ".xml");
+        try (PrintWriter writer = new PrintWriter(source)) {
+            writer.println(content);
+        }
+        return source;
+    }
+
+    @Test
+    void testRoundTrip() throws IOException {
+        File output = Files.createTempDirectory("cache").toFile();
+        try {
+            File source = createSource(output, "<root/>");
+            File cacheFile = new File(output, "documents.cache");
+            Document doc = createDocument();
+
+            new DocumentCache(cacheFile, Map.of(NAME, source)).save(Map.of(NAME, doc));
+
+            Map<String, Document> loaded = new DocumentCache(cacheFile, Map.of(NAME, source)).load();
+            assertNotNull("Documents loaded", loaded);
+
+            XMLOutputter outputter = new XMLOutputter();
+            assertEquals("Same document", outputter.outputString(doc), outputter.outputString(loaded.get(NAME)));
+        }
+        finally {
+            FileUtils.deleteDirectory(output);
+        }
+    }
+
+    @Test
+    void testChangedSource() throws IOException {
+        File output = Files.createTempDirectory("cache").toFile();
+        try {
+            File source = createSource(output, "<root/>");
+            File cacheFile = new File(output, "documents.cache");
+
+            new DocumentCache(cacheFile, Map.of(NAME, source)).save(Map.of(NAME, createDocument()));
+
+            createSource(output, "<root changed='true'/>");
+            assertNull("Changed source", new DocumentCache(cacheFile, Map.of(NAME, source)).load());
+        }
+        finally {
+            FileUtils.deleteDirectory(output);
+        }
+    }
+
+    @Test
+    void testMissingCache() throws IOException {
+        File output = Files.createTempDirectory("cache").toFile();
+        try {
+            File source = createSource(output, "<root/>");
+            File cacheFile = new File(output, "documents.cache");
+            assertNull("No cache", new DocumentCache(cacheFile, Map.of(NAME, source)).load());
+        }
+        finally {
+            FileUtils.deleteDirectory(output);
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package com.mars_sim.mapdata;
+
+import java.awt.geom.Point2D;
+import java.io.File;
+import java.io.IOException;
+import java.util.Random;
+
+import junit.framework.TestCase;
+
+/**
+ * Unit test suite for the GlobeRenderer class.
+ */
+public class GlobeRendererTest extends TestCase {
+
+    private static final double TWO_PI = Math.PI * 2;
+    private static final int TEX_WIDTH = 360;
+    private static final int TEX_HEIGHT = 180;
+
+    private static int[] createTexture() {
+        Random rnd = new Random(7);
+        int[] texture = new int[TEX_WIDTH * TEX_HEIGHT];
+        for (int i = 0; i < texture.length; i++) {
+            texture[i] = rnd.nextInt();
+        }
+        return texture;
+    }
+
+    private File cache;
+    private MapTilePyramid pyramid;
+
+    @Override
+    public void setUp() throws IOException {
+        cache = File.createTempFile("globe", MapTilePyramid.CACHE_SUFFIX);
+        MapTilePyramid.write(createTexture(), TEX_WIDTH, TEX_HEIGHT, 0L, 0L, cache);
+        pyramid = new MapTilePyramid(cache, new MapTilePyramid.TileCache(MapTilePyramid.DEFAULT_TILE_BUDGET));
+    }
+
+    @Override
+    public void tearDown() throws IOException {
+        pyramid.close();
+        cache.delete();
+    }
+
+    /**
+     * The pixel rendered by working out each location on its own.
+     */
+    private static int expectedPixel(GlobeRenderer renderer, int level, double x, double y,
+                                        double centerPhi, double centerTheta, double rho) {
+        if ((x * x) + (y * y) > rho * rho) {
+            return GlobeRenderer.BACKGROUND;
+        }
+        Point2D loc = IntegerMapData.convertRectToSpherical(x, y, centerPhi, centerTheta, rho);
+        double phi = loc.getX();
+        double theta = loc.getY();
+        while (theta > TWO_PI)
+            theta -= TWO_PI;
+        while (theta < 0)
+            theta += TWO_PI;
+        return renderer.lookup(level, phi, theta);
+    }
+
+    public void testMatchesPerPixelProjection() {
+        GlobeRenderer renderer = new GlobeRenderer(pyramid);
+
+        int width = 150;
+        int height = 120;
+        double [][] views = {{Math.PI/2, 0D, 80D}, {0.4, 5.9, 200D}, {2.8, 3.1, 50D}, {1.2, 0.5, 20D}};
+        for (double [] view : views) {
+            int[] out = new int[width * height];
+            renderer.render(view[0], view[1], view[2], out, width, height);
+            int level = renderer.selectLevel(view[2]);
+
+            int mismatches = 0;
+            for (int y = 0; y < height; y++) {
+                for (int x = 0; x < width; x++) {
+                    int expected = expectedPixel(renderer, level, x - width/2, y - height/2, view[0], view[1], view[2]);
+                    if (expected != out[x + y * width]) {
+                        mismatches++;
+                    }
+                }
+            }
+
+            // Only rounding on the edge of a texture pixel may differ
+            assertTrue("Mismatched pixels " + mismatches, mismatches < (width * height) / 200);
+        }
+    }
+
+    public void testSelectLevel() {
+        GlobeRenderer renderer = new GlobeRenderer(pyramid);
+
+        // Full size texture has 180/PI pixels per radian
+        assertEquals("Zoomed in", 0, renderer.selectLevel(200D));
+        assertEquals("Texture scale", 0, renderer.selectLevel(TEX_HEIGHT / Math.PI));
+        assertEquals("Zoomed out", 1, renderer.selectLevel(20D));
+        assertEquals("Smallest level", pyramid.getLevels() - 1, renderer.selectLevel(1D));
+    }
+}
@@ -0,0 +1,119 @@
+package com.mars_sim.mapdata;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Random;
+
+import junit.framework.TestCase;
+
+/**
+ * Unit test suite for the MapTilePyramid class.
+ */
+public class MapTilePyramidTest extends TestCase {
+
+    // Not a multiple of the tile size so the edge tiles are partial
+    private static final int WIDTH = 700;
+    private static final int HEIGHT = 350;
+
+    private File cache;
+    private int[] pixels;
+
+    @Override
+    public void setUp() throws IOException {
+        Random rnd = new Random(11);
+        pixels = new int[WIDTH * HEIGHT];
+        for (int i = 0; i < pixels.length; i++) {
+            pixels[i] = rnd.nextInt();
+        }
+
+        cache = File.createTempFile("pyramid", MapTilePyramid.CACHE_SUFFIX);
+        MapTilePyramid.write(pixels, WIDTH, HEIGHT, 123L, 456L, cache);
+    }
+
+    @Override
+    public void tearDown() {
+        cache.delete();
+    }
+
+    public void testLevels() throws IOException {
+        try (MapTilePyramid pyramid = new MapTilePyramid(cache, new MapTilePyramid.TileCache(4))) {
+            assertEquals("Levels", 3, pyramid.getLevels());
+            assertEquals("Level 0 width", WIDTH, pyramid.getWidth(0));
+            assertEquals("Level 1 width", 350, pyramid.getWidth(1));
+            assertEquals("Level 2 width", 175, pyramid.getWidth(2));
+            assertEquals("Level 2 height", 88, pyramid.getHeight(2));
+        }
+    }
+
+    public void testFullSizePixels() throws IOException {
+        try (MapTilePyramid pyramid = new MapTilePyramid(cache, new MapTilePyramid.TileCache(4))) {
+            MapTilePyramid.TileReader reader = pyramid.newReader();
+            for (int r = 0; r < HEIGHT; r++) {
+                for (int c = 0; c < WIDTH; c++) {
+                    int expected = pixels[(r * WIDTH) + c];
+                    assertEquals("Reader pixel " + r + "," + c, expected, reader.getPixel(0, r, c));
+                }
+            }
+            assertEquals("Last pixel", pixels[pixels.length - 1], pyramid.getPixel(0, HEIGHT - 1, WIDTH - 1));
+        }
+    }
+
+    public void testDownsampledPixels() throws IOException {
+        int[] level1 = MapTilePyramid.downsample(pixels, WIDTH, HEIGHT);
+        int[] level2 = MapTilePyramid.downsample(level1, 350, 175);
+
+        try (MapTilePyramid pyramid = new MapTilePyramid(cache, new MapTilePyramid.TileCache(4))) {
+            assertEquals("Level 1 pixel", level1[(10 * 350) + 20], pyramid.getPixel(1, 10, 20));
+            // Odd last row is averaged with itself
+            assertEquals("Level 2 pixel", level2[(87 * 175) + 174], pyramid.getPixel(2, 87, 174));
+        }
+    }
+
+    public void testAverage() {
+        int[] block = {0xFF000000, 0xFF0000FF, 0xFF00FF00, 0xFFFF0000};
+        int[] result = MapTilePyramid.downsample(block, 2, 2);
+        assertEquals("Average colour", 0xFF404040, result[0]);
+    }
+
+    public void testTileBudget() throws IOException {
+        MapTilePyramid.TileCache tiles = new MapTilePyramid.TileCache(2);
+        try (MapTilePyramid pyramid = new MapTilePyramid(cache, tiles)) {
+            pyramid.getPixel(0, 0, 0);
+            pyramid.getPixel(0, 0, 300);
+            pyramid.getPixel(0, 300, 0);
+            pyramid.getPixel(0, 300, 600);
+            assertEquals("Tiles held", 2, tiles.size());
+        }
+        assertEquals("Tiles dropped on close", 0, tiles.size());
+    }
+
+    public void testSharedBudget() throws IOException {
+        MapTilePyramid.TileCache tiles = new MapTilePyramid.TileCache(3);
+        try (MapTilePyramid first = new MapTilePyramid(cache, tiles);
+                MapTilePyramid second = new MapTilePyramid(cache, tiles)) {
+            first.getPixel(0, 0, 0);
+            first.getPixel(0, 0, 300);
+            second.getPixel(0, 0, 0);
+            second.getPixel(0, 300, 0);
+            assertEquals("Tiles held by both", 3, tiles.size());
+            assertEquals("Same pixel", first.getPixel(0, 10, 10), second.getPixel(0, 10, 10));
+
+            second.close();
+            assertEquals("Tiles of the first", 1, tiles.size());
+        }
+    }
+
+    public void testIsCurrent() throws IOException {
+        File image = File.createTempFile("pyramid", ".png");
+        try {
+            assertFalse("Different image", MapTilePyramid.isCurrent(cache, image));
+
+            MapTilePyramid.write(pixels, WIDTH, HEIGHT, image.length(), image.lastModified(), cache);
+            assertTrue("Same image", MapTilePyramid.isCurrent(cache, image));
+            assertFalse("Missing cache", MapTilePyramid.isCurrent(new File(cache.getPath() + ".none"), image));
+        }
+        finally {
+            image.delete();
+        }
+    }
+}
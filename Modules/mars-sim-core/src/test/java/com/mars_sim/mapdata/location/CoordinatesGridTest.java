@@ -0,0 +1,92 @@
+package com.mars_sim.mapdata.location;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import junit.framework.TestCase;
+
+/**
+ * Unit test suite for the CoordinatesGrid class.
+ */
+public class CoordinatesGridTest extends TestCase {
+
+    private List<Coordinates> createPoints(CoordinatesGrid<Coordinates> grid, int count) {
+        Random rnd = new Random(42);
+        List<Coordinates> points = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            Coordinates c = new Coordinates(rnd.nextDouble() * Math.PI, rnd.nextDouble() * 2 * Math.PI);
+            points.add(c);
+            grid.add(c, c);
+        }
+        return points;
+    }
+
+    public void testFindWithinMatchesScan() {
+        CoordinatesGrid<Coordinates> grid = new CoordinatesGrid<>();
+        List<Coordinates> points = createPoints(grid, 5000);
+        assertEquals("Size", 5000, grid.size());
+
+        // Include centres near the poles and across zero longitude
+        Coordinates [] centers = {new Coordinates(Math.PI/2, 0.01), new Coordinates(0.02, 1D),
+                                  new Coordinates(Math.PI - 0.05, 3D), new Coordinates(1D, 6.27)};
+        double [] ranges = {50D, 300D, 1500D};
+        for (Coordinates center : centers) {
+            for (double range : ranges) {
+                Set<Coordinates> expected = new HashSet<>();
+                for (Coordinates c : points) {
+                    if (center.getDistance(c) <= range) {
+                        expected.add(c);
+                    }
+                }
+                Set<Coordinates> found = new HashSet<>(grid.findWithin(center, range));
+                assertEquals("Points within " + range + " of " + center, expected, found);
+            }
+        }
+    }
+
+    public void testGetInBox() {
+        CoordinatesGrid<Coordinates> grid = new CoordinatesGrid<>();
+        List<Coordinates> points = createPoints(grid, 2000);
+
+        double minPhi = 1D;
+        double maxPhi = 1.2D;
+        double minTheta = 2D;
+        double maxTheta = 2.3D;
+        List<Coordinates> found = grid.getInBox(minPhi, maxPhi, minTheta, maxTheta);
+        for (Coordinates c : points) {
+            if ((c.getPhi() > minPhi) && (c.getPhi() < maxPhi)
+                    && (c.getTheta() > minTheta) && (c.getTheta() < maxTheta)) {
+                assertTrue("Box contains " + c, found.contains(c));
+            }
+        }
+    }
+
+    public void testFindNearestMatchesScan() {
+        CoordinatesGrid<Coordinates> grid = new CoordinatesGrid<>();
+        List<Coordinates> points = createPoints(grid, 300);
+
+        Coordinates [] centers = {new Coordinates(Math.PI/2, 0.01), new Coordinates(0.02, 1D)};
+        for (Coordinates center : centers) {
+            List<Coordinates> expected = new ArrayList<>(points);
+            expected.sort((a, b) -> Double.compare(center.getDistance(a), center.getDistance(b)));
+
+            List<Coordinates> found = grid.findNearest(center, 5);
+            assertEquals("Nearest count", 5, found.size());
+            assertEquals("Nearest to " + center, expected.subList(0, 5), found);
+        }
+
+        assertEquals("More than held", 300, grid.findNearest(centers[0], 1000).size());
+    }
+
+    public void testRemove() {
+        CoordinatesGrid<Coordinates> grid = new CoordinatesGrid<>();
+        Coordinates c = new Coordinates(1D, 1D);
+        grid.add(c, c);
+        assertTrue("Removed", grid.remove(c, c));
+        assertFalse("Already removed", grid.remove(c, c));
+        assertTrue("Nothing found", grid.findWithin(c, 10D).isEmpty());
+    }
+}
@@ -0,0 +1,68 @@
+package com.mars_sim.mapdata.megdr;
+
+import junit.framework.TestCase;
+
+/**
+ * Unit test suite for the MEGDRCachedReader class.
+ */
+public class MEGDRCachedReaderTest extends TestCase {
+
+    /**
+     * Reader where every sample is derived from its index.
+     */
+    private static class TestReader extends MEGDRCachedReader {
+        private int loads = 0;
+
+        TestReader(int maxBlocks, short width, short height) {
+            super(maxBlocks);
+            setSize(width, height);
+        }
+
+        @Override
+        protected short loadElevation(int index) {
+            loads++;
+            return (short) (index % 30000);
+        }
+    }
+
+    public void testBlockLoad() {
+        TestReader reader = new TestReader(4, (short) 200, (short) 100);
+
+        assertEquals("First sample", 10, reader.getElevation(10));
+        assertEquals("Whole block loaded on a miss", MEGDRCachedReader.BLOCK_SIZE, reader.loads);
+
+        // Neighbouring samples are hits
+        for (int i = 0; i < 100; i++) {
+            assertEquals("Sample " + i, i, reader.getElevation(i));
+        }
+        assertEquals("No more loads", MEGDRCachedReader.BLOCK_SIZE, reader.loads);
+        assertEquals("Requests", 101, reader.getRequests());
+        assertEquals("Hit rate", 100D/101D, reader.getHitRate(), 0.00001D);
+    }
+
+    public void testPartialLastBlock() {
+        TestReader reader = new TestReader(4, (short) 200, (short) 100);
+
+        int last = 200 * 100 - 1;
+        assertEquals("Last sample", last, reader.getElevation(last));
+        assertEquals("Partial block", (200 * 100) % MEGDRCachedReader.BLOCK_SIZE, reader.loads);
+    }
+
+    public void testEviction() {
+        TestReader reader = new TestReader(2, (short) 400, (short) 200);
+
+        // Touch more blocks than the cache holds
+        for (int b = 0; b < 6; b++) {
+            int index = b * MEGDRCachedReader.BLOCK_SIZE + 5;
+            assertEquals("Block " + b, index, reader.getElevation(index));
+        }
+        assertEquals("All blocks loaded", 6 * MEGDRCachedReader.BLOCK_SIZE, reader.loads);
+
+        // Only 2 blocks are held so at least 4 must be reloaded; values stay correct
+        for (int b = 0; b < 6; b++) {
+            int index = b * MEGDRCachedReader.BLOCK_SIZE + 7;
+            assertEquals("Reloaded block " + b, index, reader.getElevation(index));
+        }
+        assertTrue("Evicted blocks reloaded", reader.loads >= 10 * MEGDRCachedReader.BLOCK_SIZE);
+    }
+}
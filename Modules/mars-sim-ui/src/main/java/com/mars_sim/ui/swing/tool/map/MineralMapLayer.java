@@ -13,36 +13,56 @@ import java.awt.Graphics;
 import java.awt.Graphics2D;
 import java.awt.geom.Point2D;
 import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.HashSet;
-import java.util.Iterator;
 import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
 
 import com.mars_sim.core.Simulation;
 import com.mars_sim.core.environment.MineralMap;
+import com.mars_sim.core.environment.MineralRaster;
 import com.mars_sim.core.tool.SimulationConstants;
+import com.mars_sim.mapdata.IntegerMapData;
 import com.mars_sim.mapdata.location.Coordinates;
+import com.mars_sim.mapdata.location.IntPoint;
 import com.mars_sim.mapdata.map.Map;
 import com.mars_sim.mapdata.map.MapLayer;
 
 /**
  * A map layer showing mineral concentrations.
+ * The overlay is sampled from the {@link MineralRaster} of each mineral shown, with the rows
+ * shared out across the ForkJoin common pool. When the map is only panned the previous
+ * overlay is shifted and just the strips that come into view are worked out; once the
+ * shifts add up to more than {@link #MAX_DRIFT} pixels the whole overlay is redone, as a
+ * shift is only exact near the center of the globe.
+ * Each sample fills a 2 by 2 block starting on an even row and column, so the overlay is
+ * only ever shifted by an even number of pixels; an odd pixel is carried to the next shift.
  */
 public class MineralMapLayer implements MapLayer, SimulationConstants {
 
+	/** Rows rendered by one task without splitting further. */
+	private static final int ROWS_PER_TASK = 32;
+	/** Pixels the overlay may be shifted by before it is worked out again. */
+	private static final int MAX_DRIFT = 48;
+
 	// Domain members
 	private boolean updateLayer;
 
-	private int numMineralsCache;
+	private int drift;
+	/** Part of the pan not yet applied to the overlay; 0 or 1 pixel each way. */
+	private int lagX;
+	private int lagY;
 
 	private double rhoCache;
 	
-	private double centerX = Map.HALF_MAP_BOX;
-	private double centerY = Map.HALF_MAP_BOX;
-	
 	private String mapTypeCache;
 	
-	private int[] mineralArrayCache;
+	private int[] mineralArray;
+
+	private MineralRaster[] rastersCache;
 
 	private Component displayComponent;
 	
@@ -70,6 +90,12 @@ public class MineralMapLayer implements MapLayer, SimulationConstants {
 		mineralColors = getMineralColors();
 	}
 	
+	/**
+	 * The minerals being drawn and the view they are drawn for.
+	 */
+	private record Overlay(MineralRaster[] rasters, int[] colors, Coordinates center,
+						   double rho, int[] pixels) {}
+
 	/**
 	 * Displays the layer on the map image.
 	 * 
@@ -83,195 +109,214 @@ public class MineralMapLayer implements MapLayer, SimulationConstants {
 			return;
 		}
 
-		boolean isChanging = ((MapPanel)displayComponent).isChanging();
-		
 		double rho = baseMap.getRho();
-		
-		if (isChanging) {
-			return;	
-		}
-
-		Graphics2D g2d = (Graphics2D) g;
-		
 		String mapType = baseMap.getMapMetaData().getMapString();
-		
-		int numMinerals = mineralsDisplaySet.size();
+		double mag = baseMap.getMagnification();
 
-		if (mapCenterCache == null || !mapCenter.equals(mapCenterCache) || !mapType.equals(mapTypeCache) 
-				|| updateLayer || rhoCache != rho || numMineralsCache != numMinerals) {
-			
-			Point2D point = null;
-			int deltaX = 0;
-			int deltaY = 0;
-			
-			// if rho has changed, it's not meaningful to calculate deltaX and deltaY 
-			// since the scale is no longer the same
-			if (mapCenterCache != null) {
-				point = Coordinates.computeDeltaPixels(mapCenterCache, mapCenter, Map.MAP_BOX_HEIGHT / 2.0);
-				deltaX = (int)point.getX();
-				deltaY = (int)point.getY();
-			}
-			
-			mapTypeCache = mapType;
-			updateLayer = false;
-			
-			int[] newMineralArray = new int[Map.MAP_BOX_WIDTH * Map.MAP_BOX_HEIGHT];
-
-			double mag = baseMap.getMagnification();
-	
-			boolean hasMinerals = false;
-			
-//			boolean redo = false;
-			
-			for (int x = 0; x < Map.MAP_BOX_WIDTH; x = x + 2) {
-				
-				for (int y = 0; y < Map.MAP_BOX_HEIGHT; y = y + 2) {
-						
-					// Do NOT delete the following line of codes
-//					if (mapCenterCache == null || rho != rhoCache || numMineralsCache != numMinerals) {
-					
-						java.util.Map<String, Double> mineralConcentrations = 
-							mineralMap.getSomeMineralConcentrations(
-										mineralsDisplaySet, 
-										mapCenter.convertRectToSpherical(x - centerX, y - centerY, rho), 
-										mag);
-						hasMinerals = true;
-//					}
-					
-					// Do NOT delete the following blocks of codes						
-					// Would save a lot of CPU util if one is able to put mineralArrayCache to work	
-						
-//					else {
-//						
-//						if (mapCenterCache != null && mineralArrayCache != null && rho == rhoCache && (deltaX > 0 || deltaY > 0)) {
-//
-//							if (deltaX <= 0 && deltaY <= 0 && x >= deltaX && y >= deltaY) {
-//								logger.info(10_000L, "case 1");
-//								int i = x - deltaX;
-//								int j = y - deltaY;
-////								int index = (x - deltaX) + (y * Map.MAP_BOX_WIDTH - deltaY);
-//								// Shift the portion of the old x and y values from the old mineralConcentrationArray
-//								newMineralArray[x] = mineralArrayCache[i + j];		
-//								hasMinerals = true;
-//							}
-//							else if (deltaX >= 0 && deltaY >= 0 && x <= Map.MAP_BOX_WIDTH - deltaX && y <= Map.MAP_BOX_HEIGHT - deltaY) {
-//								logger.info(10_000L, "case 2");
-//								int i = x;
-//								int j = y;
-////								int index = x + (y * Map.MAP_BOX_WIDTH);
-//								// Shift the portion of the old x and y values from the old mineralConcentrationArray
-//								newMineralArray[x] = mineralArrayCache[i + j];		
-//								hasMinerals = true;
-//							}
-//							else if (deltaX >= 0 && deltaY <= 0 && x <= Map.MAP_BOX_WIDTH - deltaX && y >= deltaY) {
-//								logger.info(10_000L, "case 3");
-//								int i = x;
-//								int j = y - deltaY;
-////								int index = x + (y * Map.MAP_BOX_WIDTH - deltaY);
-//								// Shift the portion of the old x and y values from the old mineralConcentrationArray
-//								newMineralArray[x] = mineralArrayCache[i + j];	
-//								hasMinerals = true;
-//							}
-//							else if (deltaX <= 0 && deltaY >= 0 && x >= deltaX && y <= Map.MAP_BOX_HEIGHT - deltaY) {
-//								logger.info(10_000L, "case 4");
-//								int i = x - deltaX;
-//								int j = y;
-////								int index = (x - deltaX) + (y * Map.MAP_BOX_WIDTH);
-//								// Shift the portion of the old x and y values from the old mineralConcentrationArray
-//								newMineralArray[x] = mineralArrayCache[i + j];		
-//								hasMinerals = true;
-//							}
-//							else {
-//								mineralConcentrations = mineralMap
-//									.getSomeMineralConcentrations(mineralsDisplaySet, mapCenter.convertRectToSpherical(x - centerX, y - centerY, rho), mag);
-//							}
-//						}
-//						else {
-//							mineralConcentrations = mineralMap
-//								.getSomeMineralConcentrations(mineralsDisplaySet, mapCenter.convertRectToSpherical(x - centerX, y - centerY, rho), mag);
-//						}
-//					}
-						
-					if (mineralConcentrations != null && !mineralConcentrations.isEmpty()) {
-		
-						Iterator<String> i = mineralConcentrations.keySet().iterator();
-						while (i.hasNext()) {
-							String mineralType = i.next();
-							if (isMineralDisplayed(mineralType)) {
-	//							logger.info(mineralType + " is being drawn.");
-								double concentration = mineralConcentrations.get(mineralType);
-								if (concentration <= 0) {
-									continue;
-								}
-								Color baseColor = mineralColors.get(mineralType);
-								int index = x + (y * Map.MAP_BOX_WIDTH);
-								addColorToMineralConcentrationArray(index, baseColor, concentration, newMineralArray);
-								addColorToMineralConcentrationArray((index + 1), baseColor, concentration, newMineralArray);
-								if (y < Map.MAP_BOX_HEIGHT - 1) {
-									int indexNextLine = x + ((y + 1) * Map.MAP_BOX_WIDTH);
-									addColorToMineralConcentrationArray(indexNextLine, baseColor, concentration, newMineralArray);
-									addColorToMineralConcentrationArray((indexNextLine + 1), baseColor,
-											concentration, newMineralArray);
-								}
-							}
-						}
-						
-						hasMinerals = true;
-					}
-				}
-			}
-			
-			mapCenterCache = mapCenter;
-			
-			if (hasMinerals)
-				mineralArrayCache = newMineralArray;
-			
-			numMineralsCache = numMinerals;
+		// Rasters are replaced when the deposits change so they show if a redraw is needed
+		MineralRaster[] rasters = new MineralRaster[mineralsDisplaySet.size()];
+		int[] colors = new int[rasters.length];
+		int m = 0;
+		for (String mineralType : mineralsDisplaySet) {
+			rasters[m] = mineralMap.getMineralRaster(mineralType, mag);
+			colors[m++] = mineralColors.get(mineralType).getRGB() & 0x00FFFFFF;
+		}
 
-			rhoCache = rho;
-			
-			// Create a new buffered image to draw the map on.
+		if (mineralImage == null) {
 			mineralImage = new BufferedImage(Map.MAP_BOX_WIDTH, Map.MAP_BOX_HEIGHT, 
 	 				BufferedImage.TYPE_INT_ARGB);
-	 		
-	 		// Create new map image.
-			mineralImage.setRGB(0, 0, Map.MAP_BOX_WIDTH, Map.MAP_BOX_HEIGHT, newMineralArray, 0, Map.MAP_BOX_WIDTH);
-	
-//			// Create mineral concentration image
-//			mineralImage = displayComponent.createImage(new MemoryImageSource(Map.MAP_BOX_WIDTH,
-//					Map.MAP_BOX_HEIGHT, mineralConcentrationArray, 0, Map.MAP_BOX_WIDTH));
-//
-//			MediaTracker mt = new MediaTracker(displayComponent);
-//			mt.addImage(mineralImage, 0);
-//			try {
-//				mt.waitForID(0);
-//			} catch (InterruptedException e) {
-//				logger.log(Level.SEVERE, "MineralMapLayer interrupted: " + e);
-//				// Restore interrupted state
-//			    Thread.currentThread().interrupt();
-//			}
+			mineralArray = ((DataBufferInt) mineralImage.getRaster().getDataBuffer()).getData();
+			mapCenterCache = null;
+		}
 
+		Overlay overlay = new Overlay(rasters, colors, mapCenter, rho, mineralArray);
+		boolean sameView = (mapCenterCache != null) && !updateLayer && mapType.equals(mapTypeCache)
+							&& (rhoCache == rho) && Arrays.equals(rasters, rastersCache);
+
+		if (!sameView) {
+			renderAll(overlay);
 		}
+		else if (!mapCenter.equals(mapCenterCache)) {
+			// Where the old center is now drawn gives the shift
+			IntPoint oldCenter = mapCenter.findRectPosition(mapCenterCache.getPhi(), mapCenterCache.getTheta(),
+												rho, Map.HALF_MAP_BOX, 0);
+			int panX = oldCenter.getiX() - Map.HALF_MAP_BOX + lagX;
+			int panY = oldCenter.getiY() - Map.HALF_MAP_BOX + lagY;
+			int dx = panX & ~1;
+			int dy = panY & ~1;
+			lagX = panX - dx;
+			lagY = panY - dy;
+			drift += Math.abs(dx) + Math.abs(dy);
+
+			if (drift > MAX_DRIFT) {
+				renderAll(overlay);
+			}
+			else {
+				shiftPixels(dx, dy);
+				renderExposed(overlay, dx, dy);
+			}
+		}
+
+		mapCenterCache = mapCenter;
+		mapTypeCache = mapType;
+		rhoCache = rho;
+		rastersCache = rasters;
+		updateLayer = false;
 		
 		// Draw the mineral concentration image
-		g2d.drawImage(mineralImage, 0, 0, displayComponent);
-			
-		// Do not call dispose
-//		g2d.dispose();
+		((Graphics2D) g).drawImage(mineralImage, 0, 0, displayComponent);
 	}
 
 	/**
-	 * Adds a color to the mineral concentration array.
+	 * Works out the whole overlay.
+	 */
+	private void renderAll(Overlay overlay) {
+		Arrays.fill(mineralArray, 0);
+		renderRegion(overlay, 0, 0, Map.MAP_BOX_WIDTH, Map.MAP_BOX_HEIGHT);
+		drift = 0;
+		lagX = 0;
+		lagY = 0;
+	}
+
+	/**
+	 * Moves the overlay pixels by an offset; the strips left behind are cleared.
 	 * 
-	 * @param index         the index of the pixel in the array.
-	 * @param color         the mineral color.
-	 * @param concentration the amount of concentration (0% - 100.0%).
+	 * @param dx
+	 * @param dy
+	 */
+	private void shiftPixels(int dx, int dy) {
+		int w = Map.MAP_BOX_WIDTH;
+		int h = Map.MAP_BOX_HEIGHT;
+		int length = w - Math.abs(dx);
+		int srcX = Math.max(0, -dx);
+		int destX = Math.max(0, dx);
+
+		// Copy in an order that never overwrites a row before it is read
+		if (dy > 0) {
+			for (int y = h - 1; y >= dy; y--) {
+				System.arraycopy(mineralArray, ((y - dy) * w) + srcX, mineralArray, (y * w) + destX, length);
+			}
+			Arrays.fill(mineralArray, 0, dy * w, 0);
+		}
+		else {
+			for (int y = 0; y < h + dy; y++) {
+				System.arraycopy(mineralArray, ((y - dy) * w) + srcX, mineralArray, (y * w) + destX, length);
+			}
+			Arrays.fill(mineralArray, (h + dy) * w, h * w, 0);
+		}
+
+		int clearFrom = (dx > 0) ? 0 : w + dx;
+		int clearTo = (dx > 0) ? dx : w;
+		for (int y = 0; y < h; y++) {
+			Arrays.fill(mineralArray, (y * w) + clearFrom, (y * w) + clearTo, 0);
+		}
+	}
+
+	/**
+	 * Works out the strips that came into view after a shift.
+	 */
+	private void renderExposed(Overlay overlay, int dx, int dy) {
+		int w = Map.MAP_BOX_WIDTH;
+		int h = Map.MAP_BOX_HEIGHT;
+
+		// Rows across the whole width
+		int rowFrom = (dy > 0) ? 0 : h + dy;
+		int rowTo = (dy > 0) ? dy : h;
+		renderRegion(overlay, 0, rowFrom, w, rowTo);
+
+		// Columns for the rest of the rows
+		int colFrom = (dx > 0) ? 0 : w + dx;
+		int colTo = (dx > 0) ? dx : w;
+		renderRegion(overlay, colFrom, Math.max(0, dy), colTo, Math.min(h, h + dy));
+	}
+
+	/**
+	 * Works out a rectangle of the overlay, sharing the rows out over the common pool.
 	 */
-	private void addColorToMineralConcentrationArray(int index, Color color, double concentration, int[] newMineralArray) {
-		int concentrationInt = (int) (255 * (concentration / 100D));
-		int concentrationColor = (concentrationInt << 24) | (color.getRGB() & 0x00FFFFFF);
-		int currentColor = newMineralArray[index];
-		newMineralArray[index] = currentColor | concentrationColor;
+	private void renderRegion(Overlay overlay, int x0, int y0, int x1, int y1) {
+		if ((x1 <= x0) || (y1 <= y0)) {
+			return;
+		}
+		if (y1 - y0 <= ROWS_PER_TASK) {
+			renderRows(overlay, x0, y0, x1, y1);
+		}
+		else {
+			ForkJoinPool.commonPool().invoke(new RowBand(overlay, x0, y0, x1, y1));
+		}
+	}
+
+	/**
+	 * Renders a band of rows, splitting it in two if large.
+	 */
+	@SuppressWarnings("serial")
+	private class RowBand extends RecursiveAction {
+		private final Overlay overlay;
+		private final int x0;
+		private final int y0;
+		private final int x1;
+		private final int y1;
+
+		RowBand(Overlay overlay, int x0, int y0, int x1, int y1) {
+			this.overlay = overlay;
+			this.x0 = x0;
+			this.y0 = y0;
+			this.x1 = x1;
+			this.y1 = y1;
+		}
+
+		@Override
+		protected void compute() {
+			if (y1 - y0 <= ROWS_PER_TASK) {
+				renderRows(overlay, x0, y0, x1, y1);
+			}
+			else {
+				// Keep the split on an even row so the 2 by 2 samples line up
+				int mid = ((y0 + y1) >>> 1) & ~1;
+				invokeAll(new RowBand(overlay, x0, y0, x1, mid), new RowBand(overlay, x0, mid, x1, y1));
+			}
+		}
+	}
+
+	/**
+	 * Samples every other pixel of a rectangle and fills the 2 by 2 block around it.
+	 * Samples are taken on the even rows and columns of the whole overlay, whatever the
+	 * rectangle, so blocks worked out separately line up.
+	 */
+	private static void renderRows(Overlay overlay, int x0, int y0, int x1, int y1) {
+		MineralRaster[] rasters = overlay.rasters();
+		int[] colors = overlay.colors();
+		int[] pixels = overlay.pixels();
+		double centerPhi = overlay.center().getPhi();
+		double centerTheta = overlay.center().getTheta();
+
+		for (int y = y0 & ~1; y < y1; y += 2) {
+			for (int x = x0 & ~1; x < x1; x += 2) {
+				Point2D loc = IntegerMapData.convertRectToSpherical((double) x - Map.HALF_MAP_BOX,
+							(double) y - Map.HALF_MAP_BOX, centerPhi, centerTheta, overlay.rho());
+				double phi = loc.getX();
+				double theta = loc.getY();
+				if (Double.isNaN(phi) || Double.isNaN(theta)) {
+					// Off the globe
+					continue;
+				}
+
+				int argb = 0;
+				for (int m = 0; m < rasters.length; m++) {
+					int conc = rasters[m].getScaledConcentration(phi, theta);
+					if (conc > 0) {
+						argb |= (conc << 24) | colors[m];
+					}
+				}
+
+				if (argb != 0) {
+					for (int by = Math.max(y, y0); by < Math.min(y + 2, y1); by++) {
+						for (int bx = Math.max(x, x0); bx < Math.min(x + 2, x1); bx++) {
+							pixels[(by * Map.MAP_BOX_WIDTH) + bx] = argb;
+						}
+					}
+				}
+			}
+		}
 	}
 
 	/**
@@ -363,6 +408,8 @@ public class MineralMapLayer implements MapLayer, SimulationConstants {
 
 		displayComponent = null;
 		mineralImage = null;
+		mineralArray = null;
+		rastersCache = null;
 		mapCenterCache = null;
 		mineralMap = null;
 		mineralsDisplaySet.clear();
@@ -13,11 +13,11 @@ import java.util.Set;
 
 import javax.swing.SwingUtilities;
 
+import com.mars_sim.core.BatchedUnitListener;
 import com.mars_sim.core.Entity;
 import com.mars_sim.core.Unit;
 import com.mars_sim.core.UnitEvent;
 import com.mars_sim.core.UnitEventType;
-import com.mars_sim.core.UnitListener;
 import com.mars_sim.core.person.ai.task.util.SettlementTask;
 import com.mars_sim.core.structure.Settlement;
 import com.mars_sim.tools.Msg;
@@ -30,7 +30,7 @@ import com.mars_sim.ui.swing.utils.RatingScoreRenderer;
  */
 @SuppressWarnings("serial")
 public class BacklogTableModel extends AbstractMonitorModel
-					implements UnitListener {
+					implements BatchedUnitListener {
 	// Represents a row in the table
 	private record BacklogEntry(Settlement owner, SettlementTask task) implements Serializable {}
 
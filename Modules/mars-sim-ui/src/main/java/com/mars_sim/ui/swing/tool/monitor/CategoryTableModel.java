@@ -12,7 +12,7 @@ import java.util.Collections;
 import java.util.List;
 import java.util.Set;
 
-import com.mars_sim.core.UnitListener;
+import com.mars_sim.core.BatchedUnitListener;
 import com.mars_sim.core.structure.Settlement;
 import com.mars_sim.ui.swing.utils.ColumnSpec;
 
@@ -23,7 +23,7 @@ import com.mars_sim.ui.swing.utils.ColumnSpec;
  */
 @SuppressWarnings("serial")
 public abstract class CategoryTableModel<T> extends EntityTableModel<CategoryKey<T>>
-            implements UnitListener {
+            implements BatchedUnitListener {
 
     private Set<Settlement> selectedSettlements = Collections.emptySet();
 	private boolean monitorSettlement = false;
@@ -7,12 +7,17 @@
 package com.mars_sim.ui.swing.tool.monitor;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import javax.swing.SwingUtilities;
 
@@ -24,7 +29,9 @@ import com.mars_sim.ui.swing.utils.ColumnSpec;
  * by the sub implementation.
  * The class provides the ability to cache specific columns in a backing store to reduce the
  * computation effort.
- * 
+ * Changes are not sent to the table as they happen; they are collected and applied once per
+ * frame by the {@link RefreshScheduler} as a few row range updates. The columns that are not
+ * cached are polled on the same thread so the UI Thread only reads values already calculated.
  */
 @SuppressWarnings("serial")
 public abstract class EntityTableModel<T> extends AbstractMonitorModel {
@@ -35,6 +42,21 @@ public abstract class EntityTableModel<T> extends AbstractMonitorModel {
     private Set<Integer> cachedColumns;
     private boolean fireEnabled;
 
+    /** Maximum row ranges fired in one frame before the rows are sent as a single range. */
+    private static final int MAX_RANGES = 8;
+    /** Live values of a row that has not been polled yet. */
+    private static final Object[] NOT_POLLED = new Object[0];
+
+    /** Entities changed since the last frame with the columns changed. */
+    private Map<T, BitSet> dirty = new ConcurrentHashMap<>();
+    /** Rows shown by the table; null if not known. */
+    private volatile Set<T> visibleEntities = null;
+    /** Values of the columns that are not cached, indexed by column. Replaced, never changed. */
+    private Map<T, Object[]> liveValues = new ConcurrentHashMap<>();
+    private AtomicBoolean framePending = new AtomicBoolean(false);
+    private volatile boolean scheduled = false;
+    private volatile boolean destroyed = false;
+
     /**
 	 * Constructor.
 	 *
@@ -67,7 +89,8 @@ public abstract class EntityTableModel<T> extends AbstractMonitorModel {
     }
 
     protected void resetCache() {
-        rowCache = new HashMap<>();   
+        // Filled by the UI Thread and the refresh thread
+        rowCache = new ConcurrentHashMap<>();
     }
 
     /**
@@ -121,8 +144,10 @@ public abstract class EntityTableModel<T> extends AbstractMonitorModel {
 
         if (rowCache != null) {
             // Add the data row now
-            rowCache.put(newEntity, new HashMap<>());
+            rowCache.put(newEntity, Collections.synchronizedMap(new HashMap<>()));
         }
+        liveValues.put(newEntity, NOT_POLLED);
+        schedule();
 
         if (fireEnabled) {
             int idx = entities.indexOf(newEntity);
@@ -153,6 +178,7 @@ public abstract class EntityTableModel<T> extends AbstractMonitorModel {
         if (rowCache != null) {
             rowCache.remove(oldEntity);
         }
+        liveValues.remove(oldEntity);
 
         if (fireEnabled) {
             fireTableRowsDeleted(idx, idx);
@@ -208,7 +234,7 @@ public abstract class EntityTableModel<T> extends AbstractMonitorModel {
 
     /**
      * Gets a value for a particular cell. This may come from a cached value
-     * if the column is one of the cached columns.
+     * if the column is one of the cached columns, otherwise from the last poll of the row.
      * 
      * @param rowIndex
      * @param columnIndex
@@ -229,6 +255,12 @@ public abstract class EntityTableModel<T> extends AbstractMonitorModel {
                 return cachedValue;
             }
         }
+        else {
+            Object[] live = liveValues.get(entity);
+            if ((live != null) && (columnIndex < live.length)) {
+                return live[columnIndex];
+            }
+        }
 
         // Get the value direct from the entity
         Object result = getEntityValue(entity, columnIndex);
@@ -251,59 +283,203 @@ public abstract class EntityTableModel<T> extends AbstractMonitorModel {
     }
 
     private void setCacheValue(T entity, int columnIndex, Object value) {
-        rowCache.computeIfAbsent(entity, k -> new HashMap<Integer,Object>()).put(columnIndex, value);
+        rowCache.computeIfAbsent(entity, k -> Collections.synchronizedMap(new HashMap<Integer,Object>()))
+                    .put(columnIndex, value);
     }
 
     /**
      * Updates a range of column values that have been changed. 
-     * This will recalculate any cached columns if needed
-     * and always fire a model change event asynchronously.
+     * The change is only recorded; the next frame will recalculate any cached columns
+     * and fire a model change event.
      * 
      * @param entity
      * @param firstCol
      * @param lastCol
      */
 	protected void entityValueUpdated(T entity, int firstCol, int lastCol) {
-        int rowIndex = entities.indexOf(entity);
-        if (rowIndex < 0) {
+        if (destroyed) {
+            return;
+        }
+        dirty.compute(entity, (k, cols) -> {
+            if (cols == null) {
+                cols = new BitSet();
+            }
+            cols.set(firstCol, lastCol + 1);
+            return cols;
+        });
+
+        schedule();
+    }
+
+    /**
+     * Registers with the RefreshScheduler unless already registered or destroyed.
+     */
+    private void schedule() {
+        if (!scheduled && !destroyed) {
+            scheduled = true;
+            RefreshScheduler.register(this);
+        }
+    }
+
+    /**
+     * Sets the rows currently shown by the table. Changes to other rows are applied less often.
+     * 
+     * @param modelRows Indexes of the rows in the model
+     */
+    void setVisibleRows(int[] modelRows) {
+        Set<T> visible = new HashSet<>();
+        for (int r : modelRows) {
+            T entity = getEntity(r);
+            if (entity != null) {
+                visible.add(entity);
+            }
+        }
+        visibleEntities = visible;
+    }
+
+    /**
+     * Applies the changes collected since the last frame and polls the columns that are not
+     * cached. This is called on the refresh thread so the values are calculated away from
+     * the UI Thread; the table is then updated in the UI Thread. Nothing is done if the
+     * table has not caught up with the last frame.
+     * 
+     * @param includeHidden Also apply changes to rows that are not visible
+     */
+    void refreshFrame(boolean includeHidden) {
+        if (destroyed) {
+            // Registered again by a late change
+            RefreshScheduler.unregister(this);
             return;
         }
+        if (!framePending.compareAndSet(false, true)) {
+            return;
+        }
+
+        boolean fired = false;
+        try {
+            Set<T> visible = visibleEntities;
+            Set<T> changed = new HashSet<>();
+            for (T entity : dirty.keySet()) {
+                if (!includeHidden && (visible != null) && !visible.contains(entity)) {
+                    // Leave it for a later frame
+                    continue;
+                }
+
+                BitSet cols = dirty.remove(entity);
+                if (cols != null) {
+                    Map<Integer, Object> rowValues = (rowCache != null ? rowCache.get(entity) : null);
+                    if (rowValues != null) {
+                        for (int i = cols.nextSetBit(0); i >= 0; i = cols.nextSetBit(i + 1)) {
+                            if (cachedColumns.contains(i)) {
+                                rowValues.put(i, getEntityValue(entity, i));
+                            }
+                        }
+                    }
+                    pollLiveValues(entity);
+                    changed.add(entity);
+                }
+            }
 
-        for(int i = firstCol; i<= lastCol; i++) {
-            if (cachedColumns.contains(i)) {
-                // Recalculate cached value in this Thread to avoid problem
-                // with calculating derived values in the UI Thread
-                Object newValue = getEntityValue(entity, i);
-                Object cachedValue = getCacheValue(entity, i);
-                if ((cachedValue == null) || !cachedValue.equals(newValue)) {
-                    setCacheValue(entity, i, getEntityValue(entity, i));
+            Collection<T> polled = (includeHidden ? liveValues.keySet()
+                                    : (visible != null ? visible : Collections.emptySet()));
+            for (T entity : polled) {
+                if (!changed.contains(entity) && pollLiveValues(entity)) {
+                    changed.add(entity);
                 }
             }
 
-            // Fire the cell update in the background thread
-            SwingUtilities.invokeLater(new TableCellUpdater(rowIndex, i));
+            if (!changed.isEmpty()) {
+                SwingUtilities.invokeLater(() -> fireRowsUpdated(changed));
+                fired = true;
+            }
+        }
+        finally {
+            // Otherwise cleared once the table has been updated
+            if (!fired) {
+                framePending.set(false);
+            }
         }
     }
 
     /**
-     * Gets the real value of this entity for a specific column. This implementation
-     * may involve expensive calculations.
+     * Recalculates the columns of a row that are not cached.
+     * 
+     * @param entity
+     * @return Has any value changed ?
      */
-    protected abstract Object getEntityValue(T entity, int column);
+    private boolean pollLiveValues(T entity) {
+        Object[] old = liveValues.get(entity);
+        if (old == null) {
+            // Row has been removed
+            return false;
+        }
 
-    private class TableCellUpdater implements Runnable {
+        int count = getColumnCount();
+        Object[] values = new Object[count];
+        for (int i = 0; i < count; i++) {
+            if (!cachedColumns.contains(i)) {
+                values[i] = getEntityValue(entity, i);
+            }
+        }
+        if (Arrays.equals(old, values)) {
+            return false;
+        }
 
-        private int colIndex;
-        private int rowIndex;
+        // Do not add back a row removed meanwhile
+        return liveValues.replace(entity, old, values);
+    }
 
-        public TableCellUpdater(int rowIndex, int colIndex) {
-            this.rowIndex = rowIndex;
-            this.colIndex = colIndex;
-        }
+    /**
+     * Fires the updates for the changed entities as ranges of adjacent rows.
+     * 
+     * @param changed
+     */
+    private void fireRowsUpdated(Set<T> changed) {
+        try {
+            List<int[]> ranges = new ArrayList<>();
+            int[] current = null;
+            for (int r = 0; r < entities.size(); r++) {
+                if (changed.contains(entities.get(r))) {
+                    if ((current != null) && (current[1] == r - 1)) {
+                        current[1] = r;
+                    }
+                    else {
+                        current = new int[] {r, r};
+                        ranges.add(current);
+                    }
+                }
+            }
 
-        @Override
-        public void run() {
-            fireTableCellUpdated(rowIndex, colIndex);
+            if (ranges.size() > MAX_RANGES) {
+                // Too fragmented so send one range covering them all
+                fireTableRowsUpdated(ranges.get(0)[0], ranges.get(ranges.size() - 1)[1]);
+            }
+            else {
+                for (int[] range : ranges) {
+                    fireTableRowsUpdated(range[0], range[1]);
+                }
+            }
         }
+        finally {
+            framePending.set(false);
+        }
+    }
+
+    /**
+     * Gets the real value of this entity for a specific column. This implementation
+     * may involve expensive calculations.
+     */
+    protected abstract Object getEntityValue(T entity, int column);
+
+    /**
+     * Stops the refresh of the table.
+     */
+    @Override
+    public void destroy() {
+        destroyed = true;
+        super.destroy();
+        RefreshScheduler.unregister(this);
+        dirty.clear();
+        liveValues.clear();
     }
 }
@@ -0,0 +1,88 @@
+/*
+ * Mars Simulation Project
+ * RefreshScheduler.java
+ * @date 2024-07-02
+ * @author Barry Evans
+ */
+package com.mars_sim.ui.swing.tool.monitor;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import com.mars_sim.core.logging.SimLogger;
+
+/**
+ * Paces the refresh of the EntityTableModels. A single background thread ticks at a fixed
+ * frame rate and asks each registered model to apply the changes collected since the last frame.
+ * Rows that are not visible are only refreshed every few frames.
+ */
+final class RefreshScheduler {
+
+	private static final SimLogger logger = SimLogger.getLogger(RefreshScheduler.class.getName());
+
+	/** Milliseconds between frames. */
+	static final long FRAME_PERIOD = 100;
+	/** Number of frames between refreshes of rows that are not visible. */
+	static final int HIDDEN_FRAMES = 10;
+
+	private static final Set<EntityTableModel<?>> models = ConcurrentHashMap.newKeySet();
+	private static ScheduledExecutorService ticker;
+	private static long frame = 0;
+
+	/**
+	 * Private constructor for utility class.
+	 */
+	private RefreshScheduler() {
+	}
+
+	/**
+	 * Adds a model to be refreshed; starts the frame thread if needed.
+	 *
+	 * @param model
+	 */
+	static synchronized void register(EntityTableModel<?> model) {
+		models.add(model);
+		if (ticker == null) {
+			ticker = Executors.newSingleThreadScheduledExecutor(r -> {
+				Thread t = new Thread(r, "table-refresh");
+				t.setDaemon(true);
+				return t;
+			});
+			ticker.scheduleAtFixedRate(RefreshScheduler::tick, FRAME_PERIOD, FRAME_PERIOD,
+										TimeUnit.MILLISECONDS);
+		}
+	}
+
+	/**
+	 * Removes a model; stops the frame thread when there are no more.
+	 *
+	 * @param model
+	 */
+	static synchronized void unregister(EntityTableModel<?> model) {
+		models.remove(model);
+		if (models.isEmpty() && (ticker != null)) {
+			ticker.shutdownNow();
+			ticker = null;
+		}
+	}
+
+	/**
+	 * Runs one frame on the background thread.
+	 */
+	private static void tick() {
+		frame++;
+		boolean includeHidden = (frame % HIDDEN_FRAMES) == 0;
+		for (EntityTableModel<?> m : models) {
+			try {
+				m.refreshFrame(includeHidden);
+			}
+			catch (RuntimeException rte) {
+				// Must not escape or the ticker stops
+				logger.severe("Problem refreshing table " + m.getName(), rte);
+			}
+		}
+	}
+}
@@ -8,6 +8,8 @@ package com.mars_sim.ui.swing.tool.monitor;
 
 import java.awt.BorderLayout;
 import java.awt.Component;
+import java.awt.Point;
+import java.awt.Rectangle;
 import java.awt.event.MouseAdapter;
 import java.awt.event.MouseEvent;
 import java.beans.PropertyVetoException;
@@ -124,12 +126,48 @@ abstract class TableTab extends MonitorTab {
 
 		add(scroller, BorderLayout.CENTER);
 
+		// Tell the model which rows are on show so the others are refreshed less often
+		if (model instanceof EntityTableModel<?> em) {
+			scroller.getViewport().addChangeListener(e -> updateVisibleRows(em));
+			sorter.addRowSorterListener(e -> updateVisibleRows(em));
+		}
+
 		setName(model.getName());
 
 		// Use column resizer
 		adjustColumnWidth(table);
 	}
 
+	/**
+	 * Passes the model rows currently visible in the scroll pane to the model.
+	 *
+	 * @param model
+	 */
+	private void updateVisibleRows(EntityTableModel<?> model) {
+		if (table == null) {
+			return;
+		}
+
+		int[] rows = new int[0];
+		Rectangle view = table.getVisibleRect();
+		if (!view.isEmpty() && (table.getRowCount() > 0)) {
+			int first = table.rowAtPoint(view.getLocation());
+			int last = table.rowAtPoint(new Point(view.x, view.y + view.height - 1));
+			if (first < 0) {
+				first = 0;
+			}
+			if (last < 0) {
+				// Table is shorter than the view
+				last = table.getRowCount() - 1;
+			}
+			rows = new int[last - first + 1];
+			for (int i = 0; i < rows.length; i++) {
+				rows[i] = table.convertRowIndexToModel(first + i);
+			}
+		}
+		model.setVisibleRows(rows);
+	}
+
 	public JTable getTable() {
 		return table;
 	}
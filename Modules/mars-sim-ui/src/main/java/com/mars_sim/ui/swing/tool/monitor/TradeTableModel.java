@@ -6,6 +6,8 @@
  */
 package com.mars_sim.ui.swing.tool.monitor;
 
+import java.util.Collection;
+
 import com.mars_sim.core.CollectionUtils;
 import com.mars_sim.core.Unit;
 import com.mars_sim.core.UnitEvent;
@@ -89,12 +91,20 @@ public class TradeTableModel extends CategoryTableModel<Good> {
 	public void unitUpdate(UnitEvent event) {
 		Unit unit = (Unit) event.getSource();
 		UnitEventType eventType = event.getType();
-		if ((eventType == UnitEventType.GOODS_VALUE_EVENT
-			|| eventType == UnitEventType.FOOD_EVENT)
-			&& event.getTarget() instanceof Good g
-			&& unit instanceof Settlement s) {
-				entityValueUpdated(new CategoryKey<>(s, g), NUM_INITIAL_COLUMNS, COLUMNCOUNT-1);
+		if (!(unit instanceof Settlement s)) {
+			return;
+		}
+		if ((eventType == UnitEventType.GOODS_VALUE_EVENT)
+			&& event.getTarget() instanceof Collection<?> goods) {
+			// The goods revalued together
+			for (Object o : goods) {
+				entityValueUpdated(new CategoryKey<>(s, (Good) o), NUM_INITIAL_COLUMNS, COLUMNCOUNT-1);
 			}
+		}
+		else if ((eventType == UnitEventType.FOOD_EVENT)
+			&& event.getTarget() instanceof Good g) {
+			entityValueUpdated(new CategoryKey<>(s, g), NUM_INITIAL_COLUMNS, COLUMNCOUNT-1);
+		}
 	}
 
 	/**
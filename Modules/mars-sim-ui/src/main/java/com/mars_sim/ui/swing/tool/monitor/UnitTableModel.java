@@ -6,9 +6,9 @@
  */
 package com.mars_sim.ui.swing.tool.monitor;
 
+import com.mars_sim.core.BatchedUnitListener;
 import com.mars_sim.core.Simulation;
 import com.mars_sim.core.Unit;
-import com.mars_sim.core.UnitListener;
 import com.mars_sim.core.UnitManager;
 import com.mars_sim.core.UnitManagerEvent;
 import com.mars_sim.core.UnitManagerListener;
@@ -21,7 +21,7 @@ import com.mars_sim.ui.swing.utils.ColumnSpec;
  */
 @SuppressWarnings("serial")
 public abstract class UnitTableModel<T extends Unit> extends EntityTableModel<T>
-		implements UnitListener {
+		implements BatchedUnitListener {
 
 	/**
 	 * UnitManagerListener inner class.
@@ -48,6 +48,9 @@ public abstract class UnitTableModel<T extends Unit> extends EntityTableModel<T>
 		}
 	}
 
+	/** Most unit events taken from one dispatcher batch; the rest wait for the next. */
+	private static final int MAX_EVENTS_PER_BATCH = 500;
+
 	private UnitManagerListener umListener;
 
 	private UnitType unitType;
@@ -127,6 +130,14 @@ public abstract class UnitTableModel<T extends Unit> extends EntityTableModel<T>
 		oldUnit.removeUnitListener(this);
 	}
 
+	/**
+	 * Limits the events taken per batch so a busy table does not hold up the dispatcher.
+	 */
+	@Override
+	public int getMaxEventsPerBatch() {
+		return MAX_EVENTS_PER_BATCH;
+	}
+
 	/**
 	 * Prepares the model for deletion.
 	 */